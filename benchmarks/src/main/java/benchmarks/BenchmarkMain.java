@@ -0,0 +1,29 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Entry point of the benchmark jar. Runs JMH with the GC profiler on, so every run reports
+ * allocation rates alongside timings, unless another profiler is asked for.
+ *
+ *   java -jar benchmarks/target/benchmarks.jar [JMH options] [benchmark regex]
+ */
+public final class BenchmarkMain {
+    /**
+     * Run JMH.
+     *
+     * @param args - JMH command line options
+     * @throws Exception If JMH fails
+     */
+    public static void main(String[] args) throws Exception {
+        ArrayList<String> options = new ArrayList<>(Arrays.asList(args));
+        if (!options.contains("-prof") && !options.contains("-h") && !options.contains("-l")) {
+            options.add(0, "-prof");
+            options.add(1, "gc");
+        }
+        org.openjdk.jmh.Main.main(options.toArray(new String[0]));
+    }
+
+    private BenchmarkMain() {}
+}
@@ -0,0 +1,73 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import logging.LogLevel;
+import logging.LogRecord;
+import logging.format.ColorFormatter;
+import logging.format.Formatter;
+
+/**
+ * Cost of rendering a record, one template field at a time and with the default template.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FormatterBenchmark {
+    @Param({
+        "{time}", "{level}", "{levelNumber}", "{name}", "{message}",
+        "{filepath}", "{filename}", "{line}", "{fields}",
+        "{time} [{level}] {name} - {message}",
+    })
+    public String template;
+
+    private Formatter formatter;
+    private ColorFormatter colorFormatter;
+    private LogRecord record;
+    private final StringBuilder builder = new StringBuilder(256);
+
+    /**
+     * Set up both formatters and a record with a location.
+     */
+    @Setup
+    public void setUp() {
+        formatter = new Formatter(template);
+        colorFormatter = new ColorFormatter(template);
+        StackTraceElement site = new StackTraceElement("benchmarks.FormatterBenchmark", "setUp", "FormatterBenchmark.java", 52);
+        record = new LogRecord(
+            "Request {} took {} ms", new Object[] {12345, 42}, LogLevel.INFO, "bench.formatter", System.currentTimeMillis(), site
+        );
+    }
+
+    @Benchmark
+    public String format() {
+        return formatter.format(record);
+    }
+
+    @Benchmark
+    public StringBuilder formatTo() {
+        builder.setLength(0);
+        formatter.formatTo(record, builder);
+        return builder;
+    }
+
+    @Benchmark
+    public String colorFormat() {
+        return colorFormatter.format(record);
+    }
+}
@@ -0,0 +1,49 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import logging.LogLevel;
+import logging.LogRecord;
+
+/**
+ * Cost of resolving where a record was logged from.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LogRecordBenchmark {
+    private LogRecord record;
+
+    /**
+     * Set up a record logged from this class.
+     */
+    @Setup
+    public void setUp() {
+        StackTraceElement site = new StackTraceElement("benchmarks.LogRecordBenchmark", "setUp", "LogRecordBenchmark.java", 36);
+        record = new LogRecord("message", LogLevel.INFO, "bench", System.currentTimeMillis(), site);
+    }
+
+    @Benchmark
+    public String filepath() {
+        return record.filepath();
+    }
+
+    @Benchmark
+    public String filename() {
+        return record.filename();
+    }
+}
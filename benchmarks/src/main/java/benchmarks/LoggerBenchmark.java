@@ -0,0 +1,97 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import logging.LogLevel;
+import logging.Logger;
+
+/**
+ * Cost of a log call, from the level check through formatting to an Output that drops everything.
+ *
+ * The filtered benchmarks log below the base level and should be close to free.
+ * The contended ones run the same calls from several threads against one Logger.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoggerBenchmark {
+    @Param({"true", "false"})
+    public boolean locationCapture;
+
+    @Param({"false", "true"})
+    public boolean garbageFree;
+
+    private Logger logger;
+    private NullOutput output;
+    private int counter;
+
+    /**
+     * Set up a Logger at LogLevel.INFO writing to a NullOutput.
+     */
+    @Setup
+    public void setUp() {
+        output = new NullOutput();
+        logger = new Logger("bench", LogLevel.INFO);
+        logger.addOutput(output);
+        if (!locationCapture) {
+            logger.disableLocationCapture();
+        }
+        if (garbageFree) {
+            logger.enableGarbageFree();
+        }
+    }
+
+    @Benchmark
+    public long enabled() {
+        logger.info("Static message");
+        return output.sent();
+    }
+
+    @Benchmark
+    public long enabledParameterized() {
+        logger.info("Request {} took {} ms", counter++, 42);
+        return output.sent();
+    }
+
+    @Benchmark
+    public long filtered() {
+        logger.debug("Static message");
+        return output.sent();
+    }
+
+    @Benchmark
+    public long filteredParameterized() {
+        logger.debug("Request {} took {} ms", counter, 42);
+        return output.sent();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long enabledContended() {
+        logger.info("Static message");
+        return output.sent();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long filteredContended() {
+        logger.debug("Static message");
+        return output.sent();
+    }
+}
@@ -0,0 +1,53 @@
+package benchmarks;
+
+import logging.LogRecord;
+import logging.output.Output;
+
+/**
+ * Output that drops everything, so benchmarks measure the Logger rather than any I/O.
+ */
+final class NullOutput extends Output {
+    // Read by the benchmarks so the JIT can't drop the sends
+    private long sent;
+
+    /**
+     * Count a message and drop it.
+     *
+     * @param message - Message to drop
+     * @return true
+     */
+    @Override
+    public boolean send(String message) {
+        sent += message.length();
+        return true;
+    }
+
+    /**
+     * Count a message and drop it, without turning it into a String first.
+     *
+     * @param message - Message to drop
+     * @param record - LogRecord the message was formatted from
+     * @return true
+     */
+    @Override
+    public boolean send(CharSequence message, LogRecord record) {
+        sent += message.length();
+        return true;
+    }
+
+    /**
+     * Get the total length of the messages sent so far.
+     *
+     * @return Number of chars sent
+     */
+    long sent() {
+        return sent;
+    }
+
+    /**
+     * Initialize a NullOutput.
+     */
+    NullOutput() {
+        super(null);
+    }
+}
@@ -0,0 +1,87 @@
+package benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import logging.output.FileOutput;
+import logging.output.StreamOutput;
+
+/**
+ * Throughput of writing already formatted messages, from one thread and from several.
+ *
+ * StreamOutput writes to a stream that discards everything, so it measures the Output itself.
+ * FileOutput writes to a temporary file that is deleted afterwards.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OutputBenchmark {
+    private static final String MESSAGE = "12:34:56 [INFO] bench.output - Request 12345 took 42 ms\n";
+
+    private StreamOutput streamOutput;
+    private FileOutput fileOutput;
+    private File file;
+
+    /**
+     * Open both Outputs.
+     *
+     * @throws IOException If the temporary file can't be created
+     */
+    @Setup
+    public void setUp() throws IOException {
+        streamOutput = new StreamOutput(new PrintStream(OutputStream.nullOutputStream()));
+        file = File.createTempFile("logging-bench", ".log");
+        fileOutput = new FileOutput(file.getPath());
+    }
+
+    /**
+     * Close both Outputs and delete the temporary file.
+     */
+    @TearDown
+    public void tearDown() {
+        streamOutput.close();
+        fileOutput.close();
+        file.delete();
+    }
+
+    @Benchmark
+    public boolean stream() {
+        return streamOutput.send(MESSAGE);
+    }
+
+    @Benchmark
+    public boolean file() {
+        return fileOutput.send(MESSAGE);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean streamContended() {
+        return streamOutput.send(MESSAGE);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean fileContended() {
+        return fileOutput.send(MESSAGE);
+    }
+}
@@ -0,0 +1,188 @@
+package logging;
+
+import logging.async.RingBuffer;
+import logging.async.RingConsumer;
+import logging.async.WaitStrategy;
+import logging.format.Formatter;
+
+/**
+ * A Logger that formats and sends its records on a background thread.
+ *
+ * Logging threads only capture the LogRecord and claim a slot in a preallocated
+ * RingBuffer; a single consumer thread runs the Formatters and Outputs.
+ * Any records still in the buffer are written out when the AsyncLogger is shut down,
+ * either explicitly or when the JVM exits.
+ */
+public final class AsyncLogger extends Logger implements AutoCloseable {
+    public static final int DEFAULT_CAPACITY = 8192;
+    public static final WaitStrategy DEFAULT_WAIT_STRATEGY = WaitStrategy.BLOCKING;
+
+    private final RingBuffer<Slot> ring;
+    private final RingConsumer<Slot> consumer;
+
+    // Mutable holder preallocated for each slot of the RingBuffer
+    private static final class Slot {
+        private LogRecord record;
+        // Reused records from garbage-free mode are copied in here
+        private final LogRecord reusable = new LogRecord();
+    }
+
+    /**
+     * Hand a LogRecord off to the consumer thread.
+     * Falls back to sending it on the calling thread once this AsyncLogger is shut down.
+     *
+     * @param record - LogRecord to send
+     */
+    @Override
+    protected void dispatch(LogRecord record) {
+        // Records logged by the consumer itself (e.g. Output failures) are sent right away,
+        // it could otherwise end up waiting on a full buffer that only it can empty
+        if (!consumer.isRunning() || consumer.isConsumerThread()) {
+            super.dispatch(record);
+            return;
+        }
+
+        long sequence = ring.next();
+        Slot slot = ring.get(sequence);
+        if (record.reusable) {
+            // The caller's record is reused as soon as we return, keep a copy
+            slot.reusable.copyFrom(record);
+            slot.record = slot.reusable;
+        } else {
+            slot.record = record;
+        }
+        consumer.publish(sequence);
+    }
+
+    /**
+     * Stop the consumer thread after it has sent every record already in the buffer,
+     * then flush this AsyncLogger's Outputs.
+     * Records logged after this are sent on the calling thread.
+     */
+    public void shutdown() {
+        if (!consumer.stop()) {
+            return;
+        }
+        flush();
+        consumer.removeShutdownHook();
+    }
+
+    /**
+     * Shut down this AsyncLogger.
+     * Identical to calling {@link #shutdown()}.
+     */
+    @Override
+    public void close() {
+        shutdown();
+    }
+
+    /**
+     * Check whether this AsyncLogger's consumer thread is still running.
+     *
+     * @return Running status
+     */
+    public boolean isRunning() {
+        return consumer.isRunning();
+    }
+
+    /**
+     * Get the capacity of this AsyncLogger's buffer.
+     *
+     * @return Capacity
+     */
+    public int getCapacity() {
+        return ring.getCapacity();
+    }
+
+    /**
+     * Get the number of records that can be buffered before logging threads have to wait.
+     *
+     * @return Remaining capacity
+     */
+    public int getRemainingCapacity() {
+        return ring.remainingCapacity();
+    }
+
+    /**
+     * Get the WaitStrategy used by this AsyncLogger's consumer thread.
+     *
+     * @return WaitStrategy
+     */
+    public WaitStrategy getWaitStrategy() {
+        return ring.getWaitStrategy();
+    }
+
+    /**
+     * Send the record in a slot and clear the slot.
+     *
+     * @param slot - Slot to send
+     */
+    private void send(Slot slot) {
+        LogRecord record = slot.record;
+        slot.record = null;
+
+        try {
+            super.dispatch(record);
+        } catch (Throwable e) {
+            // pass, a broken Formatter or Output (even one throwing an Error) shouldn't kill
+            // the consumer thread, logging threads would then wait on a full buffer forever
+        } finally {
+            if (record == slot.reusable) {
+                record.clear();
+            }
+        }
+    }
+
+    /**
+     * Initialize a new AsyncLogger with base logging level of LogLevel.INFO and a default Formatter.
+     *
+     * @param name - Name of this AsyncLogger
+     */
+    public AsyncLogger(String name) {
+        this(name, DEFAULT_LEVEL, DEFAULT_FORMATTER);
+    }
+
+    /**
+     * Initialize a new AsyncLogger with a default Formatter.
+     *
+     * @param name - Name of this AsyncLogger
+     * @param baseLevel - Lowest LogLevel to track
+     */
+    public AsyncLogger(String name, LogLevel baseLevel) {
+        this(name, baseLevel, DEFAULT_FORMATTER);
+    }
+
+    /**
+     * Initialize a new AsyncLogger with a default capacity and WaitStrategy.
+     *
+     * @param name - Name of this AsyncLogger
+     * @param baseLevel - Lowest LogLevel to track
+     * @param formatter - Formatter to use
+     */
+    public AsyncLogger(String name, LogLevel baseLevel, Formatter formatter) {
+        this(name, baseLevel, formatter, DEFAULT_CAPACITY, DEFAULT_WAIT_STRATEGY);
+    }
+
+    /**
+     * Initialize a new AsyncLogger and start its consumer thread.
+     *
+     * @param name - Name of this AsyncLogger
+     * @param baseLevel - Lowest LogLevel to track
+     * @param formatter - Formatter to use
+     * @param capacity - Number of records that can be buffered, rounded up to a power of two
+     * @param waitStrategy - How the consumer thread waits for new records
+     * @throws IllegalArgumentException If capacity is not positive
+     */
+    public AsyncLogger(
+        String name,
+        LogLevel baseLevel,
+        Formatter formatter,
+        int capacity,
+        WaitStrategy waitStrategy
+    ) throws IllegalArgumentException {
+        super(name, baseLevel, formatter);
+        this.ring = new RingBuffer<>(capacity, Slot::new, waitStrategy);
+        Thread.Builder thread = Thread.ofPlatform().daemon(true).name("AsyncLogger-" + name);
+        this.consumer = new RingConsumer<>(ring, this::send, thread, this::shutdown);
+    }
+}
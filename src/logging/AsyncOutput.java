@@ -0,0 +1,617 @@
+package logging;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.LongAdder;
+
+import logging.async.RingBuffer;
+import logging.async.RingConsumer;
+import logging.async.WaitStrategy;
+import logging.filter.Filter;
+import logging.filter.FilterChain;
+import logging.format.Encoder;
+import logging.format.Formatter;
+import logging.format.Scratch;
+import logging.metrics.OutputMetrics;
+import logging.output.Output;
+
+/**
+ * An Output that hands everything sent to it over to another Output on a worker thread of its own.
+ *
+ *   logger.addOutput(new AsyncOutput(new FileOutput("app.log")));
+ *
+ * Each AsyncOutput has its own preallocated RingBuffer, so a slow or stalled Output only backs up
+ * its own queue instead of the logging thread and every Output after it. Records are still
+ * formatted on the logging thread (once per Formatter, shared with the other Outputs), only
+ * sending happens on the worker. When the queue is full, logging threads either wait for room
+ * or, if the AsyncOutput drops when full, skip it.
+ *
+ * The Formatter, Encoder, filters and enabled status are those of the wrapped Output.
+ * A send that fails on the worker is reported by the next send to this AsyncOutput returning
+ * false, so the Logger logs it and disables the Output as it would for any other failure.
+ * Metrics of the AsyncOutput time handing records to the queue and report its depth,
+ * metrics of the wrapped Output time the sends done by the worker.
+ */
+public final class AsyncOutput extends Output {
+    public static final int DEFAULT_CAPACITY = 4096;
+    public static final WaitStrategy DEFAULT_WAIT_STRATEGY = WaitStrategy.BLOCKING;
+
+    // What a Slot holds
+    private static final int STRING = 0;
+    private static final int TEXT = 1;
+    private static final int BYTES = 2;
+    private static final int RECORD = 3;
+
+    private final Output output;
+    private final RingBuffer<Slot> ring;
+    private final boolean dropWhenFull;
+    private final RingConsumer<Slot> worker;
+    private final LongAdder dropped = new LongAdder();
+    // Set when a send on the worker fails, until the Output is enabled again
+    private volatile boolean failed;
+
+    // Mutable holder preallocated for each slot of the RingBuffer
+    private static final class Slot {
+        private int kind;
+        private String string;
+        // Reusable messages are copied in here
+        private StringBuilder text = new StringBuilder(256);
+        private ByteBuffer bytes = ByteBuffer.allocate(256);
+        private LogRecord record;
+        // Reused records from garbage-free mode are copied in here
+        private final LogRecord reusable = new LogRecord();
+    }
+
+    /**
+     * Queue a message.
+     *
+     * @param message - Message to send
+     * @return If the message was queued or dropped; false if a send to the wrapped Output failed
+     */
+    @Override
+    public boolean send(String message) {
+        return send(message, null);
+    }
+
+    /**
+     * Queue a formatted LogRecord.
+     *
+     * @param message - Formatted message to send
+     * @param record - LogRecord the message was formatted from; may be null
+     * @return If the message was queued or dropped; false if a send to the wrapped Output failed
+     */
+    @Override
+    public boolean send(String message, LogRecord record) {
+        if (failed) {
+            return false;
+        }
+        if (!queues()) {
+            return output.send(message, record);
+        }
+        long sequence = claim();
+        if (sequence < 0) {
+            return true;
+        }
+
+        Slot slot = ring.get(sequence);
+        slot.kind = STRING;
+        slot.string = message;
+        keep(slot, record);
+        worker.publish(sequence);
+        return true;
+    }
+
+    /**
+     * Queue a copy of a formatted LogRecord held in a reusable CharSequence.
+     *
+     * @param message - Formatted message to send
+     * @param record - LogRecord the message was formatted from; may be null
+     * @return If the message was queued or dropped; false if a send to the wrapped Output failed
+     */
+    @Override
+    public boolean send(CharSequence message, LogRecord record) {
+        if (failed) {
+            return false;
+        }
+        if (!queues()) {
+            return output.send(message, record);
+        }
+        long sequence = claim();
+        if (sequence < 0) {
+            return true;
+        }
+
+        Slot slot = ring.get(sequence);
+        slot.kind = TEXT;
+        slot.text.setLength(0);
+        slot.text.append(message);
+        keep(slot, record);
+        worker.publish(sequence);
+        return true;
+    }
+
+    /**
+     * Queue a copy of an encoded LogRecord.
+     *
+     * @param bytes - Encoded record, ready for reading
+     * @param record - LogRecord the bytes were encoded from; may be null
+     * @return If the bytes were queued or dropped; false if a send to the wrapped Output failed
+     */
+    @Override
+    public boolean send(ByteBuffer bytes, LogRecord record) {
+        if (failed) {
+            return false;
+        }
+        if (!queues()) {
+            return output.send(bytes, record);
+        }
+        long sequence = claim();
+        if (sequence < 0) {
+            return true;
+        }
+
+        Slot slot = ring.get(sequence);
+        slot.kind = BYTES;
+        if (slot.bytes.capacity() < bytes.remaining()) {
+            slot.bytes = ByteBuffer.allocate(Math.max(bytes.remaining(), slot.bytes.capacity() * 2));
+        }
+        slot.bytes.clear();
+        slot.bytes.put(bytes);
+        slot.bytes.flip();
+        keep(slot, record);
+        worker.publish(sequence);
+        return true;
+    }
+
+    /**
+     * Queue a LogRecord for a wrapped Output that encodes records itself.
+     *
+     * @param record - LogRecord to send
+     * @return If the record was queued or dropped; false if a send to the wrapped Output failed
+     */
+    @Override
+    public boolean send(LogRecord record) {
+        if (failed) {
+            return false;
+        }
+        if (!queues()) {
+            return output.send(record);
+        }
+        long sequence = claim();
+        if (sequence < 0) {
+            return true;
+        }
+
+        Slot slot = ring.get(sequence);
+        slot.kind = RECORD;
+        keep(slot, record);
+        worker.publish(sequence);
+        return true;
+    }
+
+    /**
+     * Check whether the wrapped Output encodes LogRecords itself.
+     *
+     * @return If records are sent as they are
+     */
+    @Override
+    public boolean encodesRecords() {
+        return output.encodesRecords();
+    }
+
+    /**
+     * Check whether the wrapped Output uses the location of a log.
+     *
+     * @return If the location is used
+     */
+    @Override
+    public boolean usesLocation() {
+        return output.usesLocation();
+    }
+
+    /**
+     * Send everything queued so far, then flush the wrapped Output.
+     *
+     * @return If everything was successfully written
+     */
+    @Override
+    public boolean flush() {
+        worker.drain();
+        return output.flush() && !failed;
+    }
+
+    /**
+     * Stop the worker after it has sent everything queued, then close the wrapped Output.
+     */
+    @Override
+    public void close() {
+        stop();
+        output.close();
+        worker.removeShutdownHook();
+    }
+
+    /**
+     * Stop the worker after it has sent everything queued.
+     * Anything sent after this goes straight to the wrapped Output on the calling thread.
+     */
+    public void stop() {
+        worker.stop();
+    }
+
+    /**
+     * Check whether this AsyncOutput's worker is still running.
+     *
+     * @return Running status
+     */
+    public boolean isRunning() {
+        return worker.isRunning();
+    }
+
+    /**
+     * Get the Output this AsyncOutput sends to.
+     *
+     * @return Wrapped Output
+     */
+    public Output getOutput() {
+        return output;
+    }
+
+    /**
+     * Get the capacity of this AsyncOutput's queue.
+     *
+     * @return Capacity
+     */
+    public int getCapacity() {
+        return ring.getCapacity();
+    }
+
+    /**
+     * Get the number of records queued but not sent yet.
+     *
+     * @return Queue depth
+     */
+    public int getQueueDepth() {
+        return ring.getCapacity() - ring.remainingCapacity();
+    }
+
+    /**
+     * Get the number of records dropped because the queue was full.
+     *
+     * @return Count
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Check whether records are dropped, rather than waited on, when the queue is full.
+     *
+     * @return If records are dropped
+     */
+    public boolean dropsWhenFull() {
+        return dropWhenFull;
+    }
+
+    /**
+     * Get the WaitStrategy used by this AsyncOutput's worker.
+     *
+     * @return WaitStrategy
+     */
+    public WaitStrategy getWaitStrategy() {
+        return ring.getWaitStrategy();
+    }
+
+    /**
+     * Get the wrapped Output's Formatter.
+     *
+     * @return Formatter
+     */
+    @Override
+    public Formatter getFormatter() {
+        return output.getFormatter();
+    }
+
+    /**
+     * Set the wrapped Output's Formatter.
+     *
+     * @param form - Formatter
+     */
+    @Override
+    public void setFormatter(Formatter form) {
+        output.setFormatter(form);
+    }
+
+    /**
+     * Remove the wrapped Output's Formatter.
+     */
+    @Override
+    public void removeFormatter() {
+        output.removeFormatter();
+    }
+
+    /**
+     * Get the wrapped Output's Encoder.
+     *
+     * @return Encoder; null if records are formatted to text instead
+     */
+    @Override
+    public Encoder getEncoder() {
+        return output.getEncoder();
+    }
+
+    /**
+     * Set the wrapped Output's Encoder.
+     *
+     * @param enc - Encoder
+     */
+    @Override
+    public void setEncoder(Encoder enc) {
+        output.setEncoder(enc);
+    }
+
+    /**
+     * Remove the wrapped Output's Encoder.
+     */
+    @Override
+    public void removeEncoder() {
+        output.removeEncoder();
+    }
+
+    /**
+     * Get the wrapped Output's filters.
+     *
+     * @return FilterChain
+     */
+    @Override
+    public FilterChain getFilters() {
+        return output.getFilters();
+    }
+
+    /**
+     * Add a Filter to the end of the wrapped Output's filters.
+     *
+     * @param filter - Filter to add
+     * @throws IllegalArgumentException If filter is null
+     */
+    @Override
+    public void addFilter(Filter filter) throws IllegalArgumentException {
+        output.addFilter(filter);
+    }
+
+    /**
+     * Remove a Filter from the wrapped Output's filters.
+     *
+     * @param filter - Filter to remove
+     */
+    @Override
+    public void removeFilter(Filter filter) {
+        output.removeFilter(filter);
+    }
+
+    /**
+     * Remove every Filter from the wrapped Output.
+     */
+    @Override
+    public void removeAllFilters() {
+        output.removeAllFilters();
+    }
+
+    /**
+     * Start recording metrics for this AsyncOutput, including the depth of its queue,
+     * and register them over JMX as logging:type=Output,name="NAME". Does nothing if they are already on.
+     *
+     * @param name - Name to register the metrics under
+     * @return OutputMetrics
+     */
+    @Override
+    public synchronized OutputMetrics enableMetrics(String name) {
+        OutputMetrics metrics = super.enableMetrics(name);
+        metrics.trackQueue(this::getQueueDepth);
+        return metrics;
+    }
+
+    /**
+     * Check if the wrapped Output is enabled.
+     *
+     * @return Enabled status
+     */
+    @Override
+    public boolean isEnabled() {
+        return output.isEnabled();
+    }
+
+    /**
+     * Enable the wrapped Output, clearing any failure on the worker.
+     */
+    @Override
+    public void enable() {
+        failed = false;
+        output.enable();
+    }
+
+    /**
+     * Disable the wrapped Output.
+     */
+    @Override
+    public void disable() {
+        output.disable();
+    }
+
+    /**
+     * Describe this AsyncOutput by the Output it wraps.
+     *
+     * @return Description
+     */
+    @Override
+    public String toString() {
+        return "AsyncOutput(" + output + ")";
+    }
+
+    /**
+     * Check whether a send should be queued rather than passed straight on.
+     *
+     * @return If the worker should send it
+     */
+    private boolean queues() {
+        // Sends from the worker itself (e.g. a wrapped Output logging its own failures) go straight
+        // through, it could otherwise end up waiting on a full queue that only it can empty
+        return worker.isRunning() && !worker.isConsumerThread();
+    }
+
+    /**
+     * Claim a slot in the queue, waiting for one or dropping the send if it is full.
+     *
+     * @return Sequence of the claimed slot; -1 if the send was dropped
+     */
+    private long claim() {
+        if (!dropWhenFull) {
+            return ring.next();
+        }
+        long sequence = ring.tryNext();
+        if (sequence < 0) {
+            dropped.increment();
+            OutputMetrics metrics = getMetrics();
+            if (metrics != null) {
+                metrics.recordDropped();
+            }
+        }
+        return sequence;
+    }
+
+    /**
+     * Attach the LogRecord of a send to its slot.
+     *
+     * @param slot - Claimed slot
+     * @param record - LogRecord; may be null
+     */
+    private static void keep(Slot slot, LogRecord record) {
+        if (record != null && record.reusable) {
+            // The caller's record is reused as soon as we return, keep a copy
+            slot.reusable.copyFrom(record);
+            slot.record = slot.reusable;
+        } else {
+            slot.record = record;
+        }
+    }
+
+    /**
+     * Send the contents of a slot to the wrapped Output and clear the slot.
+     *
+     * @param slot - Slot to send
+     */
+    private void deliver(Slot slot) {
+        LogRecord record = slot.record;
+        String string = slot.string;
+        slot.record = null;
+        slot.string = null;
+
+        // Disabled while this was queued, or an earlier send failed and hasn't been reported yet
+        OutputMetrics metrics = output.getMetrics();
+        if (!output.isEnabled() || failed) {
+            if (metrics != null) {
+                metrics.recordSkipped();
+            }
+            clear(slot, record);
+            return;
+        }
+
+        long start = metrics != null ? System.nanoTime() : 0L;
+        long bytesSent = 0;
+        long charsSent = 0;
+        boolean sent;
+        try {
+            switch (slot.kind) {
+                case STRING:
+                    charsSent = string.length();
+                    sent = output.send(string, record);
+                    break;
+                case TEXT:
+                    charsSent = slot.text.length();
+                    sent = output.send(slot.text, record);
+                    break;
+                case BYTES:
+                    bytesSent = slot.bytes.remaining();
+                    sent = output.send(slot.bytes, record);
+                    break;
+                default:
+                    sent = output.send(record);
+                    break;
+            }
+        } catch (Throwable e) {
+            // A broken Output (even one throwing an Error) shouldn't kill the worker,
+            // logging threads would then wait on a full queue forever. Treat it like any other failure
+            sent = false;
+        } finally {
+            clear(slot, record);
+        }
+
+        if (metrics != null) {
+            metrics.recordSend(0, System.nanoTime() - start, bytesSent, charsSent);
+        }
+        // Skip what is queued behind it until the next send reports the failure to the Logger,
+        // which then disables the Output
+        if (!sent) {
+            failed = true;
+            if (metrics != null) {
+                metrics.recordFailure();
+            }
+        }
+    }
+
+    /**
+     * Release what a slot held once it has been sent.
+     *
+     * @param slot - Slot to clear
+     * @param record - LogRecord the slot held
+     */
+    private static void clear(Slot slot, LogRecord record) {
+        if (record == slot.reusable) {
+            record.clear();
+        }
+        slot.text = Scratch.trim(slot.text);
+        slot.bytes = Scratch.trim(slot.bytes);
+    }
+
+    /**
+     * Initialize a new AsyncOutput with a default capacity and WaitStrategy,
+     * whose logging threads wait when the queue is full.
+     *
+     * @param output - Output to send to
+     * @throws IllegalArgumentException If output is null
+     */
+    public AsyncOutput(Output output) throws IllegalArgumentException {
+        this(output, DEFAULT_CAPACITY, DEFAULT_WAIT_STRATEGY, false, false);
+    }
+
+    /**
+     * Initialize a new AsyncOutput and start its worker.
+     *
+     * @param output - Output to send to
+     * @param capacity - Number of records that can be queued, rounded up to a power of two
+     * @param waitStrategy - How the worker waits for new records
+     * @param dropWhenFull - Whether to drop records when the queue is full, rather than make logging threads wait
+     * @param virtualThread - Whether the worker is a virtual thread rather than a platform daemon thread
+     * @throws IllegalArgumentException If output is null or capacity is not positive
+     */
+    public AsyncOutput(
+        Output output,
+        int capacity,
+        WaitStrategy waitStrategy,
+        boolean dropWhenFull,
+        boolean virtualThread
+    ) throws IllegalArgumentException {
+        super(null);
+        if (output == null) {
+            throw new IllegalArgumentException("AsyncOutput needs an Output to send to");
+        }
+        this.output = output;
+        this.ring = new RingBuffer<>(capacity, Slot::new, waitStrategy);
+        this.dropWhenFull = dropWhenFull;
+
+        Thread.Builder builder = virtualThread ? Thread.ofVirtual() : Thread.ofPlatform().daemon(true);
+        // Only stopped, not closed, so records logged by other shutdown hooks still get sent
+        this.worker = new RingConsumer<>(ring, this::deliver, builder.name("AsyncOutput-" + output), () -> {
+            stop();
+            output.flush();
+        });
+    }
+}
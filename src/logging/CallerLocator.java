@@ -0,0 +1,74 @@
+package logging;
+
+import java.lang.StackWalker.StackFrame;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Finds the location a log call was made from.
+ *
+ * Only the top few frames of the stack are walked, and the StackTraceElement
+ * for each call site is cached so it only has to be built once.
+ */
+final class CallerLocator {
+    // How many frames to look through before giving up on finding the caller
+    private static final int MAX_STACK_DEPTH = 16;
+
+    private static final StackWalker WALKER = StackWalker.getInstance(Set.of(StackWalker.Option.RETAIN_CLASS_REFERENCE));
+    private static final Function<Stream<StackFrame>, Optional<StackFrame>> FIND_CALLER =
+        frames -> frames.limit(MAX_STACK_DEPTH).filter(frame -> !isLoggingFrame(frame)).findFirst();
+
+    // Cached call sites, per class so they are dropped along with the class
+    private static final ClassValue<ConcurrentHashMap<Long, CallSite>> CALL_SITES = new ClassValue<>() {
+        @Override
+        protected ConcurrentHashMap<Long, CallSite> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private record CallSite(String methodName, String descriptor, int byteCodeIndex, StackTraceElement element) {
+        private boolean matches(StackFrame frame) {
+            return byteCodeIndex == frame.getByteCodeIndex()
+                && methodName.equals(frame.getMethodName())
+                && descriptor.equals(frame.getDescriptor());
+        }
+    }
+
+    /**
+     * Find the first frame on the current thread's stack outside of the Logger classes.
+     *
+     * @return Location of the caller; null if it can't be found
+     */
+    static StackTraceElement find() {
+        StackFrame frame = WALKER.walk(FIND_CALLER).orElse(null);
+        if (frame == null) {
+            return null;
+        }
+
+        ConcurrentHashMap<Long, CallSite> sites = CALL_SITES.get(frame.getDeclaringClass());
+        Long key = ((long) frame.getMethodName().hashCode() << 32) | (frame.getByteCodeIndex() & 0xFFFFFFFFL);
+
+        CallSite site = sites.get(key);
+        if (site == null || !site.matches(frame)) {
+            site = new CallSite(frame.getMethodName(), frame.getDescriptor(), frame.getByteCodeIndex(), frame.toStackTraceElement());
+            sites.put(key, site);
+        }
+        return site.element();
+    }
+
+    /**
+     * Check whether a frame belongs to a Logger, a LogBuilder (or this class).
+     *
+     * @param frame - Frame to check
+     * @return If the frame is part of the logging call itself
+     */
+    private static boolean isLoggingFrame(StackFrame frame) {
+        Class<?> type = frame.getDeclaringClass();
+        return Logger.class.isAssignableFrom(type) || type == LogBuilder.class || type == CallerLocator.class;
+    }
+
+    private CallerLocator() {}
+}
@@ -0,0 +1,349 @@
+package logging;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Collapses bursts of identical consecutive logs of a Logger, see Logger.enableDeduplication().
+ *
+ * Only the latest log is remembered, as its level, pattern, arguments, fields and call site,
+ * so checking a log is a few comparisons and the state never grows. A hash of the arguments
+ * and fields rules out most different logs before they are compared with equals(). Repeats are counted
+ * instead of being built into records, and reported in one "repeated N times" record when
+ * a different log comes along or the burst times out.
+ *
+ * The call site is only compared when the Logger captured it anyway (for its Formatters or
+ * a SiteLimiter). Otherwise the message pattern, a literal at almost every log statement,
+ * stands in for it, so deduplication never walks the stack itself.
+ */
+final class Deduplicator {
+    // Set as the repeat count of a burst once it has been reported
+    private static final long CLOSED = Long.MIN_VALUE;
+
+    // Fires timeouts for every Deduplicator, only busy while bursts are going on
+    private static final ScheduledThreadPoolExecutor TIMER = createTimer();
+
+    private final AtomicReference<Burst> last = new AtomicReference<>();
+    private final long timeoutMillis;
+
+    // A log and how many times it has been repeated since
+    private static final class Burst {
+        private final LogLevel level;
+        private final String pattern;
+        private final int hash;
+        private final Object[] args;
+        private final int count;
+        private final Object arg1;
+        private final Object arg2;
+        private final Object arg3;
+        private final String[] fieldKeys;
+        private final Object[] fieldValues;
+        private final String[] tags;
+        private final StackTraceElement site;
+        private final long start;
+        private final AtomicLong repeats = new AtomicLong();
+        private volatile ScheduledFuture<?> timeout;
+
+        /**
+         * Check whether a log is the same as the one that started this Burst.
+         *
+         * @param lvl - LogLevel of the log
+         * @param pat - Message pattern
+         * @param h - Hash of the arguments and fields
+         * @param a - Arguments; null to use a1 to a3
+         * @param n - Number of arguments
+         * @param a1 - First argument, if a is null
+         * @param a2 - Second argument, if a is null
+         * @param a3 - Third argument, if a is null
+         * @param fields - LogBuilder holding structured fields; null for none
+         * @param location - Call site; null if it wasn't captured
+         * @return If it is the same log
+         */
+        private boolean matches(
+            LogLevel lvl,
+            String pat,
+            int h,
+            Object[] a,
+            int n,
+            Object a1,
+            Object a2,
+            Object a3,
+            LogBuilder fields,
+            StackTraceElement location
+        ) {
+            if (level != lvl || hash != h || site != location || count != n || !pattern.equals(pat)) {
+                return false;
+            }
+            // Equal hashes don't make equal logs, compare what was actually logged
+            for (int i = 0; i < n; i++) {
+                if (!Objects.equals(arg(args, i, arg1, arg2, arg3), arg(a, i, a1, a2, a3))) {
+                    return false;
+                }
+            }
+            if (fields == null) {
+                return fieldKeys == null;
+            }
+            return fieldKeys != null && fields.sameFields(fieldKeys, fieldValues, tags);
+        }
+
+        /**
+         * Count a repeat, unless this Burst has already been reported.
+         *
+         * @return Repeats before this one; -1 if the Burst is closed
+         */
+        private long addRepeat() {
+            while (true) {
+                long count = repeats.get();
+                if (count == CLOSED) {
+                    return -1;
+                }
+                if (repeats.compareAndSet(count, count + 1)) {
+                    return count;
+                }
+            }
+        }
+
+        /**
+         * Close this Burst so no more repeats are counted.
+         *
+         * @return Number of repeats counted
+         */
+        private long close() {
+            ScheduledFuture<?> pending = timeout;
+            if (pending != null) {
+                pending.cancel(false);
+            }
+            long count = repeats.getAndSet(CLOSED);
+            return count == CLOSED ? 0 : count;
+        }
+
+        /**
+         * Initialize a Burst.
+         *
+         * @param level - LogLevel of the log
+         * @param pattern - Message pattern
+         * @param hash - Hash of the arguments and fields
+         * @param args - Arguments; null to use arg1 to arg3
+         * @param count - Number of arguments
+         * @param arg1 - First argument, if args is null
+         * @param arg2 - Second argument, if args is null
+         * @param arg3 - Third argument, if args is null
+         * @param fields - LogBuilder holding structured fields; null for none
+         * @param site - Call site; null if it wasn't captured
+         * @param start - Timestamp of the log
+         */
+        private Burst(
+            LogLevel level,
+            String pattern,
+            int hash,
+            Object[] args,
+            int count,
+            Object arg1,
+            Object arg2,
+            Object arg3,
+            LogBuilder fields,
+            StackTraceElement site,
+            long start
+        ) {
+            this.level = level;
+            this.pattern = pattern;
+            this.hash = hash;
+            // The caller may reuse its array, and LogBuilders are reused, so keep copies of both
+            this.args = args == null ? null : Arrays.copyOf(args, count);
+            this.count = count;
+            this.arg1 = arg1;
+            this.arg2 = arg2;
+            this.arg3 = arg3;
+            this.fieldKeys = fields == null ? null : fields.fieldKeys();
+            this.fieldValues = fields == null ? null : fields.fieldValues();
+            this.tags = fields == null ? null : fields.tags();
+            this.site = site;
+            this.start = start;
+        }
+    }
+
+    /**
+     * Check whether a log repeats the previous one, counting it if so.
+     * Otherwise it becomes the log repeats are compared against, and the repeats
+     * of the previous one are reported first.
+     *
+     * @param logger - Logger the log was made with, to report repeats through
+     * @param level - LogLevel of the log
+     * @param pattern - Message pattern
+     * @param args - Arguments; null to use arg1 to arg3
+     * @param count - Number of arguments
+     * @param arg1 - First argument, if args is null
+     * @param arg2 - Second argument, if args is null
+     * @param arg3 - Third argument, if args is null
+     * @param fields - LogBuilder holding structured fields; null for none
+     * @param site - Call site; null if it wasn't captured
+     * @param timestamp - Timestamp of the log
+     * @return If the log is a repeat and should be dropped
+     */
+    boolean isRepeat(
+        Logger logger,
+        LogLevel level,
+        String pattern,
+        Object[] args,
+        int count,
+        Object arg1,
+        Object arg2,
+        Object arg3,
+        LogBuilder fields,
+        StackTraceElement site,
+        long timestamp
+    ) {
+        int hash = hash(args, count, arg1, arg2, arg3);
+        if (fields != null) {
+            hash = 31 * hash + fields.fieldsHash();
+        }
+
+        Burst current = last.get();
+        if (current != null && current.matches(level, pattern, hash, args, count, arg1, arg2, arg3, fields, site) && timestamp - current.start < timeoutMillis) {
+            long previous = current.addRepeat();
+            if (previous == 0) {
+                // Make sure the burst is reported even if nothing else is logged
+                current.timeout = TIMER.schedule(() -> expire(logger, current), timeoutMillis, TimeUnit.MILLISECONDS);
+            }
+            if (previous >= 0) {
+                return true;
+            }
+        }
+
+        Burst replaced = last.getAndSet(new Burst(level, pattern, hash, args, count, arg1, arg2, arg3, fields, site, timestamp));
+        if (replaced != null) {
+            report(logger, replaced);
+        }
+        return false;
+    }
+
+    /**
+     * End a burst that timed out, if no other log has ended it already.
+     *
+     * @param logger - Logger to report through
+     * @param burst - Burst that timed out
+     */
+    private void expire(Logger logger, Burst burst) {
+        if (last.compareAndSet(burst, null)) {
+            report(logger, burst);
+        }
+    }
+
+    /**
+     * Report all repeats that are still counted, e.g. when deduplication is turned off.
+     *
+     * @param logger - Logger to report through
+     */
+    void flush(Logger logger) {
+        Burst burst = last.getAndSet(null);
+        if (burst != null) {
+            report(logger, burst);
+        }
+    }
+
+    /**
+     * Close a Burst and report its repeats, if there were any.
+     *
+     * @param logger - Logger to report through
+     * @param burst - Burst to close
+     */
+    private static void report(Logger logger, Burst burst) {
+        long repeats = burst.close();
+        if (repeats > 0) {
+            logger.reportRepeats(burst.level, burst.site, repeats);
+        }
+    }
+
+    /**
+     * Hash the arguments of a log.
+     *
+     * @param args - Arguments; null to use arg1 to arg3
+     * @param count - Number of arguments
+     * @param arg1 - First argument, if args is null
+     * @param arg2 - Second argument, if args is null
+     * @param arg3 - Third argument, if args is null
+     * @return Hash
+     */
+    private static int hash(Object[] args, int count, Object arg1, Object arg2, Object arg3) {
+        if (args != null) {
+            int hash = 1;
+            for (int i = 0; i < count; i++) {
+                hash = 31 * hash + Objects.hashCode(args[i]);
+            }
+            return hash;
+        }
+        switch (count) {
+            case 0:
+                return 1;
+
+            case 1:
+                return 31 + Objects.hashCode(arg1);
+
+            case 2:
+                return 31 * (31 + Objects.hashCode(arg1)) + Objects.hashCode(arg2);
+
+            default:
+                return 31 * (31 * (31 + Objects.hashCode(arg1)) + Objects.hashCode(arg2)) + Objects.hashCode(arg3);
+        }
+    }
+
+    /**
+     * Get one argument of a log.
+     *
+     * @param args - Arguments; null to use arg1 to arg3
+     * @param index - Index of the argument, under the number of arguments
+     * @param arg1 - First argument, if args is null
+     * @param arg2 - Second argument, if args is null
+     * @param arg3 - Third argument, if args is null
+     * @return Argument
+     */
+    private static Object arg(Object[] args, int index, Object arg1, Object arg2, Object arg3) {
+        if (args != null) {
+            return args[index];
+        }
+        switch (index) {
+            case 0:
+                return arg1;
+
+            case 1:
+                return arg2;
+
+            default:
+                return arg3;
+        }
+    }
+
+    /**
+     * Create the timer thread shared by every Deduplicator.
+     *
+     * @return Executor running timeouts on one daemon thread
+     */
+    private static ScheduledThreadPoolExecutor createTimer() {
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, task -> {
+            Thread thread = new Thread(task, "Deduplicator-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Bursts ended by another log cancel their timeout, don't keep those around
+        timer.setRemoveOnCancelPolicy(true);
+        return timer;
+    }
+
+    /**
+     * Initialize a Deduplicator.
+     *
+     * @param timeoutMillis - Longest a burst of repeats is collapsed before it is reported
+     * @throws IllegalArgumentException If timeoutMillis isn't positive
+     */
+    Deduplicator(long timeoutMillis) throws IllegalArgumentException {
+        if (timeoutMillis < 1) {
+            throw new IllegalArgumentException("Deduplication timeout must be positive");
+        }
+        this.timeoutMillis = timeoutMillis;
+    }
+}
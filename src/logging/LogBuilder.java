@@ -0,0 +1,324 @@
+package logging;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Fluent builder for a log with structured key/value fields.
+ *
+ *   logger.atInfo().with("user", id).with("ms", elapsed).log("Request {} done", path);
+ *
+ * Loggers hand out one LogBuilder per thread and reuse it, so a LogBuilder must be
+ * finished with one of the log methods in the same statement it was started in.
+ * Logs under the Logger's level get a LogBuilder that ignores everything.
+ */
+public final class LogBuilder {
+    // Returned for logs that don't pass the level check
+    static final LogBuilder DISABLED = new LogBuilder();
+
+    private static final int INITIAL_FIELDS = 8;
+    private static final int INITIAL_TAGS = 2;
+    private static final ThreadLocal<LogBuilder> BUILDERS = ThreadLocal.withInitial(LogBuilder::new);
+
+    private Logger logger;
+    private LogLevel level;
+    private String[] keys = new String[INITIAL_FIELDS];
+    private Object[] values = new Object[INITIAL_FIELDS];
+    private int count;
+    private String[] tags = new String[INITIAL_TAGS];
+    private int tagCount;
+    // Set between start and log, so a log made while building (e.g. by a value's toString) gets its own builder
+    private boolean busy;
+
+    /**
+     * Attach a key/value field to this log. Attaching a key again replaces its value.
+     *
+     * @param key - Field name
+     * @param value - Field value; may be null
+     * @return This LogBuilder
+     * @throws IllegalArgumentException If key is null
+     */
+    public LogBuilder with(String key, Object value) throws IllegalArgumentException {
+        if (logger == null) {
+            return this;
+        }
+        if (key == null) {
+            throw new IllegalArgumentException("Field key must not be null");
+        }
+
+        for (int i = 0; i < count; i++) {
+            if (keys[i].equals(key)) {
+                values[i] = value;
+                return this;
+            }
+        }
+        if (count == keys.length) {
+            keys = Arrays.copyOf(keys, count * 2);
+            values = Arrays.copyOf(values, count * 2);
+        }
+        keys[count] = key;
+        values[count] = value;
+        count++;
+        return this;
+    }
+
+    /**
+     * Tag this log with a marker, e.g. "audit" or "security", for Filters to match on.
+     *
+     * @param tag - Tag
+     * @return This LogBuilder
+     * @throws IllegalArgumentException If tag is null
+     */
+    public LogBuilder tag(String tag) throws IllegalArgumentException {
+        if (logger == null) {
+            return this;
+        }
+        if (tag == null) {
+            throw new IllegalArgumentException("Tag must not be null");
+        }
+
+        if (tagCount == tags.length) {
+            tags = Arrays.copyOf(tags, tagCount * 2);
+        }
+        tags[tagCount++] = tag;
+        return this;
+    }
+
+    /**
+     * Log a message with the fields attached so far.
+     *
+     * @param message - Message to log
+     * @throws IllegalArgumentException If message cannot be converted to a String
+     */
+    public void log(Object message) throws IllegalArgumentException {
+        if (logger == null) {
+            return;
+        }
+        String messageString = message.toString();
+        if (messageString == null) {
+            finish();
+            throw new IllegalArgumentException("Log message object's .toString() method must not return null");
+        }
+        log(messageString, null, 0, null, null, null);
+    }
+
+    /**
+     * Log a parameterized message with the fields attached so far.
+     *
+     * @param pattern - Message pattern
+     * @param arg - Argument
+     * @throws IllegalArgumentException If pattern is null
+     */
+    public void log(String pattern, Object arg) throws IllegalArgumentException {
+        log(pattern, null, 1, arg, null, null);
+    }
+
+    /**
+     * Log a parameterized message with the fields attached so far.
+     *
+     * @param pattern - Message pattern
+     * @param arg1 - First argument
+     * @param arg2 - Second argument
+     * @throws IllegalArgumentException If pattern is null
+     */
+    public void log(String pattern, Object arg1, Object arg2) throws IllegalArgumentException {
+        log(pattern, null, 2, arg1, arg2, null);
+    }
+
+    /**
+     * Log a parameterized message with the fields attached so far.
+     *
+     * @param pattern - Message pattern
+     * @param arg1 - First argument
+     * @param arg2 - Second argument
+     * @param arg3 - Third argument
+     * @throws IllegalArgumentException If pattern is null
+     */
+    public void log(String pattern, Object arg1, Object arg2, Object arg3) throws IllegalArgumentException {
+        log(pattern, null, 3, arg1, arg2, arg3);
+    }
+
+    /**
+     * Log a parameterized message with the fields attached so far.
+     *
+     * @param pattern - Message pattern
+     * @param args - Arguments
+     * @throws IllegalArgumentException If pattern is null
+     */
+    public void log(String pattern, Object... args) throws IllegalArgumentException {
+        log(pattern, args, args == null ? 0 : args.length, null, null, null);
+    }
+
+    /**
+     * Hand the log to the Logger and release this LogBuilder.
+     *
+     * @param pattern - Message pattern
+     * @param args - Arguments; null to use arg1 to arg3
+     * @param argCount - Number of arguments
+     * @param arg1 - First argument, if args is null
+     * @param arg2 - Second argument, if args is null
+     * @param arg3 - Third argument, if args is null
+     * @throws IllegalArgumentException If pattern is null
+     */
+    private void log(String pattern, Object[] args, int argCount, Object arg1, Object arg2, Object arg3)
+        throws IllegalArgumentException {
+        if (logger == null) {
+            return;
+        }
+        Logger target = logger;
+        try {
+            target.logStructured(level, pattern, args, argCount, arg1, arg2, arg3, this);
+        } finally {
+            finish();
+        }
+    }
+
+    /**
+     * Copy the fields attached so far into a LogRecord.
+     *
+     * @param record - LogRecord to copy into
+     */
+    void copyTo(LogRecord record) {
+        record.setFields(keys, values, count);
+        record.setTags(tags, tagCount);
+    }
+
+    /**
+     * Get the number of fields attached so far.
+     *
+     * @return Number of fields
+     */
+    int fieldCount() {
+        return count;
+    }
+
+    /**
+     * Get the key of an attached field.
+     *
+     * @param index - Index of the field, under fieldCount()
+     * @return Key
+     */
+    String fieldKey(int index) {
+        return keys[index];
+    }
+
+    /**
+     * Get the value of an attached field.
+     *
+     * @param index - Index of the field, under fieldCount()
+     * @return Value
+     */
+    Object fieldValue(int index) {
+        return values[index];
+    }
+
+    /**
+     * Check whether this log has been tagged with a marker.
+     *
+     * @param tag - Tag to look for
+     * @return If the tag was added
+     */
+    boolean hasTag(String tag) {
+        for (int i = 0; i < tagCount; i++) {
+            if (tags[i].equals(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Copy the keys of the fields attached so far.
+     *
+     * @return Keys, in the order they were attached
+     */
+    String[] fieldKeys() {
+        return Arrays.copyOf(keys, count);
+    }
+
+    /**
+     * Copy the values of the fields attached so far.
+     *
+     * @return Values, in the order they were attached
+     */
+    Object[] fieldValues() {
+        return Arrays.copyOf(values, count);
+    }
+
+    /**
+     * Copy the tags added so far.
+     *
+     * @return Tags, in the order they were added
+     */
+    String[] tags() {
+        return Arrays.copyOf(tags, tagCount);
+    }
+
+    /**
+     * Check whether the fields and tags attached so far equal ones copied from another log.
+     *
+     * @param otherKeys - Keys, from fieldKeys()
+     * @param otherValues - Values, from fieldValues()
+     * @param otherTags - Tags, from tags()
+     * @return If the keys, values and tags are equal and in the same order
+     */
+    boolean sameFields(String[] otherKeys, Object[] otherValues, String[] otherTags) {
+        return Arrays.equals(keys, 0, count, otherKeys, 0, otherKeys.length)
+            && Arrays.equals(values, 0, count, otherValues, 0, otherValues.length)
+            && Arrays.equals(tags, 0, tagCount, otherTags, 0, otherTags.length);
+    }
+
+    /**
+     * Hash the fields and tags attached so far.
+     *
+     * @return Hash of the keys, values and tags
+     */
+    int fieldsHash() {
+        int hash = 1;
+        for (int i = 0; i < count; i++) {
+            hash = 31 * (31 * hash + keys[i].hashCode()) + Objects.hashCode(values[i]);
+        }
+        for (int i = 0; i < tagCount; i++) {
+            hash = 31 * hash + tags[i].hashCode();
+        }
+        return hash;
+    }
+
+    /**
+     * Clear this LogBuilder so it can be reused.
+     */
+    private void finish() {
+        Arrays.fill(keys, 0, count, null);
+        Arrays.fill(values, 0, count, null);
+        count = 0;
+        Arrays.fill(tags, 0, tagCount, null);
+        tagCount = 0;
+        logger = null;
+        level = null;
+        busy = false;
+    }
+
+    /**
+     * Get a LogBuilder for a log that has passed its Logger's level check.
+     *
+     * @param logger - Logger to log with
+     * @param level - LogLevel of the log
+     * @return This thread's LogBuilder, or a new one if it is already in use
+     */
+    static LogBuilder start(Logger logger, LogLevel level) {
+        LogBuilder builder = BUILDERS.get();
+        if (builder.busy) {
+            // Either a log made while building another one, or a LogBuilder that was never finished
+            // (e.g. a with() argument threw). The busy one is left to whoever still holds it and the
+            // new one becomes this thread's, so an abandoned LogBuilder isn't replaced on every log
+            builder = new LogBuilder();
+            BUILDERS.set(builder);
+        }
+        builder.logger = logger;
+        builder.level = level;
+        builder.busy = true;
+        return builder;
+    }
+
+    private LogBuilder() {}
+}
@@ -1,50 +1,583 @@
 package logging;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Objects;
+
+import logging.filter.LogEvent;
+
+/**
+ * A single log, as passed from a Logger to its Formatters and Outputs.
+ *
+ * Parameterized records keep their pattern and arguments, and only substitute
+ * them into the message when it is first needed (on the consumer thread for an
+ * AsyncLogger). The arguments are held by reference, so they shouldn't be
+ * modified after they have been logged.
+ *
+ * In garbage-free mode Loggers reuse LogRecords instead of creating new ones,
+ * so Formatters and Outputs must not keep a reference to a record after sending it.
+ */
+public final class LogRecord implements LogEvent {
+    // Only ever changed on reusable records, by the thread that owns them
+    private String pattern;
+    private Object[] args;
+    private int argCount;
+    private LogLevel level;
+    private String loggerName;
+    private long timestamp;
+    private StackTraceElement stackFrame;
+    // Structured key/value fields, only the first fieldCount entries are used
+    private String[] fieldKeys;
+    private Object[] fieldValues;
+    private int fieldCount;
+    // Marker tags, only the first tagCount entries are used
+    private String[] tags;
+    private int tagCount;
+    // Substituted on first use, benign race since Strings are immutable
+    private String message;
+    // Whether this record is reused by a garbage-free Logger
+    final boolean reusable;
+
+    // Number of arguments reusable records have room for before growing
+    private static final int REUSABLE_ARGS = 3;
+
+    // Used in place of the filename and filepath when the location wasn't captured
+    public static final String UNKNOWN_LOCATION = "?";
+
+    /**
+     * Get the message of this LogRecord, substituting its arguments if needed.
+     *
+     * @return Message
+     */
+    public String message() {
+        String result = message;
+        if (result == null) {
+            result = MessagePattern.format(pattern, args, argCount);
+            message = result;
+        }
+        return result;
+    }
+
+    /**
+     * Append the message of this LogRecord to a StringBuilder.
+     * Arguments are substituted straight into the builder, without creating the message String.
+     *
+     * @param builder - StringBuilder to append to
+     */
+    public void formatMessageTo(StringBuilder builder) {
+        String result = message;
+        if (result != null) {
+            builder.append(result);
+        } else {
+            MessagePattern.formatTo(pattern, args, argCount, builder);
+        }
+    }
+
+    /**
+     * Get the message pattern of this LogRecord.
+     *
+     * @return Pattern with "{}" placeholders, or the message itself if it isn't parameterized
+     */
+    public String pattern() {
+        return pattern;
+    }
+
+    /**
+     * Get the arguments of this LogRecord's message pattern.
+     *
+     * @return Arguments; null if the message has none
+     */
+    public Object[] args() {
+        if (argCount == 0) {
+            return null;
+        }
+        if (args.length == argCount) {
+            return args;
+        }
+        return Arrays.copyOf(args, argCount);
+    }
+
+    /**
+     * Get the number of arguments of this LogRecord's message pattern.
+     *
+     * @return Number of arguments
+     */
+    public int argCount() {
+        return argCount;
+    }
+
+    /**
+     * Get an argument of this LogRecord's message pattern.
+     *
+     * @param index - Index of the argument, under argCount()
+     * @return Argument
+     * @throws IndexOutOfBoundsException If there is no argument at index
+     */
+    public Object arg(int index) throws IndexOutOfBoundsException {
+        if (index < 0 || index >= argCount) {
+            throw new IndexOutOfBoundsException("No argument " + index + ", record has " + argCount);
+        }
+        return args[index];
+    }
+
+    /**
+     * Get the LogLevel of this LogRecord.
+     *
+     * @return LogLevel
+     */
+    public LogLevel level() {
+        return level;
+    }
+
+    /**
+     * Get the name of the Logger that created this LogRecord.
+     *
+     * @return Logger name
+     */
+    public String loggerName() {
+        return loggerName;
+    }
+
+    /**
+     * Get the time this LogRecord was created at.
+     *
+     * @return Milliseconds since the epoch
+     */
+    public long timestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Get the location this LogRecord was created at.
+     *
+     * @return Stack frame; null if the location wasn't captured
+     */
+    public StackTraceElement stackFrame() {
+        return stackFrame;
+    }
+
+    /**
+     * Get the number of structured fields attached to this LogRecord.
+     *
+     * @return Number of fields
+     */
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * Get the key of a structured field.
+     *
+     * @param index - Index of the field, under fieldCount()
+     * @return Key
+     * @throws IndexOutOfBoundsException If there is no field at index
+     */
+    public String fieldKey(int index) throws IndexOutOfBoundsException {
+        checkFieldIndex(index);
+        return fieldKeys[index];
+    }
+
+    /**
+     * Get the value of a structured field.
+     *
+     * @param index - Index of the field, under fieldCount()
+     * @return Value; may be null
+     * @throws IndexOutOfBoundsException If there is no field at index
+     */
+    public Object fieldValue(int index) throws IndexOutOfBoundsException {
+        checkFieldIndex(index);
+        return fieldValues[index];
+    }
+
+    /**
+     * Check whether this LogRecord was tagged with a marker.
+     *
+     * @param tag - Tag to look for
+     * @return If the record has the tag
+     */
+    public boolean hasTag(String tag) {
+        for (int i = 0; i < tagCount; i++) {
+            if (tags[i].equals(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the number of marker tags this LogRecord was tagged with.
+     *
+     * @return Number of tags
+     */
+    public int tagCount() {
+        return tagCount;
+    }
+
+    /**
+     * Get a marker tag of this LogRecord.
+     *
+     * @param index - Index of the tag, under tagCount()
+     * @return Tag
+     * @throws IndexOutOfBoundsException If there is no tag at index
+     */
+    public String tag(int index) throws IndexOutOfBoundsException {
+        if (index < 0 || index >= tagCount) {
+            throw new IndexOutOfBoundsException("No tag " + index + ", record has " + tagCount);
+        }
+        return tags[index];
+    }
+
+    /**
+     * Get the date and time this LogRecord was created at, in the system time zone.
+     *
+     * @return Date and time
+     */
+    public LocalDateTime time() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneId.systemDefault());
+    }
 
-public record LogRecord(String message, LogLevel level, String loggerName, LocalDateTime time, StackTraceElement stackFrame) {
     /**
      * Return the filepath of this LogRecord if it can be found.
      *
      * @return The filepath if found, otherwise the filename
      */
     public String filepath() {
+        if (stackFrame == null) {
+            return UNKNOWN_LOCATION;
+        }
         String path = getFullPath(stackFrame.getClassName(), stackFrame.getFileName());
         if (path != null) {
             return path;
         }
-        return stackFrame.getFileName(); // Fall back to filename if path can't be found
+        return filename(); // Fall back to filename if path can't be found
     }
 
     /**
      * Get the filename this LogRecord was created in.
      *
-     * @return Filename
+     * @return Filename; UNKNOWN_LOCATION if the location wasn't captured
      */
     public String filename() {
+        if (stackFrame == null || stackFrame.getFileName() == null) {
+            return UNKNOWN_LOCATION;
+        }
         return stackFrame.getFileName();
     }
 
     /**
      * Get the line number this LogRecord was created in.
      *
-     * @return Line number
+     * @return Line number; -1 if the location wasn't captured
      */
     public int lineNumber() {
+        if (stackFrame == null) {
+            return -1;
+        }
         return stackFrame.getLineNumber();
     }
 
+    /**
+     * Point this reusable LogRecord at a new log with a plain message.
+     *
+     * @param message - Message
+     * @param level - LogLevel
+     * @param loggerName - Name of the Logger
+     * @param timestamp - Time of the log in milliseconds since the epoch
+     * @param stackFrame - Location of the log; null if unknown
+     */
+    void set(String message, LogLevel level, String loggerName, long timestamp, StackTraceElement stackFrame) {
+        this.pattern = message;
+        this.message = message;
+        this.argCount = 0;
+        this.fieldCount = 0;
+        this.tagCount = 0;
+        this.level = level;
+        this.loggerName = loggerName;
+        this.timestamp = timestamp;
+        this.stackFrame = stackFrame;
+    }
+
+    /**
+     * Point this reusable LogRecord at a new log with a parameterized message.
+     * The arguments are copied into this record's own array, which only grows when needed.
+     *
+     * @param pattern - Message pattern
+     * @param args - Arguments; null to use arg1 to arg3
+     * @param count - Number of arguments
+     * @param arg1 - First argument, if args is null
+     * @param arg2 - Second argument, if args is null
+     * @param arg3 - Third argument, if args is null
+     * @param level - LogLevel
+     * @param loggerName - Name of the Logger
+     * @param timestamp - Time of the log in milliseconds since the epoch
+     * @param stackFrame - Location of the log; null if unknown
+     */
+    void set(
+        String pattern,
+        Object[] args,
+        int count,
+        Object arg1,
+        Object arg2,
+        Object arg3,
+        LogLevel level,
+        String loggerName,
+        long timestamp,
+        StackTraceElement stackFrame
+    ) {
+        set(pattern, level, loggerName, timestamp, stackFrame);
+        this.message = null;
+        reserveArgs(count);
+        if (args != null) {
+            System.arraycopy(args, 0, this.args, 0, count);
+        } else {
+            this.args[0] = arg1;
+            this.args[1] = arg2;
+            this.args[2] = arg3;
+        }
+        this.argCount = count;
+    }
+
+    /**
+     * Copy another LogRecord into this reusable one.
+     *
+     * @param other - LogRecord to copy
+     */
+    void copyFrom(LogRecord other) {
+        if (other.argCount == 0) {
+            set(other.pattern, other.level, other.loggerName, other.timestamp, other.stackFrame);
+            this.message = other.message;
+        } else {
+            set(other.pattern, other.args, other.argCount, null, null, null,
+                other.level, other.loggerName, other.timestamp, other.stackFrame);
+        }
+        setFields(other.fieldKeys, other.fieldValues, other.fieldCount);
+        setTags(other.tags, other.tagCount);
+    }
+
+    /**
+     * Attach structured fields to this LogRecord.
+     * They are copied, into arrays that are only replaced when they are too small.
+     *
+     * @param keys - Keys
+     * @param values - Values
+     * @param count - Number of fields to copy
+     */
+    void setFields(String[] keys, Object[] values, int count) {
+        if (count > 0 && (fieldKeys == null || fieldKeys.length < count)) {
+            fieldKeys = new String[count];
+            fieldValues = new Object[count];
+        }
+        if (count > 0) {
+            System.arraycopy(keys, 0, fieldKeys, 0, count);
+            System.arraycopy(values, 0, fieldValues, 0, count);
+        }
+        fieldCount = count;
+    }
+
+    /**
+     * Attach marker tags to this LogRecord.
+     * They are copied, into an array that is only replaced when it is too small.
+     *
+     * @param source - Tags
+     * @param count - Number of tags to copy
+     */
+    void setTags(String[] source, int count) {
+        if (count > 0) {
+            if (tags == null || tags.length < count) {
+                tags = new String[count];
+            }
+            System.arraycopy(source, 0, tags, 0, count);
+        }
+        tagCount = count;
+    }
+
+    /**
+     * Drop every reference held by this reusable LogRecord, so it doesn't keep them alive.
+     */
+    void clear() {
+        if (args != null) {
+            Arrays.fill(args, 0, argCount, null);
+        }
+        argCount = 0;
+        if (fieldKeys != null) {
+            Arrays.fill(fieldKeys, 0, fieldCount, null);
+            Arrays.fill(fieldValues, 0, fieldCount, null);
+        }
+        fieldCount = 0;
+        if (tags != null) {
+            Arrays.fill(tags, 0, tagCount, null);
+        }
+        tagCount = 0;
+        pattern = null;
+        message = null;
+        loggerName = null;
+        stackFrame = null;
+    }
+
+    /**
+     * Make sure this reusable LogRecord's argument array has room for a number of arguments.
+     *
+     * @param count - Number of arguments
+     */
+    private void reserveArgs(int count) {
+        if (args == null || args.length < count) {
+            args = new Object[Math.max(count, REUSABLE_ARGS)];
+        }
+    }
+
+    /**
+     * Check that a structured field exists.
+     *
+     * @param index - Index of the field
+     * @throws IndexOutOfBoundsException If there is no field at index
+     */
+    private void checkFieldIndex(int index) throws IndexOutOfBoundsException {
+        if (index < 0 || index >= fieldCount) {
+            throw new IndexOutOfBoundsException("No field " + index + ", record has " + fieldCount);
+        }
+    }
+
+    /**
+     * Check whether another object is a LogRecord with the same message, level, Logger name, timestamp and location.
+     * Messages are compared once substituted, so a parameterized record equals a plain one with the same text.
+     *
+     * @param obj - Object to compare to
+     * @return If they are equal
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        return obj instanceof LogRecord other
+            && timestamp == other.timestamp
+            && level == other.level
+            && Objects.equals(loggerName, other.loggerName)
+            && Objects.equals(stackFrame, other.stackFrame)
+            && Objects.equals(message(), other.message());
+    }
+
+    /**
+     * Hash the same components as {@link #equals(Object)}.
+     *
+     * @return Hash code
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(message(), level, loggerName, timestamp, stackFrame);
+    }
+
+    @Override
+    public String toString() {
+        return "LogRecord[level=" + level + ", loggerName=" + loggerName + ", timestamp=" + timestamp
+            + ", message=" + message() + "]";
+    }
+
     private static String getFullPath(String className, String fileName) {
         if (fileName == null) {
             return null;
         }
 
-        // Try to load the class as a resource
-        String resourcePath = className.replace('.', '/') + ".class";
-        var resource = Thread.currentThread().getContextClassLoader().getResource(resourcePath);
-        if (resource != null) {
-            return resource.getPath();
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        if (loader == null) {
+            loader = ClassLoader.getSystemClassLoader();
+        }
+        return PathCache.get(loader, className);
+    }
+
+    /**
+     * Initialize a LogRecord.
+     *
+     * @param message - Message
+     * @param level - LogLevel
+     * @param loggerName - Name of the Logger
+     * @param timestamp - Time of the log in milliseconds since the epoch
+     * @param stackFrame - Location of the log; null if unknown
+     */
+    public LogRecord(String message, LogLevel level, String loggerName, long timestamp, StackTraceElement stackFrame) {
+        this(message, null, level, loggerName, timestamp, stackFrame);
+        this.message = message;
+    }
+
+    /**
+     * Initialize a LogRecord with structured fields and marker tags.
+     *
+     * @param message - Message
+     * @param level - LogLevel
+     * @param loggerName - Name of the Logger
+     * @param timestamp - Time of the log in milliseconds since the epoch
+     * @param stackFrame - Location of the log; null if unknown
+     * @param fieldKeys - Field keys
+     * @param fieldValues - Field values, one per key
+     * @param tags - Marker tags
+     * @throws IllegalArgumentException If there isn't one value per key
+     */
+    public LogRecord(
+        String message,
+        LogLevel level,
+        String loggerName,
+        long timestamp,
+        StackTraceElement stackFrame,
+        String[] fieldKeys,
+        Object[] fieldValues,
+        String[] tags
+    ) throws IllegalArgumentException {
+        this(message, level, loggerName, timestamp, stackFrame);
+        if (fieldKeys.length != fieldValues.length) {
+            throw new IllegalArgumentException("Got " + fieldKeys.length + " field keys but " + fieldValues.length + " values");
         }
-        return null;
+        setFields(fieldKeys, fieldValues, fieldKeys.length);
+        setTags(tags, tags.length);
+    }
+
+    /**
+     * Initialize a LogRecord with a LocalDateTime in the system time zone.
+     *
+     * @param message - Message
+     * @param level - LogLevel
+     * @param loggerName - Name of the Logger
+     * @param time - Date and time of the log
+     * @param stackFrame - Location of the log; null if unknown
+     */
+    public LogRecord(String message, LogLevel level, String loggerName, LocalDateTime time, StackTraceElement stackFrame) {
+        this(message, level, loggerName, time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(), stackFrame);
+    }
+
+    /**
+     * Initialize a parameterized LogRecord, whose message is substituted when first needed.
+     *
+     * @param pattern - Message pattern with "{}" placeholders
+     * @param args - Arguments for the placeholders
+     * @param level - LogLevel
+     * @param loggerName - Name of the Logger
+     * @param timestamp - Time of the log in milliseconds since the epoch
+     * @param stackFrame - Location of the log; null if unknown
+     */
+    public LogRecord(
+        String pattern,
+        Object[] args,
+        LogLevel level,
+        String loggerName,
+        long timestamp,
+        StackTraceElement stackFrame
+    ) {
+        this.pattern = pattern;
+        this.args = args;
+        this.argCount = args == null ? 0 : args.length;
+        this.level = level;
+        this.loggerName = loggerName;
+        this.timestamp = timestamp;
+        this.stackFrame = stackFrame;
+        this.reusable = false;
+    }
+
+    /**
+     * Initialize an empty reusable LogRecord for a garbage-free Logger.
+     */
+    LogRecord() {
+        this.args = new Object[REUSABLE_ARGS];
+        this.reusable = true;
     }
 }
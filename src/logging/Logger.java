@@ -1,27 +1,101 @@
 package logging;
 
 import java.io.IOException;
-import java.time.LocalDateTime;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
 
+import logging.clock.LogClock;
+import logging.clock.SystemClock;
+import logging.filter.Filter;
+import logging.filter.FilterChain;
+import logging.filter.SiteLimiter;
+import logging.format.Encoder;
 import logging.format.Formatter;
+import logging.format.Scratch;
+import logging.metrics.LoggerMetrics;
+import logging.metrics.OutputMetrics;
 import logging.output.FileOutput;
 import logging.output.Output;
 import logging.output.StreamOutput;
 
 public class Logger {
-    // How many steps up the stack we need to go to find
-    // the location of the original caller
-    private final int STACK_LEVEL = 3;
+    private final String name;
+    // Swapped as a whole on every change, see LoggerConfig
+    private volatile LoggerConfig config;
+    // Loggers that inherit from this one (only used by LoggerRegistry)
+    private final CopyOnWriteArrayList<Logger> children = new CopyOnWriteArrayList<>();
+    // Reports logs a SiteLimiter dropped from a call site that has gone quiet since
+    private final SiteLimiter.Reporter suppressedReporter =
+        (site, level, suppressed) -> reportSuppressed(level, site, config.clock.millis(), suppressed);
 
-    private String name;
-    private LogLevel baseLevel;
-    private boolean enabled;
-    private Formatter formatter;
-    private ArrayList<Output> outputs;
+    // Per-thread record reused in garbage-free mode
+    private static final Scratch<LogRecord> REUSABLE = new Scratch<>(LogRecord::new);
+    private static final Scratch<Rendered> RENDERED = new Scratch<>(Rendered::new);
+
+    // Messages formatted from the record being dispatched, one per distinct Formatter,
+    // so Outputs that share a Formatter get the same message instead of formatting it again
+    private static final class Rendered {
+        private Formatter[] formatters = new Formatter[4];
+        private String[] messages = new String[4];
+        private StringBuilder[] builders = new StringBuilder[4];
+        private int count;
+
+        /**
+         * Find the message already formatted by a Formatter.
+         *
+         * @param form - Formatter
+         * @return Slot of the message; -1 if form hasn't been used yet
+         */
+        private int indexOf(Formatter form) {
+            for (int i = 0; i < count; i++) {
+                if (formatters[i] == form) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Claim a slot for the message of a Formatter not used yet.
+         *
+         * @param form - Formatter
+         * @return Slot, with an empty builder
+         */
+        private int add(Formatter form) {
+            if (count == formatters.length) {
+                formatters = Arrays.copyOf(formatters, count * 2);
+                messages = Arrays.copyOf(messages, count * 2);
+                builders = Arrays.copyOf(builders, count * 2);
+            }
+            if (builders[count] == null) {
+                builders[count] = new StringBuilder(256);
+            }
+            builders[count].setLength(0);
+            formatters[count] = form;
+            return count++;
+        }
+
+        /**
+         * Forget the messages of the last record.
+         */
+        private void clear() {
+            for (int i = 0; i < count; i++) {
+                formatters[i] = null;
+                messages[i] = null;
+                builders[i] = Scratch.trim(builders[i]);
+            }
+            count = 0;
+        }
+    }
 
     public static final LogLevel DEFAULT_LEVEL = LogLevel.INFO;
     public static final Formatter DEFAULT_FORMATTER = new Formatter();
+    public static final LogClock DEFAULT_CLOCK = SystemClock.INSTANCE;
+    public static final long DEFAULT_DEDUP_TIMEOUT_MILLIS = 5000;
 
     /**
      * Set up this Logger.
@@ -34,37 +108,37 @@ public class Logger {
     /**
      * Configure this Logger without a filepath.
      * Enter parameters as null to leave them unchanged.
+     * All changes are applied at once.
      *
      * @param level - Base LogLevel
      * @param form - Formatter to use
      * @param outs - Collection of outputs
      * @param e - Whether the logger should be enabled
      */
-    public void config(
+    public synchronized void config(
         LogLevel level,
         Formatter form,
         ArrayList<Output> outs,
         Boolean e
     ) {
+        LoggerConfig updated = config;
         if (level != null) {
-            baseLevel = level;
+            updated = updated.withBaseLevel(level);
         }
         if (form != null) {
-            formatter = form;
+            updated = updated.withFormatter(form);
         }
         if (outs != null) {
-            outputs.clear();
-            for (Output output : outs) {
-                outputs.add(output);
-            }
+            updated = updated.withOutputs(outs.toArray(new Output[0]));
         }
         if (e != null) {
-            enabled = e;
+            updated = updated.withEnabled(e);
         }
 
-        if (outputs.size() == 0) {
-            outputs.add(new StreamOutput());
+        if (updated.effectiveOutputs.length == 0) {
+            updated = updated.withOutputs(new Output[] {new StreamOutput()});
         }
+        update(updated);
     }
 
     /**
@@ -86,19 +160,27 @@ public class Logger {
         String filepath
     ) throws IOException {
         if (filepath != null) {
-            outputs.add(new FileOutput(filepath));
+            addOutput(new FileOutput(filepath));
         }
         config(level, form, outs, e);
     }
 
     /**
      * Reset this Logger's config options to their default state.
+     * Metrics, if enabled, are kept.
      */
-    public void resetConfig() {
-        baseLevel = DEFAULT_LEVEL;
-        formatter = DEFAULT_FORMATTER;
-        outputs.clear();
-        enabled = true;
+    public synchronized void resetConfig() {
+        // Report repeats while the Outputs they belong to are still attached
+        Deduplicator previous = config.dedup;
+        if (previous != null) {
+            previous.flush(this);
+        }
+        if (config.parent == null) {
+            update(defaultConfig(DEFAULT_LEVEL, DEFAULT_FORMATTER).withMetrics(config.metrics));
+        } else {
+            // Loggers in a hierarchy go back to inheriting everything
+            update(defaultConfig(null, null).withMetrics(config.metrics).withParent(config.parent));
+        }
     }
 
     /**
@@ -107,11 +189,21 @@ public class Logger {
      * @param message - Message to log
      */
     public void log(Object message) {
-        logInner(message, baseLevel);
+        logInner(message, config.effectiveLevel);
     }
+
     /**
+     * Lazily log a message with this Logger's base level.
+     * The Supplier is only called if the log passes this Logger's level check.
+     *
+     * @param message - Supplier of the message to log
+     */
+    public void log(Supplier<?> message) {
+        logInner(message, config.effectiveLevel);
+    }
 
-    * Log a message.
+    /**
+     * Log a message.
      *
      * @param message - Message to log
      * @param level - LogLevel of the log
@@ -120,6 +212,29 @@ public class Logger {
         logInner(message, level);
     }
 
+    /**
+     * Lazily log a message.
+     * The Supplier is only called if the log passes this Logger's level check.
+     *
+     * @param message - Supplier of the message to log
+     * @param level - LogLevel of the log
+     */
+    public void log(Supplier<?> message, LogLevel level) {
+        logInner(message, level);
+    }
+
+    /**
+     * Log a parameterized message.
+     * The arguments are only substituted into the "{}" placeholders if the log passes this Logger's level check.
+     *
+     * @param level - LogLevel of the log
+     * @param pattern - Message pattern
+     * @param args - Arguments
+     */
+    public void log(LogLevel level, String pattern, Object... args) {
+        logInner(level, pattern, args);
+    }
+
     /**
      * Log a message with LogLevel DEBUG.
      *
@@ -129,6 +244,63 @@ public class Logger {
         logInner(message, LogLevel.DEBUG);
     }
 
+    /**
+     * Lazily log a message with LogLevel DEBUG.
+     * The Supplier is only called if the log passes this Logger's level check.
+     *
+     * @param message - Supplier of the message to log
+     */
+    public void debug(Supplier<?> message) {
+        logInner(message, LogLevel.DEBUG);
+    }
+
+    /**
+     * Log a parameterized message with LogLevel DEBUG.
+     * The argument is only substituted into the "{}" placeholder if the log passes this Logger's level check.
+     *
+     * @param pattern - Message pattern
+     * @param arg - Argument
+     */
+    public void debug(String pattern, Object arg) {
+        logInner(LogLevel.DEBUG, pattern, 1, arg, null, null);
+    }
+
+    /**
+     * Log a parameterized message with LogLevel DEBUG.
+     * The arguments are only substituted into the "{}" placeholders if the log passes this Logger's level check.
+     *
+     * @param pattern - Message pattern
+     * @param arg1 - First argument
+     * @param arg2 - Second argument
+     */
+    public void debug(String pattern, Object arg1, Object arg2) {
+        logInner(LogLevel.DEBUG, pattern, 2, arg1, arg2, null);
+    }
+
+    /**
+     * Log a parameterized message with LogLevel DEBUG.
+     * The arguments are only substituted into the "{}" placeholders if the log passes this Logger's level check.
+     *
+     * @param pattern - Message pattern
+     * @param arg1 - First argument
+     * @param arg2 - Second argument
+     * @param arg3 - Third argument
+     */
+    public void debug(String pattern, Object arg1, Object arg2, Object arg3) {
+        logInner(LogLevel.DEBUG, pattern, 3, arg1, arg2, arg3);
+    }
+
+    /**
+     * Log a parameterized message with LogLevel DEBUG.
+     * The arguments are only substituted into the "{}" placeholders if the log passes this Logger's level check.
+     *
+     * @param pattern - Message pattern
+     * @param args - Arguments
+     */
+    public void debug(String pattern, Object... args) {
+        logInner(LogLevel.DEBUG, pattern, args);
+    }
+
     /**
      * Log a message with LogLevel INFO.
      *
@@ -138,6 +310,63 @@ public class Logger {
         logInner(message, LogLevel.INFO);
     }
 
+    /**
+     * Lazily log a message with LogLevel INFO.
+     * The Supplier is only called if the log passes this Logger's level check.
+     *
+     * @param message - Supplier of the message to log
+     */
+    public void info(Supplier<?> message) {
+        logInner(message, LogLevel.INFO);
+    }
+
+    /**
+     * Log a parameterized message with LogLevel INFO.
+     * The argument is only substituted into the "{}" placeholder if the log passes this Logger's level check.
+     *
+     * @param pattern - Message pattern
+     * @param arg - Argument
+     */
+    public void info(String pattern, Object arg) {
+        logInner(LogLevel.INFO, pattern, 1, arg, null, null);
+    }
+
+    /**
+     * Log a parameterized message with LogLevel INFO.
+     * The arguments are only substituted into the "{}" placeholders if the log passes this Logger's level check.
+     *
+     * @param pattern - Message pattern
+     * @param arg1 - First argument
+     * @param arg2 - Second argument
+     */
+    public void info(String pattern, Object arg1, Object arg2) {
+        logInner(LogLevel.INFO, pattern, 2, arg1, arg2, null);
+    }
+
+    /**
+     * Log a parameterized message with LogLevel INFO.
+     * The arguments are only substituted into the "{}" placeholders if the log passes this Logger's level check.
+     *
+     * @param pattern - Message pattern
+     * @param arg1 - First argument
+     * @param arg2 - Second argument
+     * @param arg3 - Third argument
+     */
+    public void info(String pattern, Object arg1, Object arg2, Object arg3) {
+        logInner(LogLevel.INFO, pattern, 3, arg1, arg2, arg3);
+    }
+
+    /**
+     * Log a parameterized message with LogLevel INFO.
+     * The arguments are only substituted into the "{}" placeholders if the log passes this Logger's level check.
+     *
+     * @param pattern - Message pattern
+     * @param args - Arguments
+     */
+    public void info(String pattern, Object... args) {
+        logInner(LogLevel.INFO, pattern, args);
+    }
+
     /**
      * Log a message with LogLevel WARN.
      *
@@ -147,6 +376,63 @@ public class Logger {
         logInner(message, LogLevel.WARN);
     }
 
+    /**
+     * Lazily log a message with LogLevel WARN.
+     * The Supplier is only called if the log passes this Logger's level check.
+     *
+     * @param message - Supplier of the message to log
+     */
+    public void warn(Supplier<?> message) {
+        logInner(message, LogLevel.WARN);
+    }
+
+    /**
+     * Log a parameterized message with LogLevel WARN.
+     * The argument is only substituted into the "{}" placeholder if the log passes this Logger's level check.
+     *
+     * @param pattern - Message pattern
+     * @param arg - Argument
+     */
+    public void warn(String pattern, Object arg) {
+        logInner(LogLevel.WARN, pattern, 1, arg, null, null);
+    }
+
+    /**
+     * Log a parameterized message with LogLevel WARN.
+     * The arguments are only substituted into the "{}" placeholders if the log passes this Logger's level check.
+     *
+     * @param pattern - Message pattern
+     * @param arg1 - First argument
+     * @param arg2 - Second argument
+     */
+    public void warn(String pattern, Object arg1, Object arg2) {
+        logInner(LogLevel.WARN, pattern, 2, arg1, arg2, null);
+    }
+
+    /**
+     * Log a parameterized message with LogLevel WARN.
+     * The arguments are only substituted into the "{}" placeholders if the log passes this Logger's level check.
+     *
+     * @param pattern - Message pattern
+     * @param arg1 - First argument
+     * @param arg2 - Second argument
+     * @param arg3 - Third argument
+     */
+    public void warn(String pattern, Object arg1, Object arg2, Object arg3) {
+        logInner(LogLevel.WARN, pattern, 3, arg1, arg2, arg3);
+    }
+
+    /**
+     * Log a parameterized message with LogLevel WARN.
+     * The arguments are only substituted into the "{}" placeholders if the log passes this Logger's level check.
+     *
+     * @param pattern - Message pattern
+     * @param args - Arguments
+     */
+    public void warn(String pattern, Object... args) {
+        logInner(LogLevel.WARN, pattern, args);
+    }
+
     /**
      * Log a message with LogLevel WARNING.
      *
@@ -156,6 +442,63 @@ public class Logger {
         logInner(message, LogLevel.WARNING);
     }
 
+    /**
+     * Lazily log a message with LogLevel WARNING.
+     * The Supplier is only called if the log passes this Logger's level check.
+     *
+     * @param message - Supplier of the message to log
+     */
+    public void warning(Supplier<?> message) {
+        logInner(message, LogLevel.WARNING);
+    }
+
+    /**
+     * Log a parameterized message with LogLevel WARNING.
+     * The argument is only substituted into the "{}" placeholder if the log passes this Logger's level check.
+     *
+     * @param pattern - Message pattern
+     * @param arg - Argument
+     */
+    public void warning(String pattern, Object arg) {
+        logInner(LogLevel.WARNING, pattern, 1, arg, null, null);
+    }
+
+    /**
+     * Log a parameterized message with LogLevel WARNING.
+     * The arguments are only substituted into the "{}" placeholders if the log passes this Logger's level check.
+     *
+     * @param pattern - Message pattern
+     * @param arg1 - First argument
+     * @param arg2 - Second argument
+     */
+    public void warning(String pattern, Object arg1, Object arg2) {
+        logInner(LogLevel.WARNING, pattern, 2, arg1, arg2, null);
+    }
+
+    /**
+     * Log a parameterized message with LogLevel WARNING.
+     * The arguments are only substituted into the "{}" placeholders if the log passes this Logger's level check.
+     *
+     * @param pattern - Message pattern
+     * @param arg1 - First argument
+     * @param arg2 - Second argument
+     * @param arg3 - Third argument
+     */
+    public void warning(String pattern, Object arg1, Object arg2, Object arg3) {
+        logInner(LogLevel.WARNING, pattern, 3, arg1, arg2, arg3);
+    }
+
+    /**
+     * Log a parameterized message with LogLevel WARNING.
+     * The arguments are only substituted into the "{}" placeholders if the log passes this Logger's level check.
+     *
+     * @param pattern - Message pattern
+     * @param args - Arguments
+     */
+    public void warning(String pattern, Object... args) {
+        logInner(LogLevel.WARNING, pattern, args);
+    }
+
     /**
      * Log a message with LogLevel ERROR.
      *
@@ -165,6 +508,63 @@ public class Logger {
         logInner(message, LogLevel.ERROR);
     }
 
+    /**
+     * Lazily log a message with LogLevel ERROR.
+     * The Supplier is only called if the log passes this Logger's level check.
+     *
+     * @param message - Supplier of the message to log
+     */
+    public void error(Supplier<?> message) {
+        logInner(message, LogLevel.ERROR);
+    }
+
+    /**
+     * Log a parameterized message with LogLevel ERROR.
+     * The argument is only substituted into the "{}" placeholder if the log passes this Logger's level check.
+     *
+     * @param pattern - Message pattern
+     * @param arg - Argument
+     */
+    public void error(String pattern, Object arg) {
+        logInner(LogLevel.ERROR, pattern, 1, arg, null, null);
+    }
+
+    /**
+     * Log a parameterized message with LogLevel ERROR.
+     * The arguments are only substituted into the "{}" placeholders if the log passes this Logger's level check.
+     *
+     * @param pattern - Message pattern
+     * @param arg1 - First argument
+     * @param arg2 - Second argument
+     */
+    public void error(String pattern, Object arg1, Object arg2) {
+        logInner(LogLevel.ERROR, pattern, 2, arg1, arg2, null);
+    }
+
+    /**
+     * Log a parameterized message with LogLevel ERROR.
+     * The arguments are only substituted into the "{}" placeholders if the log passes this Logger's level check.
+     *
+     * @param pattern - Message pattern
+     * @param arg1 - First argument
+     * @param arg2 - Second argument
+     * @param arg3 - Third argument
+     */
+    public void error(String pattern, Object arg1, Object arg2, Object arg3) {
+        logInner(LogLevel.ERROR, pattern, 3, arg1, arg2, arg3);
+    }
+
+    /**
+     * Log a parameterized message with LogLevel ERROR.
+     * The arguments are only substituted into the "{}" placeholders if the log passes this Logger's level check.
+     *
+     * @param pattern - Message pattern
+     * @param args - Arguments
+     */
+    public void error(String pattern, Object... args) {
+        logInner(LogLevel.ERROR, pattern, args);
+    }
+
     /**
      * Log a message with LogLevel FATAL.
      *
@@ -174,6 +574,63 @@ public class Logger {
         logInner(message, LogLevel.FATAL);
     }
 
+    /**
+     * Lazily log a message with LogLevel FATAL.
+     * The Supplier is only called if the log passes this Logger's level check.
+     *
+     * @param message - Supplier of the message to log
+     */
+    public void fatal(Supplier<?> message) {
+        logInner(message, LogLevel.FATAL);
+    }
+
+    /**
+     * Log a parameterized message with LogLevel FATAL.
+     * The argument is only substituted into the "{}" placeholder if the log passes this Logger's level check.
+     *
+     * @param pattern - Message pattern
+     * @param arg - Argument
+     */
+    public void fatal(String pattern, Object arg) {
+        logInner(LogLevel.FATAL, pattern, 1, arg, null, null);
+    }
+
+    /**
+     * Log a parameterized message with LogLevel FATAL.
+     * The arguments are only substituted into the "{}" placeholders if the log passes this Logger's level check.
+     *
+     * @param pattern - Message pattern
+     * @param arg1 - First argument
+     * @param arg2 - Second argument
+     */
+    public void fatal(String pattern, Object arg1, Object arg2) {
+        logInner(LogLevel.FATAL, pattern, 2, arg1, arg2, null);
+    }
+
+    /**
+     * Log a parameterized message with LogLevel FATAL.
+     * The arguments are only substituted into the "{}" placeholders if the log passes this Logger's level check.
+     *
+     * @param pattern - Message pattern
+     * @param arg1 - First argument
+     * @param arg2 - Second argument
+     * @param arg3 - Third argument
+     */
+    public void fatal(String pattern, Object arg1, Object arg2, Object arg3) {
+        logInner(LogLevel.FATAL, pattern, 3, arg1, arg2, arg3);
+    }
+
+    /**
+     * Log a parameterized message with LogLevel FATAL.
+     * The arguments are only substituted into the "{}" placeholders if the log passes this Logger's level check.
+     *
+     * @param pattern - Message pattern
+     * @param args - Arguments
+     */
+    public void fatal(String pattern, Object... args) {
+        logInner(LogLevel.FATAL, pattern, args);
+    }
+
     /**
      * Log a message with LogLevel CRITICAL.
      *
@@ -183,6 +640,74 @@ public class Logger {
         logInner(message, LogLevel.CRITICAL);
     }
 
+    /**
+     * Lazily log a message with LogLevel CRITICAL.
+     * The Supplier is only called if the log passes this Logger's level check.
+     *
+     * @param message - Supplier of the message to log
+     */
+    public void critical(Supplier<?> message) {
+        logInner(message, LogLevel.CRITICAL);
+    }
+
+    /**
+     * Log a parameterized message with LogLevel CRITICAL.
+     * The argument is only substituted into the "{}" placeholder if the log passes this Logger's level check.
+     *
+     * @param pattern - Message pattern
+     * @param arg - Argument
+     */
+    public void critical(String pattern, Object arg) {
+        logInner(LogLevel.CRITICAL, pattern, 1, arg, null, null);
+    }
+
+    /**
+     * Log a parameterized message with LogLevel CRITICAL.
+     * The arguments are only substituted into the "{}" placeholders if the log passes this Logger's level check.
+     *
+     * @param pattern - Message pattern
+     * @param arg1 - First argument
+     * @param arg2 - Second argument
+     */
+    public void critical(String pattern, Object arg1, Object arg2) {
+        logInner(LogLevel.CRITICAL, pattern, 2, arg1, arg2, null);
+    }
+
+    /**
+     * Log a parameterized message with LogLevel CRITICAL.
+     * The arguments are only substituted into the "{}" placeholders if the log passes this Logger's level check.
+     *
+     * @param pattern - Message pattern
+     * @param arg1 - First argument
+     * @param arg2 - Second argument
+     * @param arg3 - Third argument
+     */
+    public void critical(String pattern, Object arg1, Object arg2, Object arg3) {
+        logInner(LogLevel.CRITICAL, pattern, 3, arg1, arg2, arg3);
+    }
+
+    /**
+     * Log a parameterized message with LogLevel CRITICAL.
+     * The arguments are only substituted into the "{}" placeholders if the log passes this Logger's level check.
+     *
+     * @param pattern - Message pattern
+     * @param args - Arguments
+     */
+    public void critical(String pattern, Object... args) {
+        logInner(LogLevel.CRITICAL, pattern, args);
+    }
+
+    /**
+     * Get a Logger from the default {@link LoggerRegistry}, creating it if it doesn't exist.
+     * Loggers are arranged in a hierarchy by their dot-separated names.
+     *
+     * @param name - Name of the Logger
+     * @return Shared Logger
+     */
+    public static Logger getLogger(String name) {
+        return LoggerRegistry.getDefault().getLogger(name);
+    }
+
     /**
      * Generate a basic Logger for instant, quick logging.
      *
@@ -207,7 +732,7 @@ public class Logger {
      * @return Formatter
      */
     public Formatter getFormatter() {
-        return formatter;
+        return config.effectiveFormatter;
     }
 
     /**
@@ -220,25 +745,45 @@ public class Logger {
      * @return Formatter casted to the type given
      */
     public <F extends Formatter> F getFormatterAs(Class<F> type) {
-        return type.cast(formatter);
+        return type.cast(config.effectiveFormatter);
     }
 
     /**
      * Set this Logger's Formatter.
      *
-     * @param form - Formatter
+     * @param form - Formatter; null to inherit it from the parent Logger
      */
-    public void setFormatter(Formatter form) {
-        formatter = form;
+    public synchronized void setFormatter(Formatter form) {
+        update(config.withFormatter(form));
     }
 
     /**
-     * Get this Logger's Outputs.
+     * Get the LogClock this Logger timestamps its records with.
+     *
+     * @return LogClock
+     */
+    public LogClock getClock() {
+        return config.clock;
+    }
+
+    /**
+     * Set the LogClock this Logger timestamps its records with.
+     * Use a {@link logging.clock.CachedClock} to trade timestamp precision for speed.
+     *
+     * @param clock - LogClock
+     */
+    public synchronized void setClock(LogClock clock) {
+        update(config.withClock(clock));
+    }
+
+    /**
+     * Get this Logger's own Outputs, not including any inherited from its parent.
+     * The returned list is a copy, use addOutput and removeOutput to change them.
      *
      * @return Outputs
      */
     public ArrayList<Output> getOutputs() {
-        return outputs;
+        return new ArrayList<>(List.of(config.outputs));
     }
 
     /**
@@ -246,49 +791,66 @@ public class Logger {
      *
      * @param output - Output to add
      */
-    public void addOutput(Output output) {
-        outputs.add(output);
+    public synchronized void addOutput(Output output) {
+        Output[] outputs = config.outputs;
+        Output[] updated = Arrays.copyOf(outputs, outputs.length + 1);
+        updated[outputs.length] = output;
+        update(config.withOutputs(updated));
     }
 
     /**
      * Remove an Output from this Logger.
+     * Does nothing if the Output isn't attached to this Logger.
      *
      * @param output - Output to remove
      */
-    public void removeOutput(Output output) {
-        int i = 0;
-        for (Output existingOutput : outputs) {
-            if (existingOutput.equals(output)) {
-                break;
+    public synchronized void removeOutput(Output output) {
+        Output[] outputs = config.outputs;
+        for (int i = 0; i < outputs.length; i++) {
+            if (outputs[i].equals(output)) {
+                Output[] updated = new Output[outputs.length - 1];
+                System.arraycopy(outputs, 0, updated, 0, i);
+                System.arraycopy(outputs, i + 1, updated, i, outputs.length - i - 1);
+                update(config.withOutputs(updated));
+                return;
             }
-            i++;
         }
-        outputs.remove(i);
     }
 
     /**
      * Remove all Outputs from this Logger.
      */
-    public void removeAllOutputs() {
-        outputs.clear();
+    public synchronized void removeAllOutputs() {
+        update(config.withOutputs(LoggerConfig.NO_OUTPUTS));
+    }
+
+    /**
+     * Flush every Output of this Logger, writing out anything they have buffered.
+     */
+    public void flush() {
+        for (Output output : config.effectiveOutputs) {
+            output.flush();
+        }
     }
 
     /**
      * Get this Logger's base logging level.
+     * If the level is inherited, this is the level of the nearest ancestor that set one.
      *
      * @return Base logging level
      */
     public LogLevel getBaseLevel() {
-        return baseLevel;
+        return config.effectiveLevel;
     }
 
     /**
      * Set this Logger's base logging level.
+     * The change is applied to every descendant that inherits it.
      *
-     * @param level - Base logging level
+     * @param level - Base logging level; null to inherit it from the parent Logger
      */
-    public void setBaseLevel(LogLevel level) {
-        baseLevel = level;
+    public synchronized void setBaseLevel(LogLevel level) {
+        update(config.withBaseLevel(level));
     }
 
     /**
@@ -297,64 +859,699 @@ public class Logger {
      * @return Enabled status
      */
     public boolean isEnabled() {
-        return enabled;
+        return config.enabled;
+    }
+
+    /**
+     * Check whether a log with the given level would be sent by this Logger.
+     * Use this to guard expensive work that is only needed for logging.
+     *
+     * @param level - LogLevel to check
+     * @return If the level passes this Logger's checks
+     */
+    public boolean isEnabled(LogLevel level) {
+        return config.accepts(level);
+    }
+
+    /**
+     * Start a structured log, to attach key/value fields to before logging it.
+     * If the level doesn't pass this Logger's checks, a LogBuilder that ignores everything is returned.
+     * The LogBuilder is reused by this thread, so it must be finished with log() in the same statement.
+     *
+     * @param level - LogLevel of the log
+     * @return LogBuilder
+     */
+    public LogBuilder atLevel(LogLevel level) {
+        LoggerConfig cfg = config;
+        if (!cfg.accepts(level)) {
+            countFiltered(cfg, level);
+            return LogBuilder.DISABLED;
+        }
+        return LogBuilder.start(this, level);
+    }
+
+    /**
+     * Start a structured log with LogLevel DEBUG.
+     *
+     * @return LogBuilder
+     */
+    public LogBuilder atDebug() {
+        return atLevel(LogLevel.DEBUG);
+    }
+
+    /**
+     * Start a structured log with LogLevel INFO.
+     *
+     * @return LogBuilder
+     */
+    public LogBuilder atInfo() {
+        return atLevel(LogLevel.INFO);
+    }
+
+    /**
+     * Start a structured log with LogLevel WARN.
+     *
+     * @return LogBuilder
+     */
+    public LogBuilder atWarn() {
+        return atLevel(LogLevel.WARN);
+    }
+
+    /**
+     * Start a structured log with LogLevel WARNING.
+     *
+     * @return LogBuilder
+     */
+    public LogBuilder atWarning() {
+        return atLevel(LogLevel.WARNING);
+    }
+
+    /**
+     * Start a structured log with LogLevel ERROR.
+     *
+     * @return LogBuilder
+     */
+    public LogBuilder atError() {
+        return atLevel(LogLevel.ERROR);
+    }
+
+    /**
+     * Start a structured log with LogLevel FATAL.
+     *
+     * @return LogBuilder
+     */
+    public LogBuilder atFatal() {
+        return atLevel(LogLevel.FATAL);
+    }
+
+    /**
+     * Start a structured log with LogLevel CRITICAL.
+     *
+     * @return LogBuilder
+     */
+    public LogBuilder atCritical() {
+        return atLevel(LogLevel.CRITICAL);
     }
 
     /**
      * Enable this Logger.
      */
-    public void enable() {
-        enabled = true;
+    public synchronized void enable() {
+        update(config.withEnabled(true));
     }
 
     /**
      * Disable this Logger.
      */
-    public void disable() {
-        enabled = false;
+    public synchronized void disable() {
+        update(config.withEnabled(false));
+    }
+
+    /**
+     * Check whether this Logger also sends to its parent's Outputs.
+     *
+     * @return Additivity
+     */
+    public boolean isAdditive() {
+        return config.additive;
+    }
+
+    /**
+     * Set whether this Logger also sends to its parent's Outputs.
+     * Only matters for Loggers from a {@link LoggerRegistry}.
+     *
+     * @param additive - Additivity
+     */
+    public synchronized void setAdditive(boolean additive) {
+        update(config.withAdditive(additive));
+    }
+
+    /**
+     * Check whether this Logger's location capture is enabled.
+     *
+     * @return Location capture status
+     */
+    public boolean isLocationCaptureEnabled() {
+        return config.locationCapture;
+    }
+
+    /**
+     * Enable location capture for this Logger.
+     * The location of a log is only captured if a Formatter in use needs
+     * {filepath}, {filename} or {line}.
+     */
+    public synchronized void enableLocationCapture() {
+        update(config.withLocationCapture(true));
+    }
+
+    /**
+     * Disable location capture for this Logger.
+     * Location fields will be formatted as unknown.
+     */
+    public synchronized void disableLocationCapture() {
+        update(config.withLocationCapture(false));
+    }
+
+    /**
+     * Check whether this Logger is in garbage-free mode.
+     *
+     * @return Garbage-free status
+     */
+    public boolean isGarbageFree() {
+        return config.garbageFree;
+    }
+
+    /**
+     * Enable garbage-free mode for this Logger.
+     * Records and formatting buffers are reused per thread instead of allocated for each log,
+     * and Outputs that support it (e.g. BufferedOutputs) encode straight from the reused buffer.
+     * Once warmed up, logging a String or parameterized message allocates nothing, as long as
+     * location capture isn't needed and the arguments are Strings or boxed primitives
+     * (boxing itself may still allocate at the call site for values outside the JVM's caches).
+     * Outputs and Formatters must not keep references to records or messages they are given.
+     */
+    public synchronized void enableGarbageFree() {
+        update(config.withGarbageFree(true));
+    }
+
+    /**
+     * Disable garbage-free mode for this Logger.
+     */
+    public synchronized void disableGarbageFree() {
+        update(config.withGarbageFree(false));
+    }
+
+    /**
+     * Get this Logger's filters.
+     *
+     * @return FilterChain
+     */
+    public FilterChain getFilters() {
+        return config.filters;
+    }
+
+    /**
+     * Add a Filter to the end of this Logger's filters, e.g. one from Filters.
+     * Logs that pass the level check must also pass every filter, in order, to be sent.
+     * Filters see the log call itself, before its location is found, its timestamp is taken
+     * or any LogRecord is built. Filters of a parent Logger aren't inherited.
+     *
+     * @param filter - Filter to add
+     * @throws IllegalArgumentException If filter is null
+     */
+    public synchronized void addFilter(Filter filter) throws IllegalArgumentException {
+        update(config.withFilters(config.filters.with(filter)));
+    }
+
+    /**
+     * Remove a Filter from this Logger's filters.
+     *
+     * @param filter - Filter to remove
+     */
+    public synchronized void removeFilter(Filter filter) {
+        update(config.withFilters(config.filters.without(filter)));
+    }
+
+    /**
+     * Remove every Filter from this Logger.
+     */
+    public synchronized void removeAllFilters() {
+        update(config.withFilters(FilterChain.EMPTY));
+    }
+
+    /**
+     * Get this Logger's SiteLimiter.
+     *
+     * @return SiteLimiter; null if logs aren't limited
+     */
+    public SiteLimiter getLimiter() {
+        return config.limiter;
+    }
+
+    /**
+     * Limit how often each call site may log, e.g. with a TokenBucketLimiter, SamplingLimiter or IntervalLimiter.
+     * Logs that pass the level check are checked against the limit before a record is built,
+     * and dropped logs are reported in a periodic "Suppressed N messages" record from the same site.
+     * Finding the call site costs a short stack walk per log, even when locations aren't formatted.
+     *
+     * @param limiter - SiteLimiter; null to stop limiting
+     */
+    public synchronized void setLimiter(SiteLimiter limiter) {
+        update(config.withLimiter(limiter));
+    }
+
+    /**
+     * Stop limiting how often call sites may log.
+     */
+    public synchronized void removeLimiter() {
+        update(config.withLimiter(null));
+    }
+
+    /**
+     * Check whether this Logger collapses repeated logs.
+     *
+     * @return Deduplication status
+     */
+    public boolean isDeduplicating() {
+        return config.dedup != null;
+    }
+
+    /**
+     * Collapse bursts of identical consecutive logs, timing out after DEFAULT_DEDUP_TIMEOUT_MILLIS.
+     *
+     * @see #enableDeduplication(long)
+     */
+    public void enableDeduplication() {
+        enableDeduplication(DEFAULT_DEDUP_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Collapse bursts of identical consecutive logs: same level, pattern, arguments, fields and call site.
+     * The first log of a burst is sent, its repeats are only counted, and a single
+     * "Last message repeated N times" record is sent once a different log comes along
+     * or the burst has gone on for the timeout. Arguments and field values are compared
+     * with equals(), so repeats are neither formatted nor built into records.
+     *
+     * @param timeoutMillis - Longest a burst is collapsed before its repeats are reported
+     * @throws IllegalArgumentException If timeoutMillis isn't positive
+     */
+    public synchronized void enableDeduplication(long timeoutMillis) throws IllegalArgumentException {
+        Deduplicator previous = config.dedup;
+        if (previous != null) {
+            previous.flush(this);
+        }
+        update(config.withDedup(new Deduplicator(timeoutMillis)));
+        if (previous != null) {
+            // Catch a burst started by another thread before the swap
+            previous.flush(this);
+        }
+    }
+
+    /**
+     * Stop collapsing repeated logs, reporting any repeats counted so far.
+     */
+    public synchronized void disableDeduplication() {
+        Deduplicator previous = config.dedup;
+        if (previous != null) {
+            previous.flush(this);
+            update(config.withDedup(null));
+            // Catch a burst started by another thread before the swap
+            previous.flush(this);
+        }
+    }
+
+    /**
+     * Get this Logger's metrics.
+     *
+     * @return LoggerMetrics; null if metrics are off
+     */
+    public LoggerMetrics getMetrics() {
+        return config.metrics;
+    }
+
+    /**
+     * Start recording metrics for this Logger and register them over JMX
+     * as logging:type=Logger,name="NAME", or "NAME#2" and so on if that name is taken.
+     * Does nothing if they are already on.
+     * Per level counts are cheap, but timing each format and send reads the clock twice per Output.
+     *
+     * @return LoggerMetrics
+     */
+    public synchronized LoggerMetrics enableMetrics() {
+        if (config.metrics == null) {
+            LoggerMetrics metrics = new LoggerMetrics(name);
+            metrics.registerMBean();
+            update(config.withMetrics(metrics));
+        }
+        return config.metrics;
+    }
+
+    /**
+     * Stop recording metrics for this Logger and unregister them.
+     */
+    public synchronized void disableMetrics() {
+        if (config.metrics != null) {
+            config.metrics.unregisterMBean();
+            update(config.withMetrics(null));
+        }
     }
 
     /**
      * Internal backend logging function.
-     * Format and send message to each Output in this Logger's outputs ArrayList.
+     * Format and send message to each Output of this Logger.
+     * Nothing is allocated, converted to a String or captured
+     * unless the log passes this Logger's checks.
      *
-     * @param message - Message to log
+     * @param message - Message to log, or a Supplier of it
      * @param level - LogLevel of the log
      * @throws IllegalArgumentException If message cannot be converted to a String
      */
     private void logInner(Object message, LogLevel level) throws IllegalArgumentException {
+        // Read the config once so the whole log sees the same one
+        LoggerConfig cfg = config;
+
+        // Stop here if this Logger is disabled or the LogLevel is under baseLevel
+        if (!cfg.accepts(level)) {
+            countFiltered(cfg, level);
+            return;
+        }
+
+        if (message instanceof Supplier<?> supplier) {
+            message = supplier.get();
+        }
         String messageString = message.toString();
 
         if (messageString == null) {
             throw new IllegalArgumentException("Log message object's .toString() method must not return null");
         }
 
-        // Stop here if this Logger is disabled or the LogLevel is under baseLevel
-        if (!enabled || LogLevels.toInt(baseLevel) > LogLevels.toInt(level)) {
+        // A message without arguments is never substituted, so it can take the same path
+        logParameterized(cfg, level, messageString, null, 0, null, null, null, null);
+    }
+
+    /**
+     * Internal backend logging function for parameterized messages with up to three arguments.
+     * Taking the arguments separately means nothing is allocated for logs that don't pass
+     * this Logger's checks.
+     *
+     * @param level - LogLevel of the log
+     * @param pattern - Message pattern
+     * @param count - Number of arguments given
+     * @param arg1 - First argument
+     * @param arg2 - Second argument
+     * @param arg3 - Third argument
+     * @throws IllegalArgumentException If pattern is null
+     */
+    private void logInner(
+        LogLevel level,
+        String pattern,
+        int count,
+        Object arg1,
+        Object arg2,
+        Object arg3
+    ) throws IllegalArgumentException {
+        LoggerConfig cfg = config;
+        if (!cfg.accepts(level)) {
+            countFiltered(cfg, level);
             return;
         }
 
-        StackTraceElement[] stackTrace = Thread.currentThread().getStackTrace();
-        LogRecord record = new LogRecord(messageString, level, name, LocalDateTime.now(), stackTrace[STACK_LEVEL]);
+        logParameterized(cfg, level, pattern, null, count, arg1, arg2, arg3, null);
+    }
 
-        for (Output output : outputs) {
-            String out;
+    /**
+     * Internal backend logging function for parameterized messages.
+     *
+     * @param level - LogLevel of the log
+     * @param pattern - Message pattern
+     * @param args - Arguments
+     * @throws IllegalArgumentException If pattern is null
+     */
+    private void logInner(LogLevel level, String pattern, Object[] args) throws IllegalArgumentException {
+        LoggerConfig cfg = config;
+        if (!cfg.accepts(level)) {
+            countFiltered(cfg, level);
+            return;
+        }
+        logParameterized(cfg, level, pattern, args, args == null ? 0 : args.length, null, null, null, null);
+    }
 
-            if (output.getFormatter() != null) {
-                out = output.getFormatter().format(record);
-            } else {
-                out = formatter.format(record);
+    /**
+     * Count a log dropped by the level check or a Filter, if metrics are on.
+     *
+     * @param cfg - LoggerConfig the log was checked against
+     * @param level - LogLevel of the log
+     */
+    private static void countFiltered(LoggerConfig cfg, LogLevel level) {
+        if (cfg.metrics != null) {
+            cfg.metrics.recordFiltered(level);
+        }
+    }
+
+    /**
+     * Internal backend logging function for LogBuilders, whose level has already been checked.
+     *
+     * @param level - LogLevel of the log
+     * @param pattern - Message pattern
+     * @param args - Arguments; null to use arg1 to arg3
+     * @param count - Number of arguments
+     * @param arg1 - First argument, if args is null
+     * @param arg2 - Second argument, if args is null
+     * @param arg3 - Third argument, if args is null
+     * @param fields - LogBuilder holding the structured fields
+     * @throws IllegalArgumentException If pattern is null
+     */
+    void logStructured(
+        LogLevel level,
+        String pattern,
+        Object[] args,
+        int count,
+        Object arg1,
+        Object arg2,
+        Object arg3,
+        LogBuilder fields
+    ) throws IllegalArgumentException {
+        logParameterized(config, level, pattern, args, count, arg1, arg2, arg3, fields);
+    }
+
+    /**
+     * Create and dispatch a parameterized LogRecord that has passed this Logger's checks.
+     * The arguments are substituted when the record is formatted, not here.
+     *
+     * @param cfg - LoggerConfig the log was checked against
+     * @param level - LogLevel of the log
+     * @param pattern - Message pattern
+     * @param args - Arguments; null to use arg1 to arg3
+     * @param count - Number of arguments
+     * @param arg1 - First argument, if args is null
+     * @param arg2 - Second argument, if args is null
+     * @param arg3 - Third argument, if args is null
+     * @param fields - LogBuilder holding structured fields; null for none
+     * @throws IllegalArgumentException If pattern is null
+     */
+    private void logParameterized(
+        LoggerConfig cfg,
+        LogLevel level,
+        String pattern,
+        Object[] args,
+        int count,
+        Object arg1,
+        Object arg2,
+        Object arg3,
+        LogBuilder fields
+    ) throws IllegalArgumentException {
+        if (pattern == null) {
+            throw new IllegalArgumentException("Log message pattern must not be null");
+        }
+        if (!cfg.filters.isEmpty() && !PendingLog.passes(cfg, name, level, pattern, args, count, arg1, arg2, arg3, fields)) {
+            countFiltered(cfg, level);
+            return;
+        }
+
+        StackTraceElement location = null;
+        long timestamp = cfg.clock.millis();
+        if (cfg.limiter != null) {
+            // Limits are per call site, so the site is needed whether or not it gets formatted
+            StackTraceElement site = CallerLocator.find();
+            long suppressed = cfg.limiter.admit(site, level, timestamp, suppressedReporter);
+            if (suppressed == SiteLimiter.DROP) {
+                if (cfg.metrics != null) {
+                    cfg.metrics.recordRateLimited();
+                }
+                return;
+            }
+            if (suppressed > 0) {
+                reportSuppressed(level, site, timestamp, suppressed);
             }
+            if (cfg.needsLocation()) {
+                location = site;
+            }
+        } else if (cfg.needsLocation()) {
+            location = CallerLocator.find();
+        }
+        if (cfg.dedup != null && cfg.dedup.isRepeat(this, level, pattern, args, count, arg1, arg2, arg3, fields, location, timestamp)) {
+            if (cfg.metrics != null) {
+                cfg.metrics.recordDeduplicated();
+            }
+            return;
+        }
+        if (cfg.metrics != null) {
+            cfg.metrics.recordAccepted(level);
+        }
 
-            boolean sent = output.send(out);
-            // If an IOException occurs, disable that Output and log it.
-            if (!sent) {
-                output.disable();
-                logInner(
-                    "Output " + output.toString() + " raised an IOException and has been disabled",
-                    LogLevel.ERROR
-                );
+        if (cfg.garbageFree) {
+            // Logs made while dispatching (e.g. Output failures) get their own record
+            LogRecord reusable = REUSABLE.acquire();
+            try {
+                reusable.set(pattern, args, count, arg1, arg2, arg3, level, name, timestamp, location);
+                if (fields != null) {
+                    fields.copyTo(reusable);
+                }
+                dispatch(reusable);
+            } finally {
+                reusable.clear();
+                REUSABLE.release(reusable);
             }
+            return;
+        }
+
+        if (args == null) {
+            switch (count) {
+                case 0:
+                    break;
+
+                case 1:
+                    args = new Object[] {arg1};
+                    break;
+
+                case 2:
+                    args = new Object[] {arg1, arg2};
+                    break;
+
+                default:
+                    args = new Object[] {arg1, arg2, arg3};
+                    break;
+            }
+        }
+        LogRecord record = new LogRecord(pattern, args, level, name, timestamp, location);
+        if (fields != null) {
+            fields.copyTo(record);
+        }
+        dispatch(record);
+    }
+
+    /**
+     * Send a summary of the logs a SiteLimiter dropped from one call site.
+     * It is logged at the same level and from the same location, but isn't limited itself.
+     *
+     * @param level - LogLevel of the dropped logs
+     * @param site - Location of the call site; null if unknown
+     * @param timestamp - Timestamp for the summary
+     * @param suppressed - Number of logs dropped
+     */
+    private void reportSuppressed(LogLevel level, StackTraceElement site, long timestamp, long suppressed) {
+        Object[] args = {suppressed, site == null ? "an unknown location" : site};
+        StackTraceElement location = config.needsLocation() ? site : null;
+        dispatch(new LogRecord("Suppressed {} messages from {}", args, level, name, timestamp, location));
+    }
+
+    /**
+     * Send a summary of how many times a log was repeated, for a Deduplicator.
+     *
+     * @param level - LogLevel of the repeated log
+     * @param site - Location of the repeated log; null if it wasn't captured
+     * @param repeats - Number of repeats
+     */
+    void reportRepeats(LogLevel level, StackTraceElement site, long repeats) {
+        LoggerConfig cfg = config;
+        Object[] args = {repeats};
+        dispatch(new LogRecord("Last message repeated {} times", args, level, name, cfg.clock.millis(), site));
+    }
+
+    /**
+     * Format and send a LogRecord to each enabled Output of this Logger.
+     * Outputs that share a Formatter are sent the same message, formatted once.
+     * Subclasses can override this to change where and when records are written,
+     * e.g. {@link AsyncLogger} hands them off to a background thread.
+     *
+     * @param record - LogRecord to send
+     */
+    protected void dispatch(LogRecord record) {
+        LoggerConfig cfg = config;
+        LoggerMetrics metrics = cfg.metrics;
+        // Logs made while dispatching (e.g. Output failures) format their own messages
+        Rendered rendered = RENDERED.acquire();
+
+        try {
+            for (Output output : cfg.effectiveOutputs) {
+                OutputMetrics outputMetrics = output.getMetrics();
+                if (!output.isEnabled()) {
+                    if (metrics != null) {
+                        metrics.recordSkipped();
+                    }
+                    if (outputMetrics != null) {
+                        outputMetrics.recordSkipped();
+                    }
+                    continue;
+                }
+                FilterChain outputFilters = output.getFilters();
+                if (!outputFilters.isEmpty() && !outputFilters.test(record)) {
+                    continue;
+                }
+                Formatter form = output.getFormatter() != null ? output.getFormatter() : cfg.effectiveFormatter;
+                Encoder encoder = output.getEncoder();
+                // Only read the clock if someone is measuring
+                boolean timed = metrics != null || outputMetrics != null;
+                long start = timed ? System.nanoTime() : 0L;
+                long formatted = start;
+                long bytesSent = 0;
+                long charsSent = 0;
+                boolean sent;
+
+                if (output.encodesRecords()) {
+                    // Encoded inside the Output, so it all counts as send time
+                    sent = output.send(record);
+                } else if (encoder != null) {
+                    ByteBuffer bytes = encoder.encode(record);
+                    if (timed) {
+                        formatted = System.nanoTime();
+                    }
+                    bytesSent = bytes.remaining();
+                    sent = output.send(bytes, record);
+                } else if (cfg.garbageFree) {
+                    // Format into this thread's builder and let the Output encode it from there
+                    int slot = rendered.indexOf(form);
+                    if (slot < 0) {
+                        slot = rendered.add(form);
+                        form.formatTo(record, rendered.builders[slot]);
+                    }
+                    StringBuilder builder = rendered.builders[slot];
+                    if (timed) {
+                        formatted = System.nanoTime();
+                    }
+                    charsSent = builder.length();
+                    sent = output.send(builder, record);
+                } else {
+                    int slot = rendered.indexOf(form);
+                    if (slot < 0) {
+                        slot = rendered.add(form);
+                        rendered.messages[slot] = form.format(record);
+                    }
+                    String message = rendered.messages[slot];
+                    if (timed) {
+                        formatted = System.nanoTime();
+                    }
+                    charsSent = message.length();
+                    sent = output.send(message, record);
+                }
+
+                if (timed) {
+                    long end = System.nanoTime();
+                    if (metrics != null) {
+                        metrics.recordSend(formatted - start, end - formatted, bytesSent, charsSent);
+                    }
+                    if (outputMetrics != null) {
+                        outputMetrics.recordSend(formatted - start, end - formatted, bytesSent, charsSent);
+                    }
+                }
+                // If an IOException occurs, disable that Output and log it.
+                if (!sent) {
+                    output.disable();
+                    if (metrics != null) {
+                        metrics.recordFailure();
+                    }
+                    if (outputMetrics != null) {
+                        outputMetrics.recordFailure();
+                    }
+                    logInner(
+                        "Output " + output.toString() + " raised an IOException and has been disabled",
+                        LogLevel.ERROR
+                    );
+                }
+            }
+        } finally {
+            rendered.clear();
+            RENDERED.release(rendered);
         }
     }
 
@@ -386,9 +1583,49 @@ public class Logger {
      */
     public Logger(String name, LogLevel baseLevel, Formatter formatter) {
         this.name = name;
-        this.baseLevel = baseLevel;
-        this.enabled = true;
-        this.formatter = formatter;
-        this.outputs = new ArrayList<>();
+        this.config = defaultConfig(baseLevel, formatter);
+    }
+
+    /**
+     * Get a LoggerConfig with no Outputs and default options.
+     *
+     * @param baseLevel - Lowest LogLevel to track
+     * @param formatter - Formatter to use
+     * @return LoggerConfig
+     */
+    private static LoggerConfig defaultConfig(LogLevel baseLevel, Formatter formatter) {
+        return new LoggerConfig(baseLevel, formatter, LoggerConfig.NO_OUTPUTS, true, true, true, false, DEFAULT_CLOCK, null, null, null, FilterChain.EMPTY, null);
+    }
+
+    /**
+     * Attach a child Logger, which will inherit from this one from now on.
+     *
+     * @param child - Child Logger
+     */
+    synchronized void addChild(Logger child) {
+        child.parentChanged(config);
+        children.add(child);
+    }
+
+    /**
+     * Resolve this Logger's config against a new snapshot of its parent's.
+     *
+     * @param parentConfig - Parent's LoggerConfig
+     */
+    private synchronized void parentChanged(LoggerConfig parentConfig) {
+        update(config.withParent(parentConfig));
+    }
+
+    /**
+     * Publish a new config and pass it on to every child Logger.
+     * Must be called while holding this Logger's lock.
+     *
+     * @param updated - New LoggerConfig
+     */
+    private void update(LoggerConfig updated) {
+        config = updated;
+        for (Logger child : children) {
+            child.parentChanged(updated);
+        }
     }
 }
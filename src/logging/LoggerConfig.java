@@ -0,0 +1,290 @@
+package logging;
+
+import logging.clock.LogClock;
+import logging.filter.FilterChain;
+import logging.filter.SiteLimiter;
+import logging.format.Encoder;
+import logging.format.Formatter;
+import logging.metrics.LoggerMetrics;
+import logging.output.Output;
+
+/**
+ * Immutable snapshot of a Logger's configuration.
+ *
+ * Loggers swap in a new LoggerConfig whenever they are reconfigured, so logging
+ * threads only ever read one volatile reference and never see a half-applied change.
+ * Settings inherited from a parent Logger are resolved when the snapshot is built,
+ * so logging never has to walk up the hierarchy.
+ */
+final class LoggerConfig {
+    static final Output[] NO_OUTPUTS = new Output[0];
+
+    // Set on the Logger itself, null level/formatter means inherited from the parent
+    final LogLevel baseLevel;
+    final Formatter formatter;
+    final Output[] outputs;
+    final boolean enabled;
+    final boolean locationCapture;
+    final boolean additive;
+    // Reuse records and buffers instead of allocating per log
+    final boolean garbageFree;
+    final LogClock clock;
+    // Counters to record into; null when metrics are off
+    final LoggerMetrics metrics;
+    // Per call site rate limit checked before records are built; null for none
+    final SiteLimiter limiter;
+    // Collapses repeated logs before records are built; null for none
+    final Deduplicator dedup;
+    // Checked after the level, before anything else is done for a log; never null
+    final FilterChain filters;
+    // Snapshot of the parent Logger's config; null if there is no parent
+    final LoggerConfig parent;
+
+    // Resolved against the parent
+    final LogLevel effectiveLevel;
+    final Formatter effectiveFormatter;
+    // Own Outputs followed by the parent's if additive
+    final Output[] effectiveOutputs;
+    // Lowest LogLevels.toInt value that gets logged, Integer.MAX_VALUE when disabled
+    final int threshold;
+
+    /**
+     * Check whether a log with the given level passes this config.
+     *
+     * @param level - LogLevel of the log
+     * @return If it should be logged
+     */
+    boolean accepts(LogLevel level) {
+        return LogLevels.toInt(level) >= threshold;
+    }
+
+    /**
+     * Check whether any Formatter or Encoder used by the Outputs needs the location of a log.
+     *
+     * @return If the location should be captured
+     */
+    boolean needsLocation() {
+        if (!locationCapture) {
+            return false;
+        }
+        for (Output output : effectiveOutputs) {
+            if (output.encodesRecords()) {
+                if (output.usesLocation()) {
+                    return true;
+                }
+                continue;
+            }
+            Encoder encoder = output.getEncoder();
+            if (encoder != null) {
+                if (encoder.usesLocation()) {
+                    return true;
+                }
+                continue;
+            }
+            Formatter form = output.getFormatter() != null ? output.getFormatter() : effectiveFormatter;
+            if (form.usesLocation()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Copy this LoggerConfig with a different base level.
+     *
+     * @param level - Base LogLevel; null to inherit it
+     * @return New LoggerConfig
+     */
+    LoggerConfig withBaseLevel(LogLevel level) {
+        return new LoggerConfig(level, formatter, outputs, enabled, locationCapture, additive, garbageFree, clock, metrics, limiter, dedup, filters, parent);
+    }
+
+    /**
+     * Copy this LoggerConfig with a different Formatter.
+     *
+     * @param form - Formatter; null to inherit it
+     * @return New LoggerConfig
+     */
+    LoggerConfig withFormatter(Formatter form) {
+        return new LoggerConfig(baseLevel, form, outputs, enabled, locationCapture, additive, garbageFree, clock, metrics, limiter, dedup, filters, parent);
+    }
+
+    /**
+     * Copy this LoggerConfig with different Outputs.
+     *
+     * @param outs - Outputs, not copied
+     * @return New LoggerConfig
+     */
+    LoggerConfig withOutputs(Output[] outs) {
+        return new LoggerConfig(baseLevel, formatter, outs, enabled, locationCapture, additive, garbageFree, clock, metrics, limiter, dedup, filters, parent);
+    }
+
+    /**
+     * Copy this LoggerConfig with a different enabled status.
+     *
+     * @param e - Whether logging is enabled
+     * @return New LoggerConfig
+     */
+    LoggerConfig withEnabled(boolean e) {
+        return new LoggerConfig(baseLevel, formatter, outputs, e, locationCapture, additive, garbageFree, clock, metrics, limiter, dedup, filters, parent);
+    }
+
+    /**
+     * Copy this LoggerConfig with a different location capture status.
+     *
+     * @param capture - Whether the location of logs may be captured
+     * @return New LoggerConfig
+     */
+    LoggerConfig withLocationCapture(boolean capture) {
+        return new LoggerConfig(baseLevel, formatter, outputs, enabled, capture, additive, garbageFree, clock, metrics, limiter, dedup, filters, parent);
+    }
+
+    /**
+     * Copy this LoggerConfig with a different additivity.
+     *
+     * @param add - Whether the parent's Outputs are used as well
+     * @return New LoggerConfig
+     */
+    LoggerConfig withAdditive(boolean add) {
+        return new LoggerConfig(baseLevel, formatter, outputs, enabled, locationCapture, add, garbageFree, clock, metrics, limiter, dedup, filters, parent);
+    }
+
+    /**
+     * Copy this LoggerConfig with a different garbage-free status.
+     *
+     * @param gf - Whether records and buffers are reused
+     * @return New LoggerConfig
+     */
+    LoggerConfig withGarbageFree(boolean gf) {
+        return new LoggerConfig(baseLevel, formatter, outputs, enabled, locationCapture, additive, gf, clock, metrics, limiter, dedup, filters, parent);
+    }
+
+    /**
+     * Copy this LoggerConfig with a different LogClock.
+     *
+     * @param c - LogClock
+     * @return New LoggerConfig
+     */
+    LoggerConfig withClock(LogClock c) {
+        return new LoggerConfig(baseLevel, formatter, outputs, enabled, locationCapture, additive, garbageFree, c, metrics, limiter, dedup, filters, parent);
+    }
+
+    /**
+     * Copy this LoggerConfig with different LoggerMetrics.
+     *
+     * @param m - LoggerMetrics; null to turn metrics off
+     * @return New LoggerConfig
+     */
+    LoggerConfig withMetrics(LoggerMetrics m) {
+        return new LoggerConfig(baseLevel, formatter, outputs, enabled, locationCapture, additive, garbageFree, clock, m, limiter, dedup, filters, parent);
+    }
+
+    /**
+     * Copy this LoggerConfig with a different SiteLimiter.
+     *
+     * @param l - SiteLimiter; null for none
+     * @return New LoggerConfig
+     */
+    LoggerConfig withLimiter(SiteLimiter l) {
+        return new LoggerConfig(baseLevel, formatter, outputs, enabled, locationCapture, additive, garbageFree, clock, metrics, l, dedup, filters, parent);
+    }
+
+    /**
+     * Copy this LoggerConfig with a different Deduplicator.
+     *
+     * @param d - Deduplicator; null for none
+     * @return New LoggerConfig
+     */
+    LoggerConfig withDedup(Deduplicator d) {
+        return new LoggerConfig(baseLevel, formatter, outputs, enabled, locationCapture, additive, garbageFree, clock, metrics, limiter, d, filters, parent);
+    }
+
+    /**
+     * Copy this LoggerConfig with a different FilterChain.
+     *
+     * @param f - FilterChain
+     * @return New LoggerConfig
+     */
+    LoggerConfig withFilters(FilterChain f) {
+        return new LoggerConfig(baseLevel, formatter, outputs, enabled, locationCapture, additive, garbageFree, clock, metrics, limiter, dedup, f, parent);
+    }
+
+    /**
+     * Copy this LoggerConfig, resolving it against a new parent snapshot.
+     *
+     * @param p - Parent's LoggerConfig
+     * @return New LoggerConfig
+     */
+    LoggerConfig withParent(LoggerConfig p) {
+        return new LoggerConfig(baseLevel, formatter, outputs, enabled, locationCapture, additive, garbageFree, clock, metrics, limiter, dedup, filters, p);
+    }
+
+    /**
+     * Initialize a new LoggerConfig.
+     *
+     * @param baseLevel - Lowest LogLevel to track; null to inherit it
+     * @param formatter - Default Formatter; null to inherit it
+     * @param outputs - Outputs, not copied so it must never be modified afterwards
+     * @param enabled - Whether logging is enabled
+     * @param locationCapture - Whether the location of logs may be captured
+     * @param additive - Whether the parent's Outputs are used as well
+     * @param garbageFree - Whether records and buffers are reused
+     * @param clock - LogClock for timestamps
+     * @param metrics - LoggerMetrics to record into; null for none
+     * @param limiter - SiteLimiter for logs that pass the level check; null for none
+     * @param dedup - Deduplicator for logs that pass the level check and limiter; null for none
+     * @param filters - FilterChain for logs that pass the level check
+     * @param parent - Parent's LoggerConfig; null if there is no parent
+     */
+    LoggerConfig(
+        LogLevel baseLevel,
+        Formatter formatter,
+        Output[] outputs,
+        boolean enabled,
+        boolean locationCapture,
+        boolean additive,
+        boolean garbageFree,
+        LogClock clock,
+        LoggerMetrics metrics,
+        SiteLimiter limiter,
+        Deduplicator dedup,
+        FilterChain filters,
+        LoggerConfig parent
+    ) {
+        this.baseLevel = baseLevel;
+        this.formatter = formatter;
+        this.outputs = outputs;
+        this.enabled = enabled;
+        this.locationCapture = locationCapture;
+        this.additive = additive;
+        this.garbageFree = garbageFree;
+        this.clock = clock;
+        this.metrics = metrics;
+        this.limiter = limiter;
+        this.dedup = dedup;
+        this.filters = filters;
+        this.parent = parent;
+
+        if (baseLevel != null) {
+            this.effectiveLevel = baseLevel;
+        } else {
+            this.effectiveLevel = parent != null ? parent.effectiveLevel : Logger.DEFAULT_LEVEL;
+        }
+        if (formatter != null) {
+            this.effectiveFormatter = formatter;
+        } else {
+            this.effectiveFormatter = parent != null ? parent.effectiveFormatter : Logger.DEFAULT_FORMATTER;
+        }
+
+        if (parent == null || !additive || parent.effectiveOutputs.length == 0) {
+            this.effectiveOutputs = outputs;
+        } else {
+            Output[] inherited = parent.effectiveOutputs;
+            this.effectiveOutputs = new Output[outputs.length + inherited.length];
+            System.arraycopy(outputs, 0, effectiveOutputs, 0, outputs.length);
+            System.arraycopy(inherited, 0, effectiveOutputs, outputs.length, inherited.length);
+        }
+
+        this.threshold = enabled ? LogLevels.toInt(effectiveLevel) : Integer.MAX_VALUE;
+    }
+}
@@ -0,0 +1,114 @@
+package logging;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import logging.output.Output;
+import logging.output.StreamOutput;
+
+/**
+ * Shared Loggers arranged in a hierarchy by dot-separated name.
+ *
+ * "app.db" is a child of "app", which is a child of the root Logger "".
+ * Children inherit their parent's level and Formatter unless they set their own,
+ * and also send to their parent's Outputs while they are additive.
+ * Inherited settings are resolved whenever something changes, so logging itself
+ * never walks the hierarchy, and looking up an existing Logger takes no lock.
+ */
+public class LoggerRegistry {
+    private static final LoggerRegistry DEFAULT = new LoggerRegistry();
+
+    private final ConcurrentHashMap<String, Logger> loggers = new ConcurrentHashMap<>();
+    private final Logger root;
+
+    public static final String ROOT_NAME = "";
+
+    /**
+     * Get a Logger, creating it and any missing ancestors if it doesn't exist.
+     *
+     * @param name - Dot-separated name of the Logger; "" for the root Logger
+     * @return Shared Logger
+     * @throws IllegalArgumentException If name is null
+     */
+    public Logger getLogger(String name) throws IllegalArgumentException {
+        if (name == null) {
+            throw new IllegalArgumentException("Logger name cannot be null");
+        }
+
+        Logger logger = loggers.get(name);
+        if (logger != null) {
+            return logger;
+        }
+        return create(name);
+    }
+
+    /**
+     * Get the root Logger, which every other Logger in this registry descends from.
+     *
+     * @return Root Logger
+     */
+    public Logger getRootLogger() {
+        return root;
+    }
+
+    /**
+     * Check whether a Logger has been created.
+     *
+     * @param name - Dot-separated name of the Logger
+     * @return If the Logger exists
+     */
+    public boolean contains(String name) {
+        return loggers.containsKey(name);
+    }
+
+    /**
+     * Get the LoggerRegistry used by Logger.getLogger.
+     *
+     * @return Default LoggerRegistry
+     */
+    public static LoggerRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Create a Logger under its parent, creating the parent first if needed.
+     *
+     * @param name - Dot-separated name of the Logger
+     * @return Shared Logger
+     */
+    private Logger create(String name) {
+        int dot = name.lastIndexOf('.');
+        Logger parent = dot < 0 ? root : getLogger(name.substring(0, dot));
+
+        synchronized (this) {
+            Logger logger = loggers.get(name);
+            if (logger == null) {
+                // No level or Formatter of its own, both are inherited
+                logger = new Logger(name, null, null);
+                parent.addChild(logger);
+                loggers.put(name, logger);
+            }
+            return logger;
+        }
+    }
+
+    /**
+     * Initialize a LoggerRegistry whose root Logger prints to System.err.
+     */
+    public LoggerRegistry() {
+        this.root = new Logger(ROOT_NAME, Logger.DEFAULT_LEVEL, Logger.DEFAULT_FORMATTER);
+        root.addOutput(new StreamOutput());
+        loggers.put(ROOT_NAME, root);
+    }
+
+    /**
+     * Initialize a LoggerRegistry.
+     *
+     * @param rootLevel - Base LogLevel of the root Logger
+     * @param rootOutput - Output of the root Logger
+     */
+    public LoggerRegistry(LogLevel rootLevel, Output rootOutput) {
+        this.root = new Logger(ROOT_NAME, rootLevel, Logger.DEFAULT_FORMATTER);
+        root.addOutput(rootOutput);
+        loggers.put(ROOT_NAME, root);
+    }
+}
@@ -0,0 +1,105 @@
+package logging;
+
+import java.util.Arrays;
+
+/**
+ * Substitutes arguments into "{}" placeholders of a parameterized log message.
+ *
+ * Placeholders are filled in order; extra arguments are ignored and placeholders
+ * without an argument are left as they are. A placeholder can be escaped as "\{}".
+ */
+final class MessagePattern {
+    private static final char ESCAPE = '\\';
+
+    /**
+     * Substitute arguments into a pattern.
+     *
+     * @param pattern - Message pattern
+     * @param args - Arguments
+     * @param count - Number of arguments used from args
+     * @return Message
+     */
+    static String format(String pattern, Object[] args, int count) {
+        if (count == 0 || pattern.indexOf('{') < 0) {
+            return pattern;
+        }
+        StringBuilder builder = new StringBuilder(pattern.length() + 16 * count);
+        formatTo(pattern, args, count, builder);
+        return builder.toString();
+    }
+
+    /**
+     * Substitute arguments into a pattern, appending the result to a StringBuilder.
+     *
+     * @param pattern - Message pattern
+     * @param args - Arguments
+     * @param count - Number of arguments used from args
+     * @param builder - StringBuilder to append to
+     */
+    static void formatTo(String pattern, Object[] args, int count, StringBuilder builder) {
+        if (count == 0) {
+            builder.append(pattern);
+            return;
+        }
+
+        int length = pattern.length();
+        int start = 0;
+        int arg = 0;
+
+        for (int i = 0; i < length - 1; i++) {
+            if (pattern.charAt(i) != '{' || pattern.charAt(i + 1) != '}') {
+                continue;
+            }
+
+            if (i > 0 && pattern.charAt(i - 1) == ESCAPE) {
+                // Keep the placeholder but drop the escape character
+                builder.append(pattern, start, i - 1).append("{}");
+            } else if (arg < count) {
+                builder.append(pattern, start, i);
+                appendArgument(args[arg++], builder);
+            } else {
+                builder.append(pattern, start, i + 2);
+            }
+            start = i + 2;
+            i++;
+        }
+        builder.append(pattern, start, length);
+    }
+
+    /**
+     * Append one argument, printing the contents of arrays instead of their identity.
+     * Boxed primitives and CharSequences are appended directly, without creating a String.
+     *
+     * @param arg - Argument
+     * @param builder - StringBuilder to append to
+     */
+    private static void appendArgument(Object arg, StringBuilder builder) {
+        if (arg instanceof CharSequence chars) {
+            builder.append(chars);
+        } else if (arg instanceof Integer value) {
+            builder.append(value.intValue());
+        } else if (arg instanceof Long value) {
+            builder.append(value.longValue());
+        } else if (arg instanceof Double value) {
+            builder.append(value.doubleValue());
+        } else if (arg instanceof Float value) {
+            builder.append(value.floatValue());
+        } else if (arg instanceof Boolean value) {
+            builder.append(value.booleanValue());
+        } else if (arg instanceof Character value) {
+            builder.append(value.charValue());
+        } else if (arg instanceof Short || arg instanceof Byte) {
+            builder.append(((Number) arg).intValue());
+        } else if (arg == null || !arg.getClass().isArray()) {
+            builder.append(arg);
+        } else if (arg instanceof Object[] array) {
+            builder.append(Arrays.deepToString(array));
+        } else {
+            // Primitive array, wrapped so deepToString picks the right overload and then unwrapped
+            String wrapped = Arrays.deepToString(new Object[] {arg});
+            builder.append(wrapped, 1, wrapped.length() - 1);
+        }
+    }
+
+    private MessagePattern() {}
+}
@@ -0,0 +1,100 @@
+package logging;
+
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches the filepath of classes so {filepath} doesn't need a resource lookup per log.
+ *
+ * Paths are cached per ClassLoader, which are only weakly referenced so a
+ * redeployed application's loader can still be collected. Each loader's cache
+ * is bounded, evicting an arbitrary entry once it is full.
+ */
+final class PathCache {
+    static final int MAX_ENTRIES_PER_LOADER = 4096;
+
+    // Cached in place of a path for classes that couldn't be found
+    private static final String NOT_FOUND = "";
+
+    private static final Map<ClassLoader, ConcurrentHashMap<String, String>> LOADERS =
+        Collections.synchronizedMap(new WeakHashMap<>());
+
+    // Most applications log from a single loader, so remember the last one to skip the lock
+    private static volatile LoaderPaths last = new LoaderPaths(new WeakReference<>(null), new ConcurrentHashMap<>());
+
+    private record LoaderPaths(WeakReference<ClassLoader> loader, ConcurrentHashMap<String, String> paths) {}
+
+    /**
+     * Get the path of the .class file a class was loaded from.
+     *
+     * @param loader - ClassLoader to look the class up with
+     * @param className - Fully qualified name of the class
+     * @return Path of the class; null if it can't be found
+     */
+    static String get(ClassLoader loader, String className) {
+        ConcurrentHashMap<String, String> paths = pathsFor(loader);
+
+        String path = paths.get(className);
+        if (path == null) {
+            path = resolve(loader, className);
+            if (paths.size() >= MAX_ENTRIES_PER_LOADER) {
+                evictOne(paths);
+            }
+            paths.put(className, path);
+        }
+        return path == NOT_FOUND ? null : path;
+    }
+
+    /**
+     * Get the cache for a ClassLoader, creating it if needed.
+     *
+     * @param loader - ClassLoader
+     * @return Cache of class names to paths
+     */
+    private static ConcurrentHashMap<String, String> pathsFor(ClassLoader loader) {
+        LoaderPaths cached = last;
+        if (cached.loader().get() == loader) {
+            return cached.paths();
+        }
+
+        ConcurrentHashMap<String, String> paths = LOADERS.computeIfAbsent(loader, l -> new ConcurrentHashMap<>());
+        last = new LoaderPaths(new WeakReference<>(loader), paths);
+        return paths;
+    }
+
+    /**
+     * Look up the path of a class as a resource.
+     *
+     * @param loader - ClassLoader to look the class up with
+     * @param className - Fully qualified name of the class
+     * @return Path of the class; NOT_FOUND if it can't be found
+     */
+    private static String resolve(ClassLoader loader, String className) {
+        String resourcePath = className.replace('.', '/') + ".class";
+        URL resource = loader.getResource(resourcePath);
+        if (resource != null) {
+            return resource.getPath();
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Remove an arbitrary entry from a full cache.
+     *
+     * @param paths - Cache to remove from
+     */
+    private static void evictOne(ConcurrentHashMap<String, String> paths) {
+        Iterator<String> keys = paths.keySet().iterator();
+        if (keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private PathCache() {}
+}
@@ -0,0 +1,209 @@
+package logging;
+
+import logging.filter.LogEvent;
+import logging.format.Scratch;
+
+/**
+ * View of a log call for Logger filters, before any LogRecord is built.
+ *
+ * Each thread reuses one, pointed at the arguments of the call being checked,
+ * so checking a log against filters allocates nothing.
+ */
+final class PendingLog implements LogEvent {
+    // A log made by a filter gets its own view
+    private static final Scratch<PendingLog> PENDING = new Scratch<>(PendingLog::new);
+
+    private LogLevel level;
+    private String loggerName;
+    private String pattern;
+    private Object[] args;
+    private int argCount;
+    private Object arg1;
+    private Object arg2;
+    private Object arg3;
+    private LogBuilder fields;
+
+    /**
+     * Get the LogLevel of the log.
+     *
+     * @return LogLevel
+     */
+    @Override
+    public LogLevel level() {
+        return level;
+    }
+
+    /**
+     * Get the name of the Logger the log was made with.
+     *
+     * @return Logger name
+     */
+    @Override
+    public String loggerName() {
+        return loggerName;
+    }
+
+    /**
+     * Get the message pattern of the log.
+     *
+     * @return Pattern
+     */
+    @Override
+    public String pattern() {
+        return pattern;
+    }
+
+    /**
+     * Get the number of arguments of the message pattern.
+     *
+     * @return Number of arguments
+     */
+    @Override
+    public int argCount() {
+        return argCount;
+    }
+
+    /**
+     * Get an argument of the message pattern.
+     *
+     * @param index - Index of the argument, under argCount()
+     * @return Argument
+     * @throws IndexOutOfBoundsException If there is no argument at index
+     */
+    @Override
+    public Object arg(int index) throws IndexOutOfBoundsException {
+        if (index < 0 || index >= argCount) {
+            throw new IndexOutOfBoundsException("No argument " + index + ", log has " + argCount);
+        }
+        if (args != null) {
+            return args[index];
+        }
+        return index == 0 ? arg1 : index == 1 ? arg2 : arg3;
+    }
+
+    /**
+     * Get the message of the log, substituting its arguments.
+     *
+     * @return Message
+     */
+    @Override
+    public String message() {
+        if (argCount == 0) {
+            return pattern;
+        }
+        Object[] all = args != null ? args : new Object[] {arg1, arg2, arg3};
+        return MessagePattern.format(pattern, all, argCount);
+    }
+
+    /**
+     * Get the number of structured key/value fields of the log.
+     *
+     * @return Number of fields
+     */
+    @Override
+    public int fieldCount() {
+        return fields == null ? 0 : fields.fieldCount();
+    }
+
+    /**
+     * Get the key of a structured field.
+     *
+     * @param index - Index of the field, under fieldCount()
+     * @return Key
+     * @throws IndexOutOfBoundsException If there is no field at index
+     */
+    @Override
+    public String fieldKey(int index) throws IndexOutOfBoundsException {
+        checkFieldIndex(index);
+        return fields.fieldKey(index);
+    }
+
+    /**
+     * Get the value of a structured field.
+     *
+     * @param index - Index of the field, under fieldCount()
+     * @return Value; may be null
+     * @throws IndexOutOfBoundsException If there is no field at index
+     */
+    @Override
+    public Object fieldValue(int index) throws IndexOutOfBoundsException {
+        checkFieldIndex(index);
+        return fields.fieldValue(index);
+    }
+
+    /**
+     * Check whether the log was tagged with a marker.
+     *
+     * @param tag - Tag to look for
+     * @return If the log has the tag
+     */
+    @Override
+    public boolean hasTag(String tag) {
+        return fields != null && fields.hasTag(tag);
+    }
+
+    /**
+     * Check that a structured field exists.
+     *
+     * @param index - Index of the field
+     * @throws IndexOutOfBoundsException If there is no field at index
+     */
+    private void checkFieldIndex(int index) throws IndexOutOfBoundsException {
+        if (index < 0 || index >= fieldCount()) {
+            throw new IndexOutOfBoundsException("No field " + index + ", log has " + fieldCount());
+        }
+    }
+
+    /**
+     * Check a log call against a LoggerConfig's filters.
+     *
+     * @param cfg - LoggerConfig with a non-empty FilterChain
+     * @param loggerName - Name of the Logger
+     * @param level - LogLevel of the log
+     * @param pattern - Message pattern
+     * @param args - Arguments; null to use arg1 to arg3
+     * @param count - Number of arguments
+     * @param arg1 - First argument, if args is null
+     * @param arg2 - Second argument, if args is null
+     * @param arg3 - Third argument, if args is null
+     * @param fields - LogBuilder holding structured fields and tags; null for none
+     * @return If the log passes every filter
+     */
+    static boolean passes(
+        LoggerConfig cfg,
+        String loggerName,
+        LogLevel level,
+        String pattern,
+        Object[] args,
+        int count,
+        Object arg1,
+        Object arg2,
+        Object arg3,
+        LogBuilder fields
+    ) {
+        PendingLog view = PENDING.acquire();
+        view.level = level;
+        view.loggerName = loggerName;
+        view.pattern = pattern;
+        view.args = args;
+        view.argCount = count;
+        view.arg1 = arg1;
+        view.arg2 = arg2;
+        view.arg3 = arg3;
+        view.fields = fields;
+        try {
+            return cfg.filters.test(view);
+        } finally {
+            // Don't keep the arguments alive
+            view.args = null;
+            view.arg1 = null;
+            view.arg2 = null;
+            view.arg3 = null;
+            view.fields = null;
+            view.pattern = null;
+            PENDING.release(view);
+        }
+    }
+
+    private PendingLog() {}
+}
@@ -0,0 +1,281 @@
+package logging.async;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A preallocated, multi-producer, single-consumer ring buffer.
+ *
+ * Producers claim a slot with {@link #next()}, fill in the entry returned by
+ * {@link #get(long)} and then {@link #publish(long)} it. Claiming a slot is a single
+ * atomic increment unless the buffer is full, in which case the producer waits
+ * for the consumer to catch up, or {@link #tryNext()} gives up.
+ *
+ * @param <E> - Entry type
+ */
+public class RingBuffer<E> {
+    // How many times to spin before falling back to yielding/parking
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 100;
+    private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final Object[] entries;
+    private final int capacity;
+    private final int mask;
+    private final int indexShift;
+    private final WaitStrategy waitStrategy;
+
+    // Round number each slot was last published in, -1 if never published
+    private final AtomicIntegerArray available;
+    // Highest sequence claimed by a producer
+    private final AtomicLong cursor = new AtomicLong(-1);
+    // Highest sequence fully handled by the consumer
+    private final AtomicLong consumed = new AtomicLong(-1);
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition published = lock.newCondition();
+    private volatile boolean consumerWaiting;
+    // Set by wakeUp() so a consumer that wasn't waiting yet doesn't block; guarded by the lock
+    private boolean wakeUpPending;
+
+    /**
+     * Claim the next slot in this RingBuffer, waiting if the buffer is full.
+     *
+     * @return Sequence of the claimed slot
+     */
+    public long next() {
+        long sequence = cursor.incrementAndGet();
+        long wrapPoint = sequence - capacity;
+
+        int counter = 0;
+        while (wrapPoint > consumed.get()) {
+            // Buffer is full, wait for the consumer to free up our slot
+            if (counter < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else if (counter < SPIN_TRIES + YIELD_TRIES) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+            counter++;
+        }
+        return sequence;
+    }
+
+    /**
+     * Claim the next slot in this RingBuffer if one is free, without waiting.
+     *
+     * @return Sequence of the claimed slot; -1 if the buffer is full
+     */
+    public long tryNext() {
+        while (true) {
+            long current = cursor.get();
+            if (current + 1 - capacity > consumed.get()) {
+                return -1;
+            }
+            if (cursor.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    /**
+     * Get the entry at a sequence.
+     *
+     * @param sequence - Sequence of the entry
+     * @return Entry
+     */
+    @SuppressWarnings("unchecked")
+    public E get(long sequence) {
+        return (E) entries[(int) sequence & mask];
+    }
+
+    /**
+     * Make a claimed slot visible to the consumer.
+     *
+     * @param sequence - Sequence returned by {@link #next()}
+     */
+    public void publish(long sequence) {
+        int index = (int) sequence & mask;
+        int round = (int) (sequence >>> indexShift);
+        if (waitStrategy != WaitStrategy.BLOCKING) {
+            // The consumer keeps polling, it sees the slot soon enough
+            available.lazySet(index, round);
+            return;
+        }
+
+        // A full fence, so either we see the consumer waiting or it sees the slot before it waits
+        available.set(index, round);
+        if (consumerWaiting) {
+            lock.lock();
+            try {
+                published.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Hand every published entry that hasn't been consumed yet to a handler, in order.
+     * Only one thread may poll at a time.
+     *
+     * @param handler - Handler to run on each entry
+     * @return Number of entries handled
+     */
+    public int poll(Consumer<E> handler) {
+        long start = consumed.get() + 1;
+        long sequence = start;
+
+        while (isAvailable(sequence)) {
+            handler.accept(get(sequence));
+            sequence++;
+        }
+        if (sequence != start) {
+            consumed.lazySet(sequence - 1);
+        }
+        return (int) (sequence - start);
+    }
+
+    /**
+     * Wait for a producer to publish, as decided by this RingBuffer's WaitStrategy.
+     * Meant to be called by the consumer when {@link #poll(Consumer)} handled nothing.
+     *
+     * @param counter - Number of consecutive times the consumer has been idle
+     * @return The counter to pass in next time
+     */
+    public int idle(int counter) {
+        switch (waitStrategy) {
+            case BUSY_SPIN:
+                Thread.onSpinWait();
+                break;
+
+            case YIELDING:
+                if (counter < SPIN_TRIES) {
+                    Thread.onSpinWait();
+                } else {
+                    Thread.yield();
+                }
+                break;
+
+            case SLEEPING:
+                if (counter < SPIN_TRIES) {
+                    Thread.onSpinWait();
+                } else if (counter < SPIN_TRIES + YIELD_TRIES) {
+                    Thread.yield();
+                } else {
+                    LockSupport.parkNanos(PARK_NANOS);
+                }
+                break;
+
+            case BLOCKING:
+                lock.lock();
+                try {
+                    consumerWaiting = true;
+                    if (!wakeUpPending && !isAvailable(consumed.get() + 1)) {
+                        published.await();
+                    }
+                    wakeUpPending = false;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    consumerWaiting = false;
+                    lock.unlock();
+                }
+                break;
+        }
+        return counter + 1;
+    }
+
+    /**
+     * Wake up the consumer if it is blocked in {@link #idle(int)},
+     * or keep it from blocking the next time it calls it.
+     */
+    public void wakeUp() {
+        lock.lock();
+        try {
+            wakeUpPending = true;
+            published.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Check whether any claimed slots have not been consumed yet.
+     *
+     * @return If there are pending entries
+     */
+    public boolean hasPending() {
+        return cursor.get() > consumed.get();
+    }
+
+    /**
+     * Get the number of slots that can be claimed without waiting.
+     *
+     * @return Remaining capacity
+     */
+    public int remainingCapacity() {
+        return (int) Math.max(0, capacity - (cursor.get() - consumed.get()));
+    }
+
+    /**
+     * Get the capacity of this RingBuffer.
+     *
+     * @return Capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Get the WaitStrategy of this RingBuffer.
+     *
+     * @return WaitStrategy
+     */
+    public WaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    /**
+     * Check whether the entry at a sequence has been published.
+     *
+     * @param sequence - Sequence to check
+     * @return If it has been published
+     */
+    private boolean isAvailable(long sequence) {
+        return available.get((int) sequence & mask) == (int) (sequence >>> indexShift);
+    }
+
+    /**
+     * Initialize a new RingBuffer.
+     *
+     * @param capacity - Number of slots, rounded up to the next power of two
+     * @param factory - Creates the entry for each slot up front
+     * @param waitStrategy - How the consumer waits for new entries
+     * @throws IllegalArgumentException If capacity is not positive or too large
+     */
+    public RingBuffer(int capacity, Supplier<E> factory, WaitStrategy waitStrategy) throws IllegalArgumentException {
+        if (capacity < 1 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("RingBuffer capacity must be between 1 and 2^30");
+        }
+
+        this.capacity = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.indexShift = Integer.numberOfTrailingZeros(this.capacity);
+        this.waitStrategy = waitStrategy;
+
+        this.entries = new Object[this.capacity];
+        this.available = new AtomicIntegerArray(this.capacity);
+        for (int i = 0; i < this.capacity; i++) {
+            entries[i] = factory.get();
+            available.set(i, -1);
+        }
+    }
+}
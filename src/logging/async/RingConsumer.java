@@ -0,0 +1,156 @@
+package logging.async;
+
+import java.util.function.Consumer;
+
+/**
+ * The single consumer of a RingBuffer: a thread that hands every published entry to a handler,
+ * plus the shutdown logic around it.
+ *
+ * Producers claim and fill slots of the RingBuffer as usual, then publish them through
+ * {@link #publish(long)}. When the consumer is stopped it first handles everything already
+ * published, and anything published after that is handled by the producer's own thread.
+ * A JVM shutdown hook runs the owner's shutdown action until {@link #removeShutdownHook()}.
+ *
+ * The handler runs on one thread at a time and must not throw.
+ *
+ * @param <E> - Entry type
+ */
+public final class RingConsumer<E> {
+    private final RingBuffer<E> ring;
+    private final Consumer<E> handler;
+    private final Thread thread;
+    private final Thread shutdownHook;
+    // Held while polling so only one thread consumes at a time
+    private final Object pollLock = new Object();
+    private volatile boolean running;
+
+    /**
+     * Publish a filled slot to the consumer.
+     *
+     * @param sequence - Sequence of the slot
+     */
+    public void publish(long sequence) {
+        ring.publish(sequence);
+
+        // We may have raced a stop that already did its final drain
+        if (!running) {
+            drain();
+        }
+    }
+
+    /**
+     * Stop the consumer thread after it has handled every entry already published.
+     *
+     * @return If this call stopped it; false if it was already stopped
+     */
+    public boolean stop() {
+        if (!running) {
+            return false;
+        }
+        running = false;
+        ring.wakeUp();
+
+        if (Thread.currentThread() != thread) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        drain();
+        return true;
+    }
+
+    /**
+     * Handle every published entry left in the RingBuffer, on the calling thread.
+     */
+    public void drain() {
+        while (poll() > 0) {
+            // keep going until the buffer is empty
+        }
+    }
+
+    /**
+     * Remove the shutdown hook, once the owner has been shut down some other way.
+     */
+    public void removeShutdownHook() {
+        if (Thread.currentThread() != shutdownHook) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException e) {
+                // pass, the JVM is already shutting down
+            }
+        }
+    }
+
+    /**
+     * Check whether the consumer thread is still running.
+     *
+     * @return Running status
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Check whether the calling thread is the consumer thread.
+     *
+     * @return If called from the consumer thread
+     */
+    public boolean isConsumerThread() {
+        return Thread.currentThread() == thread;
+    }
+
+    /**
+     * Main loop of the consumer thread.
+     */
+    private void consume() {
+        int idle = 0;
+        while (running) {
+            if (poll() > 0) {
+                idle = 0;
+            } else {
+                idle = ring.idle(idle);
+            }
+        }
+
+        // Wait for producers that claimed a slot before the stop to publish it
+        while (ring.hasPending()) {
+            if (poll() == 0) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    /**
+     * Handle every entry currently published in the RingBuffer.
+     *
+     * @return Number of entries handled
+     */
+    private int poll() {
+        synchronized (pollLock) {
+            return ring.poll(handler);
+        }
+    }
+
+    /**
+     * Initialize a RingConsumer and start its thread.
+     *
+     * @param ring - RingBuffer to consume
+     * @param handler - Handles each entry, created once so polling never allocates
+     * @param builder - Builds the consumer thread, named after its owner
+     * @param onShutdown - Shutdown action of the owner, run by a JVM shutdown hook
+     */
+    public RingConsumer(RingBuffer<E> ring, Consumer<E> handler, Thread.Builder builder, Runnable onShutdown) {
+        this.ring = ring;
+        this.handler = handler;
+        this.running = true;
+
+        // Not started until assigned, so the handler can already tell it is on the consumer thread
+        this.thread = builder.unstarted(this::consume);
+        this.thread.start();
+
+        this.shutdownHook = new Thread(onShutdown, thread.getName() + "-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+}
@@ -0,0 +1,8 @@
+package logging.async;
+
+public enum WaitStrategy {
+    BUSY_SPIN, // Lowest latency, burns a whole core while idle
+    YIELDING,  // Spins for a while, then yields to other threads
+    SLEEPING,  // Spins, yields, then parks for short periods
+    BLOCKING,  // Parks until a producer publishes something (lowest CPU use)
+}
@@ -0,0 +1,84 @@
+package logging.clock;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Coarse LogClock that returns a cached time, updated by a background thread.
+ * Reading it is a single volatile read, at the cost of timestamps
+ * being up to one resolution period behind.
+ */
+public final class CachedClock implements LogClock, AutoCloseable {
+    public static final long DEFAULT_RESOLUTION_MILLIS = 10;
+
+    private final long resolutionMillis;
+    private final Thread updater;
+    private volatile long millis;
+    private volatile boolean running;
+
+    /**
+     * Get the cached time.
+     *
+     * @return Milliseconds since the epoch, as of the last update
+     */
+    @Override
+    public long millis() {
+        return millis;
+    }
+
+    /**
+     * Get how often this CachedClock is updated.
+     *
+     * @return Resolution in milliseconds
+     */
+    public long getResolutionMillis() {
+        return resolutionMillis;
+    }
+
+    /**
+     * Stop updating this CachedClock.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(updater);
+    }
+
+    /**
+     * Main loop of the updater thread.
+     */
+    private void update() {
+        long parkNanos = TimeUnit.MILLISECONDS.toNanos(resolutionMillis);
+        while (running) {
+            millis = System.currentTimeMillis();
+            LockSupport.parkNanos(parkNanos);
+        }
+    }
+
+    /**
+     * Initialize a new CachedClock updated every DEFAULT_RESOLUTION_MILLIS milliseconds.
+     */
+    public CachedClock() {
+        this(DEFAULT_RESOLUTION_MILLIS);
+    }
+
+    /**
+     * Initialize a new CachedClock and start its updater thread.
+     *
+     * @param resolutionMillis - How often to update the time, in milliseconds
+     * @throws IllegalArgumentException If resolutionMillis is not positive
+     */
+    public CachedClock(long resolutionMillis) throws IllegalArgumentException {
+        if (resolutionMillis < 1) {
+            throw new IllegalArgumentException("CachedClock resolution must be at least 1 millisecond");
+        }
+
+        this.resolutionMillis = resolutionMillis;
+        this.millis = System.currentTimeMillis();
+        this.running = true;
+
+        this.updater = new Thread(this::update, "CachedClock");
+        this.updater.setDaemon(true);
+        this.updater.start();
+    }
+}
@@ -0,0 +1,13 @@
+package logging.clock;
+
+/**
+ * Source of the timestamps given to LogRecords.
+ */
+public interface LogClock {
+    /**
+     * Get the current time.
+     *
+     * @return Milliseconds since the epoch
+     */
+    long millis();
+}
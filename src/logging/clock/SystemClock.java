@@ -0,0 +1,20 @@
+package logging.clock;
+
+/**
+ * LogClock that reads the system clock on every call.
+ */
+public final class SystemClock implements LogClock {
+    public static final SystemClock INSTANCE = new SystemClock();
+
+    /**
+     * Get the current time from {@link System#currentTimeMillis()}.
+     *
+     * @return Milliseconds since the epoch
+     */
+    @Override
+    public long millis() {
+        return System.currentTimeMillis();
+    }
+
+    private SystemClock() {}
+}
@@ -0,0 +1,19 @@
+package logging.filter;
+
+/**
+ * Decides whether a log is sent, see Logger.addFilter() and Output.addFilter().
+ * See Filters for the common ones.
+ *
+ * Filters are called from every logging thread at once, so they must be thread safe,
+ * and should be cheap: Logger filters run on every log that passes the level check.
+ */
+@FunctionalInterface
+public interface Filter {
+    /**
+     * Decide whether a log is sent.
+     *
+     * @param event - Log to check; only valid during the call
+     * @return If the log passes
+     */
+    boolean test(LogEvent event);
+}
@@ -0,0 +1,111 @@
+package logging.filter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable, ordered list of Filters a log has to pass all of.
+ *
+ * The chain is compiled into one flat array when it is built, with Filters.allOf()
+ * groups spliced in, so checking a log is a single loop with no nesting.
+ */
+public final class FilterChain {
+    public static final FilterChain EMPTY = new FilterChain(new Filter[0]);
+
+    // As added, to remove them again
+    private final Filter[] added;
+    // Flattened for checking
+    private final Filter[] compiled;
+
+    /**
+     * Check a log against every Filter in order, stopping at the first that rejects it.
+     *
+     * @param event - Log to check
+     * @return If every Filter passes the log
+     */
+    public boolean test(LogEvent event) {
+        for (Filter filter : compiled) {
+            if (!filter.test(event)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check whether this FilterChain has no Filters.
+     *
+     * @return If every log passes
+     */
+    public boolean isEmpty() {
+        return compiled.length == 0;
+    }
+
+    /**
+     * Get the Filters of this FilterChain, as they were added.
+     *
+     * @return Unmodifiable list of Filters
+     */
+    public List<Filter> filters() {
+        return List.of(added);
+    }
+
+    /**
+     * Copy this FilterChain with a Filter added at the end.
+     *
+     * @param filter - Filter to add
+     * @return New FilterChain
+     * @throws IllegalArgumentException If filter is null
+     */
+    public FilterChain with(Filter filter) throws IllegalArgumentException {
+        if (filter == null) {
+            throw new IllegalArgumentException("Filter must not be null");
+        }
+        Filter[] filters = Arrays.copyOf(added, added.length + 1);
+        filters[added.length] = filter;
+        return new FilterChain(filters);
+    }
+
+    /**
+     * Copy this FilterChain without a Filter.
+     *
+     * @param filter - Filter to remove, as it was added
+     * @return New FilterChain; this one if filter isn't in it
+     */
+    public FilterChain without(Filter filter) {
+        ArrayList<Filter> filters = new ArrayList<>(Arrays.asList(added));
+        if (!filters.remove(filter)) {
+            return this;
+        }
+        return filters.isEmpty() ? EMPTY : new FilterChain(filters.toArray(new Filter[0]));
+    }
+
+    /**
+     * Flatten Filters, splicing in the members of Filters.allOf() groups.
+     *
+     * @param filters - Filters to flatten
+     * @param into - List to add them to
+     */
+    private static void flatten(Filter[] filters, ArrayList<Filter> into) {
+        for (Filter filter : filters) {
+            if (filter instanceof Filters.AllOf group) {
+                flatten(group.filters, into);
+            } else {
+                into.add(filter);
+            }
+        }
+    }
+
+    /**
+     * Initialize a FilterChain.
+     *
+     * @param added - Filters, not copied
+     */
+    private FilterChain(Filter[] added) {
+        this.added = added;
+        ArrayList<Filter> flat = new ArrayList<>();
+        flatten(added, flat);
+        this.compiled = flat.toArray(new Filter[0]);
+    }
+}
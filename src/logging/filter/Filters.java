@@ -0,0 +1,139 @@
+package logging.filter;
+
+import java.util.function.Predicate;
+
+import logging.LogLevel;
+import logging.LogLevels;
+
+/**
+ * Common Filters.
+ */
+public final class Filters {
+    // Logs have to pass every one of these, flattened into the FilterChain they are added to
+    static final class AllOf implements Filter {
+        final Filter[] filters;
+
+        @Override
+        public boolean test(LogEvent event) {
+            for (Filter filter : filters) {
+                if (!filter.test(event)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private AllOf(Filter[] filters) {
+            this.filters = filters;
+        }
+    }
+
+    /**
+     * Pass logs at or above a LogLevel.
+     *
+     * @param level - Lowest LogLevel to pass
+     * @return Filter
+     */
+    public static Filter minLevel(LogLevel level) {
+        int min = LogLevels.toInt(level);
+        return event -> LogLevels.toInt(event.level()) >= min;
+    }
+
+    /**
+     * Pass logs at or below a LogLevel.
+     *
+     * @param level - Highest LogLevel to pass
+     * @return Filter
+     */
+    public static Filter maxLevel(LogLevel level) {
+        int max = LogLevels.toInt(level);
+        return event -> LogLevels.toInt(event.level()) <= max;
+    }
+
+    /**
+     * Pass logs made with a Logger or one of its descendants, e.g. "app.db" passes "app.db" and "app.db.pool".
+     *
+     * @param prefix - Logger name; "" passes every log
+     * @return Filter
+     */
+    public static Filter loggerPrefix(String prefix) {
+        if (prefix.isEmpty()) {
+            return event -> true;
+        }
+        return event -> {
+            String name = event.loggerName();
+            return name.startsWith(prefix) && (name.length() == prefix.length() || name.charAt(prefix.length()) == '.');
+        };
+    }
+
+    /**
+     * Pass logs tagged with a marker.
+     *
+     * @param tag - Tag
+     * @return Filter
+     */
+    public static Filter tagged(String tag) {
+        return event -> event.hasTag(tag);
+    }
+
+    /**
+     * Pass logs whose message pattern matches, without substituting the arguments.
+     *
+     * @param predicate - Test for the pattern
+     * @return Filter
+     */
+    public static Filter pattern(Predicate<String> predicate) {
+        return event -> predicate.test(event.pattern());
+    }
+
+    /**
+     * Pass logs whose message matches.
+     * Substitutes the arguments of every log checked, prefer pattern() where it will do.
+     *
+     * @param predicate - Test for the message
+     * @return Filter
+     */
+    public static Filter message(Predicate<String> predicate) {
+        return event -> predicate.test(event.message());
+    }
+
+    /**
+     * Pass logs a Filter rejects.
+     *
+     * @param filter - Filter to invert
+     * @return Filter
+     */
+    public static Filter not(Filter filter) {
+        return event -> !filter.test(event);
+    }
+
+    /**
+     * Pass logs every Filter passes, checked in order.
+     *
+     * @param filters - Filters
+     * @return Filter
+     */
+    public static Filter allOf(Filter... filters) {
+        return new AllOf(filters.clone());
+    }
+
+    /**
+     * Pass logs any Filter passes, checked in order.
+     *
+     * @param filters - Filters
+     * @return Filter
+     */
+    public static Filter anyOf(Filter... filters) {
+        Filter[] copy = filters.clone();
+        return event -> {
+            for (Filter filter : copy) {
+                if (filter.test(event)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+
+    private Filters() {}
+}
@@ -0,0 +1,70 @@
+package logging.filter;
+
+/**
+ * SiteLimiter that lets through at most a number of logs per call site in each interval.
+ * Intervals are aligned to the epoch, and dropped logs are reported once the next one starts:
+ * with its first log, or by a timer an interval after the first drop if the site has gone quiet.
+ */
+public class IntervalLimiter extends SiteLimiter {
+    // The site's state packs the interval number above the count in it
+    private static final int COUNT_BITS = 22;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    public static final int MAX_PER_INTERVAL = (int) COUNT_MASK;
+
+    private final int max;
+    private final long intervalMillis;
+
+    /**
+     * Count a log from a call site if the current interval has room for it.
+     *
+     * @param site - State of the call site
+     * @param nowMillis - Current time in milliseconds
+     * @return If the log fits in the interval
+     */
+    @Override
+    protected boolean tryAcquire(Site site, long nowMillis) {
+        long interval = nowMillis / intervalMillis;
+        while (true) {
+            long state = site.state.get();
+            long next;
+            if (state >>> COUNT_BITS != interval) {
+                next = (interval << COUNT_BITS) | 1;
+            } else if ((state & COUNT_MASK) >= max) {
+                return false;
+            } else {
+                next = state + 1;
+            }
+            if (site.state.compareAndSet(state, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Report dropped logs of a quiet site once the interval they were dropped in has rolled over.
+     *
+     * @return Interval length in milliseconds
+     */
+    @Override
+    protected long summaryDelayMillis() {
+        return intervalMillis;
+    }
+
+    /**
+     * Initialize an IntervalLimiter.
+     * Logs are only dropped once an interval is full, so the first log let through in the next
+     * one reports them, at most once per interval.
+     *
+     * @param max - Most logs let through per call site in each interval
+     * @param intervalMillis - Length of an interval in milliseconds
+     * @throws IllegalArgumentException If max isn't between 1 and MAX_PER_INTERVAL, or intervalMillis isn't positive
+     */
+    public IntervalLimiter(int max, long intervalMillis) throws IllegalArgumentException {
+        super(0);
+        if (max < 1 || max > MAX_PER_INTERVAL || intervalMillis < 1) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PER_INTERVAL + " and interval positive");
+        }
+        this.max = max;
+        this.intervalMillis = intervalMillis;
+    }
+}
@@ -0,0 +1,89 @@
+package logging.filter;
+
+import logging.LogLevel;
+
+/**
+ * What a Filter can see of a log.
+ *
+ * Logger filters are given a view of the log call itself, before any record is built,
+ * so everything here is free except message(), which substitutes the arguments.
+ * Output filters are given the LogRecord, which is a LogEvent too.
+ */
+public interface LogEvent {
+    /**
+     * Get the LogLevel of the log.
+     *
+     * @return LogLevel
+     */
+    LogLevel level();
+
+    /**
+     * Get the name of the Logger the log was made with.
+     *
+     * @return Logger name
+     */
+    String loggerName();
+
+    /**
+     * Get the message pattern of the log.
+     *
+     * @return Pattern with "{}" placeholders, or the message itself if it isn't parameterized
+     */
+    String pattern();
+
+    /**
+     * Get the number of arguments of the message pattern.
+     *
+     * @return Number of arguments
+     */
+    int argCount();
+
+    /**
+     * Get an argument of the message pattern.
+     *
+     * @param index - Index of the argument, under argCount()
+     * @return Argument
+     * @throws IndexOutOfBoundsException If there is no argument at index
+     */
+    Object arg(int index) throws IndexOutOfBoundsException;
+
+    /**
+     * Get the message of the log, substituting its arguments.
+     *
+     * @return Message
+     */
+    String message();
+
+    /**
+     * Get the number of structured key/value fields of the log.
+     *
+     * @return Number of fields
+     */
+    int fieldCount();
+
+    /**
+     * Get the key of a structured field.
+     *
+     * @param index - Index of the field, under fieldCount()
+     * @return Key
+     * @throws IndexOutOfBoundsException If there is no field at index
+     */
+    String fieldKey(int index) throws IndexOutOfBoundsException;
+
+    /**
+     * Get the value of a structured field.
+     *
+     * @param index - Index of the field, under fieldCount()
+     * @return Value; may be null
+     * @throws IndexOutOfBoundsException If there is no field at index
+     */
+    Object fieldValue(int index) throws IndexOutOfBoundsException;
+
+    /**
+     * Check whether the log was tagged with a marker, see LogBuilder.tag().
+     *
+     * @param tag - Tag to look for
+     * @return If the log has the tag
+     */
+    boolean hasTag(String tag);
+}
@@ -0,0 +1,48 @@
+package logging.filter;
+
+/**
+ * SiteLimiter that lets through 1 in every N logs from each call site, starting with the first.
+ */
+public class SamplingLimiter extends SiteLimiter {
+    public static final long DEFAULT_REPORT_INTERVAL_MILLIS = 10_000;
+
+    private final long rate;
+
+    /**
+     * Count a log from a call site, letting through every Nth.
+     * The site's state is the number of logs seen.
+     *
+     * @param site - State of the call site
+     * @param nowMillis - Current time in milliseconds
+     * @return If the log is sampled
+     */
+    @Override
+    protected boolean tryAcquire(Site site, long nowMillis) {
+        return site.state.getAndIncrement() % rate == 0;
+    }
+
+    /**
+     * Initialize a SamplingLimiter that reports dropped logs at most once every 10 seconds per call site.
+     *
+     * @param rate - N, to let 1 in N logs through
+     * @throws IllegalArgumentException If rate isn't positive
+     */
+    public SamplingLimiter(long rate) throws IllegalArgumentException {
+        this(rate, DEFAULT_REPORT_INTERVAL_MILLIS);
+    }
+
+    /**
+     * Initialize a SamplingLimiter.
+     *
+     * @param rate - N, to let 1 in N logs through
+     * @param reportIntervalMillis - Shortest time between two reports of dropped logs from one call site
+     * @throws IllegalArgumentException If rate isn't positive
+     */
+    public SamplingLimiter(long rate, long reportIntervalMillis) throws IllegalArgumentException {
+        super(reportIntervalMillis);
+        if (rate < 1) {
+            throw new IllegalArgumentException("Sampling rate must be positive");
+        }
+        this.rate = rate;
+    }
+}
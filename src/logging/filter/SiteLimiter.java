@@ -0,0 +1,243 @@
+package logging.filter;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import logging.LogLevel;
+
+/**
+ * Limits how often each call site may log, see Logger.setLimiter().
+ *
+ * Every log call is keyed by the location it was made from, so one hot log statement
+ * (e.g. a warning in a loop while a dependency is down) is throttled without touching
+ * any other. Per-site state is a couple of AtomicLongs, updated with compare-and-set,
+ * so checking never takes a lock.
+ *
+ * Logs dropped at a site are counted, and reported in a summary record the next time
+ * a log from that site is let through, at most once per report interval. If the site goes
+ * quiet first, e.g. because the storm is over, a timer reports them once the summary delay
+ * has passed since the first one was dropped.
+ *
+ * At most MAX_SITES sites are tracked. When a new site comes along past that, the quarter
+ * of the sites that logged least recently are forgotten.
+ */
+public abstract class SiteLimiter {
+    // Returned by admit() for a log that should be dropped
+    public static final long DROP = -1;
+    // Most sites tracked at once, the least recently used are evicted past this
+    public static final int MAX_SITES = 4096;
+    // Shortest time dropped logs wait for a log from their site to be reported with
+    public static final long MIN_SUMMARY_DELAY_MILLIS = 1000;
+
+    // Reports dropped logs of quiet sites for every SiteLimiter, only busy while logs are dropped
+    private static final ScheduledThreadPoolExecutor TIMER = createTimer();
+
+    private final ConcurrentHashMap<StackTraceElement, Site> sites = new ConcurrentHashMap<>();
+    // Shared by every log whose location can't be found
+    private final Site unknownSite = new Site(null);
+    private final long reportIntervalMillis;
+
+    /**
+     * Sends the summary of logs dropped at a call site, usually through the Logger that dropped them.
+     */
+    @FunctionalInterface
+    public interface Reporter {
+        /**
+         * Report logs dropped at a call site.
+         *
+         * @param site - Location of the call site; null if unknown
+         * @param level - LogLevel of the last dropped log
+         * @param suppressed - Number of logs dropped
+         */
+        void report(StackTraceElement site, LogLevel level, long suppressed);
+    }
+
+    /**
+     * State of one call site.
+     * The meaning of state is up to each SiteLimiter.
+     */
+    protected static final class Site {
+        public final AtomicLong state = new AtomicLong();
+        private final StackTraceElement location;
+        private final AtomicLong suppressed = new AtomicLong();
+        private final AtomicLong nextReport = new AtomicLong();
+        private final AtomicBoolean summaryScheduled = new AtomicBoolean();
+        // Where and how to report dropped logs if the site goes quiet, from the last one dropped
+        private volatile Reporter reporter;
+        private volatile LogLevel level;
+        private volatile long lastSeen;
+
+        private Site(StackTraceElement location) {
+            this.location = location;
+        }
+    }
+
+    /**
+     * Decide whether a log from a call site may go through.
+     *
+     * @param site - Location of the log call; null if unknown
+     * @param level - LogLevel of the log
+     * @param nowMillis - Current time in milliseconds
+     * @param reporter - Reports the dropped logs if no other log from the site gets through in time
+     * @return DROP if the log should be dropped, otherwise the number of dropped logs to report (usually 0)
+     */
+    public final long admit(StackTraceElement site, LogLevel level, long nowMillis, Reporter reporter) {
+        Site state = site(site, nowMillis);
+        if (!tryAcquire(state, nowMillis)) {
+            state.suppressed.incrementAndGet();
+            // Only written when they change, drops are the hot path during a storm
+            if (state.reporter != reporter) {
+                state.reporter = reporter;
+            }
+            if (state.level != level) {
+                state.level = level;
+            }
+            if (!state.summaryScheduled.get() && state.summaryScheduled.compareAndSet(false, true)) {
+                TIMER.schedule(() -> summarize(state), summaryDelayMillis(), TimeUnit.MILLISECONDS);
+            }
+            return DROP;
+        }
+
+        // Nothing to report, the usual case
+        if (state.suppressed.get() == 0) {
+            return 0;
+        }
+        long next = state.nextReport.get();
+        if (nowMillis < next || !state.nextReport.compareAndSet(next, nowMillis + reportIntervalMillis)) {
+            return 0;
+        }
+        return state.suppressed.getAndSet(0);
+    }
+
+    /**
+     * Decide whether a log from a call site may go through, updating its state.
+     * Called concurrently for the same Site, so updates must be atomic.
+     *
+     * @param site - State of the call site
+     * @param nowMillis - Current time in milliseconds
+     * @return If the log may go through
+     */
+    protected abstract boolean tryAcquire(Site site, long nowMillis);
+
+    /**
+     * Get how long dropped logs wait for a log from their site to be reported with,
+     * before a timer reports them on their own.
+     * By default the report interval, but at least MIN_SUMMARY_DELAY_MILLIS.
+     *
+     * @return Summary delay in milliseconds
+     */
+    protected long summaryDelayMillis() {
+        return Math.max(reportIntervalMillis, MIN_SUMMARY_DELAY_MILLIS);
+    }
+
+    /**
+     * Get how often dropped logs are reported per call site.
+     *
+     * @return Report interval in milliseconds
+     */
+    public long getReportIntervalMillis() {
+        return reportIntervalMillis;
+    }
+
+    /**
+     * Get the number of call sites tracked.
+     *
+     * @return Number of sites
+     */
+    public int getSiteCount() {
+        return sites.size();
+    }
+
+    /**
+     * Report the logs dropped at a site since the last report, if any.
+     * Run by the timer once the summary delay is over.
+     *
+     * @param state - State of the call site
+     */
+    private static void summarize(Site state) {
+        // Cleared first, so a log dropped from here on schedules another summary
+        state.summaryScheduled.set(false);
+        long suppressed = state.suppressed.getAndSet(0);
+        Reporter reporter = state.reporter;
+        if (suppressed > 0 && reporter != null) {
+            reporter.report(state.location, state.level, suppressed);
+        }
+    }
+
+    /**
+     * Get the state of a call site, creating it on first use.
+     *
+     * @param site - Location of the log call; null if unknown
+     * @param nowMillis - Current time in milliseconds
+     * @return Site
+     */
+    private Site site(StackTraceElement site, long nowMillis) {
+        if (site == null) {
+            return unknownSite;
+        }
+        Site state = sites.get(site);
+        if (state == null) {
+            if (sites.size() >= MAX_SITES) {
+                evictIdle();
+            }
+            state = sites.computeIfAbsent(site, Site::new);
+        }
+        if (state.lastSeen != nowMillis) {
+            state.lastSeen = nowMillis;
+        }
+        return state;
+    }
+
+    /**
+     * Forget the quarter of the call sites that logged least recently, to make room for new ones.
+     * Dropped logs of the evicted sites are still reported by their timers.
+     */
+    private synchronized void evictIdle() {
+        // Another thread may have made room already
+        if (sites.size() < MAX_SITES) {
+            return;
+        }
+
+        long[] seen = new long[sites.size()];
+        int count = 0;
+        for (Site state : sites.values()) {
+            if (count == seen.length) {
+                break;
+            }
+            seen[count++] = state.lastSeen;
+        }
+        Arrays.sort(seen, 0, count);
+        long cutoff = seen[count / 4];
+        sites.values().removeIf(state -> state.lastSeen <= cutoff);
+    }
+
+    /**
+     * Create the timer thread shared by every SiteLimiter.
+     *
+     * @return Executor running summaries on one daemon thread
+     */
+    private static ScheduledThreadPoolExecutor createTimer() {
+        return new ScheduledThreadPoolExecutor(1, task -> {
+            Thread thread = new Thread(task, "SiteLimiter-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Initialize a SiteLimiter.
+     *
+     * @param reportIntervalMillis - Shortest time between two reports of dropped logs from one call site
+     * @throws IllegalArgumentException If reportIntervalMillis is negative
+     */
+    protected SiteLimiter(long reportIntervalMillis) throws IllegalArgumentException {
+        if (reportIntervalMillis < 0) {
+            throw new IllegalArgumentException("Report interval must not be negative");
+        }
+        this.reportIntervalMillis = reportIntervalMillis;
+    }
+}
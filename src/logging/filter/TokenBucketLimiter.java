@@ -0,0 +1,67 @@
+package logging.filter;
+
+/**
+ * SiteLimiter that gives each call site a token bucket: logs may burst up to
+ * a number of tokens, which refill at a steady rate.
+ *
+ * Implemented as a generic cell rate algorithm, which tracks the time the bucket
+ * will be full again instead of the tokens in it, so one compare-and-set updates it.
+ */
+public class TokenBucketLimiter extends SiteLimiter {
+    public static final long DEFAULT_REPORT_INTERVAL_MILLIS = 1000;
+
+    // Time between tokens, and how far ahead of now the bucket may be drawn, in microseconds
+    private final long microsPerToken;
+    private final long tolerance;
+
+    /**
+     * Take a token from a call site's bucket if one is left.
+     * The site's state is the time its bucket is full again, in microseconds.
+     *
+     * @param site - State of the call site
+     * @param nowMillis - Current time in milliseconds
+     * @return If a token was taken
+     */
+    @Override
+    protected boolean tryAcquire(Site site, long nowMillis) {
+        long now = nowMillis * 1000;
+        while (true) {
+            long full = site.state.get();
+            long next = Math.max(full, now) + microsPerToken;
+            if (next - now > tolerance) {
+                return false;
+            }
+            if (site.state.compareAndSet(full, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Initialize a TokenBucketLimiter that reports dropped logs at most once a second per call site.
+     *
+     * @param tokensPerSecond - Rate tokens are refilled at
+     * @param burst - Size of the bucket
+     * @throws IllegalArgumentException If tokensPerSecond or burst isn't positive
+     */
+    public TokenBucketLimiter(double tokensPerSecond, int burst) throws IllegalArgumentException {
+        this(tokensPerSecond, burst, DEFAULT_REPORT_INTERVAL_MILLIS);
+    }
+
+    /**
+     * Initialize a TokenBucketLimiter.
+     *
+     * @param tokensPerSecond - Rate tokens are refilled at, at most one million
+     * @param burst - Size of the bucket
+     * @param reportIntervalMillis - Shortest time between two reports of dropped logs from one call site
+     * @throws IllegalArgumentException If tokensPerSecond or burst isn't positive
+     */
+    public TokenBucketLimiter(double tokensPerSecond, int burst, long reportIntervalMillis) throws IllegalArgumentException {
+        super(reportIntervalMillis);
+        if (!(tokensPerSecond > 0) || burst < 1) {
+            throw new IllegalArgumentException("Token rate and burst must be positive");
+        }
+        this.microsPerToken = Math.max(1, Math.round(1_000_000 / tokensPerSecond));
+        this.tolerance = microsPerToken * burst;
+    }
+}
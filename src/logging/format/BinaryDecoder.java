@@ -0,0 +1,257 @@
+package logging.format;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import logging.LogLevel;
+import logging.LogRecord;
+
+/**
+ * Reads LogRecords back from a file written in the binary log format (see BinaryFormat).
+ *
+ * Can also be run from the command line to turn a binary log into text with any Formatter template:
+ *
+ *   java logging.format.BinaryDecoder FILE [TEMPLATE [TIMESTAMP_TEMPLATE]]
+ *
+ * A record cut off at the end of the file (e.g. by a crash) is treated as the end of the log.
+ * Field values are read back as the Strings they were written as. Logs written in version 1
+ * of the format, before records carried fields and tags, can still be read.
+ */
+public class BinaryDecoder implements AutoCloseable {
+    private static final LogLevel[] LEVELS = LogLevel.values();
+
+    private final DataInputStream in;
+    private final ArrayList<String> names = new ArrayList<>();
+    private final ArrayList<StackTraceElement> sites = new ArrayList<>();
+    private final ArrayList<String> keys = new ArrayList<>();
+    private int version = BinaryFormat.VERSION;
+    private long lastTimestamp;
+    private byte[] scratch = new byte[256];
+
+    /**
+     * Read the next LogRecord.
+     *
+     * @return Next LogRecord; null at the end of the log
+     * @throws IOException If reading fails or the log is malformed
+     */
+    public LogRecord next() throws IOException {
+        try {
+            while (true) {
+                int tag = in.read();
+                switch (tag) {
+                    case -1:
+                        return null;
+
+                    case BinaryFormat.NAME:
+                        define(names, (int) readVarint(), readString());
+                        break;
+
+                    case BinaryFormat.SITE:
+                        int id = (int) readVarint();
+                        String className = readString();
+                        String methodName = readString();
+                        String fileName = in.readByte() == 0 ? null : readString();
+                        int line = (int) BinaryFormat.unzigzag(readVarint());
+                        define(sites, id, new StackTraceElement(className, methodName, fileName, line));
+                        break;
+
+                    case BinaryFormat.KEY:
+                        define(keys, (int) readVarint(), readString());
+                        break;
+
+                    case BinaryFormat.RECORD:
+                        return readRecord();
+
+                    default:
+                        throw new IOException("Unknown frame type " + tag);
+                }
+            }
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Close the underlying stream.
+     *
+     * @throws IOException If closing fails
+     */
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Read the rest of a RECORD frame.
+     *
+     * @return LogRecord
+     * @throws IOException If reading fails or the record is malformed
+     */
+    private LogRecord readRecord() throws IOException {
+        long timestamp = lastTimestamp + BinaryFormat.unzigzag(readVarint());
+        int level = in.readUnsignedByte();
+        int nameId = (int) readVarint();
+        int siteId = (int) readVarint();
+        String message = readString();
+
+        if (level >= LEVELS.length || nameId < 1 || nameId > names.size() || siteId > sites.size()) {
+            throw new IOException("Record refers to an unknown level, logger name or call site");
+        }
+        StackTraceElement site = siteId == 0 ? null : sites.get(siteId - 1);
+        if (version < 2) {
+            lastTimestamp = timestamp;
+            return new LogRecord(message, LEVELS[level], names.get(nameId - 1), timestamp, site);
+        }
+
+        int fieldCount = (int) readVarint();
+        String[] fieldKeys = new String[fieldCount];
+        Object[] fieldValues = new Object[fieldCount];
+        for (int i = 0; i < fieldCount; i++) {
+            fieldKeys[i] = readKey();
+            fieldValues[i] = in.readByte() == 0 ? null : readString();
+        }
+        String[] tags = new String[(int) readVarint()];
+        for (int i = 0; i < tags.length; i++) {
+            tags[i] = readKey();
+        }
+        lastTimestamp = timestamp;
+
+        return new LogRecord(message, LEVELS[level], names.get(nameId - 1), timestamp, site, fieldKeys, fieldValues, tags);
+    }
+
+    /**
+     * Read the id of a field key or tag.
+     *
+     * @return Key
+     * @throws IOException If reading fails or the key isn't defined
+     */
+    private String readKey() throws IOException {
+        int id = (int) readVarint();
+        if (id < 1 || id > keys.size()) {
+            throw new IOException("Record refers to an unknown key " + id);
+        }
+        return keys.get(id - 1);
+    }
+
+    /**
+     * Store a definition under its id, which must be the next one.
+     *
+     * @param definitions - Names or call sites defined so far
+     * @param id - Id of the new definition
+     * @param value - New definition
+     * @throws IOException If the id is out of order
+     */
+    private static <T> void define(ArrayList<T> definitions, int id, T value) throws IOException {
+        if (id != definitions.size() + 1) {
+            throw new IOException("Definition " + id + " is out of order");
+        }
+        definitions.add(value);
+    }
+
+    /**
+     * Read an unsigned varint.
+     *
+     * @return Value
+     * @throws IOException If reading fails or the varint is too long
+     */
+    private long readVarint() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    /**
+     * Read a varint length followed by that many UTF-8 bytes.
+     *
+     * @return String
+     * @throws IOException If reading fails
+     */
+    private String readString() throws IOException {
+        int length = (int) readVarint();
+        if (length > scratch.length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        in.readFully(scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decode a binary log file and print it as text.
+     *
+     * @param args - FILE [TEMPLATE [TIMESTAMP_TEMPLATE]]
+     * @throws IOException If the file can't be read or is malformed
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 3) {
+            System.err.println("Usage: java logging.format.BinaryDecoder FILE [TEMPLATE [TIMESTAMP_TEMPLATE]]");
+            System.exit(2);
+        }
+
+        Formatter formatter;
+        if (args.length == 1) {
+            formatter = new Formatter();
+        } else if (args.length == 2) {
+            formatter = new Formatter(args[1]);
+        } else {
+            formatter = new Formatter(args[1], args[2]);
+        }
+
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        try (BinaryDecoder decoder = new BinaryDecoder(new FileInputStream(args[0]))) {
+            LogRecord record;
+            while ((record = decoder.next()) != null) {
+                out.write(formatter.format(record));
+            }
+        } finally {
+            out.flush();
+        }
+    }
+
+    /**
+     * Initialize a BinaryDecoder and read the header.
+     *
+     * @param in - Stream of a binary log, read from the start
+     * @throws IOException If the header can't be read or isn't a binary log
+     */
+    public BinaryDecoder(InputStream in) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(in, 64 * 1024));
+
+        // Nothing is written until the first record, so an empty file is an empty log
+        int first = this.in.read();
+        if (first == -1) {
+            return;
+        }
+
+        byte[] magic = new byte[BinaryFormat.MAGIC.length];
+        magic[0] = (byte) first;
+        try {
+            this.in.readFully(magic, 1, magic.length - 1);
+            if (!Arrays.equals(magic, BinaryFormat.MAGIC)) {
+                throw new IOException("Not a binary log");
+            }
+            this.version = this.in.readUnsignedByte();
+            if (version < 1 || version > BinaryFormat.VERSION) {
+                throw new IOException("Unsupported binary log version " + version);
+            }
+            this.lastTimestamp = this.in.readLong();
+        } catch (EOFException e) {
+            throw new IOException("Binary log header is incomplete", e);
+        }
+    }
+}
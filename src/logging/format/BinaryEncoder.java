@@ -0,0 +1,355 @@
+package logging.format;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import logging.LogRecord;
+
+/**
+ * Encodes LogRecords into the compact binary log format described in BinaryFormat.
+ *
+ * Timestamps are written as deltas and logger names, call sites, field keys and tags as ids,
+ * so the encoder keeps state about everything it has written before.
+ * It is not thread safe: each file needs its own BinaryEncoder, and records must be
+ * written out in the order they were encoded (e.g. under the Output's lock).
+ *
+ * Field values are written as their toString(), and read back as Strings.
+ * The message and field values are rendered before anything else is touched, so a record logged to the same
+ * file by an argument's toString is encoded whole in between, and a toString that throws
+ * leaves no trace. If the frames of a record can't be written, {@link #rollback()} forgets
+ * the definitions they carried.
+ */
+public final class BinaryEncoder {
+    private final HashMap<String, Integer> names = new HashMap<>();
+    private final HashMap<StackTraceElement, Integer> sites = new HashMap<>();
+    private final HashMap<String, Integer> keys = new HashMap<>();
+    private final long baseTimestamp;
+    private long lastTimestamp;
+    private boolean headerWritten;
+
+    // What the last encode() defined, for rollback()
+    private String definedName;
+    private StackTraceElement definedSite;
+    private final ArrayList<String> definedKeys = new ArrayList<>();
+    private boolean definedHeader;
+    private long previousTimestamp;
+
+    private Rendered rendered = new Rendered();
+    private ByteBuffer bytes = ByteBuffer.allocate(1024);
+    private final byte[] varint = new byte[BinaryFormat.MAX_VARINT_SIZE];
+    // Set while rendering, so a record encoded meanwhile renders into its own Rendered
+    private boolean rendering;
+
+    // The message and field values of a record, as text
+    private static final class Rendered {
+        private StringBuilder message = new StringBuilder(256);
+        private String[] values = new String[8];
+        // Total length of the values that aren't null
+        private int valuesLength;
+
+        private Rendered trim() {
+            message = Scratch.trim(message);
+            return this;
+        }
+    }
+
+    /**
+     * Encode a LogRecord, along with any definitions it needs and the file header if this is the first record.
+     *
+     * @param record - LogRecord to encode
+     * @return Buffer holding the encoded frames, ready for reading; reused on the next call
+     */
+    public ByteBuffer encode(LogRecord record) {
+        Rendered text = render(record);
+        try {
+            return encode(record, text);
+        } finally {
+            Arrays.fill(text.values, 0, record.fieldCount(), null);
+        }
+    }
+
+    /**
+     * Encode a LogRecord whose message and field values have been rendered.
+     *
+     * @param record - LogRecord to encode
+     * @param text - Rendered message and field values
+     * @return Buffer holding the encoded frames, ready for reading
+     */
+    private ByteBuffer encode(LogRecord record, Rendered text) {
+        bytes = Scratch.trim(bytes);
+        bytes.clear();
+        definedName = null;
+        definedSite = null;
+        definedKeys.clear();
+        definedHeader = false;
+        previousTimestamp = lastTimestamp;
+
+        if (!headerWritten) {
+            reserve(BinaryFormat.HEADER_SIZE);
+            bytes.put(BinaryFormat.MAGIC).put(BinaryFormat.VERSION).putLong(baseTimestamp);
+            headerWritten = true;
+            definedHeader = true;
+        }
+
+        int nameId = nameId(record.loggerName());
+        int siteId = record.stackFrame() == null ? 0 : siteId(record.stackFrame());
+        // Define any new keys up front, the record itself then only looks up their ids
+        int keyCount = record.fieldCount() + record.tagCount();
+        for (int i = 0; i < record.fieldCount(); i++) {
+            keyId(record.fieldKey(i));
+        }
+        for (int i = 0; i < record.tagCount(); i++) {
+            keyId(record.tag(i));
+        }
+
+        reserve(4 + BinaryFormat.MAX_VARINT_SIZE * (6 + keyCount * 2) + record.fieldCount()
+            + (text.message.length() + text.valuesLength) * 3);
+        byte[] array = bytes.array();
+        int pos = bytes.position();
+
+        array[pos++] = BinaryFormat.RECORD;
+        pos = BinaryFormat.putVarint(BinaryFormat.zigzag(record.timestamp() - lastTimestamp), array, pos);
+        array[pos++] = (byte) record.level().ordinal();
+        pos = BinaryFormat.putVarint(nameId, array, pos);
+        pos = BinaryFormat.putVarint(siteId, array, pos);
+        pos = putString(text.message, array, pos);
+
+        pos = BinaryFormat.putVarint(record.fieldCount(), array, pos);
+        for (int i = 0; i < record.fieldCount(); i++) {
+            pos = BinaryFormat.putVarint(keys.get(record.fieldKey(i)), array, pos);
+            String value = text.values[i];
+            if (value == null) {
+                array[pos++] = 0;
+            } else {
+                array[pos++] = 1;
+                pos = putString(value, array, pos);
+            }
+        }
+        pos = BinaryFormat.putVarint(record.tagCount(), array, pos);
+        for (int i = 0; i < record.tagCount(); i++) {
+            pos = BinaryFormat.putVarint(keys.get(record.tag(i)), array, pos);
+        }
+
+        bytes.position(pos);
+        lastTimestamp = record.timestamp();
+        return bytes.flip();
+    }
+
+    /**
+     * Undo the last {@link #encode(LogRecord)}, because its frames were never written.
+     * The ids it defined are forgotten, and the header and timestamp base are restored,
+     * so the next record defines them again. Must be called before encoding anything else.
+     */
+    public void rollback() {
+        if (definedName != null) {
+            names.remove(definedName);
+            definedName = null;
+        }
+        if (definedSite != null) {
+            sites.remove(definedSite);
+            definedSite = null;
+        }
+        for (String key : definedKeys) {
+            keys.remove(key);
+        }
+        definedKeys.clear();
+        if (definedHeader) {
+            headerWritten = false;
+            definedHeader = false;
+        }
+        lastTimestamp = previousTimestamp;
+    }
+
+    /**
+     * Render the message and field values of a LogRecord.
+     *
+     * @param record - LogRecord to render
+     * @return Rendered text; reused on the next call unless rendering is already underway
+     */
+    private Rendered render(LogRecord record) {
+        if (rendering) {
+            Rendered own = new Rendered();
+            renderTo(record, own);
+            return own;
+        }
+
+        rendered = rendered.trim();
+        rendering = true;
+        try {
+            renderTo(record, rendered);
+        } finally {
+            rendering = false;
+        }
+        return rendered;
+    }
+
+    /**
+     * Render the message and field values of a LogRecord into some scratch space.
+     *
+     * @param record - LogRecord to render
+     * @param text - Scratch space to render into
+     */
+    private static void renderTo(LogRecord record, Rendered text) {
+        text.message.setLength(0);
+        record.formatMessageTo(text.message);
+
+        int count = record.fieldCount();
+        if (text.values.length < count) {
+            text.values = new String[count];
+        }
+        text.valuesLength = 0;
+        try {
+            for (int i = 0; i < count; i++) {
+                Object value = record.fieldValue(i);
+                String string = value == null ? null : value.toString();
+                text.values[i] = string;
+                if (string != null) {
+                    text.valuesLength += string.length();
+                }
+            }
+        } catch (RuntimeException | Error e) {
+            Arrays.fill(text.values, 0, count, null);
+            throw e;
+        }
+    }
+
+    /**
+     * Get the id of a logger name, writing a NAME frame the first time it's seen.
+     *
+     * @param name - Logger name
+     * @return Id
+     */
+    private int nameId(String name) {
+        Integer id = names.get(name);
+        if (id != null) {
+            return id;
+        }
+
+        int newId = names.size() + 1;
+        names.put(name, newId);
+        definedName = name;
+
+        reserve(1 + BinaryFormat.MAX_VARINT_SIZE * 2 + name.length() * 3);
+        byte[] array = bytes.array();
+        int pos = bytes.position();
+        array[pos++] = BinaryFormat.NAME;
+        pos = BinaryFormat.putVarint(newId, array, pos);
+        pos = putString(name, array, pos);
+        bytes.position(pos);
+        return newId;
+    }
+
+    /**
+     * Get the id of a field key or tag, writing a KEY frame the first time it's seen.
+     *
+     * @param key - Field key or tag
+     * @return Id
+     */
+    private int keyId(String key) {
+        Integer id = keys.get(key);
+        if (id != null) {
+            return id;
+        }
+
+        int newId = keys.size() + 1;
+        keys.put(key, newId);
+        definedKeys.add(key);
+
+        reserve(1 + BinaryFormat.MAX_VARINT_SIZE * 2 + key.length() * 3);
+        byte[] array = bytes.array();
+        int pos = bytes.position();
+        array[pos++] = BinaryFormat.KEY;
+        pos = BinaryFormat.putVarint(newId, array, pos);
+        pos = putString(key, array, pos);
+        bytes.position(pos);
+        return newId;
+    }
+
+    /**
+     * Get the id of a call site, writing a SITE frame the first time it's seen.
+     *
+     * @param site - Call site
+     * @return Id
+     */
+    private int siteId(StackTraceElement site) {
+        Integer id = sites.get(site);
+        if (id != null) {
+            return id;
+        }
+
+        int newId = sites.size() + 1;
+        sites.put(site, newId);
+        definedSite = site;
+
+        String fileName = site.getFileName();
+        int length = site.getClassName().length() + site.getMethodName().length()
+            + (fileName == null ? 0 : fileName.length());
+        reserve(1 + BinaryFormat.MAX_VARINT_SIZE * 5 + length * 3);
+
+        byte[] array = bytes.array();
+        int pos = bytes.position();
+        array[pos++] = BinaryFormat.SITE;
+        pos = BinaryFormat.putVarint(newId, array, pos);
+        pos = putString(site.getClassName(), array, pos);
+        pos = putString(site.getMethodName(), array, pos);
+        if (fileName == null) {
+            array[pos++] = 0;
+        } else {
+            array[pos++] = 1;
+            pos = putString(fileName, array, pos);
+        }
+        pos = BinaryFormat.putVarint(BinaryFormat.zigzag(site.getLineNumber()), array, pos);
+        bytes.position(pos);
+        return newId;
+    }
+
+    /**
+     * Write a varint byte length followed by the UTF-8 bytes of some text.
+     *
+     * @param text - Text to write
+     * @param array - Array to write into, with room for the length and 3 bytes per char
+     * @param pos - Index to write at
+     * @return Index after the text
+     */
+    private int putString(CharSequence text, byte[] array, int pos) {
+        // Encode first, then move the bytes along if the length needs more than one byte
+        int start = pos + 1;
+        int length = TextEncoder.encodeUtf8(text, array, start);
+        if (length < 0x80) {
+            array[pos] = (byte) length;
+            return start + length;
+        }
+
+        int prefixLength = BinaryFormat.putVarint(length, varint, 0);
+        System.arraycopy(array, start, array, pos + prefixLength, length);
+        System.arraycopy(varint, 0, array, pos, prefixLength);
+        return pos + prefixLength + length;
+    }
+
+    /**
+     * Make sure the buffer has room for some more bytes, growing it if needed.
+     *
+     * @param extra - Number of bytes about to be written
+     */
+    private void reserve(int extra) {
+        if (bytes.remaining() >= extra) {
+            return;
+        }
+        ByteBuffer grown = ByteBuffer.allocate(Math.max(bytes.capacity() * 2, bytes.position() + extra));
+        bytes.flip();
+        grown.put(bytes);
+        bytes = grown;
+    }
+
+    /**
+     * Initialize a BinaryEncoder.
+     *
+     * @param baseTimestamp - Timestamp the first record's delta is relative to, in milliseconds since the epoch
+     */
+    public BinaryEncoder(long baseTimestamp) {
+        this.baseTimestamp = baseTimestamp;
+        this.lastTimestamp = baseTimestamp;
+    }
+}
@@ -0,0 +1,73 @@
+package logging.format;
+
+/**
+ * Layout of the binary log format written by BinaryEncoder and read by BinaryDecoder.
+ *
+ * A file starts with a header: the magic bytes "LOGB", a version byte and the
+ * 8 byte big-endian timestamp the first delta is relative to. It is followed by frames,
+ * each starting with a tag byte:
+ *
+ *   NAME   - varint id, varint length, UTF-8 logger name
+ *   SITE   - varint id, class name, method name, file name (byte 0 for none, or 1 followed by the name), zigzag line
+ *   KEY    - varint id, varint length, UTF-8 field key or tag
+ *   RECORD - zigzag timestamp delta from the previous record, level ordinal byte,
+ *            varint logger name id, varint call site id (0 for none), varint length, UTF-8 message,
+ *            varint field count, then per field a varint key id and the value (byte 0 for null,
+ *            or 1 followed by its toString()), varint tag count, then per tag a varint key id
+ *
+ * Strings in SITE, KEY and RECORD frames are a varint length followed by UTF-8 bytes.
+ * Logger names, call sites and keys are defined once, in a frame before the first record using them.
+ * Version 1 logs have no KEY frames, and their records end after the message.
+ */
+final class BinaryFormat {
+    static final byte[] MAGIC = {'L', 'O', 'G', 'B'};
+    static final byte VERSION = 2;
+    static final int HEADER_SIZE = MAGIC.length + 1 + Long.BYTES;
+
+    static final byte NAME = 1;
+    static final byte SITE = 2;
+    static final byte RECORD = 3;
+    static final byte KEY = 4;
+
+    // Most bytes a varint of a long can take up
+    static final int MAX_VARINT_SIZE = 10;
+
+    /**
+     * Write an unsigned varint, 7 bits per byte with the high bit set on all but the last.
+     *
+     * @param value - Value to write, treated as unsigned
+     * @param dest - Array to write into
+     * @param pos - Index to write at
+     * @return Index after the varint
+     */
+    static int putVarint(long value, byte[] dest, int pos) {
+        while ((value & ~0x7FL) != 0) {
+            dest[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        dest[pos++] = (byte) value;
+        return pos;
+    }
+
+    /**
+     * Map a signed value to an unsigned one so small negative values stay small as a varint.
+     *
+     * @param value - Signed value
+     * @return ZigZag encoded value
+     */
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    /**
+     * Undo {@link #zigzag(long)}.
+     *
+     * @param value - ZigZag encoded value
+     * @return Signed value
+     */
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private BinaryFormat() {}
+}
@@ -1,6 +1,5 @@
 package logging.format;
 
-import logging.LogLevel;
 import logging.LogLevels;
 import logging.LogRecord;
 import logging.format.color.Ansi;
@@ -12,6 +11,8 @@ public class ColorFormatter extends Formatter {
     private String warnColor;
     private String errorColor;
     private String fatalColor;
+    // Compiled color + template + reset for each level, indexed by LogLevels.toInt
+    private volatile Template[] levelTemplates;
 
     private static final String DEFAULT_DEBUG = "\033[32m";             // Green
     private static final String DEFAULT_INFO = "\033[34m";              // Blue
@@ -20,8 +21,16 @@ public class ColorFormatter extends Formatter {
     private static final String DEFAULT_FATAL = "\033[31m" + "\033[1m"; // Red bold
     private static final String RESET = "\033[0m";
 
-    public String format(LogRecord record) {
-        return new Formatter(getFormatFromLevel(record.level())).format(record);
+    /**
+     * Format a LogRecord with the colored template for its level and append it to a StringBuilder.
+     *
+     * @param record - LogRecord to format
+     * @param builder - StringBuilder to append to
+     */
+    @Override
+    public void formatTo(LogRecord record, StringBuilder builder) {
+        render(levelTemplates[LogLevels.toInt(record.level())], record, builder);
+        builder.append(getTerminator());
     }
 
     /**
@@ -50,6 +59,7 @@ public class ColorFormatter extends Formatter {
         if (fatal != null) {
             fatalColor = fatal.getCode();
         }
+        compileTemplates(getTemplate());
     }
 
     /**
@@ -59,6 +69,7 @@ public class ColorFormatter extends Formatter {
      */
     public void setDebugColor(Ansi color) {
         debugColor = color.getCode();
+        compileTemplates(getTemplate());
     }
 
     /**
@@ -68,6 +79,7 @@ public class ColorFormatter extends Formatter {
      */
     public void setInfoColor(Ansi color) {
         infoColor = color.getCode();
+        compileTemplates(getTemplate());
     }
 
     /**
@@ -77,6 +89,7 @@ public class ColorFormatter extends Formatter {
      */
     public void setWarnColor(Ansi color) {
         warnColor = color.getCode();
+        compileTemplates(getTemplate());
     }
 
     /**
@@ -86,6 +99,7 @@ public class ColorFormatter extends Formatter {
      */
     public void setErrorColor(Ansi color) {
         errorColor = color.getCode();
+        compileTemplates(getTemplate());
     }
 
     /**
@@ -95,6 +109,7 @@ public class ColorFormatter extends Formatter {
      */
     public void setFatalColor(Ansi color) {
         fatalColor = color.getCode();
+        compileTemplates(getTemplate());
     }
 
     /**
@@ -106,6 +121,7 @@ public class ColorFormatter extends Formatter {
         warnColor = DEFAULT_WARN;
         errorColor = DEFAULT_ERROR;
         fatalColor = DEFAULT_FATAL;
+        compileTemplates(getTemplate());
     }
 
     /**
@@ -113,6 +129,7 @@ public class ColorFormatter extends Formatter {
      */
     public void resetDebugColor() {
         debugColor = DEFAULT_DEBUG;
+        compileTemplates(getTemplate());
     }
 
     /**
@@ -120,6 +137,7 @@ public class ColorFormatter extends Formatter {
      */
     public void resetInfoColor() {
         infoColor = DEFAULT_INFO;
+        compileTemplates(getTemplate());
     }
 
     /**
@@ -127,6 +145,7 @@ public class ColorFormatter extends Formatter {
      */
     public void resetWarnColor() {
         warnColor = DEFAULT_WARN;
+        compileTemplates(getTemplate());
     }
 
     /**
@@ -134,6 +153,7 @@ public class ColorFormatter extends Formatter {
      */
     public void resetErrorColor() {
         errorColor = DEFAULT_ERROR;
+        compileTemplates(getTemplate());
     }
 
     /**
@@ -141,36 +161,24 @@ public class ColorFormatter extends Formatter {
      */
     public void resetFatalColor() {
         fatalColor = DEFAULT_FATAL;
+        compileTemplates(getTemplate());
     }
 
     /**
-     * Get the format used for the given level.
+     * Compile the format used for each level.
+     * Called whenever a color changes so formatting never has to build them.
+     * Constructors pass their own template rather than calling the overridable getTemplate().
      *
-     * @param level - Level to get the format for
-     * @return The format for the given level
+     * @param template - Message formatting template
      */
-    private String getFormatFromLevel(LogLevel level) {
-        switch (LogLevels.toInt(level)) {
-            case 0:
-                return debugColor + getTemplate() + RESET;
-
-            case 1:
-                return infoColor + getTemplate() + RESET;
-
-            case 2:
-                return warnColor + getTemplate() + RESET;
-
-            case 3:
-                return errorColor + getTemplate() + RESET;
-
-            case 4:
-                return fatalColor + getTemplate() + RESET;
-
-            default:
-                break;
-        }
-
-        return null;
+    private void compileTemplates(String template) {
+        levelTemplates = new Template[] {
+            new Template(debugColor + template + RESET),
+            new Template(infoColor + template + RESET),
+            new Template(warnColor + template + RESET),
+            new Template(errorColor + template + RESET),
+            new Template(fatalColor + template + RESET),
+        };
     }
 
     /**
@@ -183,6 +191,7 @@ public class ColorFormatter extends Formatter {
         this.warnColor = DEFAULT_WARN;
         this.errorColor = DEFAULT_ERROR;
         this.fatalColor = DEFAULT_FATAL;
+        compileTemplates(DEFAULT_MESSAGE_TEMPLATE);
     }
 
     /**
@@ -198,6 +207,7 @@ public class ColorFormatter extends Formatter {
      * - {filename}: The filename where the log was made
      * - {line}: The line where the log was made
      * - {time}: The date and time when the log was made (using {@link java.time.LocalDateTime})
+     * - {fields}: The structured fields of the log, as key=value pairs separated by spaces
      */
     public ColorFormatter(String template) {
         super(template, DEFAULT_TIMESTAMP_TEMPLATE, DEFAULT_TERMINATOR);
@@ -206,6 +216,7 @@ public class ColorFormatter extends Formatter {
         this.warnColor = DEFAULT_WARN;
         this.errorColor = DEFAULT_ERROR;
         this.fatalColor = DEFAULT_FATAL;
+        compileTemplates(template);
     }
 
     /**
@@ -221,6 +232,7 @@ public class ColorFormatter extends Formatter {
      * - {filename}: The filename where the log was made
      * - {line}: The line where the log was made
      * - {time}: The date and time when the log was made (using {@link java.time.LocalDateTime})
+     * - {fields}: The structured fields of the log, as key=value pairs separated by spaces
      * @param timestampTemplate - Timestamp formatting template
      */
     public ColorFormatter(String template, String timestampTemplate) {
@@ -230,6 +242,7 @@ public class ColorFormatter extends Formatter {
         this.warnColor = DEFAULT_WARN;
         this.errorColor = DEFAULT_ERROR;
         this.fatalColor = DEFAULT_FATAL;
+        compileTemplates(template);
     }
 
     /**
@@ -245,6 +258,7 @@ public class ColorFormatter extends Formatter {
      * - {filename}: The filename where the log was made
      * - {line}: The line where the log was made
      * - {time}: The date and time when the log was made (using {@link java.time.LocalDateTime})
+     * - {fields}: The structured fields of the log, as key=value pairs separated by spaces
      * @param timestampTemplate - Timestamp formatting template
      * @param terminator - Character to add at the end of each message
      */
@@ -255,5 +269,6 @@ public class ColorFormatter extends Formatter {
         this.warnColor = DEFAULT_WARN;
         this.errorColor = DEFAULT_ERROR;
         this.fatalColor = DEFAULT_FATAL;
+        compileTemplates(template);
     }
 }
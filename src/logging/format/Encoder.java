@@ -0,0 +1,33 @@
+package logging.format;
+
+import java.nio.ByteBuffer;
+
+import logging.LogRecord;
+
+/**
+ * Renders LogRecords straight to bytes, for Outputs that write bytes anyway.
+ *
+ * Setting an Encoder on an Output takes the place of its Formatter: the Logger
+ * hands the Output the encoded bytes through {@link logging.output.Output#send(ByteBuffer, LogRecord)},
+ * so no String is created for the record on the way.
+ */
+public interface Encoder {
+    /**
+     * Encode a LogRecord.
+     * The returned buffer may be reused, it is only valid until this thread encodes its next record.
+     *
+     * @param record - LogRecord to encode
+     * @return Buffer holding the encoded record, ready for reading
+     */
+    ByteBuffer encode(LogRecord record);
+
+    /**
+     * Check whether this Encoder uses the location of a log.
+     * Loggers only capture the location if something is going to use it.
+     *
+     * @return If the location is used; true unless overridden
+     */
+    default boolean usesLocation() {
+        return true;
+    }
+}
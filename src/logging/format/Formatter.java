@@ -1,7 +1,5 @@
 package logging.format;
 
-import java.time.format.DateTimeFormatter;
-
 import logging.LogLevels;
 import logging.LogRecord;
 
@@ -13,6 +11,11 @@ public class Formatter {
     private String template;
     private String timestampTemplate;
     private char terminator;
+    private Template compiled;
+    private TimestampCache timestamps;
+
+    // Per-thread builder for format()
+    private static final Scratch<StringBuilder> BUILDERS = new Scratch<>(() -> new StringBuilder(256), Scratch::trim);
 
     /**
      * Format a LogRecord with this Formatter's templates.
@@ -21,23 +24,101 @@ public class Formatter {
      * @return Formatted LogRecord as a String
      */
     public String format(LogRecord record) {
-        return template.replace(
-            "{message}", record.message()
-        ).replace(
-            "{level}", LogLevels.toString(record.level())
-        ).replace(
-            "{levelNumber}", Integer.toString(LogLevels.toInt(record.level()))
-        ).replace(
-            "{name}", record.loggerName()
-        ).replace(
-            "{filepath}", record.filepath()
-        ).replace(
-            "{filename}", record.filename()
-        ).replace(
-            "{line}", Integer.toString(record.lineNumber())
-        ).replace(
-            "{time}", record.time().format(DateTimeFormatter.ofPattern(timestampTemplate))
-        ) + terminator;
+        StringBuilder builder = BUILDERS.acquire();
+        try {
+            builder.setLength(0);
+            formatTo(record, builder);
+            return builder.toString();
+        } finally {
+            BUILDERS.release(builder);
+        }
+    }
+
+    /**
+     * Format a LogRecord with this Formatter's templates and append it to a StringBuilder.
+     *
+     * @param record - LogRecord to format
+     * @param builder - StringBuilder to append to
+     */
+    public void formatTo(LogRecord record, StringBuilder builder) {
+        render(compiled, record, builder);
+        builder.append(terminator);
+    }
+
+    /**
+     * Append a LogRecord rendered with a compiled Template to a StringBuilder.
+     * Only the fields present in the Template are evaluated.
+     *
+     * @param template - Template to render
+     * @param record - LogRecord to render
+     * @param builder - StringBuilder to append to
+     */
+    void render(Template template, LogRecord record, StringBuilder builder) {
+        String[] literals = template.literals;
+        Template.Field[] fields = template.fields;
+
+        for (int i = 0; i < fields.length; i++) {
+            Template.Field field = fields[i];
+            if (field == null) {
+                builder.append(literals[i]);
+                continue;
+            }
+
+            switch (field) {
+                case MESSAGE:
+                    record.formatMessageTo(builder);
+                    break;
+
+                case LEVEL:
+                    builder.append(LogLevels.toString(record.level()));
+                    break;
+
+                case LEVEL_NUMBER:
+                    builder.append(LogLevels.toInt(record.level()));
+                    break;
+
+                case NAME:
+                    builder.append(record.loggerName());
+                    break;
+
+                case FILEPATH:
+                    builder.append(record.filepath());
+                    break;
+
+                case FILENAME:
+                    builder.append(record.filename());
+                    break;
+
+                case LINE:
+                    builder.append(record.lineNumber());
+                    break;
+
+                case TIME:
+                    timestamps.formatTo(record.timestamp(), builder);
+                    break;
+
+                case FIELDS:
+                    for (int f = 0; f < record.fieldCount(); f++) {
+                        if (f > 0) {
+                            builder.append(' ');
+                        }
+                        builder.append(record.fieldKey(f)).append('=').append(record.fieldValue(f));
+                    }
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Check whether this Formatter's template uses the location of a log
+     * ({filepath}, {filename} or {line}).
+     *
+     * @return If the location is used
+     */
+    public boolean usesLocation() {
+        return compiled.uses(Template.Field.FILEPATH)
+            || compiled.uses(Template.Field.FILENAME)
+            || compiled.uses(Template.Field.LINE);
     }
 
     /**
@@ -87,6 +168,7 @@ public class Formatter {
      * - {filename}: The filename where the log was made
      * - {line}: The line where the log was made
      * - {time}: The date and time when the log was made (using {@link java.time.LocalDateTime})
+     * - {fields}: The structured fields of the log, as key=value pairs separated by spaces
      */
     public Formatter(String template) {
         this(template, DEFAULT_TIMESTAMP_TEMPLATE, DEFAULT_TERMINATOR);
@@ -105,6 +187,7 @@ public class Formatter {
      * - {filename}: The filename where the log was made
      * - {line}: The line where the log was made
      * - {time}: The date and time when the log was made (using {@link java.time.LocalDateTime})
+     * - {fields}: The structured fields of the log, as key=value pairs separated by spaces
      * @param timestampTemplate - Timestamp formatting template
      */
     public Formatter(String template, String timestampTemplate) {
@@ -124,6 +207,7 @@ public class Formatter {
      * - {filename}: The filename where the log was made
      * - {line}: The line where the log was made
      * - {time}: The date and time when the log was made (using {@link java.time.LocalDateTime})
+     * - {fields}: The structured fields of the log, as key=value pairs separated by spaces
      * @param timestampTemplate - Timestamp formatting template
      * @param terminator - Character to add at the end of each message
      */
@@ -131,5 +215,7 @@ public class Formatter {
         this.template = template;
         this.timestampTemplate = timestampTemplate;
         this.terminator = terminator;
+        this.compiled = new Template(template);
+        this.timestamps = new TimestampCache(timestampTemplate);
     }
 }
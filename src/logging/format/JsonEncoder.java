@@ -0,0 +1,336 @@
+package logging.format;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import logging.LogLevel;
+import logging.LogLevels;
+import logging.LogRecord;
+
+/**
+ * Encoder that writes each LogRecord as one line of JSON, straight into a byte buffer.
+ *
+ *   {"time":1700000000000,"level":"INFO","logger":"app","message":"Started","user":"bob"}
+ *
+ * Structured fields follow the fixed keys, field keys that clash with a fixed key are written
+ * with a leading underscore (e.g. "_level"), as are keys that already start with one (so "_level"
+ * is written as "__level" and never mistaken for a clashing "level"). The fixed keys and level names are encoded once
+ * up front, and field keys are escaped once and cached, so a record only costs its values.
+ * Numbers and booleans are written as JSON numbers and booleans, anything else as a string.
+ * The buffers are per-thread {@link Scratch} space.
+ */
+public class JsonEncoder implements Encoder {
+    // Field keys are arbitrary, stop caching them if there are suspiciously many
+    private static final int MAX_CACHED_KEYS = 1024;
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] TIME_KEY = ascii("{\"time\":");
+    private static final byte[] LEVEL_KEY = ascii(",\"level\":");
+    private static final byte[] LOGGER_KEY = ascii(",\"logger\":");
+    private static final byte[] MESSAGE_KEY = ascii(",\"message\":");
+    private static final byte[] FILE_KEY = ascii(",\"file\":");
+    private static final byte[] LINE_KEY = ascii(",\"line\":");
+    private static final byte[] NULL = ascii("null");
+    private static final byte[] TRUE = ascii("true");
+    private static final byte[] FALSE = ascii("false");
+    private static final byte[][] LEVELS = new byte[LogLevel.values().length][];
+    private static final Set<String> FIXED_KEYS = Set.of("time", "level", "logger", "message", "file", "line");
+
+    static {
+        for (LogLevel level : LogLevel.values()) {
+            LEVELS[level.ordinal()] = ascii("\"" + LogLevels.toString(level) + "\"");
+        }
+    }
+
+    private static final Scratch<JsonBuffer> BUFFERS = new Scratch<>(JsonBuffer::new, JsonBuffer::trim);
+
+    private final ConcurrentHashMap<String, byte[]> fieldKeys = new ConcurrentHashMap<>();
+    private final TimestampCache timestamps;
+    private final boolean includeLocation;
+
+    // Per-thread scratch space, with the encoding helpers that write into it
+    private static final class JsonBuffer {
+        private StringBuilder chars = new StringBuilder(256);
+        private byte[] bytes = new byte[1024];
+        private int pos;
+
+        private JsonBuffer trim() {
+            chars = Scratch.trim(chars);
+            bytes = Scratch.trim(bytes);
+            return this;
+        }
+
+        /**
+         * Make sure there is room for some more bytes, growing the array if needed.
+         *
+         * @param extra - Number of bytes about to be written
+         */
+        private void reserve(int extra) {
+            if (pos + extra > bytes.length) {
+                byte[] grown = new byte[Math.max(bytes.length * 2, pos + extra)];
+                System.arraycopy(bytes, 0, grown, 0, pos);
+                bytes = grown;
+            }
+        }
+
+        /**
+         * Write raw bytes.
+         *
+         * @param raw - Bytes to write
+         */
+        private void put(byte[] raw) {
+            reserve(raw.length);
+            System.arraycopy(raw, 0, bytes, pos, raw.length);
+            pos += raw.length;
+        }
+
+        /**
+         * Write a long as decimal digits.
+         *
+         * @param value - Value to write
+         */
+        private void putLong(long value) {
+            if (value == Long.MIN_VALUE) {
+                put(ascii(Long.toString(value)));
+                return;
+            }
+            reserve(20);
+            if (value < 0) {
+                bytes[pos++] = '-';
+                value = -value;
+            }
+            int digits = 1;
+            for (long rest = value / 10; rest > 0; rest /= 10) {
+                digits++;
+            }
+            for (int i = pos + digits - 1; i >= pos; i--) {
+                bytes[i] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            pos += digits;
+        }
+
+        /**
+         * Write text as a quoted, escaped JSON string in UTF-8.
+         *
+         * @param text - Text to write
+         */
+        private void putString(CharSequence text) {
+            int length = text.length();
+            // Escapes take at most 6 bytes per char
+            reserve(length * 6 + 2);
+            byte[] dest = bytes;
+            int p = pos;
+
+            dest[p++] = '"';
+            for (int i = 0; i < length; i++) {
+                char c = text.charAt(i);
+                if (c >= 0x20 && c < 0x80 && c != '"' && c != '\\') {
+                    dest[p++] = (byte) c;
+                } else if (c == '"' || c == '\\') {
+                    dest[p++] = '\\';
+                    dest[p++] = (byte) c;
+                } else if (c == '\n') {
+                    dest[p++] = '\\';
+                    dest[p++] = 'n';
+                } else if (c == '\r') {
+                    dest[p++] = '\\';
+                    dest[p++] = 'r';
+                } else if (c == '\t') {
+                    dest[p++] = '\\';
+                    dest[p++] = 't';
+                } else if (c < 0x20) {
+                    dest[p++] = '\\';
+                    dest[p++] = 'u';
+                    dest[p++] = '0';
+                    dest[p++] = '0';
+                    dest[p++] = HEX[c >> 4];
+                    dest[p++] = HEX[c & 0xF];
+                } else if (c < 0x800) {
+                    dest[p++] = (byte) (0xC0 | (c >> 6));
+                    dest[p++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                    dest[p++] = (byte) (0xF0 | (codePoint >> 18));
+                    dest[p++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    dest[p++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    dest[p++] = (byte) (0x80 | (codePoint & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    // Unpaired surrogate, like TextEncoder
+                    dest[p++] = '?';
+                } else {
+                    dest[p++] = (byte) (0xE0 | (c >> 12));
+                    dest[p++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    dest[p++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+            dest[p++] = '"';
+            pos = p;
+        }
+
+        /**
+         * Write a field value as the closest JSON type.
+         *
+         * @param value - Value to write
+         */
+        private void putValue(Object value) {
+            if (value == null) {
+                put(NULL);
+            } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                putLong(((Number) value).longValue());
+            } else if (value instanceof Boolean bool) {
+                put(bool ? TRUE : FALSE);
+            } else if (value instanceof Double || value instanceof Float) {
+                double number = ((Number) value).doubleValue();
+                if (Double.isFinite(number)) {
+                    chars.setLength(0);
+                    if (value instanceof Float single) {
+                        chars.append(single.floatValue());
+                    } else {
+                        chars.append(number);
+                    }
+                    reserve(chars.length());
+                    for (int i = 0; i < chars.length(); i++) {
+                        bytes[pos++] = (byte) chars.charAt(i);
+                    }
+                } else {
+                    // NaN and Infinity aren't valid JSON numbers
+                    putString(Double.toString(number));
+                }
+            } else if (value instanceof CharSequence text) {
+                putString(text);
+            } else {
+                putString(value.toString());
+            }
+        }
+    }
+
+    /**
+     * Encode a LogRecord as a line of JSON.
+     *
+     * @param record - LogRecord to encode
+     * @return Buffer holding the encoded record, ready for reading
+     */
+    @Override
+    public ByteBuffer encode(LogRecord record) {
+        JsonBuffer out = BUFFERS.acquire();
+        out.pos = 0;
+        try {
+            write(record, out);
+        } finally {
+            // The bytes stay ours until the next call on this thread
+            BUFFERS.release(out);
+        }
+        return ByteBuffer.wrap(out.bytes, 0, out.pos);
+    }
+
+    /**
+     * Write a LogRecord as a line of JSON into a buffer.
+     *
+     * @param record - LogRecord to write
+     * @param out - Buffer to write into
+     */
+    private void write(LogRecord record, JsonBuffer out) {
+        out.put(TIME_KEY);
+        if (timestamps == null) {
+            out.putLong(record.timestamp());
+        } else {
+            out.chars.setLength(0);
+            timestamps.formatTo(record.timestamp(), out.chars);
+            out.putString(out.chars);
+        }
+        out.put(LEVEL_KEY);
+        out.put(LEVELS[record.level().ordinal()]);
+        out.put(LOGGER_KEY);
+        out.putString(record.loggerName());
+
+        out.put(MESSAGE_KEY);
+        out.chars.setLength(0);
+        record.formatMessageTo(out.chars);
+        out.putString(out.chars);
+
+        if (includeLocation && record.stackFrame() != null) {
+            out.put(FILE_KEY);
+            out.putString(record.filename());
+            out.put(LINE_KEY);
+            out.putLong(record.lineNumber());
+        }
+
+        for (int i = 0; i < record.fieldCount(); i++) {
+            out.put(fieldKey(record.fieldKey(i)));
+            out.putValue(record.fieldValue(i));
+        }
+
+        out.reserve(2);
+        out.bytes[out.pos++] = '}';
+        out.bytes[out.pos++] = '\n';
+    }
+
+    /**
+     * Check whether this JsonEncoder writes the location of a log.
+     *
+     * @return If the location is used
+     */
+    @Override
+    public boolean usesLocation() {
+        return includeLocation;
+    }
+
+    /**
+     * Get the encoded ,"key": prefix of a structured field.
+     * Keys that clash with a fixed key or start with an underscore get a leading underscore,
+     * so no key appears twice.
+     *
+     * @param key - Field key
+     * @return Escaped, encoded key with its separators
+     */
+    private byte[] fieldKey(String key) {
+        byte[] encoded = fieldKeys.get(key);
+        if (encoded != null) {
+            return encoded;
+        }
+
+        JsonBuffer scratch = new JsonBuffer();
+        scratch.bytes[scratch.pos++] = ',';
+        scratch.putString(FIXED_KEYS.contains(key) || key.startsWith("_") ? "_" + key : key);
+        scratch.reserve(1);
+        scratch.bytes[scratch.pos++] = ':';
+        encoded = Arrays.copyOf(scratch.bytes, scratch.pos);
+
+        if (fieldKeys.size() < MAX_CACHED_KEYS) {
+            fieldKeys.putIfAbsent(key, encoded);
+        }
+        return encoded;
+    }
+
+    /**
+     * Encode a constant as ASCII.
+     *
+     * @param text - ASCII text
+     * @return Bytes
+     */
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Initialize a JsonEncoder that writes timestamps as milliseconds since the epoch, without locations.
+     */
+    public JsonEncoder() {
+        this(null, false);
+    }
+
+    /**
+     * Initialize a JsonEncoder.
+     *
+     * @param timestampTemplate - Timestamp formatting template (see Formatter); null for milliseconds since the epoch
+     * @param includeLocation - Whether to capture and write the file and line of each log
+     */
+    public JsonEncoder(String timestampTemplate, boolean includeLocation) {
+        this.timestamps = timestampTemplate == null ? null : new TimestampCache(timestampTemplate);
+        this.includeLocation = includeLocation;
+    }
+}
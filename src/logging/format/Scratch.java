@@ -0,0 +1,117 @@
+package logging.format;
+
+import java.nio.ByteBuffer;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Per-thread scratch space (builders, buffers, records) reused from one log to the next.
+ *
+ * Each thread has one instance, marked as in use between {@link #acquire()} and
+ * {@link #release(Object)}. A log handled meanwhile on the same thread (e.g. made by an
+ * argument's toString or an Output failure) gets a fresh instance of its own instead.
+ * Buffers an unusually large record grew past the retained capacity are replaced when the
+ * instance is next acquired, so their memory isn't held on to forever.
+ *
+ * @param <T> - Type of the scratch space
+ */
+public final class Scratch<T> {
+    // Largest StringBuilder kept around for reuse between records
+    public static final int MAX_RETAINED_CHARS = 8192;
+    // Largest byte buffer kept around, enough for the largest StringBuilder even escaped as JSON (6 bytes per char)
+    public static final int MAX_RETAINED_BYTES = MAX_RETAINED_CHARS * 6;
+
+    private final Supplier<T> factory;
+    private final UnaryOperator<T> trim;
+    private final ThreadLocal<Slot<T>> slots;
+
+    // This thread's instance and whether it is in use
+    private static final class Slot<T> {
+        private T value;
+        private boolean busy;
+
+        private Slot(T value) {
+            this.value = value;
+        }
+    }
+
+    /**
+     * Claim this thread's instance, or a fresh one if it is already in use.
+     *
+     * @return Scratch space, to be handed back with {@link #release(Object)}
+     */
+    public T acquire() {
+        Slot<T> slot = slots.get();
+        if (slot.busy) {
+            return factory.get();
+        }
+        if (trim != null) {
+            slot.value = trim.apply(slot.value);
+        }
+        slot.busy = true;
+        return slot.value;
+    }
+
+    /**
+     * Hand back scratch space claimed with {@link #acquire()}.
+     *
+     * @param value - Scratch space
+     */
+    public void release(T value) {
+        Slot<T> slot = slots.get();
+        if (slot.value == value) {
+            slot.busy = false;
+        }
+    }
+
+    /**
+     * Replace a StringBuilder that grew past the retained capacity.
+     *
+     * @param builder - StringBuilder
+     * @return builder, or a new small one
+     */
+    public static StringBuilder trim(StringBuilder builder) {
+        return builder.capacity() > MAX_RETAINED_CHARS ? new StringBuilder(256) : builder;
+    }
+
+    /**
+     * Replace a ByteBuffer that grew past the retained capacity.
+     *
+     * @param buffer - ByteBuffer
+     * @return buffer, or a new small one
+     */
+    public static ByteBuffer trim(ByteBuffer buffer) {
+        return buffer.capacity() > MAX_RETAINED_BYTES ? ByteBuffer.allocate(1024) : buffer;
+    }
+
+    /**
+     * Replace a byte array that grew past the retained capacity.
+     *
+     * @param bytes - Byte array
+     * @return bytes, or a new small one
+     */
+    public static byte[] trim(byte[] bytes) {
+        return bytes.length > MAX_RETAINED_BYTES ? new byte[1024] : bytes;
+    }
+
+    /**
+     * Initialize per-thread scratch space that is used as it is.
+     *
+     * @param factory - Creates an instance
+     */
+    public Scratch(Supplier<T> factory) {
+        this(factory, null);
+    }
+
+    /**
+     * Initialize per-thread scratch space.
+     *
+     * @param factory - Creates an instance
+     * @param trim - Replaces any oversized buffers of an instance before it is reused, returning the instance to use; null for none
+     */
+    public Scratch(Supplier<T> factory, UnaryOperator<T> trim) {
+        this.factory = factory;
+        this.trim = trim;
+        this.slots = ThreadLocal.withInitial(() -> new Slot<>(factory.get()));
+    }
+}
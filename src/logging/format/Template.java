@@ -0,0 +1,113 @@
+package logging.format;
+
+import java.util.ArrayList;
+
+/**
+ * A message template parsed into literal text and {field} segments.
+ * Templates are compiled once, so formatting a record is a single pass over the segments.
+ */
+final class Template {
+    enum Field {
+        MESSAGE("{message}"),
+        LEVEL("{level}"),
+        LEVEL_NUMBER("{levelNumber}"),
+        NAME("{name}"),
+        FILEPATH("{filepath}"),
+        FILENAME("{filename}"),
+        LINE("{line}"),
+        TIME("{time}"),
+        FIELDS("{fields}");
+
+        private final String placeholder;
+
+        Field(String placeholder) {
+            this.placeholder = placeholder;
+        }
+    }
+
+    private static final Field[] FIELDS = Field.values();
+
+    // Segment i is literals[i] if fields[i] is null, otherwise the field
+    final String[] literals;
+    final Field[] fields;
+    private final String source;
+    private final boolean[] used = new boolean[FIELDS.length];
+
+    /**
+     * Check whether this Template contains a field.
+     *
+     * @param field - Field to check
+     * @return If the field is used
+     */
+    boolean uses(Field field) {
+        return used[field.ordinal()];
+    }
+
+    /**
+     * Get the template String this Template was compiled from.
+     *
+     * @return Source template
+     */
+    String getSource() {
+        return source;
+    }
+
+    /**
+     * Get the field whose placeholder starts at an index of a template.
+     *
+     * @param template - Template String
+     * @param index - Index of a '{'
+     * @return The field; null if there is no placeholder at index
+     */
+    private static Field fieldAt(String template, int index) {
+        for (Field field : FIELDS) {
+            if (template.startsWith(field.placeholder, index)) {
+                return field;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Compile a template String.
+     * Anything that isn't a known placeholder is kept as literal text.
+     *
+     * @param template - Template to compile
+     */
+    Template(String template) {
+        this.source = template;
+
+        ArrayList<String> literalList = new ArrayList<>();
+        ArrayList<Field> fieldList = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+
+        int i = 0;
+        while (i < template.length()) {
+            char c = template.charAt(i);
+            Field field = c == '{' ? fieldAt(template, i) : null;
+
+            if (field == null) {
+                literal.append(c);
+                i++;
+                continue;
+            }
+
+            if (literal.length() > 0) {
+                literalList.add(literal.toString());
+                fieldList.add(null);
+                literal.setLength(0);
+            }
+            literalList.add(null);
+            fieldList.add(field);
+            used[field.ordinal()] = true;
+            i += field.placeholder.length();
+        }
+        if (literal.length() > 0) {
+            literalList.add(literal.toString());
+            fieldList.add(null);
+        }
+
+        this.literals = literalList.toArray(new String[0]);
+        this.fields = fieldList.toArray(new Field[0]);
+    }
+}
@@ -0,0 +1,147 @@
+package logging.format;
+
+import java.nio.ByteBuffer;
+
+import logging.LogRecord;
+
+/**
+ * Encoder that renders a LogRecord with a Formatter's templates as UTF-8.
+ *
+ * The record is rendered into a reused StringBuilder and then encoded by hand
+ * into a reused byte buffer, copying ASCII a char at a time without going
+ * through a CharsetEncoder. Both buffers are per-thread {@link Scratch} space.
+ */
+public class TextEncoder implements Encoder {
+    private static final Scratch<Buffers> BUFFERS = new Scratch<>(Buffers::new, Buffers::trim);
+
+    private final Formatter formatter;
+
+    // Per-thread scratch space
+    private static final class Buffers {
+        private StringBuilder chars = new StringBuilder(256);
+        private ByteBuffer bytes = ByteBuffer.allocate(1024);
+
+        private Buffers trim() {
+            chars = Scratch.trim(chars);
+            bytes = Scratch.trim(bytes);
+            return this;
+        }
+    }
+
+    /**
+     * Render a LogRecord with this TextEncoder's Formatter and encode it as UTF-8.
+     *
+     * @param record - LogRecord to encode
+     * @return Buffer holding the encoded record, ready for reading
+     */
+    @Override
+    public ByteBuffer encode(LogRecord record) {
+        Buffers buffers = BUFFERS.acquire();
+        StringBuilder chars = buffers.chars;
+        chars.setLength(0);
+        try {
+            formatter.formatTo(record, chars);
+        } finally {
+            // The bytes stay ours until the next call on this thread
+            BUFFERS.release(buffers);
+        }
+
+        // Worst case is 3 bytes per char (a surrogate pair is 2 chars for 4 bytes)
+        int maxBytes = chars.length() * 3;
+        if (buffers.bytes.capacity() < maxBytes) {
+            buffers.bytes = ByteBuffer.allocate(maxBytes);
+        }
+
+        ByteBuffer bytes = buffers.bytes;
+        int length = encodeUtf8(chars, bytes.array(), 0);
+        bytes.clear().limit(length);
+        return bytes;
+    }
+
+    /**
+     * Check whether this TextEncoder's Formatter uses the location of a log.
+     *
+     * @return If the location is used
+     */
+    @Override
+    public boolean usesLocation() {
+        return formatter.usesLocation();
+    }
+
+    /**
+     * Get this TextEncoder's Formatter.
+     *
+     * @return Formatter
+     */
+    public Formatter getFormatter() {
+        return formatter;
+    }
+
+    /**
+     * Encode chars as UTF-8 into an array big enough to hold them.
+     * Unpaired surrogates are encoded as '?', like the JDK's encoder does.
+     *
+     * @param chars - Chars to encode
+     * @param dest - Array to encode into, with room for 3 bytes per char
+     * @param offset - Index in dest to start at
+     * @return Number of bytes written
+     */
+    static int encodeUtf8(CharSequence chars, byte[] dest, int offset) {
+        int length = chars.length();
+        int pos = offset;
+        int i = 0;
+
+        // Fast path for the (usual) all ASCII prefix
+        while (i < length) {
+            char c = chars.charAt(i);
+            if (c >= 0x80) {
+                break;
+            }
+            dest[pos++] = (byte) c;
+            i++;
+        }
+
+        for (; i < length; i++) {
+            char c = chars.charAt(i);
+            if (c < 0x80) {
+                dest[pos++] = (byte) c;
+            } else if (c < 0x800) {
+                dest[pos++] = (byte) (0xC0 | (c >> 6));
+                dest[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(chars.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, chars.charAt(++i));
+                dest[pos++] = (byte) (0xF0 | (codePoint >> 18));
+                dest[pos++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                dest[pos++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                dest[pos++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                dest[pos++] = '?';
+            } else {
+                dest[pos++] = (byte) (0xE0 | (c >> 12));
+                dest[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                dest[pos++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return pos - offset;
+    }
+
+    /**
+     * Initialize a TextEncoder with a default Formatter.
+     */
+    public TextEncoder() {
+        this(new Formatter());
+    }
+
+    /**
+     * Initialize a TextEncoder.
+     *
+     * @param formatter - Formatter to render records with
+     * @throws IllegalArgumentException If formatter is null
+     */
+    public TextEncoder(Formatter formatter) throws IllegalArgumentException {
+        if (formatter == null) {
+            throw new IllegalArgumentException("TextEncoder needs a Formatter");
+        }
+        this.formatter = formatter;
+    }
+}
@@ -0,0 +1,165 @@
+package logging.format;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Renders timestamps with a pattern compiled once.
+ *
+ * The text for the current second is cached, so records within the same second
+ * only need their sub-second digits patched in. Patterns that the cache can't
+ * split around a single run of 'S' (fraction of second) are formatted in full
+ * every time instead.
+ */
+final class TimestampCache {
+    private final DateTimeFormatter fullFormatter;
+    private final DateTimeFormatter prefixFormatter;
+    private final DateTimeFormatter suffixFormatter;
+    private final int fractionDigits;
+    private final boolean cacheable;
+    private final ZoneId zone;
+
+    private volatile CachedSecond cached = new CachedSecond(Long.MIN_VALUE, "", "");
+
+    // Immutable so it can be swapped in without locking
+    private record CachedSecond(long epochSecond, String prefix, String suffix) {}
+
+    /**
+     * Append a timestamp to a StringBuilder.
+     *
+     * @param millis - Milliseconds since the epoch
+     * @param builder - StringBuilder to append to
+     */
+    void formatTo(long millis, StringBuilder builder) {
+        if (!cacheable) {
+            fullFormatter.formatTo(toDateTime(millis), builder);
+            return;
+        }
+
+        long epochSecond = Math.floorDiv(millis, 1000);
+        CachedSecond second = cached;
+        if (second.epochSecond() != epochSecond) {
+            LocalDateTime time = toDateTime(epochSecond * 1000);
+            second = new CachedSecond(
+                epochSecond,
+                prefixFormatter.format(time),
+                suffixFormatter == null ? "" : suffixFormatter.format(time)
+            );
+            cached = second;
+        }
+
+        builder.append(second.prefix());
+        if (fractionDigits > 0) {
+            appendFraction(Math.floorMod(millis, 1000), builder);
+        }
+        builder.append(second.suffix());
+    }
+
+    /**
+     * Append the fraction of a second as fractionDigits digits.
+     * Only millisecond precision is available, so any digits past the third are 0.
+     *
+     * @param millis - Millisecond of the second
+     * @param builder - StringBuilder to append to
+     */
+    private void appendFraction(int millis, StringBuilder builder) {
+        int divisor = 100;
+        for (int i = 0; i < fractionDigits; i++) {
+            if (divisor > 0) {
+                builder.append((char) ('0' + millis / divisor % 10));
+                divisor /= 10;
+            } else {
+                builder.append('0');
+            }
+        }
+    }
+
+    /**
+     * Convert milliseconds since the epoch to a LocalDateTime in this TimestampCache's zone.
+     *
+     * @param millis - Milliseconds since the epoch
+     * @return LocalDateTime
+     */
+    private LocalDateTime toDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), zone);
+    }
+
+    /**
+     * Find the run of 'S' to patch in a timestamp pattern.
+     *
+     * @param pattern - Timestamp pattern
+     * @return {start, end} of the run; {-1, -1} if there are no sub-second fields;
+     * null if the pattern can't be cached
+     */
+    private static int[] findFraction(String pattern) {
+        int start = -1;
+        int end = -1;
+        boolean quoted = false;
+
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+                continue;
+            }
+            if (quoted) {
+                continue;
+            }
+
+            switch (c) {
+                case 'S':
+                    if (start != -1 && end != i) {
+                        return null; // More than one run of 'S'
+                    }
+                    if (start == -1) {
+                        start = i;
+                    }
+                    end = i + 1;
+                    break;
+
+                // Sub-second fields and optional sections we can't split around
+                case 'n':
+                case 'N':
+                case 'A':
+                case '[':
+                case ']':
+                    return null;
+
+                default:
+                    break;
+            }
+        }
+        return new int[] {start, end};
+    }
+
+    /**
+     * Initialize a new TimestampCache.
+     *
+     * @param pattern - Timestamp pattern (see {@link DateTimeFormatter})
+     * @throws IllegalArgumentException If the pattern is invalid
+     */
+    TimestampCache(String pattern) throws IllegalArgumentException {
+        this.zone = ZoneId.systemDefault();
+        this.fullFormatter = DateTimeFormatter.ofPattern(pattern);
+
+        int[] fraction = findFraction(pattern);
+        this.cacheable = fraction != null;
+
+        if (fraction == null) {
+            this.prefixFormatter = null;
+            this.suffixFormatter = null;
+            this.fractionDigits = 0;
+        } else if (fraction[0] == -1) {
+            this.prefixFormatter = fullFormatter;
+            this.suffixFormatter = null;
+            this.fractionDigits = 0;
+        } else {
+            this.prefixFormatter = DateTimeFormatter.ofPattern(pattern.substring(0, fraction[0]));
+            String suffix = pattern.substring(fraction[1]);
+            this.suffixFormatter = suffix.isEmpty() ? null : DateTimeFormatter.ofPattern(suffix);
+            this.fractionDigits = fraction[1] - fraction[0];
+        }
+    }
+}
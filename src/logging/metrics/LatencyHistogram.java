@@ -0,0 +1,191 @@
+package logging.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.ConstructorParameters;
+
+/**
+ * Histogram of durations in nanoseconds, with power of two buckets.
+ *
+ * Recording is a couple of LongAdder increments, so it stays cheap when many threads
+ * record at once. Percentiles are only as precise as the buckets: they are reported
+ * as the upper bound of the bucket they fall in, so within a factor of two.
+ */
+public final class LatencyHistogram {
+    // Bucket i counts durations in [2^(i-1), 2^i), bucket 0 counts 0
+    private static final int BUCKETS = 64;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder totalNanos = new LongAdder();
+
+    /**
+     * Immutable copy of a LatencyHistogram at some point in time.
+     */
+    public static final class Snapshot {
+        private final long count;
+        private final long totalNanos;
+        private final long p50Nanos;
+        private final long p90Nanos;
+        private final long p99Nanos;
+        private final long maxNanos;
+
+        /**
+         * Get the number of durations recorded.
+         *
+         * @return Count
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Get the sum of all durations recorded.
+         *
+         * @return Total in nanoseconds
+         */
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        /**
+         * Get the mean duration.
+         *
+         * @return Mean in nanoseconds; 0 if nothing was recorded
+         */
+        public long getMeanNanos() {
+            return count == 0 ? 0 : totalNanos / count;
+        }
+
+        /**
+         * Get the median duration, rounded up to its bucket.
+         *
+         * @return 50th percentile in nanoseconds
+         */
+        public long getP50Nanos() {
+            return p50Nanos;
+        }
+
+        /**
+         * Get the 90th percentile duration, rounded up to its bucket.
+         *
+         * @return 90th percentile in nanoseconds
+         */
+        public long getP90Nanos() {
+            return p90Nanos;
+        }
+
+        /**
+         * Get the 99th percentile duration, rounded up to its bucket.
+         *
+         * @return 99th percentile in nanoseconds
+         */
+        public long getP99Nanos() {
+            return p99Nanos;
+        }
+
+        /**
+         * Get the longest duration, rounded up to its bucket.
+         *
+         * @return Maximum in nanoseconds
+         */
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        /**
+         * Get a readable summary of this Snapshot.
+         *
+         * @return Summary
+         */
+        @Override
+        public String toString() {
+            return "count=" + count + " mean=" + getMeanNanos() + "ns p50<=" + p50Nanos + "ns p90<=" + p90Nanos
+                + "ns p99<=" + p99Nanos + "ns max<=" + maxNanos + "ns";
+        }
+
+        /**
+         * Initialize a Snapshot.
+         *
+         * @param count - Number of durations recorded
+         * @param totalNanos - Sum of all durations
+         * @param p50Nanos - 50th percentile
+         * @param p90Nanos - 90th percentile
+         * @param p99Nanos - 99th percentile
+         * @param maxNanos - Maximum
+         */
+        @ConstructorParameters({"count", "totalNanos", "p50Nanos", "p90Nanos", "p99Nanos", "maxNanos"})
+        public Snapshot(long count, long totalNanos, long p50Nanos, long p90Nanos, long p99Nanos, long maxNanos) {
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.p50Nanos = p50Nanos;
+            this.p90Nanos = p90Nanos;
+            this.p99Nanos = p99Nanos;
+            this.maxNanos = maxNanos;
+        }
+    }
+
+    /**
+     * Record a duration.
+     *
+     * @param nanos - Duration in nanoseconds; negative values count as 0
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        buckets[BUCKETS - Long.numberOfLeadingZeros(nanos)].increment();
+        totalNanos.add(nanos);
+    }
+
+    /**
+     * Take a Snapshot of this LatencyHistogram.
+     * Durations recorded while the Snapshot is taken may or may not be included.
+     *
+     * @return Snapshot
+     */
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+            count += counts[i];
+        }
+        return new Snapshot(
+            count,
+            totalNanos.sum(),
+            percentile(counts, count, 0.50),
+            percentile(counts, count, 0.90),
+            percentile(counts, count, 0.99),
+            percentile(counts, count, 1.0)
+        );
+    }
+
+    /**
+     * Find the bucket a percentile falls in.
+     *
+     * @param counts - Count of each bucket
+     * @param count - Sum of counts
+     * @param fraction - Percentile, from 0 to 1
+     * @return Upper bound of the bucket in nanoseconds; 0 if nothing was recorded
+     */
+    private static long percentile(long[] counts, long count, double fraction) {
+        long rank = (long) Math.ceil(count * fraction);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank && counts[i] > 0) {
+                return i == BUCKETS - 1 ? Long.MAX_VALUE : (1L << i) - 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Initialize an empty LatencyHistogram.
+     */
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+}
@@ -0,0 +1,481 @@
+package logging.metrics;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.ObjectName;
+
+import logging.LogLevel;
+import logging.LogLevels;
+
+/**
+ * Counters and latency histograms of a Logger, see Logger.enableMetrics().
+ *
+ * Everything is recorded into LongAdders, which spread contended updates over
+ * several cells, so logging threads don't fight over a single counter.
+ * Reading the metrics sums the cells, use snapshot() to read them all at once.
+ */
+public class LoggerMetrics implements LoggerMetricsMXBean {
+    private static final LogLevel[] LEVELS = LogLevel.values();
+
+    private final String name;
+    private final LongAdder[] accepted = new LongAdder[LEVELS.length];
+    private final LongAdder[] filtered = new LongAdder[LEVELS.length];
+    private final LongAdder rateLimited = new LongAdder();
+    private final LongAdder deduplicated = new LongAdder();
+    private final LatencyHistogram formatTime = new LatencyHistogram();
+    private final LatencyHistogram sendTime = new LatencyHistogram();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LongAdder charsWritten = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder skippedSends = new LongAdder();
+    private volatile ObjectName objectName;
+
+    /**
+     * Immutable copy of a LoggerMetrics at some point in time.
+     */
+    public static final class Snapshot implements LoggerMetricsMXBean {
+        private final String name;
+        private final Map<String, Long> accepted;
+        private final Map<String, Long> filtered;
+        private final long rateLimited;
+        private final long deduplicated;
+        private final LatencyHistogram.Snapshot formatTime;
+        private final LatencyHistogram.Snapshot sendTime;
+        private final long bytesWritten;
+        private final long charsWritten;
+        private final long failures;
+        private final long skippedSends;
+
+        /**
+         * Get the name of the Logger.
+         *
+         * @return Logger name
+         */
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Get the number of logs that passed every check and were dispatched, per LogLevel.
+         *
+         * @return Count per LogLevel name
+         */
+        @Override
+        public Map<String, Long> getAccepted() {
+            return accepted;
+        }
+
+        /**
+         * Get the number of logs dropped by the level check or a Filter, per LogLevel.
+         *
+         * @return Count per LogLevel name
+         */
+        @Override
+        public Map<String, Long> getFiltered() {
+            return filtered;
+        }
+
+        /**
+         * Get the total number of logs that passed every check and were dispatched.
+         *
+         * @return Count
+         */
+        @Override
+        public long getAcceptedTotal() {
+            return total(accepted);
+        }
+
+        /**
+         * Get the total number of logs dropped by the level check or a Filter.
+         *
+         * @return Count
+         */
+        @Override
+        public long getFilteredTotal() {
+            return total(filtered);
+        }
+
+        /**
+         * Get the number of logs dropped by the Logger's SiteLimiter.
+         *
+         * @return Count
+         */
+        @Override
+        public long getRateLimited() {
+            return rateLimited;
+        }
+
+        /**
+         * Get the number of logs dropped as repeats by the Logger's Deduplicator.
+         *
+         * @return Count
+         */
+        @Override
+        public long getDeduplicated() {
+            return deduplicated;
+        }
+
+        /**
+         * Get the time spent formatting or encoding records, once per Output.
+         *
+         * @return Histogram snapshot
+         */
+        @Override
+        public LatencyHistogram.Snapshot getFormatTime() {
+            return formatTime;
+        }
+
+        /**
+         * Get the time spent sending records, once per Output.
+         *
+         * @return Histogram snapshot
+         */
+        @Override
+        public LatencyHistogram.Snapshot getSendTime() {
+            return sendTime;
+        }
+
+        /**
+         * Get the number of bytes sent as records encoded by an Encoder.
+         *
+         * @return Byte count
+         */
+        @Override
+        public long getBytesWritten() {
+            return bytesWritten;
+        }
+
+        /**
+         * Get the number of chars sent as formatted text, before the Output encodes them.
+         *
+         * @return Char count
+         */
+        @Override
+        public long getCharsWritten() {
+            return charsWritten;
+        }
+
+        /**
+         * Get the number of sends that failed.
+         *
+         * @return Count
+         */
+        @Override
+        public long getFailures() {
+            return failures;
+        }
+
+        /**
+         * Get the number of sends skipped because their Output was disabled.
+         *
+         * @return Count
+         */
+        @Override
+        public long getSkippedSends() {
+            return skippedSends;
+        }
+
+        /**
+         * Sum the counts of every LogLevel.
+         *
+         * @param counts - Count per LogLevel name
+         * @return Total
+         */
+        private static long total(Map<String, Long> counts) {
+            long total = 0;
+            for (long count : counts.values()) {
+                total += count;
+            }
+            return total;
+        }
+
+        /**
+         * Initialize a Snapshot by reading a LoggerMetrics.
+         *
+         * @param metrics - LoggerMetrics to read
+         */
+        private Snapshot(LoggerMetrics metrics) {
+            this.name = metrics.name;
+            this.accepted = metrics.getAccepted();
+            this.filtered = metrics.getFiltered();
+            this.rateLimited = metrics.getRateLimited();
+            this.deduplicated = metrics.getDeduplicated();
+            this.formatTime = metrics.getFormatTime();
+            this.sendTime = metrics.getSendTime();
+            this.bytesWritten = metrics.getBytesWritten();
+            this.charsWritten = metrics.getCharsWritten();
+            this.failures = metrics.getFailures();
+            this.skippedSends = metrics.getSkippedSends();
+        }
+    }
+
+    /**
+     * Count a log that passed every check and was dispatched.
+     *
+     * @param level - LogLevel of the log
+     */
+    public void recordAccepted(LogLevel level) {
+        accepted[level.ordinal()].increment();
+    }
+
+    /**
+     * Count a log dropped by the level check or a Filter.
+     *
+     * @param level - LogLevel of the log
+     */
+    public void recordFiltered(LogLevel level) {
+        filtered[level.ordinal()].increment();
+    }
+
+    /**
+     * Count a log dropped by the Logger's SiteLimiter.
+     */
+    public void recordRateLimited() {
+        rateLimited.increment();
+    }
+
+    /**
+     * Count a log dropped as a repeat by the Logger's Deduplicator.
+     */
+    public void recordDeduplicated() {
+        deduplicated.increment();
+    }
+
+    /**
+     * Record a record being formatted and sent to one Output.
+     *
+     * @param formatNanos - Time spent formatting or encoding
+     * @param sendNanos - Time spent sending
+     * @param bytes - Bytes sent, for records encoded by an Encoder
+     * @param chars - Chars sent, for formatted text
+     */
+    public void recordSend(long formatNanos, long sendNanos, long bytes, long chars) {
+        formatTime.record(formatNanos);
+        sendTime.record(sendNanos);
+        bytesWritten.add(bytes);
+        charsWritten.add(chars);
+    }
+
+    /**
+     * Count a failed send, which disabled its Output.
+     */
+    public void recordFailure() {
+        failures.increment();
+    }
+
+    /**
+     * Count a record not sent because its Output was disabled.
+     */
+    public void recordSkipped() {
+        skippedSends.increment();
+    }
+
+    /**
+     * Take a Snapshot of these metrics.
+     *
+     * @return Snapshot
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    /**
+     * Register these metrics as an MXBean with the platform MBeanServer.
+     * If another bean already has this name, a suffix is added (NAME#2, NAME#3...), see getObjectName().
+     */
+    public void registerMBean() {
+        objectName = MBeans.register("Logger", name, this);
+    }
+
+    /**
+     * Unregister these metrics from the platform MBeanServer.
+     */
+    public void unregisterMBean() {
+        MBeans.unregister(objectName);
+        objectName = null;
+    }
+
+    /**
+     * Get the ObjectName these metrics are registered under.
+     *
+     * @return ObjectName; null if they aren't registered
+     */
+    public ObjectName getObjectName() {
+        return objectName;
+    }
+
+    /**
+     * Get the name of the Logger.
+     *
+     * @return Logger name
+     */
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the number of logs that passed every check and were dispatched, per LogLevel.
+     *
+     * @return Count per LogLevel name
+     */
+    @Override
+    public Map<String, Long> getAccepted() {
+        return byLevel(accepted);
+    }
+
+    /**
+     * Get the number of logs dropped by the level check or a Filter, per LogLevel.
+     *
+     * @return Count per LogLevel name
+     */
+    @Override
+    public Map<String, Long> getFiltered() {
+        return byLevel(filtered);
+    }
+
+    /**
+     * Get the total number of logs that passed every check and were dispatched.
+     *
+     * @return Count
+     */
+    @Override
+    public long getAcceptedTotal() {
+        return total(accepted);
+    }
+
+    /**
+     * Get the total number of logs dropped by the level check or a Filter.
+     *
+     * @return Count
+     */
+    @Override
+    public long getFilteredTotal() {
+        return total(filtered);
+    }
+
+    /**
+     * Get the number of logs dropped by the Logger's SiteLimiter.
+     *
+     * @return Count
+     */
+    @Override
+    public long getRateLimited() {
+        return rateLimited.sum();
+    }
+
+    /**
+     * Get the number of logs dropped as repeats by the Logger's Deduplicator.
+     *
+     * @return Count
+     */
+    @Override
+    public long getDeduplicated() {
+        return deduplicated.sum();
+    }
+
+    /**
+     * Get the time spent formatting or encoding records, once per Output.
+     *
+     * @return Histogram snapshot
+     */
+    @Override
+    public LatencyHistogram.Snapshot getFormatTime() {
+        return formatTime.snapshot();
+    }
+
+    /**
+     * Get the time spent sending records, once per Output.
+     *
+     * @return Histogram snapshot
+     */
+    @Override
+    public LatencyHistogram.Snapshot getSendTime() {
+        return sendTime.snapshot();
+    }
+
+    /**
+     * Get the number of bytes sent as records encoded by an Encoder.
+     *
+     * @return Byte count
+     */
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    /**
+     * Get the number of chars sent as formatted text, before the Output encodes them.
+     *
+     * @return Char count
+     */
+    @Override
+    public long getCharsWritten() {
+        return charsWritten.sum();
+    }
+
+    /**
+     * Get the number of sends that failed.
+     *
+     * @return Count
+     */
+    @Override
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    /**
+     * Get the number of sends skipped because their Output was disabled.
+     *
+     * @return Count
+     */
+    @Override
+    public long getSkippedSends() {
+        return skippedSends.sum();
+    }
+
+    /**
+     * Read per LogLevel counters.
+     *
+     * @param counters - Counter per LogLevel ordinal
+     * @return Count per LogLevel name, in LogLevel order
+     */
+    private static Map<String, Long> byLevel(LongAdder[] counters) {
+        LinkedHashMap<String, Long> counts = new LinkedHashMap<>();
+        for (LogLevel level : LEVELS) {
+            counts.put(LogLevels.toString(level), counters[level.ordinal()].sum());
+        }
+        return Collections.unmodifiableMap(counts);
+    }
+
+    /**
+     * Sum per LogLevel counters.
+     *
+     * @param counters - Counter per LogLevel ordinal
+     * @return Total
+     */
+    private static long total(LongAdder[] counters) {
+        long total = 0;
+        for (LongAdder counter : counters) {
+            total += counter.sum();
+        }
+        return total;
+    }
+
+    /**
+     * Initialize LoggerMetrics with every count at zero.
+     *
+     * @param name - Name of the Logger measured
+     */
+    public LoggerMetrics(String name) {
+        this.name = name;
+        for (int i = 0; i < LEVELS.length; i++) {
+            accepted[i] = new LongAdder();
+            filtered[i] = new LongAdder();
+        }
+    }
+}
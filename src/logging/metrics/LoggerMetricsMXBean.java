@@ -0,0 +1,100 @@
+package logging.metrics;
+
+import java.util.Map;
+
+/**
+ * Management interface of a Logger's metrics, registered under logging:type=Logger,name="NAME"
+ * (or "NAME#2" and so on if another bean already has that name).
+ */
+public interface LoggerMetricsMXBean {
+    /**
+     * Get the name of the Logger.
+     *
+     * @return Logger name
+     */
+    String getName();
+
+    /**
+     * Get the number of logs that passed every check and were dispatched, per LogLevel.
+     *
+     * @return Count per LogLevel name
+     */
+    Map<String, Long> getAccepted();
+
+    /**
+     * Get the number of logs dropped by the level check or a Filter, per LogLevel.
+     *
+     * @return Count per LogLevel name
+     */
+    Map<String, Long> getFiltered();
+
+    /**
+     * Get the total number of logs that passed every check and were dispatched.
+     *
+     * @return Count
+     */
+    long getAcceptedTotal();
+
+    /**
+     * Get the total number of logs dropped by the level check or a Filter.
+     *
+     * @return Count
+     */
+    long getFilteredTotal();
+
+    /**
+     * Get the number of logs dropped by the Logger's SiteLimiter.
+     *
+     * @return Count
+     */
+    long getRateLimited();
+
+    /**
+     * Get the number of logs dropped as repeats by the Logger's Deduplicator.
+     *
+     * @return Count
+     */
+    long getDeduplicated();
+
+    /**
+     * Get the time spent formatting or encoding records, once per Output.
+     *
+     * @return Histogram snapshot
+     */
+    LatencyHistogram.Snapshot getFormatTime();
+
+    /**
+     * Get the time spent sending records, once per Output.
+     *
+     * @return Histogram snapshot
+     */
+    LatencyHistogram.Snapshot getSendTime();
+
+    /**
+     * Get the number of bytes sent as records encoded by an Encoder.
+     *
+     * @return Byte count
+     */
+    long getBytesWritten();
+
+    /**
+     * Get the number of chars sent as formatted text, before the Output encodes them.
+     *
+     * @return Char count
+     */
+    long getCharsWritten();
+
+    /**
+     * Get the number of sends that failed.
+     *
+     * @return Count
+     */
+    long getFailures();
+
+    /**
+     * Get the number of sends skipped because their Output was disabled.
+     *
+     * @return Count
+     */
+    long getSkippedSends();
+}
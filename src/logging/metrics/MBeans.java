@@ -0,0 +1,76 @@
+package logging.metrics;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Registers metrics with the platform MBeanServer.
+ */
+final class MBeans {
+    private static final String DOMAIN = "logging";
+
+    /**
+     * Register an MXBean under a name no other bean has.
+     * If the name is taken (e.g. by a Logger of the same name in another registry),
+     * NAME#2, NAME#3 and so on are tried in turn.
+     * Failures are ignored, the metrics can still be read through their snapshot API.
+     *
+     * @param type - Kind of object measured, e.g. "Logger"
+     * @param name - Name of the object measured
+     * @param bean - MXBean to register
+     * @return ObjectName the bean was registered under; null if it couldn't be registered
+     */
+    static ObjectName register(String type, String name, Object bean) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            for (int instance = 1; ; instance++) {
+                ObjectName objectName = objectName(type, instance == 1 ? name : name + "#" + instance);
+                try {
+                    server.registerMBean(bean, objectName);
+                    return objectName;
+                } catch (InstanceAlreadyExistsException e) {
+                    // pass, try the next suffix
+                }
+            }
+        } catch (JMException | SecurityException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Unregister an MXBean, if it is still registered.
+     *
+     * @param objectName - ObjectName returned by register; null to do nothing
+     */
+    static void unregister(ObjectName objectName) {
+        if (objectName == null) {
+            return;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+        } catch (JMException | SecurityException e) {
+            // pass
+        }
+    }
+
+    /**
+     * Build the ObjectName metrics are registered under.
+     *
+     * @param type - Kind of object measured
+     * @param name - Name of the object measured, quoted so any characters are allowed
+     * @return ObjectName
+     * @throws JMException If the name is malformed
+     */
+    static ObjectName objectName(String type, String name) throws JMException {
+        return new ObjectName(DOMAIN + ":type=" + type + ",name=" + ObjectName.quote(name));
+    }
+
+    private MBeans() {}
+}
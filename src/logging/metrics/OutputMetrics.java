@@ -0,0 +1,349 @@
+package logging.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+import javax.management.ObjectName;
+
+/**
+ * Counters and latency histograms of an Output, see Output.enableMetrics().
+ * Recorded by the Loggers sending to the Output, into LongAdders like LoggerMetrics.
+ */
+public class OutputMetrics implements OutputMetricsMXBean {
+    private final String name;
+    private final LongAdder records = new LongAdder();
+    private final LatencyHistogram formatTime = new LatencyHistogram();
+    private final LatencyHistogram sendTime = new LatencyHistogram();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LongAdder charsWritten = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder skippedSends = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    // Reads the queue depth of Outputs that queue records, see trackQueue()
+    private volatile IntSupplier queueDepth;
+    private volatile ObjectName objectName;
+
+    /**
+     * Immutable copy of an OutputMetrics at some point in time.
+     */
+    public static final class Snapshot implements OutputMetricsMXBean {
+        private final String name;
+        private final long records;
+        private final LatencyHistogram.Snapshot formatTime;
+        private final LatencyHistogram.Snapshot sendTime;
+        private final long bytesWritten;
+        private final long charsWritten;
+        private final long failures;
+        private final long skippedSends;
+        private final long dropped;
+        private final int queueDepth;
+
+        /**
+         * Get the name the Output's metrics were registered under.
+         *
+         * @return Output name
+         */
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Get the number of records sent to the Output.
+         *
+         * @return Count
+         */
+        @Override
+        public long getRecords() {
+            return records;
+        }
+
+        /**
+         * Get the time spent formatting or encoding records for the Output.
+         *
+         * @return Histogram snapshot
+         */
+        @Override
+        public LatencyHistogram.Snapshot getFormatTime() {
+            return formatTime;
+        }
+
+        /**
+         * Get the time spent in the Output's send methods.
+         *
+         * @return Histogram snapshot
+         */
+        @Override
+        public LatencyHistogram.Snapshot getSendTime() {
+            return sendTime;
+        }
+
+        /**
+         * Get the number of bytes sent as records encoded by an Encoder.
+         *
+         * @return Byte count
+         */
+        @Override
+        public long getBytesWritten() {
+            return bytesWritten;
+        }
+
+        /**
+         * Get the number of chars sent as formatted text, before the Output encodes them.
+         *
+         * @return Char count
+         */
+        @Override
+        public long getCharsWritten() {
+            return charsWritten;
+        }
+
+        /**
+         * Get the number of sends that failed.
+         *
+         * @return Count
+         */
+        @Override
+        public long getFailures() {
+            return failures;
+        }
+
+        /**
+         * Get the number of records not sent because the Output was disabled.
+         *
+         * @return Count
+         */
+        @Override
+        public long getSkippedSends() {
+            return skippedSends;
+        }
+
+        /**
+         * Get the number of records dropped because the Output's queue was full.
+         *
+         * @return Count
+         */
+        @Override
+        public long getDropped() {
+            return dropped;
+        }
+
+        /**
+         * Get the number of records queued for the Output but not sent yet.
+         *
+         * @return Queue depth; 0 for Outputs without a queue
+         */
+        @Override
+        public int getQueueDepth() {
+            return queueDepth;
+        }
+
+        /**
+         * Initialize a Snapshot by reading an OutputMetrics.
+         *
+         * @param metrics - OutputMetrics to read
+         */
+        private Snapshot(OutputMetrics metrics) {
+            this.name = metrics.name;
+            this.records = metrics.getRecords();
+            this.formatTime = metrics.getFormatTime();
+            this.sendTime = metrics.getSendTime();
+            this.bytesWritten = metrics.getBytesWritten();
+            this.charsWritten = metrics.getCharsWritten();
+            this.failures = metrics.getFailures();
+            this.skippedSends = metrics.getSkippedSends();
+            this.dropped = metrics.getDropped();
+            this.queueDepth = metrics.getQueueDepth();
+        }
+    }
+
+    /**
+     * Record a record being formatted and sent to the Output.
+     *
+     * @param formatNanos - Time spent formatting or encoding
+     * @param sendNanos - Time spent sending
+     * @param bytes - Bytes sent, for records encoded by an Encoder
+     * @param chars - Chars sent, for formatted text
+     */
+    public void recordSend(long formatNanos, long sendNanos, long bytes, long chars) {
+        records.increment();
+        formatTime.record(formatNanos);
+        sendTime.record(sendNanos);
+        bytesWritten.add(bytes);
+        charsWritten.add(chars);
+    }
+
+    /**
+     * Count a failed send, after which the Output was disabled.
+     */
+    public void recordFailure() {
+        failures.increment();
+    }
+
+    /**
+     * Count a record not sent because the Output was disabled.
+     */
+    public void recordSkipped() {
+        skippedSends.increment();
+    }
+
+    /**
+     * Count a record dropped because the Output's queue was full.
+     */
+    public void recordDropped() {
+        dropped.increment();
+    }
+
+    /**
+     * Report the depth of the Output's queue along with these metrics.
+     *
+     * @param depth - Reads the number of records queued but not sent yet
+     */
+    public void trackQueue(IntSupplier depth) {
+        queueDepth = depth;
+    }
+
+    /**
+     * Take a Snapshot of these metrics.
+     *
+     * @return Snapshot
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    /**
+     * Register these metrics as an MXBean with the platform MBeanServer.
+     * If another bean already has this name, a suffix is added (NAME#2, NAME#3...), see getObjectName().
+     */
+    public void registerMBean() {
+        objectName = MBeans.register("Output", name, this);
+    }
+
+    /**
+     * Unregister these metrics from the platform MBeanServer.
+     */
+    public void unregisterMBean() {
+        MBeans.unregister(objectName);
+        objectName = null;
+    }
+
+    /**
+     * Get the ObjectName these metrics are registered under.
+     *
+     * @return ObjectName; null if they aren't registered
+     */
+    public ObjectName getObjectName() {
+        return objectName;
+    }
+
+    /**
+     * Get the name the Output's metrics were registered under.
+     *
+     * @return Output name
+     */
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the number of records sent to the Output.
+     *
+     * @return Count
+     */
+    @Override
+    public long getRecords() {
+        return records.sum();
+    }
+
+    /**
+     * Get the time spent formatting or encoding records for the Output.
+     *
+     * @return Histogram snapshot
+     */
+    @Override
+    public LatencyHistogram.Snapshot getFormatTime() {
+        return formatTime.snapshot();
+    }
+
+    /**
+     * Get the time spent in the Output's send methods.
+     *
+     * @return Histogram snapshot
+     */
+    @Override
+    public LatencyHistogram.Snapshot getSendTime() {
+        return sendTime.snapshot();
+    }
+
+    /**
+     * Get the number of bytes sent as records encoded by an Encoder.
+     *
+     * @return Byte count
+     */
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    /**
+     * Get the number of chars sent as formatted text, before the Output encodes them.
+     *
+     * @return Char count
+     */
+    @Override
+    public long getCharsWritten() {
+        return charsWritten.sum();
+    }
+
+    /**
+     * Get the number of sends that failed.
+     *
+     * @return Count
+     */
+    @Override
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    /**
+     * Get the number of records not sent because the Output was disabled.
+     *
+     * @return Count
+     */
+    @Override
+    public long getSkippedSends() {
+        return skippedSends.sum();
+    }
+
+    /**
+     * Get the number of records dropped because the Output's queue was full.
+     *
+     * @return Count
+     */
+    @Override
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Get the number of records queued for the Output but not sent yet.
+     *
+     * @return Queue depth; 0 for Outputs without a queue
+     */
+    @Override
+    public int getQueueDepth() {
+        IntSupplier depth = queueDepth;
+        return depth == null ? 0 : depth.getAsInt();
+    }
+
+    /**
+     * Initialize OutputMetrics with every count at zero.
+     *
+     * @param name - Name to register the metrics under
+     */
+    public OutputMetrics(String name) {
+        this.name = name;
+    }
+}
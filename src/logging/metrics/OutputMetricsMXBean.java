@@ -0,0 +1,77 @@
+package logging.metrics;
+
+/**
+ * Management interface of an Output's metrics, registered under logging:type=Output,name="NAME"
+ * (or "NAME#2" and so on if another bean already has that name).
+ */
+public interface OutputMetricsMXBean {
+    /**
+     * Get the name the Output's metrics were registered under.
+     *
+     * @return Output name
+     */
+    String getName();
+
+    /**
+     * Get the number of records sent to the Output.
+     *
+     * @return Count
+     */
+    long getRecords();
+
+    /**
+     * Get the time spent formatting or encoding records for the Output.
+     *
+     * @return Histogram snapshot
+     */
+    LatencyHistogram.Snapshot getFormatTime();
+
+    /**
+     * Get the time spent in the Output's send methods.
+     *
+     * @return Histogram snapshot
+     */
+    LatencyHistogram.Snapshot getSendTime();
+
+    /**
+     * Get the number of bytes sent as records encoded by an Encoder.
+     *
+     * @return Byte count
+     */
+    long getBytesWritten();
+
+    /**
+     * Get the number of chars sent as formatted text, before the Output encodes them.
+     *
+     * @return Char count
+     */
+    long getCharsWritten();
+
+    /**
+     * Get the number of sends that failed.
+     *
+     * @return Count
+     */
+    long getFailures();
+
+    /**
+     * Get the number of records not sent because the Output was disabled.
+     *
+     * @return Count
+     */
+    long getSkippedSends();
+
+    /**
+     * Get the number of records dropped because the Output's queue was full.
+     *
+     * @return Count
+     */
+    long getDropped();
+
+    /**
+     * Get the number of records queued for the Output but not sent yet.
+     *
+     * @return Queue depth; 0 for Outputs without a queue
+     */
+    int getQueueDepth();
+}
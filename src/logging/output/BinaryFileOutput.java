@@ -0,0 +1,115 @@
+package logging.output;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import logging.LogRecord;
+import logging.format.BinaryEncoder;
+
+/**
+ * Buffered file Output that writes records in a compact binary format instead of text.
+ *
+ * Records skip the Formatter entirely: timestamps are written as deltas, logger names
+ * and call sites as ids defined once per file, and the message as raw UTF-8.
+ * Use {@link logging.format.BinaryDecoder} to turn the file back into text with any template.
+ */
+public class BinaryFileOutput extends BufferedFileOutput {
+    // Guards the encoder's state, held until the frame is in the buffer so frames stay in order
+    private final BinaryEncoder encoder;
+    private boolean includeLocation;
+
+    /**
+     * Encode a LogRecord and buffer it.
+     *
+     * @param record - LogRecord to send
+     * @return If the record was successfully buffered (and written, if needed)
+     */
+    @Override
+    public boolean send(LogRecord record) {
+        synchronized (encoder) {
+            ByteBuffer frame = encoder.encode(record);
+            if (send(frame, record)) {
+                return true;
+            }
+            // Definitions in the frame never reached the file, later records mustn't refer to them
+            encoder.rollback();
+            return false;
+        }
+    }
+
+    /**
+     * Send a formatted record by encoding the record itself, the text is ignored.
+     *
+     * @param message - Formatted message, ignored
+     * @param record - LogRecord the message was formatted from
+     * @return If the record was successfully sent; false if there is no record
+     */
+    @Override
+    public boolean send(CharSequence message, LogRecord record) {
+        return record != null && send(record);
+    }
+
+    /**
+     * BinaryFileOutputs always encode records themselves.
+     *
+     * @return true
+     */
+    @Override
+    public boolean encodesRecords() {
+        return true;
+    }
+
+    /**
+     * Check whether the call site of each log is written.
+     *
+     * @return If the location is used
+     */
+    @Override
+    public boolean usesLocation() {
+        return includeLocation;
+    }
+
+    /**
+     * Initialize a BinaryFileOutput that doesn't write call sites, with a default FlushPolicy and FsyncPolicy.
+     *
+     * @param filepath - File to log in
+     * @throws IOException If the file cannot be opened
+     */
+    public BinaryFileOutput(String filepath) throws IOException {
+        this(filepath, false);
+    }
+
+    /**
+     * Initialize a BinaryFileOutput with a default FlushPolicy and FsyncPolicy.
+     *
+     * @param filepath - File to log in
+     * @param includeLocation - Whether to capture and write the call site of each log
+     * @throws IOException If the file cannot be opened
+     */
+    public BinaryFileOutput(String filepath, boolean includeLocation) throws IOException {
+        this(filepath, includeLocation, FlushPolicy.DEFAULT, DEFAULT_FSYNC_POLICY, DEFAULT_FSYNC_INTERVAL_MILLIS);
+    }
+
+    /**
+     * Initialize a BinaryFileOutput.
+     *
+     * @param filepath - File to log in
+     * @param includeLocation - Whether to capture and write the call site of each log
+     * @param flushPolicy - When to write buffered records to the file
+     * @param fsyncPolicy - When to force the file to disk
+     * @param fsyncIntervalMillis - How often to force the file to disk if fsyncPolicy is PERIODIC
+     * @throws IOException If the file cannot be opened
+     * @throws IllegalArgumentException If fsyncPolicy is PERIODIC and fsyncIntervalMillis is not positive
+     */
+    public BinaryFileOutput(
+        String filepath,
+        boolean includeLocation,
+        FlushPolicy flushPolicy,
+        FsyncPolicy fsyncPolicy,
+        long fsyncIntervalMillis
+    ) throws IOException, IllegalArgumentException {
+        super(filepath, null, flushPolicy, fsyncPolicy, fsyncIntervalMillis);
+        this.includeLocation = includeLocation;
+        this.encoder = new BinaryEncoder(System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,182 @@
+package logging.output;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import logging.format.Formatter;
+
+/**
+ * High-throughput file Output built on a FileChannel.
+ *
+ * Records are encoded into a direct buffer and written with one write call per
+ * batch, so records from many threads share a single syscall.
+ * Whether and when the file is forced to disk is decided by an FsyncPolicy.
+ */
+public class BufferedFileOutput extends BufferedOutput {
+    public static final FsyncPolicy DEFAULT_FSYNC_POLICY = FsyncPolicy.NEVER;
+    public static final long DEFAULT_FSYNC_INTERVAL_MILLIS = 1000;
+
+    private String filepath;
+    private FileChannel channel;
+    private FsyncPolicy fsyncPolicy;
+    private long fsyncIntervalMillis;
+    // Guarded by the BufferedOutput lock
+    private boolean unsynced;
+    private long lastSyncMillis;
+
+    /**
+     * Write a batch to the file, forcing it to disk if the FsyncPolicy is PER_BATCH.
+     *
+     * @param bytes - Buffer to write
+     * @throws IOException If the write fails
+     */
+    @Override
+    protected void write(ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        unsynced = true;
+
+        if (fsyncPolicy == FsyncPolicy.PER_BATCH) {
+            sync();
+        }
+    }
+
+    /**
+     * Write out the buffer on the flush interval and force the file to disk if the FsyncPolicy is PERIODIC.
+     *
+     * @throws IOException If writing fails
+     */
+    @Override
+    protected void onTick() throws IOException {
+        super.onTick();
+
+        // Records still in the buffer count too, they are written out before syncing
+        if (fsyncPolicy == FsyncPolicy.PERIODIC
+            && (unsynced || getBufferedBytes() > 0)
+            && System.currentTimeMillis() - lastSyncMillis >= fsyncIntervalMillis) {
+            writeOut();
+            sync();
+        }
+    }
+
+    /**
+     * Force the file to disk (unless the FsyncPolicy is NEVER) and close it.
+     *
+     * @throws IOException If closing fails
+     */
+    @Override
+    protected void closeTarget() throws IOException {
+        try {
+            if (fsyncPolicy != FsyncPolicy.NEVER && unsynced) {
+                sync();
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Get this BufferedFileOutput's filepath.
+     *
+     * @return Filepath
+     */
+    public String getFilepath() {
+        return filepath;
+    }
+
+    /**
+     * Get this BufferedFileOutput's FsyncPolicy.
+     *
+     * @return FsyncPolicy
+     */
+    public FsyncPolicy getFsyncPolicy() {
+        return fsyncPolicy;
+    }
+
+    /**
+     * Force everything written so far to disk.
+     *
+     * @throws IOException If forcing fails
+     */
+    private void sync() throws IOException {
+        channel.force(false);
+        unsynced = false;
+        lastSyncMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Get how often the background flusher needs to run.
+     *
+     * @param flushPolicy - FlushPolicy
+     * @param fsyncPolicy - FsyncPolicy
+     * @param fsyncIntervalMillis - Interval for a PERIODIC FsyncPolicy
+     * @return Tick interval in milliseconds; 0 for never
+     */
+    private static long tickMillis(FlushPolicy flushPolicy, FsyncPolicy fsyncPolicy, long fsyncIntervalMillis) {
+        long tick = flushPolicy.intervalMillis();
+        if (fsyncPolicy == FsyncPolicy.PERIODIC && (tick == 0 || fsyncIntervalMillis < tick)) {
+            tick = fsyncIntervalMillis;
+        }
+        return tick;
+    }
+
+    /**
+     * Initialize a BufferedFileOutput with a default Formatter, FlushPolicy and FsyncPolicy.
+     *
+     * @param filepath - File to log in
+     * @throws IOException If the file cannot be opened
+     */
+    public BufferedFileOutput(String filepath) throws IOException {
+        this(filepath, null);
+    }
+
+    /**
+     * Initialize a BufferedFileOutput with a default FlushPolicy and FsyncPolicy.
+     *
+     * @param filepath - File to log in
+     * @param formatter - Formatter to use
+     * @throws IOException If the file cannot be opened
+     */
+    public BufferedFileOutput(String filepath, Formatter formatter) throws IOException {
+        this(filepath, formatter, FlushPolicy.DEFAULT, DEFAULT_FSYNC_POLICY, DEFAULT_FSYNC_INTERVAL_MILLIS);
+    }
+
+    /**
+     * Initialize a BufferedFileOutput.
+     *
+     * @param filepath - File to log in
+     * @param formatter - Formatter to use
+     * @param flushPolicy - When to write buffered records to the file
+     * @param fsyncPolicy - When to force the file to disk
+     * @param fsyncIntervalMillis - How often to force the file to disk if fsyncPolicy is PERIODIC
+     * @throws IOException If the file cannot be opened
+     * @throws IllegalArgumentException If fsyncPolicy is PERIODIC and fsyncIntervalMillis is not positive
+     */
+    public BufferedFileOutput(
+        String filepath,
+        Formatter formatter,
+        FlushPolicy flushPolicy,
+        FsyncPolicy fsyncPolicy,
+        long fsyncIntervalMillis
+    ) throws IOException, IllegalArgumentException {
+        super(formatter, flushPolicy, tickMillis(flushPolicy, fsyncPolicy, fsyncIntervalMillis));
+        if (fsyncPolicy == FsyncPolicy.PERIODIC && fsyncIntervalMillis < 1) {
+            throw new IllegalArgumentException("Periodic fsync interval must be at least 1 millisecond");
+        }
+
+        this.filepath = filepath;
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncIntervalMillis = fsyncIntervalMillis;
+        this.lastSyncMillis = System.currentTimeMillis();
+        this.channel = FileChannel.open(
+            Path.of(filepath),
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING
+        );
+    }
+}
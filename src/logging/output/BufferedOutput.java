@@ -0,0 +1,366 @@
+package logging.output;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+import logging.LogRecord;
+import logging.format.Formatter;
+
+/**
+ * Base for Outputs that encode messages into a reusable direct ByteBuffer
+ * and write many of them out at once.
+ *
+ * The buffer is written out when it fills up, when a record at or above the
+ * FlushPolicy's level is sent, on the FlushPolicy's interval, on {@link #flush()},
+ * at JVM shutdown and when the Output is closed.
+ * Subclasses only need to say where the bytes go.
+ */
+public abstract class BufferedOutput extends Output {
+    // Most bytes a UTF-16 char can take up in UTF-8
+    private static final int MAX_BYTES_PER_CHAR = 3;
+
+    private final FlushPolicy flushPolicy;
+    private final long tickMillis;
+    private final ByteBuffer buffer;
+    private final ChunkedEncoder encoder;
+    // Created once so encoding never allocates
+    private final ChunkedEncoder.Overflow writeOutOnOverflow;
+    // Guards the buffer, the encoder and the underlying target
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private Thread flusher;
+    private Thread shutdownHook;
+    private volatile boolean closed;
+    private volatile boolean failed;
+
+    /**
+     * Write the contents of a buffer to this Output's target.
+     * Called with the lock held; the buffer must be fully drained.
+     *
+     * @param bytes - Buffer to write, flipped for reading
+     * @throws IOException If the write fails
+     */
+    protected abstract void write(ByteBuffer bytes) throws IOException;
+
+    /**
+     * Called by the background flusher every tick, with the lock held.
+     * By default it writes out anything left in the buffer if the FlushPolicy has an interval.
+     *
+     * @throws IOException If writing fails
+     */
+    protected void onTick() throws IOException {
+        if (flushPolicy.intervalMillis() > 0) {
+            writeOut();
+        }
+    }
+
+    /**
+     * Called with the lock held before a record is added to the buffer.
+     * Lets subclasses write out what is already buffered first, e.g. to start a new file.
+     *
+     * @param record - LogRecord about to be buffered; null for a plain message
+     * @throws IOException If writing fails
+     */
+    protected void beforeRecord(LogRecord record) throws IOException {
+        // pass
+    }
+
+    /**
+     * Release this Output's target.
+     * Called once with the lock held, after the buffer has been written out.
+     *
+     * @throws IOException If closing fails
+     */
+    protected void closeTarget() throws IOException {
+        // pass
+    }
+
+    /**
+     * Buffer a message.
+     *
+     * @param message - Message to send
+     * @return If the message was successfully buffered
+     */
+    @Override
+    public boolean send(String message) {
+        return send(message, null);
+    }
+
+    /**
+     * Buffer a formatted LogRecord, writing the buffer out right away
+     * if the record's level calls for it.
+     *
+     * @param message - Formatted message to send
+     * @param record - LogRecord the message was formatted from
+     * @return If the message was successfully buffered (and written, if needed)
+     */
+    @Override
+    public boolean send(String message, LogRecord record) {
+        return send((CharSequence) message, record);
+    }
+
+    /**
+     * Buffer a formatted LogRecord straight from a CharSequence, without creating a String.
+     * Writes the buffer out right away if the record's level calls for it.
+     *
+     * @param message - Formatted message to send
+     * @param record - LogRecord the message was formatted from
+     * @return If the message was successfully buffered (and written, if needed)
+     */
+    @Override
+    public boolean send(CharSequence message, LogRecord record) {
+        lock.lock();
+        try {
+            if (closed || failed) {
+                return false;
+            }
+            startFlusher();
+
+            beforeRecord(record);
+            encode(message);
+            if (record != null && flushPolicy.flushesOn(record.level())) {
+                writeOut();
+            }
+            return true;
+        } catch (IOException e) {
+            failed = true;
+        } finally {
+            lock.unlock();
+        }
+        return false;
+    }
+
+    /**
+     * Buffer an encoded LogRecord, writing the buffer out right away
+     * if the record's level calls for it.
+     * Records bigger than the whole buffer are written straight to the target.
+     *
+     * @param bytes - Encoded record, ready for reading
+     * @param record - LogRecord the bytes were encoded from
+     * @return If the bytes were successfully buffered (and written, if needed)
+     */
+    @Override
+    public boolean send(ByteBuffer bytes, LogRecord record) {
+        lock.lock();
+        try {
+            if (closed || failed) {
+                return false;
+            }
+            startFlusher();
+
+            beforeRecord(record);
+            // Same as for text, batches end on a record boundary
+            if (bytes.remaining() > buffer.remaining()) {
+                writeOut();
+            }
+            if (bytes.remaining() > buffer.capacity()) {
+                write(bytes);
+            } else {
+                buffer.put(bytes);
+            }
+
+            if (record != null && flushPolicy.flushesOn(record.level())) {
+                writeOut();
+            }
+            return true;
+        } catch (IOException e) {
+            failed = true;
+        } finally {
+            lock.unlock();
+        }
+        return false;
+    }
+
+    /**
+     * Write out everything in the buffer.
+     *
+     * @return If everything was successfully written
+     */
+    @Override
+    public boolean flush() {
+        lock.lock();
+        try {
+            if (closed || failed) {
+                return false;
+            }
+            writeOut();
+            return true;
+        } catch (IOException e) {
+            failed = true;
+        } finally {
+            lock.unlock();
+        }
+        return false;
+    }
+
+    /**
+     * Write out everything in the buffer, stop the flusher and close the target.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+
+            if (!failed) {
+                writeOut();
+            }
+            closeTarget();
+        } catch (IOException e) {
+            failed = true;
+        } finally {
+            lock.unlock();
+        }
+
+        if (flusher != null) {
+            LockSupport.unpark(flusher);
+        }
+        if (shutdownHook != null && Thread.currentThread() != shutdownHook) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException e) {
+                // pass, the JVM is already shutting down
+            }
+        }
+    }
+
+    /**
+     * Check whether this Output has been closed.
+     *
+     * @return Closed status
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Get this Output's FlushPolicy.
+     *
+     * @return FlushPolicy
+     */
+    public FlushPolicy getFlushPolicy() {
+        return flushPolicy;
+    }
+
+    /**
+     * Get the number of bytes waiting in the buffer.
+     *
+     * @return Buffered bytes
+     */
+    public int getBufferedBytes() {
+        lock.lock();
+        try {
+            return buffer.position();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Write the buffer out to the target if it has anything in it.
+     * Must be called with the lock held.
+     *
+     * @throws IOException If the write fails
+     */
+    protected final void writeOut() throws IOException {
+        if (buffer.position() == 0) {
+            return;
+        }
+
+        buffer.flip();
+        try {
+            write(buffer);
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Encode a message into the buffer as UTF-8, writing the buffer out whenever it fills up.
+     *
+     * @param message - Message to encode
+     * @throws IOException If writing fails
+     */
+    private void encode(CharSequence message) throws IOException {
+        // Write out first if the message might not fit, so batches end on a record boundary
+        // unless a single record is bigger than the whole buffer
+        if ((long) message.length() * MAX_BYTES_PER_CHAR > buffer.remaining()) {
+            writeOut();
+        }
+
+        encoder.encode(message, buffer, writeOutOnOverflow);
+    }
+
+    /**
+     * Start the background flusher and shutdown hook if they aren't running yet.
+     * Done on the first send rather than in the constructor so subclasses are fully set up.
+     */
+    private void startFlusher() {
+        if (shutdownHook == null) {
+            // Only flushed, not closed, so records logged by other shutdown hooks still get buffered
+            shutdownHook = new Thread(this::flush, getClass().getSimpleName() + "-shutdown");
+            Runtime.getRuntime().addShutdownHook(shutdownHook);
+        }
+        if (flusher == null && tickMillis > 0) {
+            flusher = new Thread(this::runFlusher, getClass().getSimpleName() + "-flusher");
+            flusher.setDaemon(true);
+            flusher.start();
+        }
+    }
+
+    /**
+     * Main loop of the flusher thread.
+     */
+    private void runFlusher() {
+        long tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        while (!closed) {
+            LockSupport.parkNanos(tickNanos);
+
+            lock.lock();
+            try {
+                if (!closed && !failed) {
+                    onTick();
+                }
+            } catch (IOException e) {
+                failed = true;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Initialize a BufferedOutput that ticks on its FlushPolicy's interval.
+     *
+     * @param formatter - Formatter to use; null to use the Logger's
+     * @param flushPolicy - When to write the buffer out
+     */
+    protected BufferedOutput(Formatter formatter, FlushPolicy flushPolicy) {
+        this(formatter, flushPolicy, flushPolicy.intervalMillis());
+    }
+
+    /**
+     * Initialize a BufferedOutput.
+     *
+     * @param formatter - Formatter to use; null to use the Logger's
+     * @param flushPolicy - When to write the buffer out
+     * @param tickMillis - How often the background flusher calls {@link #onTick()}; 0 for never
+     */
+    protected BufferedOutput(Formatter formatter, FlushPolicy flushPolicy, long tickMillis) {
+        super(formatter);
+        this.flushPolicy = flushPolicy;
+        this.tickMillis = tickMillis;
+        this.buffer = ByteBuffer.allocateDirect(flushPolicy.bufferSize());
+        this.encoder = new ChunkedEncoder();
+        this.writeOutOnOverflow = () -> {
+            writeOut();
+            return buffer;
+        };
+    }
+}
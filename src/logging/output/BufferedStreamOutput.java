@@ -0,0 +1,134 @@
+package logging.output;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import logging.format.Formatter;
+
+/**
+ * Stream Output that buffers records and writes them out in batches,
+ * instead of printing and flushing the stream for every record.
+ *
+ * For System.out and System.err it can optionally write straight to the
+ * file descriptor's channel, skipping the PrintStream and its lock entirely.
+ */
+public class BufferedStreamOutput extends BufferedOutput {
+    private PrintStream stream;
+    // Only set when writing straight to stdout/stderr
+    private FileChannel channel;
+    // Used to copy batches out of the direct buffer for the PrintStream
+    private byte[] scratch;
+
+    /**
+     * Write a batch to the stream (or file descriptor) and flush it.
+     *
+     * @param bytes - Buffer to write
+     * @throws IOException If the write fails
+     */
+    @Override
+    protected void write(ByteBuffer bytes) throws IOException {
+        if (channel != null) {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            return;
+        }
+
+        while (bytes.hasRemaining()) {
+            int length = Math.min(bytes.remaining(), scratch.length);
+            bytes.get(scratch, 0, length);
+            stream.write(scratch, 0, length);
+        }
+        stream.flush();
+        if (stream.checkError()) {
+            throw new IOException("PrintStream reported an error");
+        }
+    }
+
+    /**
+     * Get this BufferedStreamOutput's stream.
+     *
+     * @return Stream
+     */
+    public PrintStream getStream() {
+        return stream;
+    }
+
+    /**
+     * Check whether this BufferedStreamOutput writes straight to the file descriptor.
+     *
+     * @return If the PrintStream is bypassed
+     */
+    public boolean usesFileDescriptor() {
+        return channel != null;
+    }
+
+    /**
+     * Initialize a BufferedStreamOutput with the default stream System.err and a default Formatter and FlushPolicy.
+     */
+    public BufferedStreamOutput() {
+        this(System.err, null, FlushPolicy.DEFAULT, false);
+    }
+
+    /**
+     * Initialize a BufferedStreamOutput with a custom stream and default Formatter and FlushPolicy.
+     *
+     * @param stream - Output stream
+     */
+    public BufferedStreamOutput(PrintStream stream) {
+        this(stream, null, FlushPolicy.DEFAULT, false);
+    }
+
+    /**
+     * Initialize a BufferedStreamOutput that writes through the stream.
+     *
+     * @param stream - Output stream
+     * @param formatter - Formatter to use
+     * @param flushPolicy - When to write buffered records to the stream
+     */
+    public BufferedStreamOutput(PrintStream stream, Formatter formatter, FlushPolicy flushPolicy) {
+        this(stream, formatter, flushPolicy, false);
+    }
+
+    /**
+     * Initialize a BufferedStreamOutput.
+     *
+     * @param stream - Output stream
+     * @param formatter - Formatter to use
+     * @param flushPolicy - When to write buffered records to the stream
+     * @param useFileDescriptor - Whether to write straight to the stdout/stderr file descriptor
+     * instead of through the PrintStream (stream must be System.out or System.err)
+     * @throws IllegalArgumentException If useFileDescriptor is true and stream isn't System.out or System.err
+     */
+    public BufferedStreamOutput(
+        PrintStream stream,
+        Formatter formatter,
+        FlushPolicy flushPolicy,
+        boolean useFileDescriptor
+    ) throws IllegalArgumentException {
+        super(formatter, flushPolicy);
+        this.stream = stream;
+
+        if (!useFileDescriptor) {
+            this.scratch = new byte[Math.min(flushPolicy.bufferSize(), 8192)];
+            return;
+        }
+
+        FileDescriptor descriptor;
+        if (stream == System.out) {
+            descriptor = FileDescriptor.out;
+        } else if (stream == System.err) {
+            descriptor = FileDescriptor.err;
+        } else {
+            throw new IllegalArgumentException("Only System.out and System.err can be written to by file descriptor");
+        }
+
+        // Anything already printed has to come out before our first batch
+        stream.flush();
+        this.channel = new FileOutputStream(descriptor).getChannel();
+    }
+}
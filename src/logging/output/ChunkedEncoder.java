@@ -0,0 +1,108 @@
+package logging.output;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes text as UTF-8 into a ByteBuffer without allocating.
+ *
+ * The text is copied through a reusable char buffer in chunks, instead of
+ * wrapping every message in a new CharBuffer. Not thread safe, callers guard it
+ * with the same lock as the target buffer.
+ */
+final class ChunkedEncoder {
+    private static final int CHUNK_CHARS = 1024;
+
+    private final CharsetEncoder encoder;
+    private final CharBuffer chars;
+
+    /**
+     * Called when the target buffer is full.
+     */
+    interface Overflow {
+        /**
+         * Make room for more bytes.
+         *
+         * @return Buffer to continue encoding into
+         * @throws IOException If room can't be made
+         */
+        ByteBuffer onOverflow() throws IOException;
+    }
+
+    /**
+     * Encode text into a buffer, asking for more room whenever it fills up.
+     *
+     * @param text - Text to encode
+     * @param target - Buffer to encode into
+     * @param overflow - Makes room when target is full
+     * @return Buffer the text ended in
+     * @throws IOException If room can't be made
+     */
+    ByteBuffer encode(CharSequence text, ByteBuffer target, Overflow overflow) throws IOException {
+        char[] array = chars.array();
+        int length = text.length();
+        int copied = 0;
+
+        encoder.reset();
+        chars.clear();
+        while (true) {
+            // Anything left over in chars is half a surrogate pair from the last chunk
+            int count = Math.min(chars.remaining(), length - copied);
+            copy(text, copied, copied + count, array, chars.position());
+            chars.position(chars.position() + count);
+            copied += count;
+            chars.flip();
+
+            boolean end = copied == length;
+            CoderResult result = encoder.encode(chars, target, end);
+            while (result.isOverflow()) {
+                target = overflow.onOverflow();
+                result = encoder.encode(chars, target, end);
+            }
+            chars.compact();
+            if (end) {
+                break;
+            }
+        }
+        while (encoder.flush(target).isOverflow()) {
+            target = overflow.onOverflow();
+        }
+        return target;
+    }
+
+    /**
+     * Copy part of a CharSequence into a char array.
+     *
+     * @param text - Text to copy from
+     * @param start - First index to copy
+     * @param end - Index to stop before
+     * @param dest - Array to copy into
+     * @param offset - Index in dest to start at
+     */
+    private static void copy(CharSequence text, int start, int end, char[] dest, int offset) {
+        if (text instanceof String string) {
+            string.getChars(start, end, dest, offset);
+        } else if (text instanceof StringBuilder builder) {
+            builder.getChars(start, end, dest, offset);
+        } else {
+            for (int i = start; i < end; i++) {
+                dest[offset++] = text.charAt(i);
+            }
+        }
+    }
+
+    /**
+     * Initialize a ChunkedEncoder.
+     */
+    ChunkedEncoder() {
+        this.encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.chars = CharBuffer.allocate(CHUNK_CHARS);
+    }
+}
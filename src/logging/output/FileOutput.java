@@ -1,13 +1,23 @@
 package logging.output;
 
-import java.io.FileWriter;
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 
+import logging.LogRecord;
 import logging.format.Formatter;
 
 public class FileOutput extends Output {
     private String filepath;
-    private FileWriter fileWriter;
+    // Encoded records are written to the stream, text goes through the writer on top of it
+    private BufferedOutputStream fileStream;
+    private Writer fileWriter;
+    // Whether the writer may hold text that hasn't reached the stream yet
+    private boolean textPending;
 
     /**
      * Send a message to this FileOutput's file.
@@ -17,9 +27,10 @@ public class FileOutput extends Output {
      * @param message - Message to send
      * @return If the message was successfully sent
      */
-    public boolean send(String message) {
+    public synchronized boolean send(String message) {
         try {
             fileWriter.write(message);
+            textPending = true;
             return true;
         } catch (IOException e) {
             // pass
@@ -27,6 +38,66 @@ public class FileOutput extends Output {
         return false;
     }
 
+    /**
+     * Write an encoded record to this FileOutput's file.
+     *
+     * @param bytes - Encoded record, ready for reading
+     * @param record - LogRecord the bytes were encoded from
+     * @return If the bytes were successfully sent
+     */
+    @Override
+    public synchronized boolean send(ByteBuffer bytes, LogRecord record) {
+        try {
+            // Keep the order of text sent before the Encoder was set
+            if (textPending) {
+                fileWriter.flush();
+                textPending = false;
+            }
+
+            if (bytes.hasArray()) {
+                fileStream.write(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining());
+                bytes.position(bytes.limit());
+            } else {
+                byte[] copy = new byte[bytes.remaining()];
+                bytes.get(copy);
+                fileStream.write(copy);
+            }
+            return true;
+        } catch (IOException e) {
+            // pass
+        }
+        return false;
+    }
+
+    /**
+     * Flush this FileOutput's file.
+     *
+     * @return If the flush succeeded
+     */
+    @Override
+    public synchronized boolean flush() {
+        try {
+            fileWriter.flush();
+            textPending = false;
+            return true;
+        } catch (IOException e) {
+            // pass
+        }
+        return false;
+    }
+
+    /**
+     * Flush and close this FileOutput's file.
+     */
+    @Override
+    public synchronized void close() {
+        try {
+            fileWriter.close();
+        } catch (IOException e) {
+            // pass
+        }
+    }
+
     /**
      * Get this FileOutput's filepath.
      *
@@ -40,7 +111,7 @@ public class FileOutput extends Output {
      * Initialize a FileOutput with a default Formatter.
      *
      * @param filepath - File to log in
-     * @throws IOException If a FileWriter cannot be initialized using filepath
+     * @throws IOException If the file cannot be opened
      */
     public FileOutput(String filepath) throws IOException {
         this(filepath, null);
@@ -51,11 +122,12 @@ public class FileOutput extends Output {
      *
      * @param filepath - File to log in
      * @param formatter - Formatter to use
-     * @throws IOException If a FileWriter cannot be initialized using filepath
+     * @throws IOException If the file cannot be opened
      */
     public FileOutput(String filepath, Formatter formatter) throws IOException {
         super(formatter);
         this.filepath = filepath;
-        this.fileWriter = new FileWriter(filepath);
+        this.fileStream = new BufferedOutputStream(new FileOutputStream(filepath));
+        this.fileWriter = new OutputStreamWriter(fileStream, StandardCharsets.UTF_8);
     }
 }
@@ -0,0 +1,43 @@
+package logging.output;
+
+import logging.LogLevel;
+import logging.LogLevels;
+
+/**
+ * When a buffered Output writes its buffer out.
+ *
+ * @param bufferSize - Size of the buffer in bytes, it is written out whenever it fills up
+ * @param intervalMillis - Longest time a record may wait in the buffer in milliseconds; 0 to disable
+ * @param flushLevel - Records at or above this LogLevel are written out immediately; null to disable
+ */
+public record FlushPolicy(int bufferSize, long intervalMillis, LogLevel flushLevel) {
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    public static final long DEFAULT_INTERVAL_MILLIS = 200;
+    public static final LogLevel DEFAULT_FLUSH_LEVEL = LogLevel.ERROR;
+
+    public static final FlushPolicy DEFAULT = new FlushPolicy(DEFAULT_BUFFER_SIZE, DEFAULT_INTERVAL_MILLIS, DEFAULT_FLUSH_LEVEL);
+
+    /**
+     * Validate a FlushPolicy.
+     *
+     * @throws IllegalArgumentException If bufferSize is under 16 bytes or intervalMillis is negative
+     */
+    public FlushPolicy {
+        if (bufferSize < 16) {
+            throw new IllegalArgumentException("FlushPolicy buffer size must be at least 16 bytes");
+        }
+        if (intervalMillis < 0) {
+            throw new IllegalArgumentException("FlushPolicy interval must not be negative");
+        }
+    }
+
+    /**
+     * Check whether a record with the given LogLevel should be written out immediately.
+     *
+     * @param level - LogLevel of the record
+     * @return If it should be flushed
+     */
+    public boolean flushesOn(LogLevel level) {
+        return flushLevel != null && LogLevels.toInt(level) >= LogLevels.toInt(flushLevel);
+    }
+}
@@ -0,0 +1,7 @@
+package logging.output;
+
+public enum FsyncPolicy {
+    NEVER,     // Leave it to the OS to write the page cache to disk
+    PER_BATCH, // Force to disk after every write
+    PERIODIC,  // Force to disk on a fixed interval
+}
@@ -0,0 +1,334 @@
+package logging.output;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReentrantLock;
+
+import logging.LogRecord;
+import logging.format.Formatter;
+
+/**
+ * File Output that appends records into a memory-mapped region of the file.
+ *
+ * Sending a record only copies its bytes into the page cache, there is no syscall
+ * per record. The file is mapped in large chunks, starting with the first record, so it
+ * grows ahead of what has been written; it is truncated back to the real length when the
+ * Output is closed (including at JVM shutdown).
+ *
+ * Chunks are unmapped as soon as they are done with, where the JVM allows it, since some
+ * systems (e.g. Windows) refuse to truncate a file that is still mapped.
+ */
+public class MappedFileOutput extends Output {
+    public static final int DEFAULT_CHUNK_SIZE = 64 * 1024 * 1024;
+
+    // Unmaps a MappedByteBuffer right away instead of when it is garbage collected; null if unavailable
+    private static final MethodHandle INVOKE_CLEANER = findCleaner();
+
+    private String filepath;
+    private FileChannel channel;
+    private int chunkSize;
+    // Null until the first record, and again once closed
+    private MappedByteBuffer mapped;
+    // File offset the current chunk is mapped at
+    private long chunkOffset;
+    // Length of the file once closed
+    private long closedLength;
+    private ChunkedEncoder encoder;
+    private ChunkedEncoder.Overflow mapNextOnOverflow;
+    private Thread shutdownHook;
+    private boolean closed;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Append a message to this MappedFileOutput's file.
+     *
+     * @param message - Message to send
+     * @return If the message was successfully sent
+     */
+    public boolean send(String message) {
+        return send((CharSequence) message, null);
+    }
+
+    /**
+     * Append a message to this MappedFileOutput's file straight from a CharSequence,
+     * without creating a String.
+     *
+     * @param message - Formatted message to send
+     * @param record - LogRecord the message was formatted from
+     * @return If the message was successfully sent
+     */
+    @Override
+    public boolean send(CharSequence message, LogRecord record) {
+        lock.lock();
+        try {
+            if (closed) {
+                return false;
+            }
+            startMapping();
+            encoder.encode(message, mapped, mapNextOnOverflow);
+            return true;
+        } catch (IOException e) {
+            // pass
+        } finally {
+            lock.unlock();
+        }
+        return false;
+    }
+
+    /**
+     * Append an encoded record to this MappedFileOutput's file.
+     *
+     * @param bytes - Encoded record, ready for reading
+     * @param record - LogRecord the bytes were encoded from
+     * @return If the bytes were successfully sent
+     */
+    @Override
+    public boolean send(ByteBuffer bytes, LogRecord record) {
+        lock.lock();
+        try {
+            if (closed) {
+                return false;
+            }
+            startMapping();
+
+            while (bytes.remaining() > mapped.remaining()) {
+                // Fill the rest of this chunk and continue in the next one
+                int limit = bytes.limit();
+                bytes.limit(bytes.position() + mapped.remaining());
+                mapped.put(bytes);
+                bytes.limit(limit);
+                mapNextChunk();
+            }
+            mapped.put(bytes);
+            return true;
+        } catch (IOException e) {
+            // pass
+        } finally {
+            lock.unlock();
+        }
+        return false;
+    }
+
+    /**
+     * Force the mapped region to disk.
+     *
+     * @return If the flush succeeded
+     */
+    @Override
+    public boolean flush() {
+        lock.lock();
+        try {
+            if (closed) {
+                return false;
+            }
+            if (mapped != null) {
+                mapped.force();
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Truncate the file to the length actually written and close it.
+     *
+     * @throws UncheckedIOException If the file can't be truncated or closed,
+     * it may then keep the unwritten tail of its last chunk
+     */
+    @Override
+    public void close() throws UncheckedIOException {
+        IOException failure = null;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+
+            closedLength = chunkOffset;
+            if (mapped != null) {
+                closedLength += mapped.position();
+                mapped.force();
+                unmap(mapped);
+                mapped = null;
+            }
+            channel.truncate(closedLength);
+        } catch (IOException e) {
+            failure = e;
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+            lock.unlock();
+        }
+
+        if (shutdownHook != null && Thread.currentThread() != shutdownHook) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException e) {
+                // pass, the JVM is already shutting down
+            }
+        }
+        if (failure != null) {
+            throw new UncheckedIOException("Could not truncate " + filepath + " to the length written", failure);
+        }
+    }
+
+    /**
+     * Get this MappedFileOutput's filepath.
+     *
+     * @return Filepath
+     */
+    public String getFilepath() {
+        return filepath;
+    }
+
+    /**
+     * Get the number of bytes written so far.
+     *
+     * @return Length of the log in bytes
+     */
+    public long getLength() {
+        lock.lock();
+        try {
+            if (closed) {
+                return closedLength;
+            }
+            return mapped == null ? chunkOffset : chunkOffset + mapped.position();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Map the chunk following the one currently being written, growing the file.
+     *
+     * @throws IOException If the chunk can't be mapped
+     */
+    private void mapNextChunk() throws IOException {
+        MappedByteBuffer previous = mapped;
+        long offset = chunkOffset + previous.position();
+        mapped = channel.map(FileChannel.MapMode.READ_WRITE, offset, chunkSize);
+        chunkOffset = offset;
+        unmap(previous);
+    }
+
+    /**
+     * Map the first chunk and register the shutdown hook that truncates the file, if not done yet.
+     * Done on the first send rather than in the constructor so subclasses are fully set up,
+     * and so an unused Output never grows its file.
+     *
+     * @throws IOException If the chunk can't be mapped
+     */
+    private void startMapping() throws IOException {
+        if (mapped != null) {
+            return;
+        }
+        mapped = channel.map(FileChannel.MapMode.READ_WRITE, chunkOffset, chunkSize);
+        if (shutdownHook == null) {
+            shutdownHook = new Thread(this::close, "MappedFileOutput-shutdown");
+            Runtime.getRuntime().addShutdownHook(shutdownHook);
+        }
+    }
+
+    /**
+     * Unmap a chunk now, if the JVM allows it, rather than whenever it is garbage collected.
+     * The chunk must never be touched again.
+     *
+     * @param chunk - Chunk to unmap
+     */
+    private static void unmap(MappedByteBuffer chunk) {
+        if (INVOKE_CLEANER == null) {
+            return;
+        }
+        try {
+            INVOKE_CLEANER.invokeExact((ByteBuffer) chunk);
+        } catch (Throwable e) {
+            // pass, it is unmapped once garbage collected
+        }
+    }
+
+    /**
+     * Look up sun.misc.Unsafe.invokeCleaner, the only way to unmap a buffer explicitly.
+     *
+     * @return Handle taking the buffer to unmap; null if it isn't available
+     */
+    private static MethodHandle findCleaner() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            MethodType type = MethodType.methodType(void.class, ByteBuffer.class);
+            return MethodHandles.lookup().findVirtual(unsafeClass, "invokeCleaner", type).bindTo(field.get(null));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Initialize a MappedFileOutput with a default Formatter and chunk size.
+     *
+     * @param filepath - File to log in
+     * @throws IOException If the file cannot be opened
+     */
+    public MappedFileOutput(String filepath) throws IOException {
+        this(filepath, null);
+    }
+
+    /**
+     * Initialize a MappedFileOutput with a default chunk size.
+     *
+     * @param filepath - File to log in
+     * @param formatter - Formatter to use
+     * @throws IOException If the file cannot be opened
+     */
+    public MappedFileOutput(String filepath, Formatter formatter) throws IOException {
+        this(filepath, formatter, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Initialize a MappedFileOutput.
+     *
+     * @param filepath - File to log in
+     * @param formatter - Formatter to use
+     * @param chunkSize - How many bytes to map (and grow the file by) at a time
+     * @throws IOException If the file cannot be opened
+     * @throws IllegalArgumentException If chunkSize is under 16 bytes
+     */
+    public MappedFileOutput(String filepath, Formatter formatter, int chunkSize) throws IOException, IllegalArgumentException {
+        super(formatter);
+        if (chunkSize < 16) {
+            throw new IllegalArgumentException("MappedFileOutput chunk size must be at least 16 bytes");
+        }
+
+        this.filepath = filepath;
+        this.chunkSize = chunkSize;
+        this.encoder = new ChunkedEncoder();
+        this.mapNextOnOverflow = () -> {
+            mapNextChunk();
+            return mapped;
+        };
+        this.channel = FileChannel.open(
+            Path.of(filepath),
+            StandardOpenOption.CREATE,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING
+        );
+        this.chunkOffset = 0;
+    }
+}
@@ -1,10 +1,21 @@
 package logging.output;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import logging.LogRecord;
+import logging.filter.Filter;
+import logging.filter.FilterChain;
+import logging.format.Encoder;
 import logging.format.Formatter;
+import logging.metrics.OutputMetrics;
 
-public abstract class Output {
-    private Formatter formatter;
-    private boolean enabled;
+public abstract class Output implements AutoCloseable {
+    private volatile Formatter formatter;
+    private volatile Encoder encoder;
+    private volatile OutputMetrics metrics;
+    private volatile FilterChain filters = FilterChain.EMPTY;
+    private volatile boolean enabled;
 
     /**
      * Send a message to an output channel.
@@ -17,6 +28,96 @@ public abstract class Output {
      */
     public abstract boolean send(String message);
 
+    /**
+     * Send a formatted LogRecord to an output channel.
+     * Outputs that act on the record itself (e.g. flushing on its level) should override this,
+     * by default it is the same as {@link #send(String)}.
+     *
+     * @param message - Formatted message to send
+     * @param record - LogRecord the message was formatted from
+     * @return If the message was successfully sent
+     */
+    public boolean send(String message, LogRecord record) {
+        return send(message);
+    }
+
+    /**
+     * Send a formatted LogRecord held in a reusable CharSequence (e.g. a StringBuilder),
+     * as done by garbage-free Loggers.
+     * The CharSequence is only valid during the call. By default it is converted to a String,
+     * Outputs that can encode it directly should override this.
+     *
+     * @param message - Formatted message to send
+     * @param record - LogRecord the message was formatted from
+     * @return If the message was successfully sent
+     */
+    public boolean send(CharSequence message, LogRecord record) {
+        return send(message.toString(), record);
+    }
+
+    /**
+     * Send a LogRecord already encoded to bytes by this Output's Encoder.
+     * The buffer is only valid during the call. By default the bytes are decoded back
+     * into a String, Outputs that write bytes should override this.
+     *
+     * @param bytes - Encoded record, ready for reading
+     * @param record - LogRecord the bytes were encoded from
+     * @return If the bytes were successfully sent
+     */
+    public boolean send(ByteBuffer bytes, LogRecord record) {
+        return send(StandardCharsets.UTF_8.decode(bytes).toString(), record);
+    }
+
+    /**
+     * Encode and send a LogRecord without it being formatted first.
+     * Only called for Outputs that {@link #encodesRecords() encode records themselves}.
+     *
+     * @param record - LogRecord to send
+     * @return If the record was successfully sent; false unless overridden
+     */
+    public boolean send(LogRecord record) {
+        return false;
+    }
+
+    /**
+     * Check whether this Output encodes LogRecords itself (e.g. into a binary format).
+     * If so, Loggers skip formatting and encoding and call {@link #send(LogRecord)} instead.
+     *
+     * @return If records are sent as they are; false unless overridden
+     */
+    public boolean encodesRecords() {
+        return false;
+    }
+
+    /**
+     * Check whether this Output uses the location of a log.
+     * Only asked of Outputs that encode records themselves, for the rest it depends on their Formatter or Encoder.
+     *
+     * @return If the location is used; false unless overridden
+     */
+    public boolean usesLocation() {
+        return false;
+    }
+
+    /**
+     * Write out anything this Output has buffered.
+     * Does nothing unless overridden by subclasses.
+     *
+     * @return If everything was successfully written
+     */
+    public boolean flush() {
+        return true;
+    }
+
+    /**
+     * Flush and release anything held by this Output.
+     * Does nothing unless overridden by subclasses.
+     */
+    @Override
+    public void close() {
+        // pass
+    }
+
     /**
      * Get this Output's Formatter.
      *
@@ -42,6 +143,114 @@ public abstract class Output {
         formatter = null;
     }
 
+    /**
+     * Get this Output's Encoder.
+     *
+     * @return Encoder; null if records are formatted to text instead
+     */
+    public Encoder getEncoder() {
+        return encoder;
+    }
+
+    /**
+     * Set this Output's Encoder.
+     * Records are then encoded by it and sent as bytes, instead of being formatted by a Formatter.
+     *
+     * @param enc - Encoder
+     */
+    public void setEncoder(Encoder enc) {
+        encoder = enc;
+    }
+
+    /**
+     * Remove this Output's Encoder.
+     */
+    public void removeEncoder() {
+        encoder = null;
+    }
+
+    /**
+     * Get this Output's filters.
+     *
+     * @return FilterChain
+     */
+    public FilterChain getFilters() {
+        return filters;
+    }
+
+    /**
+     * Add a Filter to the end of this Output's filters.
+     * Records must pass every filter, in order, to be formatted and sent to this Output.
+     *
+     * @param filter - Filter to add
+     * @throws IllegalArgumentException If filter is null
+     */
+    public synchronized void addFilter(Filter filter) throws IllegalArgumentException {
+        filters = filters.with(filter);
+    }
+
+    /**
+     * Remove a Filter from this Output's filters.
+     *
+     * @param filter - Filter to remove
+     */
+    public synchronized void removeFilter(Filter filter) {
+        filters = filters.without(filter);
+    }
+
+    /**
+     * Remove every Filter from this Output.
+     */
+    public synchronized void removeAllFilters() {
+        filters = FilterChain.EMPTY;
+    }
+
+    /**
+     * Get this Output's metrics.
+     *
+     * @return OutputMetrics; null if metrics are off
+     */
+    public OutputMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Start recording metrics for this Output, named after its toString(),
+     * and register them over JMX. Does nothing if they are already on.
+     *
+     * @return OutputMetrics
+     */
+    public OutputMetrics enableMetrics() {
+        return enableMetrics(toString());
+    }
+
+    /**
+     * Start recording metrics for this Output and register them over JMX
+     * as logging:type=Output,name="NAME", or "NAME#2" and so on if that name is taken.
+     * Does nothing if they are already on.
+     *
+     * @param name - Name to register the metrics under
+     * @return OutputMetrics
+     */
+    public synchronized OutputMetrics enableMetrics(String name) {
+        if (metrics == null) {
+            OutputMetrics created = new OutputMetrics(name);
+            created.registerMBean();
+            metrics = created;
+        }
+        return metrics;
+    }
+
+    /**
+     * Stop recording metrics for this Output and unregister them.
+     */
+    public synchronized void disableMetrics() {
+        if (metrics != null) {
+            metrics.unregisterMBean();
+            metrics = null;
+        }
+    }
+
     /**
      * Check if this Output is enabled.
      *
@@ -80,5 +289,6 @@ public abstract class Output {
      */
     public Output(Formatter formatter) {
         this.formatter = formatter;
+        this.enabled = true;
     }
 }
@@ -0,0 +1,439 @@
+package logging.output;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+import logging.LogRecord;
+import logging.format.Formatter;
+
+/**
+ * Buffered file Output that rolls over to a new file by size and/or time.
+ * The period a record belongs to is decided by its own timestamp, so it follows
+ * the Logger's clock and records never land in the file of a later period.
+ *
+ * Rolled over files are renamed to {filepath}.{period}.{index}, then gzipped
+ * and pruned according to the RollingPolicy on a background thread,
+ * so the logging thread only ever pays for a rename.
+ * Only files named like that are ever pruned, other files next to the log are left alone.
+ *
+ * The compressor is a daemon thread, so it can be cut off at JVM exit. Half written
+ * archives it leaves behind are deleted, and the files they were made from compressed
+ * again, by the next RollingFileOutput opened on the same filepath.
+ */
+public class RollingFileOutput extends BufferedOutput {
+    private static final DateTimeFormatter HOURLY_LABEL = DateTimeFormatter.ofPattern("yyyy-MM-dd-HH");
+    private static final DateTimeFormatter DAILY_LABEL = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    // Shared by every RollingFileOutput, compression is rare and shouldn't cost a thread each
+    private static final ExecutorService COMPRESSOR = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "RollingFileOutput-compressor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private String filepath;
+    private Path path;
+    private RollingPolicy rollingPolicy;
+    private ZoneId zone;
+    // Matches the names of rolled over files: period label, index and an optional .gz or .gz.tmp
+    private Pattern rolledName;
+    // Guarded by the BufferedOutput lock
+    private FileChannel channel;
+    private long size;
+    private long periodStartMillis;
+    private long nextRolloverMillis;
+    // Timestamp of the latest record buffered, size based roll overs happen at that time
+    private long lastRecordMillis;
+    // Label of the period the last rolled over file belongs to, and its index
+    private String indexLabel;
+    private int lastIndex;
+
+    /**
+     * Roll over before buffering a record from a later period, after writing out
+     * the records of the current one.
+     *
+     * @param record - LogRecord about to be buffered; null for a plain message, which is timed by the system clock
+     * @throws IOException If the write or roll over fails
+     */
+    @Override
+    protected void beforeRecord(LogRecord record) throws IOException {
+        long millis = record != null ? record.timestamp() : System.currentTimeMillis();
+        if (millis >= nextRolloverMillis) {
+            writeOut();
+            rollOver(millis);
+        }
+        lastRecordMillis = Math.max(lastRecordMillis, millis);
+    }
+
+    /**
+     * Write a batch to the current file, rolling over first if the batch would go past the size limit.
+     *
+     * @param bytes - Buffer to write
+     * @throws IOException If the write or roll over fails
+     */
+    @Override
+    protected void write(ByteBuffer bytes) throws IOException {
+        if (rollingPolicy.maxBytes() > 0 && size > 0 && size + bytes.remaining() > rollingPolicy.maxBytes()) {
+            rollOver(lastRecordMillis);
+        }
+
+        while (bytes.hasRemaining()) {
+            size += channel.write(bytes);
+        }
+    }
+
+    /**
+     * Close the current file.
+     *
+     * @throws IOException If closing fails
+     */
+    @Override
+    protected void closeTarget() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Get this RollingFileOutput's filepath.
+     *
+     * @return Filepath of the file currently being written
+     */
+    public String getFilepath() {
+        return filepath;
+    }
+
+    /**
+     * Get this RollingFileOutput's RollingPolicy.
+     *
+     * @return RollingPolicy
+     */
+    public RollingPolicy getRollingPolicy() {
+        return rollingPolicy;
+    }
+
+    /**
+     * Rename the current file out of the way, start a new one and
+     * queue the old one for compression and pruning.
+     *
+     * @param millis - Time the new file starts at, in milliseconds
+     * @throws IOException If the file can't be renamed or reopened
+     */
+    private void rollOver(long millis) throws IOException {
+        channel.close();
+
+        if (size > 0) {
+            Path rolled = moveAside(periodLabel(periodStartMillis));
+            Path directory = path.toAbsolutePath().getParent();
+            RollingPolicy policy = rollingPolicy;
+            Pattern names = rolledName;
+            COMPRESSOR.execute(() -> archive(rolled, directory, policy, names));
+        }
+
+        channel = FileChannel.open(
+            path,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING
+        );
+        size = 0;
+        startPeriod(millis);
+    }
+
+    /**
+     * Set the period the current file belongs to.
+     *
+     * @param millis - A time within the period
+     */
+    private void startPeriod(long millis) {
+        LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), zone);
+        LocalDateTime start;
+        LocalDateTime next;
+
+        switch (rollingPolicy.interval()) {
+            case HOURLY:
+                start = time.truncatedTo(ChronoUnit.HOURS);
+                next = start.plusHours(1);
+                break;
+
+            case DAILY:
+                start = time.truncatedTo(ChronoUnit.DAYS);
+                next = start.plusDays(1);
+                break;
+
+            default:
+                periodStartMillis = millis;
+                nextRolloverMillis = Long.MAX_VALUE;
+                return;
+        }
+
+        periodStartMillis = start.atZone(zone).toInstant().toEpochMilli();
+        nextRolloverMillis = next.atZone(zone).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Get the label a period is named by in rolled over files.
+     *
+     * @param millis - Start of the period in milliseconds
+     * @return Label
+     */
+    private String periodLabel(long millis) {
+        LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), zone);
+        return rollingPolicy.interval() == RolloverInterval.HOURLY ? HOURLY_LABEL.format(time) : DAILY_LABEL.format(time);
+    }
+
+    /**
+     * Rename the current file to the next index of a period.
+     * Indexes are counted here rather than looked up, so the directory is never listed on the logging thread.
+     *
+     * @param label - Label of the period
+     * @return Path of the rolled over file
+     * @throws IOException If the file can't be renamed
+     */
+    private Path moveAside(String label) throws IOException {
+        if (!label.equals(indexLabel)) {
+            indexLabel = label;
+            lastIndex = 0;
+        }
+
+        String base = path.getFileName() + "." + label + ".";
+        while (true) {
+            Path rolled = path.resolveSibling(base + (++lastIndex));
+            // Only taken if the period was logged to before, e.g. by another run after the clock went back
+            if (Files.exists(rolled.resolveSibling(rolled.getFileName() + ".gz"))) {
+                continue;
+            }
+            try {
+                Files.move(path, rolled);
+                return rolled;
+            } catch (FileAlreadyExistsException e) {
+                // pass, try the next index
+            }
+        }
+    }
+
+    /**
+     * Look through the rolled over files of an earlier run: pick up the index to continue from,
+     * delete archives it didn't finish writing and queue the files it didn't compress.
+     *
+     * @throws IOException If the directory can't be listed
+     */
+    private void recover() throws IOException {
+        String label = periodLabel(periodStartMillis);
+        Path directory = path.toAbsolutePath().getParent();
+        ArrayList<Path> uncompressed = new ArrayList<>();
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Matcher match = rolledName.matcher(file.getFileName().toString());
+                if (!match.matches()) {
+                    continue;
+                }
+                String suffix = match.group(3);
+                if (".gz.tmp".equals(suffix)) {
+                    Files.deleteIfExists(file);
+                    continue;
+                }
+                if (match.group(1).equals(label)) {
+                    lastIndex = Math.max(lastIndex, Integer.parseInt(match.group(2)));
+                }
+                if (suffix == null && rollingPolicy.compress()) {
+                    uncompressed.add(file);
+                }
+            }
+        }
+        indexLabel = label;
+
+        RollingPolicy policy = rollingPolicy;
+        Pattern names = rolledName;
+        for (Path file : uncompressed) {
+            COMPRESSOR.execute(() -> archive(file, directory, policy, names));
+        }
+    }
+
+    /**
+     * Compress a rolled over file (if enabled) and prune old files.
+     * Runs on the compressor thread.
+     *
+     * @param rolled - Rolled over file
+     * @param directory - Directory of the log
+     * @param policy - RollingPolicy of the Output
+     * @param names - Pattern of rolled over file names
+     */
+    private static void archive(Path rolled, Path directory, RollingPolicy policy, Pattern names) {
+        try {
+            if (policy.compress()) {
+                compress(rolled);
+            }
+            prune(directory, policy, names);
+        } catch (IOException e) {
+            // pass, the rolled over file is left as it is
+        }
+    }
+
+    /**
+     * Gzip a file, replacing it with {file}.gz.
+     * Written to a temporary file first so a crash never leaves a partial archive behind.
+     *
+     * @param file - File to compress
+     * @throws IOException If compression fails
+     */
+    private static void compress(Path file) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".gz.tmp");
+        Path archive = file.resolveSibling(file.getFileName() + ".gz");
+
+        try (
+            InputStream in = Files.newInputStream(file);
+            OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp), 64 * 1024)
+        ) {
+            in.transferTo(out);
+        }
+        // Keep the original time so age based pruning still works
+        Files.setLastModifiedTime(temp, Files.getLastModifiedTime(file));
+        Files.move(temp, archive, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.delete(file);
+    }
+
+    /**
+     * Delete rolled over files past the RollingPolicy's count or age limits.
+     *
+     * @param directory - Directory of the log
+     * @param policy - RollingPolicy of the Output
+     * @param names - Pattern of rolled over file names
+     * @throws IOException If the directory can't be listed
+     */
+    private static void prune(Path directory, RollingPolicy policy, Pattern names) throws IOException {
+        if (policy.maxFiles() == 0 && policy.maxAgeMillis() == 0) {
+            return;
+        }
+
+        ArrayList<RolledFile> rolled = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Matcher match = names.matcher(file.getFileName().toString());
+                // Archives still being written are left to the compressor
+                if (match.matches() && !".gz.tmp".equals(match.group(3))) {
+                    rolled.add(new RolledFile(file, match.group(1), Integer.parseInt(match.group(2))));
+                }
+            }
+        }
+
+        // Newest first, by period label and then index
+        rolled.sort(Comparator.comparing(RolledFile::label).thenComparingInt(RolledFile::index).reversed());
+        long oldest = System.currentTimeMillis() - policy.maxAgeMillis();
+
+        for (int i = 0; i < rolled.size(); i++) {
+            Path file = rolled.get(i).file();
+            boolean tooMany = policy.maxFiles() > 0 && i >= policy.maxFiles();
+            boolean tooOld = policy.maxAgeMillis() > 0 && lastModified(file) < oldest;
+            if (tooMany || tooOld) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * A rolled over file, parsed from its name ({filepath}.{period}.{index}[.gz]).
+     *
+     * @param file - Path of the file
+     * @param label - Period label
+     * @param index - Index within the period
+     */
+    private record RolledFile(Path file, String label, int index) {}
+
+    /**
+     * Get the last modified time of a file.
+     *
+     * @param file - File
+     * @return Last modified time in milliseconds; 0 if it can't be read
+     */
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Initialize a RollingFileOutput with a default Formatter, RollingPolicy and FlushPolicy that appends to the file.
+     *
+     * @param filepath - File to log in
+     * @throws IOException If the file cannot be opened
+     */
+    public RollingFileOutput(String filepath) throws IOException {
+        this(filepath, null, RollingPolicy.DEFAULT);
+    }
+
+    /**
+     * Initialize a RollingFileOutput with a default FlushPolicy that appends to the file.
+     *
+     * @param filepath - File to log in
+     * @param formatter - Formatter to use
+     * @param rollingPolicy - When to roll over and which old files to keep
+     * @throws IOException If the file cannot be opened
+     */
+    public RollingFileOutput(String filepath, Formatter formatter, RollingPolicy rollingPolicy) throws IOException {
+        this(filepath, formatter, rollingPolicy, FlushPolicy.DEFAULT, true);
+    }
+
+    /**
+     * Initialize a RollingFileOutput.
+     *
+     * @param filepath - File to log in
+     * @param formatter - Formatter to use
+     * @param rollingPolicy - When to roll over and which old files to keep
+     * @param flushPolicy - When to write buffered records to the file
+     * @param append - Whether to keep the existing contents of the file instead of truncating it
+     * @throws IOException If the file cannot be opened
+     */
+    public RollingFileOutput(
+        String filepath,
+        Formatter formatter,
+        RollingPolicy rollingPolicy,
+        FlushPolicy flushPolicy,
+        boolean append
+    ) throws IOException {
+        super(formatter, flushPolicy);
+        this.filepath = filepath;
+        this.path = Path.of(filepath);
+        this.rollingPolicy = rollingPolicy;
+        this.zone = ZoneId.systemDefault();
+        // Quoted, so characters like [ or * in the file name are matched as they are
+        this.rolledName = Pattern.compile(
+            Pattern.quote(path.getFileName().toString()) + "\\.(\\d{4}-\\d{2}-\\d{2}(?:-\\d{2})?)\\.([1-9]\\d{0,8})(\\.gz(?:\\.tmp)?)?"
+        );
+
+        this.channel = FileChannel.open(
+            path,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING
+        );
+        this.size = channel.size();
+
+        // An appended file from an earlier period is rolled over on the first write
+        startPeriod(size > 0 ? lastModified(path) : System.currentTimeMillis());
+        this.lastRecordMillis = periodStartMillis;
+        recover();
+    }
+}
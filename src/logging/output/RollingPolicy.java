@@ -0,0 +1,31 @@
+package logging.output;
+
+/**
+ * When a RollingFileOutput starts a new file and which old files it keeps.
+ *
+ * @param maxBytes - Size a file may reach before rolling over; 0 to disable
+ * @param interval - Time based roll over
+ * @param maxFiles - Number of rolled over files to keep; 0 for no limit
+ * @param maxAgeMillis - Age after which rolled over files are deleted, in milliseconds; 0 for no limit
+ * @param compress - Whether to gzip rolled over files
+ */
+public record RollingPolicy(long maxBytes, RolloverInterval interval, int maxFiles, long maxAgeMillis, boolean compress) {
+    public static final long DEFAULT_MAX_BYTES = 100L * 1024 * 1024;
+    public static final int DEFAULT_MAX_FILES = 10;
+
+    public static final RollingPolicy DEFAULT = new RollingPolicy(DEFAULT_MAX_BYTES, RolloverInterval.DAILY, DEFAULT_MAX_FILES, 0, true);
+
+    /**
+     * Validate a RollingPolicy.
+     *
+     * @throws IllegalArgumentException If any limit is negative or interval is null
+     */
+    public RollingPolicy {
+        if (maxBytes < 0 || maxFiles < 0 || maxAgeMillis < 0) {
+            throw new IllegalArgumentException("RollingPolicy limits must not be negative");
+        }
+        if (interval == null) {
+            throw new IllegalArgumentException("RollingPolicy interval must not be null");
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package logging.output;
+
+public enum RolloverInterval {
+    NONE,   // Only roll over on size
+    HOURLY, // Roll over at the start of every hour
+    DAILY,  // Roll over at midnight
+}
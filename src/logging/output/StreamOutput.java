@@ -1,7 +1,9 @@
 package logging.output;
 
 import java.io.PrintStream;
+import java.nio.ByteBuffer;
 
+import logging.LogRecord;
 import logging.format.Formatter;
 
 public class StreamOutput extends Output {
@@ -21,6 +23,27 @@ public class StreamOutput extends Output {
         return true;
     }
 
+    /**
+     * Write an encoded record to this StreamOutput's stream.
+     *
+     * @param bytes - Encoded record, ready for reading
+     * @param record - LogRecord the bytes were encoded from
+     * @return If the bytes were successfully sent
+     */
+    @Override
+    public boolean send(ByteBuffer bytes, LogRecord record) {
+        if (bytes.hasArray()) {
+            stream.write(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining());
+            bytes.position(bytes.limit());
+        } else {
+            byte[] copy = new byte[bytes.remaining()];
+            bytes.get(copy);
+            stream.write(copy, 0, copy.length);
+        }
+        stream.flush();
+        return true;
+    }
+
     /**
      * Get this StreamOutput's stream.
      *
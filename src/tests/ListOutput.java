@@ -0,0 +1,47 @@
+package tests;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import logging.format.Formatter;
+import logging.output.Output;
+
+/**
+ * Output that keeps every message it is sent, for tests to check.
+ */
+public final class ListOutput extends Output {
+    public final List<String> messages = new CopyOnWriteArrayList<>();
+    private final CountDownLatch release;
+
+    @Override
+    public boolean send(String message) {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        messages.add(message);
+        return true;
+    }
+
+    /**
+     * Initialize a ListOutput.
+     *
+     * @param formatter - Formatter; null to use the Logger's
+     */
+    public ListOutput(Formatter formatter) {
+        this(formatter, new CountDownLatch(0));
+    }
+
+    /**
+     * Initialize a ListOutput whose sends block until a latch is released.
+     *
+     * @param formatter - Formatter; null to use the Logger's
+     * @param release - Latch each send waits on
+     */
+    public ListOutput(Formatter formatter, CountDownLatch release) {
+        super(formatter);
+        this.release = release;
+    }
+}
@@ -0,0 +1,56 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import logging.AsyncLogger;
+import logging.LogLevel;
+import logging.async.WaitStrategy;
+import logging.format.Formatter;
+import logging.output.Output;
+
+public class TestAsyncLogger {
+    private static final Formatter MESSAGE_ONLY = new Formatter("{message}", "HH:mm", '\n');
+
+    /**
+     * Output that throws an Error for one message.
+     */
+    private static final class ErrorOutput extends Output {
+        @Override
+        public boolean send(String message) {
+            if (message.startsWith("boom")) {
+                throw new StackOverflowError();
+            }
+            return true;
+        }
+
+        ErrorOutput() {
+            super(MESSAGE_ONLY);
+        }
+    }
+
+    @Test
+    public void testConsumerSurvivesErrors() {
+        ListOutput output = new ListOutput(MESSAGE_ONLY);
+        AsyncLogger logger = new AsyncLogger("tests.async", LogLevel.INFO, MESSAGE_ONLY, 4, WaitStrategy.BLOCKING);
+        logger.addOutput(new ErrorOutput());
+        logger.addOutput(output);
+
+        // Far more records than the buffer holds, so they only get through if the consumer keeps going
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+            logger.info("boom");
+            for (int i = 0; i < 100; i++) {
+                logger.info("after " + i);
+            }
+            logger.shutdown();
+        });
+
+        assertEquals(100, output.messages.size());
+        assertTrue(output.messages.get(0).startsWith("after 0"));
+    }
+}
@@ -0,0 +1,116 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Test;
+
+import logging.AsyncOutput;
+import logging.LogLevel;
+import logging.Logger;
+import logging.async.WaitStrategy;
+import logging.format.Formatter;
+import logging.metrics.OutputMetrics;
+import logging.output.Output;
+
+public class TestAsyncOutput {
+    private static final Formatter MESSAGE_ONLY = new Formatter("{message}", "HH:mm", '\n');
+
+    /**
+     * Output that keeps its messages, but throws an Error for one.
+     */
+    private static final class ErrorOutput extends Output {
+        private final List<String> messages = new CopyOnWriteArrayList<>();
+
+        @Override
+        public boolean send(String message) {
+            if (message.startsWith("boom")) {
+                throw new StackOverflowError();
+            }
+            messages.add(message);
+            return true;
+        }
+
+        ErrorOutput() {
+            super(MESSAGE_ONLY);
+        }
+    }
+
+    @Test
+    public void testStalledOutputOnlyBacksUpItsQueue() throws InterruptedException {
+        CountDownLatch stalled = new CountDownLatch(1);
+        ListOutput slow = new ListOutput(MESSAGE_ONLY, stalled);
+        ListOutput fast = new ListOutput(MESSAGE_ONLY);
+        AsyncOutput async = new AsyncOutput(slow, 4, WaitStrategy.BLOCKING, true, true);
+        OutputMetrics metrics = async.enableMetrics("tests.async");
+        Logger logger = new Logger("tests.async", LogLevel.INFO);
+        logger.addOutput(async);
+        logger.addOutput(fast);
+
+        for (int i = 0; i < 10; i++) {
+            logger.info("message {}", i);
+        }
+        assertEquals(10, fast.messages.size());
+        // One record is stuck in the stalled send, the queue holds the next few and the rest are dropped
+        assertTrue(async.getDropped() >= 5);
+        assertEquals(async.getDropped(), metrics.getDropped());
+        assertTrue(metrics.getQueueDepth() > 0);
+
+        stalled.countDown();
+        async.flush();
+        assertEquals(0, async.getQueueDepth());
+        assertEquals(10, slow.messages.size() + async.getDropped());
+        assertEquals("message 0\n", slow.messages.get(0));
+
+        async.disableMetrics();
+        async.close();
+    }
+
+    @Test
+    public void testGarbageFreeRecordsAreCopied() {
+        ListOutput target = new ListOutput(MESSAGE_ONLY);
+        AsyncOutput async = new AsyncOutput(target);
+        Logger logger = new Logger("tests.async", LogLevel.INFO);
+        logger.enableGarbageFree();
+        logger.addOutput(async);
+
+        for (int i = 0; i < 100; i++) {
+            logger.info("message {}", i);
+        }
+        async.close();
+
+        assertEquals(100, target.messages.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals("message " + i + "\n", target.messages.get(i));
+        }
+    }
+
+    @Test
+    public void testWorkerFailureIsReported() {
+        ErrorOutput target = new ErrorOutput();
+        AsyncOutput async = new AsyncOutput(target);
+        ListOutput errors = new ListOutput(MESSAGE_ONLY);
+        Logger logger = new Logger("tests.async", LogLevel.INFO);
+        logger.addOutput(async);
+        logger.addOutput(errors);
+
+        logger.info("boom");
+        assertFalse(async.flush());
+        assertTrue(async.isRunning());
+
+        // The next send reports the failure, and the Logger disables the Output
+        logger.info("lost");
+        assertFalse(async.isEnabled());
+        assertTrue(errors.messages.stream().anyMatch(message -> message.contains("has been disabled")));
+
+        async.enable();
+        logger.info("after");
+        async.close();
+        assertEquals(List.of("after\n"), target.messages);
+    }
+}
@@ -0,0 +1,161 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import logging.LogLevel;
+import logging.LogRecord;
+import logging.Logger;
+import logging.format.BinaryDecoder;
+import logging.format.BinaryEncoder;
+import logging.format.Formatter;
+import logging.output.BinaryFileOutput;
+
+public class TestBinaryFormat {
+    private static final long BASE = 1_700_000_000_000L;
+    private static final StackTraceElement SITE = new StackTraceElement("tests.Example", "run", "Example.java", 42);
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        String longMessage = "x".repeat(300) + " é 😀";
+        LogRecord[] records = {
+            new LogRecord("first", LogLevel.INFO, "app", BASE + 5, SITE),
+            new LogRecord("{} + {}", new Object[] {1, 2}, LogLevel.WARNING, "app.db", BASE + 3, null),
+            new LogRecord(longMessage, LogLevel.CRITICAL, "app", BASE + 100_000, SITE),
+        };
+
+        BinaryEncoder encoder = new BinaryEncoder(BASE);
+        ByteArrayOutputStream file = new ByteArrayOutputStream();
+        for (LogRecord record : records) {
+            ByteBuffer bytes = encoder.encode(record);
+            file.write(bytes.array(), bytes.position(), bytes.remaining());
+        }
+
+        Formatter formatter = new Formatter("{time} [{level}] {name} - {message} ({filename}:{line})", "HH:mm:ss.SSS");
+        try (BinaryDecoder decoder = new BinaryDecoder(new ByteArrayInputStream(file.toByteArray()))) {
+            for (LogRecord record : records) {
+                LogRecord decoded = decoder.next();
+                assertEquals(formatter.format(record), formatter.format(decoded));
+                assertEquals(record.timestamp(), decoded.timestamp());
+            }
+            assertNull(decoder.next());
+        }
+    }
+
+    @Test
+    public void testFieldsAndTags() throws IOException {
+        LogRecord[] records = {
+            new LogRecord("first", LogLevel.INFO, "app", BASE, null,
+                new String[] {"user", "owner"}, new Object[] {"bob", null}, new String[] {"audit"}),
+            new LogRecord("second", LogLevel.INFO, "app", BASE, null,
+                new String[] {"user", "ms"}, new Object[] {"alice", 12}, new String[] {"audit", "slow"}),
+        };
+
+        BinaryEncoder encoder = new BinaryEncoder(BASE);
+        ByteArrayOutputStream file = new ByteArrayOutputStream();
+        for (LogRecord record : records) {
+            ByteBuffer bytes = encoder.encode(record);
+            file.write(bytes.array(), bytes.position(), bytes.remaining());
+        }
+
+        Formatter formatter = new Formatter("{message} {fields}", "HH:mm");
+        try (BinaryDecoder decoder = new BinaryDecoder(new ByteArrayInputStream(file.toByteArray()))) {
+            for (LogRecord record : records) {
+                LogRecord decoded = decoder.next();
+                assertEquals(formatter.format(record), formatter.format(decoded));
+                assertEquals(record.tagCount(), decoded.tagCount());
+                for (int i = 0; i < record.tagCount(); i++) {
+                    assertEquals(record.tag(i), decoded.tag(i));
+                }
+            }
+            assertNull(decoder.next());
+        }
+    }
+
+    @Test
+    public void testTruncatedRecordEndsLog() throws IOException {
+        BinaryEncoder encoder = new BinaryEncoder(BASE);
+        ByteArrayOutputStream file = new ByteArrayOutputStream();
+        for (int i = 0; i < 2; i++) {
+            ByteBuffer bytes = encoder.encode(new LogRecord("message " + i, LogLevel.INFO, "app", BASE + i, null));
+            file.write(bytes.array(), bytes.position(), bytes.remaining());
+        }
+        byte[] truncated = Arrays.copyOf(file.toByteArray(), file.size() - 3);
+
+        try (BinaryDecoder decoder = new BinaryDecoder(new ByteArrayInputStream(truncated))) {
+            assertEquals("message 0", decoder.next().message());
+            assertNull(decoder.next());
+        }
+    }
+
+    @Test
+    public void testLogFromArgumentToString(@TempDir Path dir) throws IOException {
+        String path = dir.resolve("app.logb").toString();
+        BinaryFileOutput output = new BinaryFileOutput(path, true);
+        Logger logger = new Logger("app", LogLevel.INFO);
+        logger.addOutput(output);
+
+        Object arg = new Object() {
+            @Override
+            public String toString() {
+                logger.warn("computing toString");
+                return "ARG";
+            }
+        };
+        logger.info("value={}", arg);
+        Object broken = new Object() {
+            @Override
+            public String toString() {
+                throw new IllegalStateException("broken");
+            }
+        };
+        assertThrows(IllegalStateException.class, () -> logger.error("broken={}", broken));
+        logger.info("after");
+        output.close();
+
+        try (BinaryDecoder decoder = new BinaryDecoder(new FileInputStream(path))) {
+            assertEquals("computing toString", decoder.next().message());
+            assertEquals("value=ARG", decoder.next().message());
+            LogRecord after = decoder.next();
+            assertEquals("after", after.message());
+            assertEquals("app", after.loggerName());
+            assertEquals("TestBinaryFormat.java", after.filename());
+            assertNull(decoder.next());
+        }
+    }
+
+    @Test
+    public void testRollbackDefinesIdsAgain() throws IOException {
+        BinaryEncoder encoder = new BinaryEncoder(BASE);
+        // Never written, as if the Output had failed
+        String[] keys = {"user"};
+        String[] tags = {"audit"};
+        encoder.encode(new LogRecord("lost", LogLevel.INFO, "app", BASE + 1, SITE, keys, new Object[] {"bob"}, tags));
+        encoder.rollback();
+
+        ByteBuffer bytes = encoder.encode(new LogRecord("kept", LogLevel.INFO, "app", BASE + 2, SITE, keys, new Object[] {"alice"}, tags));
+        try (BinaryDecoder decoder = new BinaryDecoder(new ByteArrayInputStream(bytes.array(), bytes.position(), bytes.remaining()))) {
+            LogRecord decoded = decoder.next();
+            assertEquals("kept", decoded.message());
+            assertEquals("app", decoded.loggerName());
+            assertEquals(42, decoded.lineNumber());
+            assertEquals(BASE + 2, decoded.timestamp());
+            assertEquals("alice", decoded.fieldValue(0));
+            assertTrue(decoded.hasTag("audit"));
+            assertNull(decoder.next());
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import logging.LogLevel;
+import logging.Logger;
+import logging.format.Formatter;
+import logging.output.BufferedFileOutput;
+import logging.output.BufferedOutput;
+import logging.output.FlushPolicy;
+import logging.output.FsyncPolicy;
+
+public class TestBufferedOutput {
+    private static final Formatter MESSAGE_ONLY = new Formatter("{message}", "HH:mm", '\n');
+
+    @TempDir
+    Path dir;
+
+    /**
+     * BufferedOutput that keeps every batch it writes out.
+     */
+    private static final class BatchOutput extends BufferedOutput {
+        final List<String> batches = new CopyOnWriteArrayList<>();
+
+        @Override
+        protected void write(ByteBuffer bytes) {
+            byte[] batch = new byte[bytes.remaining()];
+            bytes.get(batch);
+            batches.add(new String(batch, StandardCharsets.UTF_8));
+        }
+
+        BatchOutput(FlushPolicy flushPolicy) {
+            super(MESSAGE_ONLY, flushPolicy);
+        }
+    }
+
+    private static Logger logger(BufferedOutput output) {
+        Logger logger = new Logger("tests.buffered", LogLevel.DEBUG);
+        logger.addOutput(output);
+        return logger;
+    }
+
+    /**
+     * Wait for the background flusher to write something out.
+     */
+    private static void awaitBatch(BatchOutput output) throws InterruptedException {
+        for (int wait = 0; wait < 250 && output.batches.isEmpty(); wait++) {
+            Thread.sleep(20);
+        }
+    }
+
+    private static void awaitContent(Path file, String content) throws IOException, InterruptedException {
+        for (int wait = 0; wait < 250 && !Files.readString(file).equals(content); wait++) {
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    public void testGroupCommit() throws InterruptedException {
+        BatchOutput output = new BatchOutput(new FlushPolicy(64 * 1024, 0, null));
+        Logger logger = logger(output);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 50; i++) {
+                    logger.info("record");
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(output.batches.isEmpty());
+        assertEquals(200 * "record\n".length(), output.getBufferedBytes());
+
+        // Every record from every thread goes out in a single write
+        assertTrue(output.flush());
+        assertEquals(List.of("record\n".repeat(200)), output.batches);
+        assertEquals(0, output.getBufferedBytes());
+        output.close();
+    }
+
+    @Test
+    public void testFlushOnSize() {
+        BatchOutput output = new BatchOutput(new FlushPolicy(64, 0, null));
+        Logger logger = logger(output);
+        for (int i = 0; i < 10; i++) {
+            logger.info("message " + i);
+        }
+
+        // Each batch is written out before it overflows, and ends on a record boundary
+        assertFalse(output.batches.isEmpty());
+        for (String batch : output.batches) {
+            assertTrue(batch.length() <= 64, batch);
+            assertTrue(batch.endsWith("\n"), batch);
+        }
+        output.close();
+
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 10; i++) {
+            expected.append("message ").append(i).append('\n');
+        }
+        assertEquals(expected.toString(), String.join("", output.batches));
+    }
+
+    @Test
+    public void testFlushOnInterval() throws InterruptedException {
+        BatchOutput output = new BatchOutput(new FlushPolicy(1024, 20, null));
+        logger(output).info("waiting");
+
+        awaitBatch(output);
+        assertEquals(List.of("waiting\n"), output.batches);
+        output.close();
+    }
+
+    @Test
+    public void testNoIntervalKeepsBuffer() throws InterruptedException {
+        BatchOutput output = new BatchOutput(new FlushPolicy(1024, 0, null));
+        logger(output).info("waiting");
+
+        Thread.sleep(100);
+        assertTrue(output.batches.isEmpty());
+        output.close();
+    }
+
+    @Test
+    public void testFlushOnLevel() {
+        BatchOutput output = new BatchOutput(new FlushPolicy(1024, 0, LogLevel.ERROR));
+        Logger logger = logger(output);
+
+        logger.info("first");
+        logger.warning("second");
+        assertTrue(output.batches.isEmpty());
+
+        // The error takes everything buffered before it along
+        logger.error("third");
+        assertEquals(List.of("first\nsecond\nthird\n"), output.batches);
+        output.close();
+    }
+
+    @Test
+    public void testFlushPolicyLevels() {
+        FlushPolicy policy = new FlushPolicy(16, 0, LogLevel.WARNING);
+        assertFalse(policy.flushesOn(LogLevel.INFO));
+        assertTrue(policy.flushesOn(LogLevel.WARNING));
+        assertTrue(policy.flushesOn(LogLevel.CRITICAL));
+        assertFalse(new FlushPolicy(16, 0, null).flushesOn(LogLevel.CRITICAL));
+
+        assertThrows(IllegalArgumentException.class, () -> new FlushPolicy(15, 0, null));
+        assertThrows(IllegalArgumentException.class, () -> new FlushPolicy(16, -1, null));
+    }
+
+    @Test
+    public void testCloseWritesBuffer() {
+        BatchOutput output = new BatchOutput(new FlushPolicy(1024, 0, null));
+        Logger logger = logger(output);
+        logger.info("first");
+        logger.info("second");
+        output.close();
+
+        assertEquals(List.of("first\nsecond\n"), output.batches);
+        assertTrue(output.isClosed());
+        assertFalse(output.send("after close"));
+        assertFalse(output.flush());
+    }
+
+    @Test
+    public void testFileCloseWritesBuffer() throws IOException {
+        for (FsyncPolicy fsync : FsyncPolicy.values()) {
+            Path file = dir.resolve(fsync + ".log");
+            BufferedFileOutput output = new BufferedFileOutput(
+                file.toString(), MESSAGE_ONLY, new FlushPolicy(1024, 0, null), fsync, 1000
+            );
+            Logger logger = logger(output);
+            logger.info("first");
+            logger.info("second");
+            assertEquals(0, Files.size(file), fsync.name());
+
+            output.close();
+            assertEquals("first\nsecond\n", Files.readString(file), fsync.name());
+        }
+    }
+
+    @Test
+    public void testFsyncPerBatch() throws IOException {
+        Path file = dir.resolve("app.log");
+        BufferedFileOutput output = new BufferedFileOutput(
+            file.toString(), MESSAGE_ONLY, new FlushPolicy(1024, 0, LogLevel.ERROR), FsyncPolicy.PER_BATCH, 0
+        );
+        Logger logger = logger(output);
+        logger.info("first");
+        logger.error("second");
+
+        assertEquals("first\nsecond\n", Files.readString(file));
+        assertEquals(FsyncPolicy.PER_BATCH, output.getFsyncPolicy());
+        output.close();
+    }
+
+    @Test
+    public void testFsyncPeriodic() throws IOException, InterruptedException {
+        Path file = dir.resolve("app.log");
+        // No flush interval, the fsync interval alone writes the buffer out
+        BufferedFileOutput output = new BufferedFileOutput(
+            file.toString(), MESSAGE_ONLY, new FlushPolicy(1024, 0, null), FsyncPolicy.PERIODIC, 20
+        );
+        logger(output).info("synced");
+
+        awaitContent(file, "synced\n");
+        assertEquals("synced\n", Files.readString(file));
+        output.close();
+
+        assertThrows(IllegalArgumentException.class, () -> new BufferedFileOutput(
+            dir.resolve("bad.log").toString(), MESSAGE_ONLY, FlushPolicy.DEFAULT, FsyncPolicy.PERIODIC, 0
+        ));
+    }
+
+    @Test
+    public void testFsyncNever() throws IOException, InterruptedException {
+        Path file = dir.resolve("app.log");
+        BufferedFileOutput output = new BufferedFileOutput(
+            file.toString(), MESSAGE_ONLY, new FlushPolicy(1024, 20, null), FsyncPolicy.NEVER, 0
+        );
+        logger(output).info("flushed");
+
+        awaitContent(file, "flushed\n");
+        assertEquals("flushed\n", Files.readString(file));
+        output.close();
+    }
+}
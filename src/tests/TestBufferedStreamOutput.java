@@ -0,0 +1,112 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+
+import logging.LogLevel;
+import logging.Logger;
+import logging.format.Formatter;
+import logging.output.BufferedStreamOutput;
+import logging.output.FlushPolicy;
+
+public class TestBufferedStreamOutput {
+    private static final Formatter MESSAGE_ONLY = new Formatter("{message}", "HH:mm", '\n');
+
+    private static Logger logger(BufferedStreamOutput output) {
+        Logger logger = new Logger("tests.stream", LogLevel.DEBUG);
+        logger.addOutput(output);
+        return logger;
+    }
+
+    /**
+     * Logs to stdout by file descriptor, run in its own JVM so the test can read what it printed.
+     */
+    public static final class FileDescriptorMain {
+        public static void main(String[] args) {
+            System.out.print("printed first\n");
+            BufferedStreamOutput output = new BufferedStreamOutput(System.out, MESSAGE_ONLY, FlushPolicy.DEFAULT, true);
+            Logger logger = logger(output);
+            logger.info("first");
+            logger.info("second");
+            output.close();
+        }
+    }
+
+    @Test
+    public void testBuffering() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BufferedStreamOutput output = new BufferedStreamOutput(
+            new PrintStream(bytes, false, StandardCharsets.UTF_8), MESSAGE_ONLY, new FlushPolicy(1024, 0, null)
+        );
+        Logger logger = logger(output);
+        logger.info("first");
+        logger.info("second");
+        assertEquals(0, bytes.size());
+        assertFalse(output.usesFileDescriptor());
+
+        assertTrue(output.flush());
+        assertEquals("first\nsecond\n", bytes.toString(StandardCharsets.UTF_8));
+        logger.info("third");
+        output.close();
+        assertEquals("first\nsecond\nthird\n", bytes.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testFlushOnLevel() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BufferedStreamOutput output = new BufferedStreamOutput(
+            new PrintStream(bytes, false, StandardCharsets.UTF_8), MESSAGE_ONLY, new FlushPolicy(1024, 0, LogLevel.ERROR)
+        );
+        Logger logger = logger(output);
+        logger.info("first");
+        assertEquals(0, bytes.size());
+
+        logger.error("second");
+        assertEquals("first\nsecond\n", bytes.toString(StandardCharsets.UTF_8));
+        output.close();
+    }
+
+    @Test
+    public void testLargeBatch() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        // Bigger than the scratch array batches are copied out through
+        BufferedStreamOutput output = new BufferedStreamOutput(
+            new PrintStream(bytes, false, StandardCharsets.UTF_8), MESSAGE_ONLY, new FlushPolicy(64 * 1024, 0, null)
+        );
+        String message = "x".repeat(20_000);
+        logger(output).info(message);
+        output.close();
+
+        assertEquals(message + "\n", bytes.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testFileDescriptorNeedsStdStream() {
+        PrintStream stream = new PrintStream(new ByteArrayOutputStream());
+        assertThrows(IllegalArgumentException.class,
+            () -> new BufferedStreamOutput(stream, MESSAGE_ONLY, FlushPolicy.DEFAULT, true));
+    }
+
+    @Test
+    public void testFileDescriptor() throws IOException, InterruptedException {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        Process process = new ProcessBuilder(
+            java, "-cp", System.getProperty("java.class.path"), FileDescriptorMain.class.getName()
+        ).redirectErrorStream(true).start();
+
+        String printed = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertEquals(0, process.waitFor(), printed);
+        // What was printed through the PrintStream comes out before the first batch
+        assertEquals("printed first\nfirst\nsecond\n", printed);
+    }
+}
@@ -0,0 +1,88 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Test;
+
+import logging.LogLevel;
+import logging.Logger;
+import logging.format.Formatter;
+
+public class TestConcurrentConfig {
+    private static final Formatter MESSAGE_ONLY = new Formatter("{message}", "HH:mm", '\n');
+    private static final int THREADS = 4;
+    private static final int LOGS_PER_THREAD = 5_000;
+
+    @Test
+    public void testOutputsChangedWhileLogging() throws InterruptedException {
+        ListOutput permanent = new ListOutput(MESSAGE_ONLY);
+        Logger logger = new Logger("tests.concurrent", LogLevel.INFO);
+        logger.addOutput(permanent);
+
+        Queue<Throwable> errors = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> loggers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            loggers.add(new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < LOGS_PER_THREAD; i++) {
+                        logger.info(thread + "-" + i);
+                    }
+                } catch (Throwable e) {
+                    errors.add(e);
+                }
+            }));
+        }
+
+        List<ListOutput> transients = new ArrayList<>();
+        Thread mutator = new Thread(() -> {
+            try {
+                start.await();
+                for (int i = 0; i < 500; i++) {
+                    ListOutput output = new ListOutput(MESSAGE_ONLY);
+                    transients.add(output);
+                    logger.addOutput(output);
+                    logger.setFormatter(i % 2 == 0 ? MESSAGE_ONLY : new Formatter("{message}", "HH:mm", '\n'));
+                    logger.removeOutput(output);
+                }
+            } catch (Throwable e) {
+                errors.add(e);
+            }
+        });
+
+        for (Thread thread : loggers) {
+            thread.start();
+        }
+        mutator.start();
+        start.countDown();
+        for (Thread thread : loggers) {
+            thread.join();
+        }
+        mutator.join();
+
+        assertTrue(errors.isEmpty(), errors.toString());
+        // The Output that stayed attached saw every record exactly once, in order per thread
+        assertEquals(THREADS * LOGS_PER_THREAD, permanent.messages.size());
+        int[] next = new int[THREADS];
+        for (String message : permanent.messages) {
+            String[] parts = message.strip().split("-");
+            int thread = Integer.parseInt(parts[0]);
+            assertEquals(next[thread]++, Integer.parseInt(parts[1]));
+        }
+        assertEquals(List.of(permanent), logger.getOutputs());
+
+        // Removed Outputs stop receiving records
+        int received = transients.stream().mapToInt(output -> output.messages.size()).sum();
+        logger.info("after");
+        assertEquals(received, transients.stream().mapToInt(output -> output.messages.size()).sum());
+    }
+}
@@ -0,0 +1,105 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import logging.LogLevel;
+import logging.Logger;
+import logging.format.Formatter;
+
+public class TestDeduplication {
+    private final ListOutput output = new ListOutput(new Formatter("{level} {message}", "HH:mm", '\n'));
+
+    private Logger logger() {
+        Logger logger = new Logger("tests.dedup", LogLevel.INFO);
+        logger.addOutput(output);
+        return logger;
+    }
+
+    @Test
+    public void testBurstCollapsed() {
+        Logger logger = logger();
+        logger.enableDeduplication(60_000);
+
+        for (int i = 0; i < 5; i++) {
+            logger.error("Connection to {} failed", "db");
+        }
+        logger.error("Connection to {} failed", "cache");
+        logger.atError().with("attempt", 1).log("Retrying");
+        logger.atError().with("attempt", 2).log("Retrying");
+        logger.info("Recovered");
+
+        assertEquals(List.of(
+            "ERROR Connection to db failed\n",
+            "ERROR Last message repeated 4 times\n",
+            "ERROR Connection to cache failed\n",
+            "ERROR Retrying\n",
+            "ERROR Retrying\n",
+            "INFO Recovered\n"
+        ), output.messages);
+    }
+
+    @Test
+    public void testTimeoutReportsRepeats() throws InterruptedException {
+        Logger logger = logger();
+        logger.enableDeduplication(50);
+
+        for (int i = 0; i < 3; i++) {
+            logger.warn("Disk almost full");
+        }
+        for (int wait = 0; wait < 100 && output.messages.size() < 2; wait++) {
+            Thread.sleep(20);
+        }
+
+        assertEquals(List.of("WARN Disk almost full\n", "WARN Last message repeated 2 times\n"), output.messages);
+    }
+
+    @Test
+    public void testDisableReportsRepeats() {
+        Logger logger = logger();
+        logger.enableDeduplication();
+        logger.info("same");
+        logger.info("same");
+        logger.disableDeduplication();
+        logger.info("same");
+
+        assertEquals(List.of("INFO same\n", "INFO Last message repeated 1 times\n", "INFO same\n"), output.messages);
+    }
+
+    @Test
+    public void testHashCollisionsAreNotRepeats() {
+        Logger logger = logger();
+        logger.enableDeduplication(60_000);
+
+        // Long.hashCode(0) == Long.hashCode(-1), and (1, 0) hashes like (0, 31)
+        logger.info("balance={}", 0L);
+        logger.info("balance={}", -1L);
+        logger.info("{} {}", 1, 0);
+        logger.info("{} {}", 0, 31);
+        logger.atInfo().with("id", 0L).log("event");
+        logger.atInfo().with("id", -1L).log("event");
+
+        assertEquals(List.of(
+            "INFO balance=0\n",
+            "INFO balance=-1\n",
+            "INFO 1 0\n",
+            "INFO 0 31\n",
+            "INFO event\n",
+            "INFO event\n"
+        ), output.messages);
+    }
+
+    @Test
+    public void testResetReportsRepeats() {
+        Logger logger = logger();
+        logger.enableDeduplication();
+        logger.info("same");
+        logger.info("same");
+        logger.resetConfig();
+
+        assertEquals(List.of("INFO same\n", "INFO Last message repeated 1 times\n"), output.messages);
+    }
+}
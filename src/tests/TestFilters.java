@@ -0,0 +1,80 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import logging.LogLevel;
+import logging.Logger;
+import logging.filter.Filter;
+import logging.filter.Filters;
+import logging.format.Formatter;
+
+public class TestFilters {
+    private static final class Loud {
+        private int renders;
+
+        @Override
+        public String toString() {
+            renders++;
+            return "loud";
+        }
+    }
+
+    @Test
+    public void testLoggerFilters() {
+        ListOutput output = new ListOutput(new Formatter("{message}", "HH:mm", '\n'));
+        Logger logger = new Logger("app.db.pool", LogLevel.DEBUG);
+        logger.addOutput(output);
+
+        logger.addFilter(Filters.loggerPrefix("app.db"));
+        logger.addFilter(Filters.anyOf(Filters.minLevel(LogLevel.WARN), Filters.tagged("audit")));
+        logger.info("plain");
+        logger.atInfo().tag("audit").log("audited");
+        logger.warn("warned");
+        assertEquals(List.of("audited\n", "warned\n"), output.messages);
+
+        logger.removeAllFilters();
+        logger.addFilter(Filters.loggerPrefix("app.d"));
+        logger.info("wrong prefix");
+        assertEquals(2, output.messages.size());
+    }
+
+    @Test
+    public void testPatternFilterSkipsArguments() {
+        ListOutput output = new ListOutput(new Formatter("{message}", "HH:mm", '\n'));
+        Logger logger = new Logger("app", LogLevel.INFO);
+        logger.addOutput(output);
+        Loud loud = new Loud();
+
+        Filter noHealth = Filters.not(Filters.pattern(p -> p.startsWith("Health")));
+        logger.addFilter(noHealth);
+        logger.info("Health check {}", loud);
+        logger.info("Request {}", loud);
+        assertEquals(List.of("Request loud\n"), output.messages);
+        assertEquals(1, loud.renders);
+
+        logger.removeFilter(noHealth);
+        assertTrue(logger.getFilters().isEmpty());
+        logger.info("Health check {}", loud);
+        assertEquals(2, output.messages.size());
+    }
+
+    @Test
+    public void testOutputFilters() {
+        ListOutput everything = new ListOutput(new Formatter("{message}", "HH:mm", '\n'));
+        ListOutput errors = new ListOutput(new Formatter("{message}", "HH:mm", '\n'));
+        errors.addFilter(Filters.minLevel(LogLevel.ERROR));
+        Logger logger = new Logger("app", LogLevel.INFO);
+        logger.addOutput(everything);
+        logger.addOutput(errors);
+
+        logger.info("one");
+        logger.error("two {}", 2);
+        assertEquals(List.of("one\n", "two 2\n"), everything.messages);
+        assertEquals(List.of("two 2\n"), errors.messages);
+    }
+}
@@ -0,0 +1,207 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import logging.LogLevel;
+import logging.LogRecord;
+import logging.Logger;
+import logging.format.ColorFormatter;
+import logging.format.Formatter;
+import logging.format.TextEncoder;
+import logging.format.color.Ansi;
+import logging.format.color.Color;
+
+public class TestFormatter {
+    private static final class CountingFormatter extends Formatter {
+        private int calls;
+
+        @Override
+        public void formatTo(LogRecord record, StringBuilder builder) {
+            calls++;
+            super.formatTo(record, builder);
+        }
+
+        private CountingFormatter(String template) {
+            super(template, "HH:mm", '\n');
+        }
+    }
+
+    private static final LogRecord RECORD = new LogRecord(
+        "hello",
+        LogLevel.WARN,
+        "test",
+        LocalDateTime.of(2024, 1, 2, 3, 4, 5),
+        new StackTraceElement("tests.Example", "run", "Example.java", 42)
+    );
+
+    @Test
+    public void testDefaultTemplate() {
+        String expected = "[2024-01-02 03:04:05] [WARN] test - hello (Example.java:42)\n";
+        String got = new Formatter().format(RECORD);
+        assertEquals(expected, got);
+    }
+
+    @Test
+    public void testEveryField() {
+        Formatter formatter = new Formatter("{level}/{levelNumber}/{name}/{filename}/{line}/{time}: {message}", "HH:mm", '!');
+        String expected = "WARN/2/test/Example.java/42/03:04: hello!";
+        String got = formatter.format(RECORD);
+        assertEquals(expected, got);
+    }
+
+    @Test
+    public void testColorTemplates() {
+        ColorFormatter formatter = new ColorFormatter("{level}: {message}", "HH:mm", '\n');
+        assertEquals("\033[33mWARN: hello\033[0m\n", formatter.format(RECORD));
+
+        formatter.setWarnColor(Ansi.fromColor(Color.CYAN));
+        assertEquals("\033[36mWARN: hello\033[0m\n", formatter.format(RECORD));
+        // Changing another level's color leaves this one alone
+        formatter.setErrorColor(Ansi.fromColor(Color.MAGENTA));
+        assertEquals("\033[36mWARN: hello\033[0m\n", formatter.format(RECORD));
+
+        formatter.setColors(null, null, Ansi.fromColor(Color.WHITE), null, null);
+        assertEquals("\033[37mWARN: hello\033[0m\n", formatter.format(RECORD));
+
+        formatter.resetWarnColor();
+        assertEquals("\033[33mWARN: hello\033[0m\n", formatter.format(RECORD));
+    }
+
+    @Test
+    public void testLiteralBraces() {
+        Formatter formatter = new Formatter("{{message}} {unknown} {", "HH:mm", '\n');
+        String expected = "{hello} {unknown} {\n";
+        String got = formatter.format(RECORD);
+        assertEquals(expected, got);
+    }
+
+    @Test
+    public void testPlaceholdersInMessageAreNotExpanded() {
+        LogRecord record = new LogRecord("{level} {name}", LogLevel.INFO, "test", RECORD.time(), null);
+        String expected = "{level} {name}\n";
+        String got = new Formatter("{message}").format(record);
+        assertEquals(expected, got);
+    }
+
+    @Test
+    public void testSubSecondTimestamps() {
+        LocalDateTime time = LocalDateTime.of(2024, 1, 2, 3, 4, 5, 67_000_000);
+        LogRecord record = new LogRecord("hello", LogLevel.INFO, "test", time, null);
+
+        assertEquals("03:04:05.067\n", new Formatter("{time}", "HH:mm:ss.SSS").format(record));
+        assertEquals("05,0 s\n", new Formatter("{time}", "ss,S 's'").format(record));
+        assertEquals("067000 'S'\n", new Formatter("{time}", "SSSSSS '''S'''").format(record));
+        // Formatted twice to hit the cached second
+        Formatter formatter = new Formatter("{time}", "SSS yyyy");
+        assertEquals("067 2024\n", formatter.format(record));
+        LogRecord later = new LogRecord("hello", LogLevel.INFO, "test", time.plusNanos(900_000_000), null);
+        assertEquals("967 2024\n", formatter.format(later));
+    }
+
+    @Test
+    public void testUsesLocation() {
+        assertTrue(new Formatter().usesLocation());
+        assertTrue(new Formatter("{filepath}").usesLocation());
+        assertFalse(new Formatter("[{time}] {message}").usesLocation());
+    }
+
+    @Test
+    public void testUnknownLocation() {
+        LogRecord record = new LogRecord("hello", LogLevel.INFO, "test", RECORD.time(), null);
+        String expected = "?:-1\n";
+        String got = new Formatter("{filename}:{line}").format(record);
+        assertEquals(expected, got);
+    }
+
+    @Test
+    public void testParameterizedMessage() {
+        Formatter formatter = new Formatter("{message}", "HH:mm", '\n');
+        Object[] args = {"a", null, new int[] {1, 2}, "unused"};
+        LogRecord record = new LogRecord("{} {} {} \\{} {}", args, LogLevel.INFO, "test", 0L, null);
+
+        assertEquals("a null [1, 2] {} unused\n", formatter.format(record));
+        assertEquals("a null [1, 2] {} unused", record.message());
+
+        LogRecord missing = new LogRecord("{} and {}", new Object[] {1}, LogLevel.INFO, "test", 0L, null);
+        assertEquals("1 and {}", missing.message());
+    }
+
+    @Test
+    public void testTextEncoder() {
+        String message = "ascii é ж 😀 end \uD800 lone";
+        LogRecord record = new LogRecord(message, LogLevel.INFO, "test", RECORD.time(), null);
+        TextEncoder encoder = new TextEncoder(new Formatter("{level} {message}", "HH:mm", '\n'));
+
+        ByteBuffer bytes = encoder.encode(record);
+        byte[] got = new byte[bytes.remaining()];
+        bytes.get(got);
+        assertArrayEquals(("INFO " + message + "\n").getBytes(StandardCharsets.UTF_8), got);
+    }
+
+    @Test
+    public void testSharedFormatterFormatsOnce() {
+        CountingFormatter shared = new CountingFormatter("{message}");
+        CountingFormatter own = new CountingFormatter("{level} {message}");
+        ListOutput first = new ListOutput(null);
+        ListOutput second = new ListOutput(shared);
+        ListOutput third = new ListOutput(own);
+        Logger logger = new Logger("test", LogLevel.INFO, shared);
+        logger.addOutput(first);
+        logger.addOutput(second);
+        logger.addOutput(third);
+
+        logger.info("one");
+        logger.enableGarbageFree();
+        logger.info("two");
+
+        assertEquals(2, shared.calls);
+        assertEquals(2, own.calls);
+        assertEquals("one\n", first.messages.get(0));
+        assertEquals("one\n", second.messages.get(0));
+        assertEquals("INFO one\n", third.messages.get(0));
+        assertEquals("two\n", second.messages.get(1));
+        assertEquals("INFO two\n", third.messages.get(1));
+    }
+
+    @Test
+    public void testLogFromArgumentToString() {
+        Formatter formatter = new Formatter("[{level}] {message} <end>", "HH:mm", '\n');
+        ListOutput text = new ListOutput(formatter);
+        ListOutput encoded = new ListOutput(null);
+        encoded.setEncoder(new TextEncoder(formatter));
+        ListOutput otherText = new ListOutput(formatter);
+        ListOutput otherEncoded = new ListOutput(null);
+        otherEncoded.setEncoder(new TextEncoder(formatter));
+        Logger other = new Logger("tests.other", LogLevel.INFO);
+        other.addOutput(otherText);
+        other.addOutput(otherEncoded);
+        Logger logger = new Logger("tests.nested", LogLevel.INFO);
+        logger.addOutput(text);
+        logger.addOutput(encoded);
+
+        Object arg = new Object() {
+            @Override
+            public String toString() {
+                other.info("computing toString");
+                return "ARG";
+            }
+        };
+        logger.info("value={}", arg);
+
+        assertEquals(List.of("[INFO] value=ARG <end>\n"), text.messages);
+        assertEquals(List.of("[INFO] value=ARG <end>\n"), encoded.messages);
+        // Rendered once for each of the Logger's Outputs
+        assertEquals(List.of("[INFO] computing toString <end>\n", "[INFO] computing toString <end>\n"), otherText.messages);
+        assertEquals(otherText.messages, otherEncoded.messages);
+    }
+}
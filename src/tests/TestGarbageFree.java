@@ -0,0 +1,83 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+
+import org.junit.jupiter.api.Test;
+
+import com.sun.management.ThreadMXBean;
+
+import logging.LogLevel;
+import logging.Logger;
+import logging.format.Formatter;
+import logging.output.BufferedOutput;
+import logging.output.FlushPolicy;
+
+public class TestGarbageFree {
+    private static final int WARMUP_CALLS = 50_000;
+    private static final int MEASURED_CALLS = 10_000;
+
+    /**
+     * BufferedOutput that only counts the bytes written out.
+     */
+    private static final class CountingOutput extends BufferedOutput {
+        long written;
+
+        @Override
+        protected void write(ByteBuffer bytes) {
+            written += bytes.remaining();
+            bytes.position(bytes.limit());
+        }
+
+        CountingOutput() {
+            super(new Formatter("{level} {name} - {message}", "HH:mm", '\n'), new FlushPolicy(4096, 0, null));
+        }
+    }
+
+    private static void logMany(Logger logger, int calls) {
+        for (int i = 0; i < calls; i++) {
+            logger.info("static message");
+            // Small Integers come from the JVM's box cache
+            logger.info("user {} did {} at {}", "bob", "login", i & 127);
+        }
+    }
+
+    @Test
+    public void testSteadyStateAllocatesNothing() {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        CountingOutput output = new CountingOutput();
+        Logger logger = new Logger("tests.gc", LogLevel.INFO);
+        logger.addOutput(output);
+        logger.enableGarbageFree();
+        logMany(logger, WARMUP_CALLS);
+
+        long thread = Thread.currentThread().threadId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        logMany(logger, MEASURED_CALLS);
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+        // Allow for a few stray allocations (e.g. by the JIT swapping code in), but not one per call
+        assertTrue(allocated < MEASURED_CALLS, "allocated " + allocated + " bytes over " + MEASURED_CALLS * 2 + " calls");
+
+        // Every record still made it out
+        output.flush();
+        assertEquals(expectedBytes(WARMUP_CALLS) + expectedBytes(MEASURED_CALLS), output.written);
+        output.close();
+    }
+
+    private static long expectedBytes(int calls) {
+        long total = 0;
+        for (int i = 0; i < calls; i++) {
+            total += "INFO tests.gc - static message\n".length();
+            total += ("INFO tests.gc - user bob did login at " + (i & 127) + "\n").length();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,90 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+import logging.LogLevel;
+import logging.Logger;
+import logging.format.Formatter;
+
+public class TestLazyMessages {
+    private static final class Counted implements Supplier<Object> {
+        private int renders;
+        private int supplies;
+
+        @Override
+        public String toString() {
+            renders++;
+            return "counted";
+        }
+
+        @Override
+        public Object get() {
+            supplies++;
+            return this;
+        }
+    }
+
+    private static Logger logger(ListOutput output) {
+        Logger logger = new Logger("tests.lazy", LogLevel.WARN);
+        logger.addOutput(output);
+        return logger;
+    }
+
+    @Test
+    public void testDisabledLevelDoesNoWork() {
+        ListOutput output = new ListOutput(new Formatter("{message}", "HH:mm", '\n'));
+        Logger logger = logger(output);
+        Counted counted = new Counted();
+
+        logger.debug(counted);
+        logger.debug((Supplier<?>) counted);
+        logger.debug("{}", counted);
+        logger.debug("{} {}", counted, counted);
+        logger.debug("{} {} {}", counted, counted, counted);
+        logger.debug("{} {} {} {}", counted, counted, counted, counted);
+        logger.info(counted);
+        logger.info((Supplier<?>) counted);
+        logger.log((Supplier<?>) counted, LogLevel.INFO);
+        logger.log(LogLevel.INFO, "{}", counted);
+        logger.atInfo().with("key", counted).log("{}", counted);
+
+        assertEquals(0, counted.renders);
+        assertEquals(0, counted.supplies);
+        assertTrue(output.messages.isEmpty());
+    }
+
+    @Test
+    public void testEnabledLevelRendersOnce() {
+        ListOutput output = new ListOutput(new Formatter("{message}", "HH:mm", '\n'));
+        Logger logger = logger(output);
+        Counted counted = new Counted();
+
+        logger.warn((Supplier<?>) counted);
+        logger.error("value {}", counted);
+
+        assertEquals(1, counted.supplies);
+        assertEquals(2, counted.renders);
+        assertEquals(List.of("counted\n", "value counted\n"), output.messages);
+    }
+
+    @Test
+    public void testBaseLevelChangeTakesEffect() {
+        ListOutput output = new ListOutput(new Formatter("{message}", "HH:mm", '\n'));
+        Logger logger = logger(output);
+        Counted counted = new Counted();
+
+        logger.setBaseLevel(LogLevel.DEBUG);
+        logger.debug((Supplier<?>) counted);
+        logger.setBaseLevel(LogLevel.ERROR);
+        logger.warn((Supplier<?>) counted);
+
+        assertEquals(1, counted.supplies);
+        assertEquals(List.of("counted\n"), output.messages);
+    }
+}
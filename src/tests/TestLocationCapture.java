@@ -0,0 +1,149 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.Test;
+
+import logging.LogLevel;
+import logging.LogRecord;
+import logging.Logger;
+import logging.format.Formatter;
+import logging.output.Output;
+
+public class TestLocationCapture {
+    /**
+     * Formatter that keeps the records it formats.
+     */
+    private static final class RecordingFormatter extends Formatter {
+        final List<LogRecord> records = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String format(LogRecord record) {
+            records.add(record);
+            return super.format(record);
+        }
+
+        RecordingFormatter(String template) {
+            super(template, "HH:mm", '\n');
+        }
+    }
+
+    /**
+     * Output that keeps the records it is sent, and says whether it uses their location.
+     */
+    private static final class RecordOutput extends Output {
+        final List<LogRecord> records = new CopyOnWriteArrayList<>();
+        private final boolean usesLocation;
+
+        @Override
+        public boolean send(String message) {
+            return false;
+        }
+
+        @Override
+        public boolean send(LogRecord record) {
+            records.add(record);
+            return true;
+        }
+
+        @Override
+        public boolean encodesRecords() {
+            return true;
+        }
+
+        @Override
+        public boolean usesLocation() {
+            return usesLocation;
+        }
+
+        RecordOutput(boolean usesLocation) {
+            super(null);
+            this.usesLocation = usesLocation;
+        }
+    }
+
+    @Test
+    public void testCapturedWhenUsed() {
+        RecordingFormatter formatter = new RecordingFormatter("{message} {line}");
+        Logger logger = new Logger("tests.location", LogLevel.INFO);
+        logger.addOutput(new ListOutput(formatter));
+
+        int line = new Throwable().getStackTrace()[0].getLineNumber() + 1;
+        logger.info("here");
+
+        LogRecord record = formatter.records.get(0);
+        assertEquals(TestLocationCapture.class.getName(), record.stackFrame().getClassName());
+        assertEquals("testCapturedWhenUsed", record.stackFrame().getMethodName());
+        assertEquals(line, record.lineNumber());
+        assertEquals("TestLocationCapture.java", record.filename());
+    }
+
+    @Test
+    public void testNotCapturedWhenUnused() {
+        RecordingFormatter formatter = new RecordingFormatter("{message}");
+        Logger logger = new Logger("tests.location", LogLevel.INFO);
+        logger.addOutput(new ListOutput(formatter));
+        logger.info("here");
+
+        assertNull(formatter.records.get(0).stackFrame());
+        assertEquals(-1, formatter.records.get(0).lineNumber());
+    }
+
+    @Test
+    public void testCapturedForAnyTemplate() {
+        ListOutput withLine = new ListOutput(new Formatter("{message} {line}", "HH:mm", '\n'));
+        RecordingFormatter formatter = new RecordingFormatter("{message}");
+        Logger logger = new Logger("tests.location", LogLevel.INFO);
+        logger.addOutput(withLine);
+        logger.addOutput(new ListOutput(formatter));
+
+        int line = new Throwable().getStackTrace()[0].getLineNumber() + 1;
+        logger.info("here");
+        assertEquals(List.of("here " + line + "\n"), withLine.messages);
+        assertEquals(line, formatter.records.get(0).lineNumber());
+
+        // Once no template uses it, the location isn't looked for anymore
+        logger.removeOutput(withLine);
+        logger.info("there");
+        assertNull(formatter.records.get(1).stackFrame());
+    }
+
+    @Test
+    public void testCapturedForRecordOutputs() {
+        RecordOutput output = new RecordOutput(true);
+        Logger logger = new Logger("tests.location", LogLevel.INFO);
+        logger.addOutput(output);
+
+        int line = new Throwable().getStackTrace()[0].getLineNumber() + 1;
+        logger.info("here");
+        assertEquals(line, output.records.get(0).lineNumber());
+
+        // An Output that encodes records itself and doesn't use the location doesn't get it
+        RecordOutput without = new RecordOutput(false);
+        logger.removeOutput(output);
+        logger.addOutput(without);
+        logger.info("there");
+        assertNull(without.records.get(0).stackFrame());
+    }
+
+    @Test
+    public void testCaptureDisabled() {
+        RecordingFormatter formatter = new RecordingFormatter("{message} {line}");
+        ListOutput output = new ListOutput(formatter);
+        Logger logger = new Logger("tests.location", LogLevel.INFO);
+        logger.addOutput(output);
+
+        logger.disableLocationCapture();
+        logger.info("here");
+        assertNull(formatter.records.get(0).stackFrame());
+        assertEquals(List.of("here -1\n"), output.messages);
+
+        logger.enableLocationCapture();
+        logger.info("there");
+        assertEquals(TestLocationCapture.class.getName(), formatter.records.get(1).stackFrame().getClassName());
+    }
+}
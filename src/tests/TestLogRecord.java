@@ -0,0 +1,102 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URL;
+
+import org.junit.jupiter.api.Test;
+
+import logging.LogLevel;
+import logging.LogRecord;
+
+public class TestLogRecord {
+    // Entries the path cache keeps per ClassLoader
+    private static final int MAX_CACHED_PATHS = 4096;
+
+    /**
+     * ClassLoader that finds every class under /classes and counts the lookups.
+     */
+    private static final class CountingLoader extends ClassLoader {
+        private int lookups;
+
+        @Override
+        public URL getResource(String name) {
+            lookups++;
+            try {
+                return URI.create("file:/classes/" + name).toURL();
+            } catch (MalformedURLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        CountingLoader() {
+            super(null);
+        }
+    }
+
+    private static String filepath(CountingLoader loader, String className) {
+        LogRecord record = new LogRecord(
+            "message", LogLevel.INFO, "test", 0L, new StackTraceElement(className, "run", "Example.java", 1)
+        );
+
+        Thread thread = Thread.currentThread();
+        ClassLoader previous = thread.getContextClassLoader();
+        thread.setContextClassLoader(loader);
+        try {
+            return record.filepath();
+        } finally {
+            thread.setContextClassLoader(previous);
+        }
+    }
+
+    @Test
+    public void testFilepathIsCached() {
+        CountingLoader loader = new CountingLoader();
+        assertEquals("/classes/app/Example.class", filepath(loader, "app.Example"));
+        assertEquals("/classes/app/Example.class", filepath(loader, "app.Example"));
+        assertEquals(1, loader.lookups);
+
+        // Each ClassLoader has its own paths
+        CountingLoader other = new CountingLoader();
+        filepath(other, "app.Example");
+        assertEquals(1, other.lookups);
+    }
+
+    @Test
+    public void testPathCacheIsBounded() {
+        CountingLoader loader = new CountingLoader();
+        int classes = MAX_CACHED_PATHS + 500;
+        for (int i = 0; i < classes; i++) {
+            filepath(loader, "app.Class" + i);
+        }
+        assertEquals(classes, loader.lookups);
+
+        // Only MAX_CACHED_PATHS can still be cached, the rest were evicted and are looked up again
+        loader.lookups = 0;
+        for (int i = 0; i < classes; i++) {
+            assertEquals("/classes/app/Class" + i + ".class", filepath(loader, "app.Class" + i));
+        }
+        assertTrue(loader.lookups >= classes - MAX_CACHED_PATHS, "lookups: " + loader.lookups);
+    }
+
+    @Test
+    public void testEquality() {
+        StackTraceElement frame = new StackTraceElement("app.Example", "run", "Example.java", 1);
+        LogRecord plain = new LogRecord("user bob logged in", LogLevel.INFO, "app", 1000L, frame);
+        LogRecord parameterized = new LogRecord("user {} logged in", new Object[] {"bob"}, LogLevel.INFO, "app", 1000L, frame);
+
+        // Compared by substituted message
+        assertEquals(plain, parameterized);
+        assertEquals(plain.hashCode(), parameterized.hashCode());
+
+        assertNotEquals(plain, new LogRecord("user bob logged in", LogLevel.WARN, "app", 1000L, frame));
+        assertNotEquals(plain, new LogRecord("user bob logged in", LogLevel.INFO, "other", 1000L, frame));
+        assertNotEquals(plain, new LogRecord("user bob logged in", LogLevel.INFO, "app", 1001L, frame));
+        assertNotEquals(plain, new LogRecord("user bob logged in", LogLevel.INFO, "app", 1000L, null));
+        assertNotEquals(plain, new LogRecord("user {} logged in", new Object[] {"amy"}, LogLevel.INFO, "app", 1000L, frame));
+    }
+}
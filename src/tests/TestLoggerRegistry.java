@@ -0,0 +1,61 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import logging.LogLevel;
+import logging.Logger;
+import logging.LoggerRegistry;
+
+public class TestLoggerRegistry {
+    @Test
+    public void testSharedAndHierarchical() {
+        LoggerRegistry registry = new LoggerRegistry(LogLevel.INFO, new ListOutput(null));
+        Logger child = registry.getLogger("app.db");
+
+        assertSame(child, registry.getLogger("app.db"));
+        assertTrue(registry.contains("app"));
+        assertEquals("app.db", child.getName());
+    }
+
+    @Test
+    public void testInheritedLevel() {
+        LoggerRegistry registry = new LoggerRegistry(LogLevel.INFO, new ListOutput(null));
+        Logger parent = registry.getLogger("app");
+        Logger child = registry.getLogger("app.db");
+
+        assertEquals(LogLevel.INFO, child.getBaseLevel());
+        parent.setBaseLevel(LogLevel.ERROR);
+        assertEquals(LogLevel.ERROR, child.getBaseLevel());
+        assertFalse(child.isEnabled(LogLevel.WARN));
+
+        // An explicit level wins until it is cleared again
+        child.setBaseLevel(LogLevel.DEBUG);
+        parent.setBaseLevel(LogLevel.FATAL);
+        assertEquals(LogLevel.DEBUG, child.getBaseLevel());
+        child.setBaseLevel(null);
+        assertEquals(LogLevel.FATAL, child.getBaseLevel());
+    }
+
+    @Test
+    public void testAdditiveOutputs() {
+        ListOutput rootOutput = new ListOutput(null);
+        ListOutput childOutput = new ListOutput(null);
+        LoggerRegistry registry = new LoggerRegistry(LogLevel.INFO, rootOutput);
+        Logger child = registry.getLogger("app.db");
+        child.addOutput(childOutput);
+
+        child.info("both");
+        assertEquals(1, rootOutput.messages.size());
+        assertEquals(1, childOutput.messages.size());
+
+        child.setAdditive(false);
+        child.info("child only");
+        assertEquals(1, rootOutput.messages.size());
+        assertEquals(2, childOutput.messages.size());
+    }
+}
@@ -0,0 +1,96 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import logging.LogLevel;
+import logging.Logger;
+import logging.format.Formatter;
+import logging.format.TextEncoder;
+import logging.output.MappedFileOutput;
+
+public class TestMappedFileOutput {
+    private static final Formatter MESSAGE_ONLY = new Formatter("{message}", "HH:mm", '\n');
+
+    @TempDir
+    Path dir;
+
+    private static void log(MappedFileOutput output, String... messages) {
+        Logger logger = new Logger("tests.mapped", LogLevel.INFO);
+        logger.addOutput(output);
+        for (String message : messages) {
+            logger.info(message);
+        }
+    }
+
+    @Test
+    public void testAppend() throws IOException {
+        Path file = dir.resolve("app.log");
+        MappedFileOutput output = new MappedFileOutput(file.toString(), MESSAGE_ONLY, 4096);
+        log(output, "first", "second", "third");
+        assertEquals(19, output.getLength());
+        output.close();
+
+        assertEquals("first\nsecond\nthird\n", Files.readString(file));
+    }
+
+    @Test
+    public void testChunkRemapping() throws IOException {
+        Path file = dir.resolve("app.log");
+        MappedFileOutput output = new MappedFileOutput(file.toString(), MESSAGE_ONLY, 16);
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            // Records both smaller and larger than a chunk
+            String message = "message " + i + "-".repeat(i * 3);
+            log(output, message);
+            expected.append(message).append('\n');
+        }
+        output.close();
+
+        assertEquals(expected.toString(), Files.readString(file));
+    }
+
+    @Test
+    public void testChunkRemappingWithEncoder() throws IOException {
+        Path file = dir.resolve("app.log");
+        MappedFileOutput output = new MappedFileOutput(file.toString(), MESSAGE_ONLY, 16);
+        output.setEncoder(new TextEncoder(MESSAGE_ONLY));
+        log(output, "short", "a record longer than one whole chunk", "end");
+        output.close();
+
+        assertEquals("short\na record longer than one whole chunk\nend\n", Files.readString(file));
+    }
+
+    @Test
+    public void testTruncatedToLengthWritten() throws IOException {
+        Path file = dir.resolve("app.log");
+        MappedFileOutput output = new MappedFileOutput(file.toString(), MESSAGE_ONLY, 4096);
+        log(output, "first", "second");
+        // The file grows by a whole chunk ahead of what has been written
+        assertEquals(4096, Files.size(file));
+        output.close();
+
+        assertEquals(13, Files.size(file));
+        assertEquals(13, output.getLength());
+        assertFalse(output.send("after close"));
+    }
+
+    @Test
+    public void testUnusedFileStaysEmpty() throws IOException {
+        Path file = dir.resolve("app.log");
+        Files.writeString(file, "previous run\n");
+        MappedFileOutput output = new MappedFileOutput(file.toString(), MESSAGE_ONLY, 4096);
+        assertEquals(0, Files.size(file));
+        output.close();
+
+        assertEquals(0, Files.size(file));
+        assertEquals(0, output.getLength());
+    }
+}
@@ -0,0 +1,156 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+import org.junit.jupiter.api.Test;
+
+import logging.LogLevel;
+import logging.Logger;
+import logging.filter.IntervalLimiter;
+import logging.format.Formatter;
+import logging.format.TextEncoder;
+import logging.metrics.LoggerMetrics;
+import logging.metrics.OutputMetrics;
+import logging.output.Output;
+
+public class TestMetrics {
+    private static final class FailingOutput extends Output {
+        private int sends;
+
+        public boolean send(String message) {
+            return ++sends < 2;
+        }
+
+        private FailingOutput() {
+            super(null);
+        }
+    }
+
+    @Test
+    public void testCounts() {
+        FailingOutput output = new FailingOutput();
+        Logger logger = new Logger("tests.metrics.counts", LogLevel.INFO);
+        logger.addOutput(output);
+        LoggerMetrics metrics = logger.enableMetrics();
+        OutputMetrics outputMetrics = output.enableMetrics("tests.metrics.counts");
+
+        logger.debug("filtered");
+        logger.info("sent");
+        logger.warn("fails and disables the output");
+        logger.atDebug().log("filtered too");
+        logger.info("skipped");
+
+        LoggerMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(2, snapshot.getFiltered().get("DEBUG"));
+        // The ERROR about the disabled output is logged through the same Logger
+        assertEquals(1, snapshot.getAccepted().get("WARN"));
+        assertEquals(4, snapshot.getAcceptedTotal());
+        assertEquals(2, snapshot.getSendTime().getCount());
+        assertEquals(1, snapshot.getFailures());
+        // The ERROR and the last INFO weren't sent to the disabled output
+        assertEquals(2, snapshot.getSkippedSends());
+        assertTrue(snapshot.getCharsWritten() > 0);
+        assertEquals(0, snapshot.getBytesWritten());
+
+        assertEquals(2, outputMetrics.getRecords());
+        assertEquals(1, outputMetrics.getFailures());
+        assertEquals(2, outputMetrics.getSkippedSends());
+        assertFalse(output.isEnabled());
+
+        logger.disableMetrics();
+        output.disableMetrics();
+        assertNull(logger.getMetrics());
+    }
+
+    @Test
+    public void testLimitedAndRepeatedLogsArentAccepted() {
+        Logger logger = new Logger("tests.metrics.dropped", LogLevel.INFO);
+        logger.addOutput(new ListOutput(null));
+        LoggerMetrics metrics = logger.enableMetrics();
+
+        logger.setLimiter(new IntervalLimiter(1, 60_000));
+        for (int i = 0; i < 3; i++) {
+            logger.info("limited");
+        }
+        logger.setLimiter(null);
+        logger.enableDeduplication(60_000);
+        for (int i = 0; i < 3; i++) {
+            logger.info("repeated");
+        }
+
+        LoggerMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(2, snapshot.getAcceptedTotal());
+        assertEquals(2, snapshot.getRateLimited());
+        assertEquals(2, snapshot.getDeduplicated());
+        assertEquals(0, snapshot.getFilteredTotal());
+        logger.disableMetrics();
+    }
+
+    @Test
+    public void testBytesAndChars() {
+        Formatter formatter = new Formatter("{message}", "HH:mm", '\n');
+        ListOutput text = new ListOutput(formatter);
+        ListOutput encoded = new ListOutput(formatter);
+        encoded.setEncoder(new TextEncoder(formatter));
+        Logger logger = new Logger("tests.metrics.sizes", LogLevel.INFO);
+        logger.addOutput(text);
+        logger.addOutput(encoded);
+        LoggerMetrics metrics = logger.enableMetrics();
+
+        // 4 chars, but 6 bytes in UTF-8
+        logger.info("h\u00e9\u00e9");
+        assertEquals(4, metrics.getCharsWritten());
+        assertEquals(6, metrics.getBytesWritten());
+        logger.disableMetrics();
+    }
+
+    @Test
+    public void testJmxNameTaken() throws Exception {
+        Logger first = new Logger("tests.metrics.twice", LogLevel.INFO);
+        Logger second = new Logger("tests.metrics.twice", LogLevel.INFO);
+        LoggerMetrics firstMetrics = first.enableMetrics();
+        LoggerMetrics secondMetrics = second.enableMetrics();
+        first.info("one");
+
+        // The second Logger doesn't take over the first one's bean
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("logging:type=Logger,name=" + ObjectName.quote("tests.metrics.twice"));
+        ObjectName suffixed = new ObjectName("logging:type=Logger,name=" + ObjectName.quote("tests.metrics.twice#2"));
+        assertEquals(name, firstMetrics.getObjectName());
+        assertEquals(suffixed, secondMetrics.getObjectName());
+        assertEquals(1L, server.getAttribute(name, "AcceptedTotal"));
+        assertEquals(0L, server.getAttribute(suffixed, "AcceptedTotal"));
+
+        second.disableMetrics();
+        assertTrue(server.isRegistered(name));
+        assertFalse(server.isRegistered(suffixed));
+        first.disableMetrics();
+        assertFalse(server.isRegistered(name));
+    }
+
+    @Test
+    public void testJmx() throws Exception {
+        Logger logger = new Logger("tests.metrics.jmx", LogLevel.INFO);
+        logger.enableMetrics();
+        logger.info("one");
+        logger.info("two");
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("logging:type=Logger,name=" + ObjectName.quote("tests.metrics.jmx"));
+        assertEquals(2L, server.getAttribute(name, "AcceptedTotal"));
+        CompositeData formatTime = (CompositeData) server.getAttribute(name, "FormatTime");
+        assertEquals(0L, formatTime.get("count"));
+
+        logger.disableMetrics();
+        assertFalse(server.isRegistered(name));
+    }
+}
@@ -0,0 +1,134 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import logging.async.RingBuffer;
+import logging.async.WaitStrategy;
+
+public class TestRingBuffer {
+    private static final class Entry {
+        private long value;
+    }
+
+    @Test
+    public void testCapacity() {
+        assertEquals(1, new RingBuffer<>(1, Entry::new, WaitStrategy.BUSY_SPIN).getCapacity());
+        assertEquals(8, new RingBuffer<>(8, Entry::new, WaitStrategy.BUSY_SPIN).getCapacity());
+        assertEquals(16, new RingBuffer<>(9, Entry::new, WaitStrategy.BUSY_SPIN).getCapacity());
+        assertThrows(IllegalArgumentException.class, () -> new RingBuffer<>(0, Entry::new, WaitStrategy.BUSY_SPIN));
+    }
+
+    @Test
+    public void testPollInOrder() {
+        RingBuffer<Entry> ring = new RingBuffer<>(4, Entry::new, WaitStrategy.BUSY_SPIN);
+        ArrayList<Long> got = new ArrayList<>();
+
+        // Go around the buffer a few times to make sure wrapping works
+        for (long i = 0; i < 10; i++) {
+            long sequence = ring.next();
+            ring.get(sequence).value = i;
+            ring.publish(sequence);
+
+            if (i % 2 == 1) {
+                ring.poll(entry -> got.add(entry.value));
+            }
+        }
+
+        assertEquals(10, got.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i, got.get(i));
+        }
+        assertFalse(ring.hasPending());
+        assertEquals(4, ring.remainingCapacity());
+    }
+
+    @Test
+    public void testTryNextWhenFull() {
+        RingBuffer<Entry> ring = new RingBuffer<>(2, Entry::new, WaitStrategy.BUSY_SPIN);
+        ring.publish(ring.tryNext());
+        ring.publish(ring.tryNext());
+        assertEquals(-1, ring.tryNext());
+        assertEquals(0, ring.remainingCapacity());
+
+        ring.poll(entry -> {});
+        assertEquals(2, ring.tryNext());
+    }
+
+    @Test
+    public void testUnpublishedSlotBlocksPoll() {
+        RingBuffer<Entry> ring = new RingBuffer<>(4, Entry::new, WaitStrategy.BUSY_SPIN);
+        long first = ring.next();
+        long second = ring.next();
+        ring.publish(second);
+
+        // second can't be consumed before first is published
+        assertEquals(0, ring.poll(entry -> {}));
+        ring.publish(first);
+        assertEquals(2, ring.poll(entry -> {}));
+    }
+
+    @Test
+    public void testMultipleProducers() throws InterruptedException {
+        produceAndConsume(WaitStrategy.YIELDING);
+    }
+
+    @Test
+    public void testBlockingConsumerIsWoken() {
+        // The consumer waits without a timeout, a missed signal would hang it
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () -> produceAndConsume(WaitStrategy.BLOCKING));
+    }
+
+    @Test
+    public void testWakeUpBeforeIdle() {
+        RingBuffer<Entry> ring = new RingBuffer<>(4, Entry::new, WaitStrategy.BLOCKING);
+
+        // A wake up that comes before the consumer blocks isn't lost
+        ring.wakeUp();
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> ring.idle(0));
+    }
+
+    private static void produceAndConsume(WaitStrategy waitStrategy) throws InterruptedException {
+        final int producers = 4;
+        final int perProducer = 10_000;
+        RingBuffer<Entry> ring = new RingBuffer<>(64, Entry::new, waitStrategy);
+        AtomicLong sum = new AtomicLong();
+        AtomicLong count = new AtomicLong();
+
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            threads[p] = new Thread(() -> {
+                for (int i = 1; i <= perProducer; i++) {
+                    long sequence = ring.next();
+                    ring.get(sequence).value = i;
+                    ring.publish(sequence);
+                }
+            });
+            threads[p].start();
+        }
+
+        long expected = (long) producers * perProducer;
+        int idle = 0;
+        while (count.get() < expected) {
+            int handled = ring.poll(entry -> {
+                sum.addAndGet(entry.value);
+                count.incrementAndGet();
+            });
+            idle = handled > 0 ? 0 : ring.idle(idle);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(expected, count.get());
+        assertEquals(producers * ((long) perProducer * (perProducer + 1) / 2), sum.get());
+    }
+}
@@ -0,0 +1,211 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import logging.LogLevel;
+import logging.Logger;
+import logging.format.Formatter;
+import logging.output.FlushPolicy;
+import logging.output.RollingFileOutput;
+import logging.output.RollingPolicy;
+import logging.output.RolloverInterval;
+
+public class TestRollingFileOutput {
+    // Every record is written out as it is sent, so each one is checked against the size limit
+    private static final FlushPolicy UNBUFFERED = new FlushPolicy(16, 0, LogLevel.DEBUG);
+    private static final Formatter MESSAGE_ONLY = new Formatter("{message}", "HH:mm", '\n');
+
+    @TempDir
+    Path dir;
+
+    private RollingFileOutput output(String name, RollingPolicy policy, boolean append) throws IOException {
+        return new RollingFileOutput(dir.resolve(name).toString(), MESSAGE_ONLY, policy, UNBUFFERED, append);
+    }
+
+    private static void log(RollingFileOutput output, String... messages) {
+        Logger logger = new Logger("tests.rolling", LogLevel.INFO);
+        logger.addOutput(output);
+        for (String message : messages) {
+            logger.info(message);
+        }
+    }
+
+    private List<String> files() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(file -> file.getFileName().toString()).sorted().toList();
+        }
+    }
+
+    private static String today() {
+        return LocalDate.now().toString();
+    }
+
+    /**
+     * Wait for the compressor thread to produce a file.
+     */
+    private static void awaitFile(Path file) throws InterruptedException {
+        for (int wait = 0; wait < 250 && !Files.exists(file); wait++) {
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    public void testSizeRotation() throws IOException {
+        RollingFileOutput output = output("app.log", new RollingPolicy(10, RolloverInterval.NONE, 0, 0, false), true);
+        log(output, "first1", "second", "third3");
+        output.close();
+
+        String label = today();
+        assertEquals(List.of("app.log", "app.log." + label + ".1", "app.log." + label + ".2"), files());
+        assertEquals("first1\n", Files.readString(dir.resolve("app.log." + label + ".1")));
+        assertEquals("second\n", Files.readString(dir.resolve("app.log." + label + ".2")));
+        assertEquals("third3\n", Files.readString(dir.resolve("app.log")));
+    }
+
+    @Test
+    public void testIndexContinuesAfterRestart() throws IOException {
+        RollingPolicy policy = new RollingPolicy(10, RolloverInterval.NONE, 0, 0, false);
+        RollingFileOutput output = output("app.log", policy, true);
+        log(output, "first1", "second");
+        output.close();
+
+        output = output("app.log", policy, true);
+        log(output, "third3");
+        output.close();
+
+        String label = today();
+        assertEquals(List.of("app.log", "app.log." + label + ".1", "app.log." + label + ".2"), files());
+        assertEquals("second\n", Files.readString(dir.resolve("app.log." + label + ".2")));
+    }
+
+    @Test
+    public void testRolloverByRecordTime() throws IOException {
+        // Buffered, so nothing is written until the Output is closed
+        FlushPolicy buffered = new FlushPolicy(4096, 0, null);
+        RollingPolicy policy = new RollingPolicy(0, RolloverInterval.DAILY, 0, 0, false);
+        RollingFileOutput output = new RollingFileOutput(dir.resolve("app.log").toString(), MESSAGE_ONLY, policy, buffered, true);
+
+        LocalDate today = LocalDate.now();
+        long[] now = {System.currentTimeMillis()};
+        Logger logger = new Logger("tests.rolling", LogLevel.INFO);
+        logger.setClock(() -> now[0]);
+        logger.addOutput(output);
+
+        logger.info("today");
+        // Records from the next day go to a new file, even though nothing was written yet
+        now[0] = today.plusDays(1).atTime(1, 0).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        logger.info("tomorrow");
+        output.close();
+
+        assertEquals(List.of("app.log", "app.log." + today + ".1"), files());
+        assertEquals("today\n", Files.readString(dir.resolve("app.log." + today + ".1")));
+        assertEquals("tomorrow\n", Files.readString(dir.resolve("app.log")));
+    }
+
+    @Test
+    public void testAppendMode() throws IOException {
+        RollingPolicy policy = new RollingPolicy(0, RolloverInterval.NONE, 0, 0, false);
+        Files.writeString(dir.resolve("kept.log"), "old\n");
+        Files.writeString(dir.resolve("truncated.log"), "old\n");
+
+        RollingFileOutput appended = output("kept.log", policy, true);
+        log(appended, "new");
+        appended.close();
+        RollingFileOutput truncated = output("truncated.log", policy, false);
+        log(truncated, "new");
+        truncated.close();
+
+        assertEquals("old\nnew\n", Files.readString(dir.resolve("kept.log")));
+        assertEquals("new\n", Files.readString(dir.resolve("truncated.log")));
+    }
+
+    @Test
+    public void testPruneOnlyTouchesRolledFiles() throws IOException, InterruptedException {
+        for (int day = 1; day <= 3; day++) {
+            Files.writeString(dir.resolve("app.log.2020-01-0" + day + ".1"), "old\n");
+        }
+        List<String> unrelated = List.of("app.log.bak", "app.log.lock", "app.log.json", "app.log.json.2020-01-01.1");
+        for (String name : unrelated) {
+            Files.writeString(dir.resolve(name), "keep\n");
+        }
+
+        RollingFileOutput output = output("app.log", new RollingPolicy(10, RolloverInterval.NONE, 2, 0, false), true);
+        log(output, "first1", "second");
+        output.close();
+
+        // The newest two rolled over files are kept, the older ones are pruned (newest first)
+        Path pruned = dir.resolve("app.log.2020-01-01.1");
+        for (int wait = 0; wait < 250 && Files.exists(pruned); wait++) {
+            Thread.sleep(20);
+        }
+        assertFalse(Files.exists(pruned));
+        assertFalse(Files.exists(dir.resolve("app.log.2020-01-02.1")));
+        assertTrue(Files.exists(dir.resolve("app.log.2020-01-03.1")));
+        assertTrue(Files.exists(dir.resolve("app.log." + today() + ".1")));
+        for (String name : unrelated) {
+            assertTrue(Files.exists(dir.resolve(name)), name);
+        }
+    }
+
+    @Test
+    public void testSpecialCharactersInName() throws IOException {
+        RollingFileOutput output = output("app[1]{x}*.log", new RollingPolicy(10, RolloverInterval.NONE, 0, 0, false), true);
+        log(output, "first1", "second", "third3");
+        output.close();
+
+        String label = today();
+        assertEquals(List.of("app[1]{x}*.log", "app[1]{x}*.log." + label + ".1", "app[1]{x}*.log." + label + ".2"), files());
+    }
+
+    @Test
+    public void testGzip() throws IOException, InterruptedException {
+        RollingFileOutput output = output("app.log", new RollingPolicy(10, RolloverInterval.NONE, 0, 0, true), true);
+        log(output, "first1", "second");
+        output.close();
+
+        Path archive = dir.resolve("app.log." + today() + ".1.gz");
+        Path rolled = dir.resolve("app.log." + today() + ".1");
+        awaitFile(archive);
+        // The original is deleted right after the archive is in place
+        for (int wait = 0; wait < 250 && Files.exists(rolled); wait++) {
+            Thread.sleep(20);
+        }
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(archive))) {
+            assertEquals("first1\n", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        assertFalse(Files.exists(rolled));
+    }
+
+    @Test
+    public void testInterruptedCompressionIsRecovered() throws IOException, InterruptedException {
+        // Left behind by a JVM that exited while compressing
+        Files.writeString(dir.resolve("app.log.2020-01-01.1"), "rolled\n");
+        Files.writeString(dir.resolve("app.log.2020-01-01.1.gz.tmp"), "partial");
+
+        RollingFileOutput output = output("app.log", new RollingPolicy(0, RolloverInterval.NONE, 0, 0, true), true);
+        Path archive = dir.resolve("app.log.2020-01-01.1.gz");
+        awaitFile(archive);
+        output.close();
+
+        assertFalse(Files.exists(dir.resolve("app.log.2020-01-01.1.gz.tmp")));
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(archive))) {
+            assertEquals("rolled\n", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import logging.LogLevel;
+import logging.Logger;
+import logging.filter.IntervalLimiter;
+import logging.filter.SamplingLimiter;
+import logging.filter.SiteLimiter;
+import logging.filter.TokenBucketLimiter;
+import logging.format.Formatter;
+
+public class TestSiteLimiter {
+    private final long[] now = {1_700_000_000_000L};
+    private final ListOutput output = new ListOutput(new Formatter("{message}", "HH:mm", '\n'));
+
+    private Logger logger() {
+        Logger logger = new Logger("tests.limiter", LogLevel.INFO);
+        logger.addOutput(output);
+        logger.setClock(() -> now[0]);
+        return logger;
+    }
+
+    @Test
+    public void testIntervalLimiter() {
+        Logger logger = logger();
+        logger.setLimiter(new IntervalLimiter(2, 1000));
+
+        for (int i = 0; i < 6; i++) {
+            if (i == 5) {
+                // Another call site has its own limit
+                logger.warn("cold");
+                now[0] += 1000;
+            }
+            logger.warn("hot {}", i);
+        }
+
+        assertEquals("hot 0\n", output.messages.get(0));
+        assertEquals("hot 1\n", output.messages.get(1));
+        assertEquals("cold\n", output.messages.get(2));
+        assertTrue(output.messages.get(3).startsWith("Suppressed 3 messages from tests.TestSiteLimiter.testIntervalLimiter"));
+        assertEquals("hot 5\n", output.messages.get(4));
+        assertEquals(5, output.messages.size());
+    }
+
+    @Test
+    public void testTokenBucketLimiter() {
+        Logger logger = logger();
+        logger.setLimiter(new TokenBucketLimiter(1, 2));
+
+        for (int i = 0; i < 6; i++) {
+            logger.error("burst {}", i);
+            if (i == 4) {
+                now[0] += 1000;
+            }
+        }
+
+        assertEquals("burst 0\n", output.messages.get(0));
+        assertEquals("burst 1\n", output.messages.get(1));
+        assertTrue(output.messages.get(2).startsWith("Suppressed 3 messages"));
+        assertEquals("burst 5\n", output.messages.get(3));
+        assertEquals(4, output.messages.size());
+    }
+
+    @Test
+    public void testSamplingLimiter() {
+        Logger logger = logger();
+        logger.setLimiter(new SamplingLimiter(3, 0));
+
+        for (int i = 0; i < 7; i++) {
+            logger.info("sample {}", i);
+        }
+
+        assertEquals("sample 0\n", output.messages.get(0));
+        assertTrue(output.messages.get(1).startsWith("Suppressed 2 messages"));
+        assertEquals("sample 3\n", output.messages.get(2));
+        assertTrue(output.messages.get(3).startsWith("Suppressed 2 messages"));
+        assertEquals("sample 6\n", output.messages.get(4));
+    }
+
+    @Test
+    public void testQuietSiteIsSummarized() throws InterruptedException {
+        Logger logger = logger();
+        logger.setLimiter(new IntervalLimiter(1, 50));
+
+        // The storm ends without another log from the site, the timer reports it
+        for (int i = 0; i < 4; i++) {
+            logger.warn("storm {}", i);
+        }
+        for (int wait = 0; wait < 100 && output.messages.size() < 2; wait++) {
+            Thread.sleep(20);
+        }
+
+        assertEquals("storm 0\n", output.messages.get(0));
+        assertTrue(output.messages.get(1).startsWith("Suppressed 3 messages from tests.TestSiteLimiter.testQuietSiteIsSummarized"));
+        assertEquals(2, output.messages.size());
+    }
+
+    @Test
+    public void testIdleSitesAreEvicted() {
+        IntervalLimiter limiter = new IntervalLimiter(1, 60_000);
+        SiteLimiter.Reporter reporter = (site, level, suppressed) -> { };
+
+        for (int i = 0; i < SiteLimiter.MAX_SITES; i++) {
+            StackTraceElement site = new StackTraceElement("tests.Generated", "run", "Generated.java", i);
+            limiter.admit(site, LogLevel.INFO, now[0] + i, reporter);
+        }
+        StackTraceElement fresh = new StackTraceElement("tests.Fresh", "run", "Fresh.java", 1);
+        long later = now[0] + SiteLimiter.MAX_SITES;
+
+        // Still limited once the table is full, the oldest sites make room
+        assertEquals(0, limiter.admit(fresh, LogLevel.INFO, later, reporter));
+        assertEquals(SiteLimiter.DROP, limiter.admit(fresh, LogLevel.INFO, later, reporter));
+        assertTrue(limiter.getSiteCount() < SiteLimiter.MAX_SITES);
+    }
+}
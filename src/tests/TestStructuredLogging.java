@@ -0,0 +1,145 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import logging.LogBuilder;
+import logging.LogLevel;
+import logging.Logger;
+import logging.LoggerRegistry;
+import logging.format.Formatter;
+import logging.format.JsonEncoder;
+
+public class TestStructuredLogging {
+    @Test
+    public void testFieldsInTemplate() {
+        ListOutput output = new ListOutput(new Formatter("{level} {message} {fields}", "HH:mm", '\n'));
+        Logger logger = new LoggerRegistry(LogLevel.INFO, output).getLogger("app");
+
+        logger.atInfo().with("user", "bob").with("attempt", 3).log("Login {}", "failed");
+        logger.atWarn().log("No fields");
+
+        assertEquals("INFO Login failed user=bob attempt=3\n", output.messages.get(0));
+        assertEquals("WARN No fields \n", output.messages.get(1));
+    }
+
+    @Test
+    public void testDisabledLevel() {
+        ListOutput output = new ListOutput(null);
+        Logger logger = new LoggerRegistry(LogLevel.INFO, output).getLogger("app");
+
+        assertSame(logger.atDebug(), logger.atLevel(LogLevel.DEBUG));
+        logger.atDebug().with("ignored", 1).log("dropped");
+        assertEquals(0, output.messages.size());
+    }
+
+    @Test
+    public void testJsonEncoder() {
+        ListOutput output = new ListOutput(null);
+        output.setEncoder(new JsonEncoder());
+        Logger logger = new LoggerRegistry(LogLevel.INFO, output).getLogger("app.db");
+
+        logger.atError()
+            .with("query", "say \"hi\"\n")
+            .with("rows", -42L)
+            .with("ratio", 0.5)
+            .with("cached", false)
+            .with("owner", null)
+            .with("name", "é 😀")
+            .log("Query {} failed", 7);
+
+        String json = output.messages.get(0);
+        String expected = ",\"level\":\"ERROR\",\"logger\":\"app.db\",\"message\":\"Query 7 failed\""
+            + ",\"query\":\"say \\\"hi\\\"\\n\",\"rows\":-42,\"ratio\":0.5,\"cached\":false,\"owner\":null"
+            + ",\"name\":\"é 😀\"}\n";
+        assertEquals(expected, json.substring(json.indexOf(',')));
+        assertEquals("{\"time\":", json.substring(0, 8));
+    }
+
+    @Test
+    public void testJsonLogFromValueToString() {
+        ListOutput output = new ListOutput(null);
+        output.setEncoder(new JsonEncoder());
+        Logger logger = new LoggerRegistry(LogLevel.INFO, output).getLogger("app");
+
+        Object value = new Object() {
+            @Override
+            public String toString() {
+                logger.info("computing toString");
+                return "VALUE";
+            }
+        };
+        logger.atInfo().with("key", value).log("value={}", value);
+
+        assertEquals(3, output.messages.size());
+        String json = output.messages.get(2);
+        assertEquals(",\"message\":\"value=VALUE\",\"key\":\"VALUE\"}\n", json.substring(json.indexOf(",\"message\"")));
+    }
+
+    @Test
+    public void testLocationIsCaller() {
+        ListOutput output = new ListOutput(new Formatter("{filename}:{line} {message}", "HH:mm", '\n'));
+        Logger logger = new LoggerRegistry(LogLevel.INFO, output).getLogger("app");
+
+        int line = new Throwable().getStackTrace()[0].getLineNumber() + 1;
+        logger.atInfo().with("user", "bob").log("located");
+
+        assertEquals("TestStructuredLogging.java:" + line + " located\n", output.messages.get(0));
+    }
+
+    @Test
+    public void testAbandonedBuilderIsReplaced() {
+        ListOutput output = new ListOutput(new Formatter("{message} {fields}", "HH:mm", '\n'));
+        Logger logger = new LoggerRegistry(LogLevel.INFO, output).getLogger("app");
+
+        assertThrows(IllegalStateException.class, () -> logger.atInfo().with("value", fail()).log("never"));
+        LogBuilder replacement = logger.atInfo();
+        replacement.with("ok", true).log("logged");
+
+        assertSame(replacement, logger.atInfo());
+        assertEquals(List.of("logged ok=true\n"), output.messages);
+    }
+
+    @Test
+    public void testJsonFieldsDontRepeatFixedKeys() {
+        ListOutput output = new ListOutput(null);
+        output.setEncoder(new JsonEncoder());
+        Logger logger = new LoggerRegistry(LogLevel.INFO, output).getLogger("app");
+
+        logger.atInfo().with("level", "high").with("message", "field").log("text");
+
+        String json = output.messages.get(0);
+        assertEquals(",\"message\":\"text\",\"_level\":\"high\",\"_message\":\"field\"}\n", json.substring(json.indexOf(",\"message\"")));
+    }
+
+    @Test
+    public void testJsonEscapedKeysDontCollide() {
+        ListOutput output = new ListOutput(null);
+        output.setEncoder(new JsonEncoder());
+        Logger logger = new LoggerRegistry(LogLevel.INFO, output).getLogger("app");
+
+        logger.atInfo().with("_level", "user").with("level", "clash").log("text");
+
+        String json = output.messages.get(0);
+        assertEquals(",\"message\":\"text\",\"__level\":\"user\",\"_level\":\"clash\"}\n", json.substring(json.indexOf(",\"message\"")));
+    }
+
+    @Test
+    public void testRepeatedKeyReplacesValue() {
+        ListOutput output = new ListOutput(new Formatter("{message} {fields}", "HH:mm", '\n'));
+        Logger logger = new LoggerRegistry(LogLevel.INFO, output).getLogger("app");
+
+        logger.atInfo().with("user", "bob").with("attempt", 1).with("user", "alice").log("{} {} {}", 1, 2, 3);
+
+        assertEquals("1 2 3 user=alice attempt=1\n", output.messages.get(0));
+    }
+
+    private static Object fail() {
+        throw new IllegalStateException("argument failed");
+    }
+}